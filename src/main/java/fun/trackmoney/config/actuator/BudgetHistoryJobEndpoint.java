@@ -0,0 +1,38 @@
+package fun.trackmoney.config.actuator;
+
+import fun.trackmoney.dto.budget.BudgetHistoryJobProgressDTO;
+import fun.trackmoney.service.BudgetHistoryJobRunner;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Exposes the progress, throughput and ETA of the budget history jobs at /actuator/budgethistoryjobs.
+ * Chunk errors and cluster-wide progress are for operators: it only answers on the management port.
+ */
+@Component
+@Endpoint(id = "budgethistoryjobs")
+public class BudgetHistoryJobEndpoint {
+
+  private final BudgetHistoryJobRunner budgetHistoryJobRunner;
+
+  public BudgetHistoryJobEndpoint(BudgetHistoryJobRunner budgetHistoryJobRunner) {
+    this.budgetHistoryJobRunner = budgetHistoryJobRunner;
+  }
+
+  @ReadOperation
+  public List<BudgetHistoryJobProgressDTO> recentJobs() {
+    return budgetHistoryJobRunner.getRecentJobs();
+  }
+
+  /**
+   * Returns one job, or null, which actuator answers with 404.
+   */
+  @ReadOperation
+  public BudgetHistoryJobProgressDTO job(@Selector Integer jobId) {
+    return budgetHistoryJobRunner.getJob(jobId).orElse(null);
+  }
+}
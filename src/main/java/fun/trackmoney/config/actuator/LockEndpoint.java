@@ -0,0 +1,29 @@
+package fun.trackmoney.config.actuator;
+
+import fun.trackmoney.dto.lock.LockHolderDTO;
+import fun.trackmoney.infra.redis.DistributedLockService;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Exposes which node holds each cluster lock, with its fencing token and remaining lease, at /actuator/locks.
+ * Node names (pid@host) and tokens are for operators: it only answers on the management port.
+ */
+@Component
+@Endpoint(id = "locks")
+public class LockEndpoint {
+
+  private final DistributedLockService distributedLockService;
+
+  public LockEndpoint(DistributedLockService distributedLockService) {
+    this.distributedLockService = distributedLockService;
+  }
+
+  @ReadOperation
+  public List<LockHolderDTO> holders() {
+    return distributedLockService.getHolders();
+  }
+}
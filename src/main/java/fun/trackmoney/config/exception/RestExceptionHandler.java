@@ -3,10 +3,13 @@ package fun.trackmoney.config.exception;
 import fun.trackmoney.exception.AccountNotFoundException;
 import fun.trackmoney.exception.BudgetsNotFoundException;
 import fun.trackmoney.exception.CategoryNotFoundException;
+import fun.trackmoney.exception.InvalidCursorException;
+import fun.trackmoney.exception.PasswordHashingBusyException;
 import fun.trackmoney.exception.TransactionNotFoundException;
 import fun.trackmoney.exception.UserNotFoundException;
 import fun.trackmoney.utils.CustomFieldError;
 import fun.trackmoney.utils.response.ApiResponse;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
@@ -124,4 +127,27 @@ public class RestExceptionHandler {
                 .build()
         );
   }
-}
\ No newline at end of file
+
+  @ExceptionHandler(InvalidCursorException.class)
+  public ResponseEntity<ApiResponse<List<CustomFieldError>>> invalidCursor(InvalidCursorException ex) {
+    return ResponseEntity.badRequest().body(
+        ApiResponse.<List<CustomFieldError>>failure()
+            .message(ex.getMessage())
+            .errors(ex.getErrors())
+            .build()
+    );
+  }
+
+  @ExceptionHandler(PasswordHashingBusyException.class)
+  public ResponseEntity<ApiResponse<List<CustomFieldError>>> passwordHashingBusy(PasswordHashingBusyException ex) {
+    return ResponseEntity
+        .status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body(
+            ApiResponse.<List<CustomFieldError>>failure()
+                .message(ex.getMessage())
+                .errors(ex.getErrors())
+                .build()
+        );
+  }
+}
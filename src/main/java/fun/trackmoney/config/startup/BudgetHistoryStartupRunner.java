@@ -1,29 +1,85 @@
 package fun.trackmoney.config.startup;
 
+import fun.trackmoney.dto.budget.BudgetHistoryJobProgressDTO;
 import fun.trackmoney.service.BudgetHistoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.boot.ApplicationArguments;
-import org.springframework.boot.ApplicationRunner;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Recovers missing budget history once the application accepts traffic. Recovery runs on the async executor,
+ * so neither startup nor readiness waits for it; it is skipped when the month already has a completed job,
+ * which is the case when another node got there first.
+ */
 @Component
-public class BudgetHistoryStartupRunner implements ApplicationRunner {
+public class BudgetHistoryStartupRunner {
 
   private static final Logger LOG = LoggerFactory.getLogger(BudgetHistoryStartupRunner.class);
+  private static final String RECOVERY_METER = "trackmoney.budget_history.recovery";
 
   private final BudgetHistoryService budgetHistoryService;
+  private final MeterRegistry meterRegistry;
+  private final boolean enabled;
+  private final AtomicBoolean started = new AtomicBoolean();
 
-  public BudgetHistoryStartupRunner(BudgetHistoryService budgetHistoryService) {
+  public BudgetHistoryStartupRunner(BudgetHistoryService budgetHistoryService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${trackmoney.budget-history.recovery-on-startup:true}") boolean enabled) {
     this.budgetHistoryService = budgetHistoryService;
+    this.meterRegistry = meterRegistry;
+    this.enabled = enabled;
+  }
+
+  @Async
+  @EventListener
+  public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+    // readiness can flip back and forth at runtime; recovery only belongs to the first time it opens
+    if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || !started.compareAndSet(false, true)) {
+      return;
+    }
+    if (!enabled) {
+      LOG.info("Budget history recovery on startup is disabled");
+      return;
+    }
+    recover();
   }
 
-  @Override
-  public void run(ApplicationArguments args) {
+  void recover() {
+    long start = System.nanoTime();
+    String outcome;
     try {
-      budgetHistoryService.recoverMissingHistory();
+      Optional<BudgetHistoryJobProgressDTO> result = budgetHistoryService.recoverMissingHistory();
+      outcome = result.map(progress -> progress.status().name().toLowerCase(Locale.ROOT)).orElse("skipped");
+      long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+      if (result.isPresent()) {
+        BudgetHistoryJobProgressDTO progress = result.get();
+        meterRegistry.counter(RECOVERY_METER + ".entries").increment(progress.generatedRows());
+        LOG.info("Budget history recovery finished as {} in {} ms: {} accounts, {} entries created, {} chunks failed",
+            progress.status(), millis, progress.processedAccounts(), progress.generatedRows(),
+            progress.failedChunks());
+      } else {
+        LOG.info("Budget history recovery skipped after {} ms: the month is already complete", millis);
+      }
     } catch (Exception e) {
+      outcome = "error";
       LOG.error("Error recovering budget history on startup: {}", e.getMessage(), e);
     }
+    Timer.builder(RECOVERY_METER)
+        .description("Duration of the budget history recovery run after startup")
+        .tag("outcome", outcome)
+        .register(meterRegistry)
+        .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
   }
 }
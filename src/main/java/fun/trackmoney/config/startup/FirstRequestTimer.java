@@ -0,0 +1,59 @@
+package fun.trackmoney.config.startup;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Records the cold-start time, from JVM start until the first request has been served, as
+ * trackmoney.startup.first_request. After the first request this filter only reads a flag.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstRequestTimer extends OncePerRequestFilter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(FirstRequestTimer.class);
+
+  private final Timer firstRequestTimer;
+  private final long jvmStartMillis;
+  private final AtomicBoolean recorded = new AtomicBoolean();
+
+  public FirstRequestTimer(MeterRegistry meterRegistry) {
+    this(meterRegistry, ManagementFactory.getRuntimeMXBean().getStartTime());
+  }
+
+  FirstRequestTimer(MeterRegistry meterRegistry, long jvmStartMillis) {
+    this.firstRequestTimer = Timer.builder("trackmoney.startup.first_request")
+        .description("Time from JVM start until the first request was served")
+        .register(meterRegistry);
+    this.jvmStartMillis = jvmStartMillis;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      if (!recorded.get() && recorded.compareAndSet(false, true)) {
+        long millis = System.currentTimeMillis() - jvmStartMillis;
+        firstRequestTimer.record(millis, TimeUnit.MILLISECONDS);
+        LOG.info("First request served {} ms after JVM start", millis);
+      }
+    }
+  }
+}
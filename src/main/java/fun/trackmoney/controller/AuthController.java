@@ -28,12 +28,15 @@ import fun.trackmoney.utils.response.ApiResponse;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -212,23 +215,41 @@ public class AuthController {
   }
 
   @GetMapping("/refresh")
-  public ResponseEntity<ApiResponse<RefreshTokenResponse>> refreshAccessToken() {
-    UserEntity actualUser = authUtils.getCurrentUser();
+  public ResponseEntity<ApiResponse<RefreshTokenResponse>> refreshAccessToken(
+      @RequestHeader(HttpHeaders.AUTHORIZATION) String authorization) {
+    LoginResult result = authService.refreshTokens(authorization.replace("Bearer ", ""));
+    if(result instanceof LoginSuccess success) {
+      return ResponseEntity.ok().body(
+          ApiResponse.<RefreshTokenResponse>success()
+              .message("Access token refreshed successfully.")
+              .data(new RefreshTokenResponse(success.tokens().accessToken(), success.tokens().refreshToken()))
+              .build()
+      );
+    }
 
-    String accessToken = authService.refreshAccessToken(actualUser.getEmail());
-    if(accessToken == null){
-      return ResponseEntity.badRequest().body(
+    LoginFailure failure = (LoginFailure) result;
+    if(failure.error() == AuthError.REFRESH_TOKEN_INVALID) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(
           ApiResponse.<RefreshTokenResponse>failure()
-              .message("User not found")
-              .errors(new CustomFieldError("User", "User not found"))
+              .message("Refresh token rejected")
+              .errors(new CustomFieldError("Token", failure.error().getMessage()))
               .build()
       );
     }
+    return ResponseEntity.badRequest().body(
+        ApiResponse.<RefreshTokenResponse>failure()
+            .message("User not found")
+            .errors(new CustomFieldError("User", "User not found"))
+            .build()
+    );
+  }
 
+  @PostMapping("/logout")
+  public ResponseEntity<ApiResponse<Void>> logout() {
+    authService.logout(authUtils.getCurrentUser().getEmail());
     return ResponseEntity.ok().body(
-        ApiResponse.<RefreshTokenResponse>success()
-            .message("Access token refreshed successfully.")
-            .data(new RefreshTokenResponse(accessToken))
+        ApiResponse.<Void>success()
+            .message("Logged out of every session.")
             .build()
     );
   }
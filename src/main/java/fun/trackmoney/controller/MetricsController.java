@@ -4,6 +4,7 @@ import fun.trackmoney.dto.metrics.response.BudgetPerformanceDTO;
 import fun.trackmoney.dto.metrics.response.CategoryBreakdownDTO;
 import fun.trackmoney.dto.metrics.response.DashboardOverviewDTO;
 import fun.trackmoney.dto.metrics.response.MonthlySummaryDTO;
+import fun.trackmoney.infra.redis.MetricsCacheService;
 import fun.trackmoney.service.MetricsService;
 import fun.trackmoney.entity.UserEntity;
 import fun.trackmoney.utils.response.ApiResponse;
@@ -20,6 +21,7 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 
 /**
  * REST controller for metrics and analytics endpoints.
@@ -31,9 +33,11 @@ import java.time.LocalDate;
 public class MetricsController {
 
   private final MetricsService metricsService;
+  private final MetricsCacheService metricsCacheService;
 
-  public MetricsController(MetricsService metricsService) {
+  public MetricsController(MetricsService metricsService, MetricsCacheService metricsCacheService) {
     this.metricsService = metricsService;
+    this.metricsCacheService = metricsCacheService;
   }
 
   /**
@@ -59,12 +63,15 @@ public class MetricsController {
     MonthlySummaryDTO result;
 
     if (startDate != null && endDate != null) {
-      result = metricsService.getMonthlySummary(accountId, startDate, endDate, categoryId);
-    } else if (year != null) {
-      result = metricsService.getMonthlySummary(accountId, year, categoryId);
+      result = metricsCacheService.getOrLoad(accountId,
+          MetricsCacheService.key("monthly-summary", startDate, endDate, categoryId), MonthlySummaryDTO.class,
+          () -> metricsService.getMonthlySummary(accountId, startDate, endDate, categoryId));
     } else {
       // Default to current year if no parameters provided
-      result = metricsService.getMonthlySummary(accountId, LocalDate.now().getYear(), categoryId);
+      int summaryYear = year != null ? year : LocalDate.now().getYear();
+      result = metricsCacheService.getOrLoad(accountId,
+          MetricsCacheService.key("monthly-summary", summaryYear, categoryId), MonthlySummaryDTO.class,
+          () -> metricsService.getMonthlySummary(accountId, summaryYear, categoryId));
     }
 
     ApiResponse<MonthlySummaryDTO> body = ApiResponse.<MonthlySummaryDTO>success()
@@ -100,13 +107,15 @@ public class MetricsController {
     CategoryBreakdownDTO result;
 
     if (startDate != null && endDate != null) {
-      result = metricsService.getByCategory(accountId, startDate, endDate, categoryId);
-    } else if (year != null && month != null) {
-      result = metricsService.getByCategory(accountId, year, month, categoryId);
+      result = metricsCacheService.getOrLoad(accountId,
+          MetricsCacheService.key("by-category", startDate, endDate, categoryId), CategoryBreakdownDTO.class,
+          () -> metricsService.getByCategory(accountId, startDate, endDate, categoryId));
     } else {
       // Default to current month if no parameters provided
-      LocalDate now = LocalDate.now();
-      result = metricsService.getByCategory(accountId, now.getYear(), now.getMonthValue(), categoryId);
+      YearMonth period = year != null && month != null ? YearMonth.of(year, month) : YearMonth.now();
+      result = metricsCacheService.getOrLoad(accountId,
+          MetricsCacheService.key("by-category", period, categoryId), CategoryBreakdownDTO.class,
+          () -> metricsService.getByCategory(accountId, period.getYear(), period.getMonthValue(), categoryId));
     }
 
     ApiResponse<CategoryBreakdownDTO> body = ApiResponse.<CategoryBreakdownDTO>success()
@@ -140,12 +149,15 @@ public class MetricsController {
     BudgetPerformanceDTO result;
 
     if (startDate != null && endDate != null) {
-      result = metricsService.getBudgetPerformance(accountId, startDate, endDate, categoryId);
-    } else if (year != null) {
-      result = metricsService.getBudgetPerformance(accountId, year, categoryId);
+      result = metricsCacheService.getOrLoad(accountId,
+          MetricsCacheService.key("budget-performance", startDate, endDate, categoryId), BudgetPerformanceDTO.class,
+          () -> metricsService.getBudgetPerformance(accountId, startDate, endDate, categoryId));
     } else {
       // Default to current year if no parameters provided
-      result = metricsService.getBudgetPerformance(accountId, LocalDate.now().getYear(), categoryId);
+      int performanceYear = year != null ? year : LocalDate.now().getYear();
+      result = metricsCacheService.getOrLoad(accountId,
+          MetricsCacheService.key("budget-performance", performanceYear, categoryId), BudgetPerformanceDTO.class,
+          () -> metricsService.getBudgetPerformance(accountId, performanceYear, categoryId));
     }
 
     ApiResponse<BudgetPerformanceDTO> body = ApiResponse.<BudgetPerformanceDTO>success()
@@ -177,10 +189,14 @@ public class MetricsController {
     DashboardOverviewDTO result;
 
     if (startDate != null && endDate != null) {
-      result = metricsService.getOverview(accountId, startDate, endDate, categoryId);
+      result = metricsCacheService.getOrLoad(accountId,
+          MetricsCacheService.key("overview", startDate, endDate, categoryId), DashboardOverviewDTO.class,
+          () -> metricsService.getOverview(accountId, startDate, endDate, categoryId));
     } else {
       // Default to current month if no parameters provided
-      result = metricsService.getOverview(accountId, categoryId);
+      result = metricsCacheService.getOrLoad(accountId,
+          MetricsCacheService.key("overview", YearMonth.now(), categoryId), DashboardOverviewDTO.class,
+          () -> metricsService.getOverview(accountId, categoryId));
     }
 
     ApiResponse<DashboardOverviewDTO> body = ApiResponse.<DashboardOverviewDTO>success()
@@ -1,13 +1,18 @@
 package fun.trackmoney.controller;
 
 import fun.trackmoney.dto.recurring.CreateRecurringRequest;
+import fun.trackmoney.dto.recurring.RecurringCalendarDTO;
 import fun.trackmoney.dto.recurring.RecurringResponse;
+import fun.trackmoney.enums.ExportFormat;
+import fun.trackmoney.service.RecurringCalendarService;
 import fun.trackmoney.service.RecurringService;
 import fun.trackmoney.dto.transaction.BillResponseDTO;
 import fun.trackmoney.entity.UserEntity;
 import fun.trackmoney.utils.CustomFieldError;
 import fun.trackmoney.utils.response.ApiResponse;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -17,8 +22,11 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -26,9 +34,12 @@ import java.util.List;
 public class RecurringController {
 
   private final RecurringService recurringService;
+  private final RecurringCalendarService recurringCalendarService;
 
-  public RecurringController(RecurringService recurringService) {
+  public RecurringController(RecurringService recurringService,
+                             RecurringCalendarService recurringCalendarService) {
     this.recurringService = recurringService;
+    this.recurringCalendarService = recurringCalendarService;
   }
 
   @PostMapping
@@ -114,4 +125,42 @@ public class RecurringController {
         .data(bills)
         .build());
   }
+
+  @GetMapping("/calendar")
+  public ResponseEntity<ApiResponse<RecurringCalendarDTO>> getCalendar(
+      @RequestParam(required = false)
+      LocalDate from,
+      @RequestParam(required = false)
+      LocalDate to,
+      @RequestParam(defaultValue = "500")
+      int limit,
+      @AuthenticationPrincipal
+      UserEntity currentUser
+  ) {
+    RecurringCalendarDTO calendar = recurringCalendarService.getCalendar(currentUser, from, to, limit);
+    return ResponseEntity.ok().body(ApiResponse.<RecurringCalendarDTO>success()
+        .message("Successfully retrieved the recurring calendar")
+        .data(calendar)
+        .build());
+  }
+
+  @GetMapping("/calendar/export")
+  public ResponseEntity<StreamingResponseBody> exportCalendar(
+      @RequestParam(required = false)
+      LocalDate from,
+      @RequestParam(required = false)
+      LocalDate to,
+      @RequestParam(defaultValue = "NDJSON")
+      ExportFormat format,
+      @AuthenticationPrincipal
+      UserEntity currentUser
+  ) {
+    StreamingResponseBody body = outputStream ->
+        recurringCalendarService.export(currentUser, from, to, format, outputStream);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(format.getContentType()))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"recurring-calendar." + format.getExtension() + "\"")
+        .body(body);
+  }
 }
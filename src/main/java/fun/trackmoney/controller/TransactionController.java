@@ -1,12 +1,19 @@
 package fun.trackmoney.controller;
 
 import fun.trackmoney.dto.transaction.CreateTransactionDTO;
+import fun.trackmoney.dto.transaction.TransactionCursorPageDTO;
+import fun.trackmoney.dto.transaction.TransactionImportResultDTO;
 import fun.trackmoney.dto.transaction.TransactionResponseDTO;
 import fun.trackmoney.dto.transaction.TransactionUpdateDTO;
+import fun.trackmoney.enums.CursorDirection;
+import fun.trackmoney.enums.ExportFormat;
+import fun.trackmoney.enums.ImportFormat;
 import fun.trackmoney.enums.TransactionsError;
 import fun.trackmoney.dto.transaction.internal.TransactionFailure;
 import fun.trackmoney.dto.transaction.internal.TransactionResult;
 import fun.trackmoney.dto.transaction.internal.TransactionSuccess;
+import fun.trackmoney.service.TransactionExportService;
+import fun.trackmoney.service.TransactionImportService;
 import fun.trackmoney.service.TransactionService;
 import fun.trackmoney.entity.UserEntity;
 import fun.trackmoney.utils.CustomFieldError;
@@ -14,7 +21,9 @@ import fun.trackmoney.utils.response.ApiResponse;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -26,7 +35,10 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -36,9 +48,15 @@ import java.util.List;
 public class TransactionController {
 
   private final TransactionService transactionService;
+  private final TransactionExportService transactionExportService;
+  private final TransactionImportService transactionImportService;
 
-  public TransactionController(TransactionService transactionService) {
+  public TransactionController(TransactionService transactionService,
+                               TransactionExportService transactionExportService,
+                               TransactionImportService transactionImportService) {
     this.transactionService = transactionService;
+    this.transactionExportService = transactionExportService;
+    this.transactionImportService = transactionImportService;
   }
 
   @PostMapping
@@ -74,6 +92,33 @@ public class TransactionController {
     return ResponseEntity.badRequest().body(bodyData);
   }
 
+  @PostMapping("/import")
+  public ResponseEntity<ApiResponse<TransactionImportResultDTO>> importTransactions(
+      @RequestParam("file")
+      MultipartFile file,
+      @RequestParam(defaultValue = "CSV")
+      ImportFormat format,
+      @RequestParam(required = false)
+      Integer categoryId,
+      @RequestParam(defaultValue = "false")
+      boolean dryRun,
+      @AuthenticationPrincipal
+      UserEntity currentUser
+  ) throws IOException {
+    var result = transactionImportService.importTransactions(
+        currentUser, file.getInputStream(), format, categoryId, dryRun);
+    var body = ApiResponse.<TransactionImportResultDTO>success()
+        .message(dryRun ? "Import validated" : "Transactions imported")
+        .data(result)
+        .build();
+    return ResponseEntity.ok().body(body);
+  }
+
+  /**
+   * Loads the whole account history in memory. Use {@code /transaction/export} to download everything or
+   * {@code /transaction/page} to browse it.
+   */
+  @Deprecated
   @GetMapping
   public ResponseEntity<ApiResponse<List<TransactionResponseDTO>>> findAllTransaction(@AuthenticationPrincipal
                                                                                       UserEntity currentUser) {
@@ -109,6 +154,49 @@ public class TransactionController {
     );
   }
 
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportTransactions(@RequestParam(defaultValue = "NDJSON")
+                                                                  ExportFormat format,
+                                                                  @AuthenticationPrincipal
+                                                                  UserEntity currentUser) {
+    Integer accountId = currentUser.getAccount().getAccountId();
+    StreamingResponseBody body = outputStream -> transactionExportService.export(accountId, format, outputStream);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(format.getContentType()))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            "attachment; filename=\"transactions." + format.getExtension() + "\"")
+        .body(body);
+  }
+
+  @GetMapping(value = "/page", params = "mode=cursor")
+  public ResponseEntity<ApiResponse<TransactionCursorPageDTO>> getCursorPaginatedTransactions(
+      @RequestParam(required = false)
+      String cursor,
+      @RequestParam(defaultValue = "NEXT")
+      CursorDirection direction,
+      @RequestParam(defaultValue = "20")
+      int size,
+      @RequestParam(required = false)
+      String transactionName,
+      @RequestParam(required = false)
+      Integer categoryId,
+      @RequestParam(required = false)
+      LocalDate startDate,
+      @RequestParam(required = false)
+      LocalDate endDate,
+      @AuthenticationPrincipal
+      UserEntity actualUser
+  ) {
+    var data = transactionService.getCursorPaginatedTransactions(
+        actualUser, cursor, direction, size, transactionName, categoryId, startDate, endDate);
+    return ResponseEntity.ok().body(
+        ApiResponse.<TransactionCursorPageDTO>success()
+            .message("Cursor paginated transactions")
+            .data(data)
+            .build()
+    );
+  }
+
   @GetMapping("/{id}")
   public ResponseEntity<ApiResponse<TransactionResponseDTO>> findTransactionById(@PathVariable Integer id,
                                                                                  @AuthenticationPrincipal
@@ -1,4 +1,4 @@
 package fun.trackmoney.dto.auth;
 
-public record RefreshTokenResponse(String accessToken) {
+public record RefreshTokenResponse(String accessToken, String refreshToken) {
 }
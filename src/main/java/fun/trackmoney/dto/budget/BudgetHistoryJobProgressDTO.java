@@ -0,0 +1,25 @@
+package fun.trackmoney.dto.budget;
+
+import fun.trackmoney.enums.JobStatus;
+import fun.trackmoney.enums.JobTrigger;
+
+import java.time.LocalDateTime;
+
+public record BudgetHistoryJobProgressDTO(
+    Integer jobId,
+    JobTrigger triggeredBy,
+    int referenceMonth,
+    int referenceYear,
+    JobStatus status,
+    int totalChunks,
+    long completedChunks,
+    long failedChunks,
+    int totalAccounts,
+    long processedAccounts,
+    long generatedRows,
+    LocalDateTime startedAt,
+    LocalDateTime finishedAt,
+    double accountsPerSecond,
+    LocalDateTime estimatedCompletion
+) {
+}
@@ -0,0 +1,9 @@
+package fun.trackmoney.dto.lock;
+
+public record LockHolderDTO(
+    String name,
+    String owner,
+    long fencingToken,
+    long remainingLeaseMillis
+) {
+}
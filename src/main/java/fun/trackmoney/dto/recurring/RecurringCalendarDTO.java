@@ -0,0 +1,18 @@
+package fun.trackmoney.dto.recurring;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Occurrences of an account's recurring rules within [from, to], in date order. The totals cover the whole
+ * window even when the occurrence list was cut at the requested limit.
+ */
+public record RecurringCalendarDTO(LocalDate from,
+                                   LocalDate to,
+                                   List<RecurringOccurrenceDTO> occurrences,
+                                   boolean truncated,
+                                   long totalOccurrences,
+                                   BigDecimal totalIncome,
+                                   BigDecimal totalExpense) {
+}
@@ -0,0 +1,14 @@
+package fun.trackmoney.dto.recurring;
+
+import fun.trackmoney.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record RecurringOccurrenceDTO(Long recurringId,
+                                     String transactionName,
+                                     TransactionType transactionType,
+                                     BigDecimal amount,
+                                     Integer categoryId,
+                                     LocalDateTime date) {
+}
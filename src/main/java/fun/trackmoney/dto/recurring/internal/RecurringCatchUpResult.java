@@ -0,0 +1,12 @@
+package fun.trackmoney.dto.recurring.internal;
+
+/**
+ * Outcome of one catch-up run over the due recurring rules.
+ *
+ * @param accounts       accounts whose occurrences were posted
+ * @param rules          rules that were advanced
+ * @param transactions   transactions posted
+ * @param failedAccounts accounts left for the next run because their posting failed
+ */
+public record RecurringCatchUpResult(int accounts, int rules, int transactions, int failedAccounts) {
+}
@@ -0,0 +1,4 @@
+package fun.trackmoney.dto.transaction;
+
+public record ImportRowErrorDTO(int line, String field, String message) {
+}
@@ -0,0 +1,9 @@
+package fun.trackmoney.dto.transaction;
+
+import java.util.List;
+
+public record TransactionCursorPageDTO(List<TransactionResponseDTO> content,
+                                       int size,
+                                       String nextCursor,
+                                       String prevCursor) {
+}
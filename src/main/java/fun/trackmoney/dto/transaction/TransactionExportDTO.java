@@ -0,0 +1,16 @@
+package fun.trackmoney.dto.transaction;
+
+import fun.trackmoney.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record TransactionExportDTO(Integer transactionId,
+                                   String transactionName,
+                                   String description,
+                                   BigDecimal amount,
+                                   TransactionType transactionType,
+                                   Integer categoryId,
+                                   String categoryName,
+                                   LocalDateTime transactionDate) {
+}
@@ -0,0 +1,12 @@
+package fun.trackmoney.dto.transaction;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+public record TransactionImportResultDTO(boolean dryRun,
+                                         int totalRows,
+                                         int importedRows,
+                                         int rejectedRows,
+                                         BigDecimal balanceChange,
+                                         List<ImportRowErrorDTO> errors) {
+}
@@ -0,0 +1,42 @@
+package fun.trackmoney.dto.transaction.internal;
+
+import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position of a row in the (transaction_date DESC, transaction_id DESC) ordering used by keyset pagination.
+ * Clients only ever see the encoded form, so the layout can change without breaking them.
+ */
+public record TransactionCursor(LocalDateTime transactionDate, Integer transactionId) {
+
+  private static final String SEPARATOR = "|";
+
+  public static TransactionCursor of(TransactionEntity transaction) {
+    return new TransactionCursor(transaction.getTransactionDate(), transaction.getTransactionId());
+  }
+
+  public String encode() {
+    String raw = transactionDate + SEPARATOR + transactionId;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public static TransactionCursor decode(String cursor) {
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf(SEPARATOR);
+      if (separator < 0) {
+        throw new InvalidCursorException("Invalid cursor.");
+      }
+      return new TransactionCursor(
+          LocalDateTime.parse(raw.substring(0, separator)),
+          Integer.valueOf(raw.substring(separator + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException e) {
+      throw new InvalidCursorException("Invalid cursor.");
+    }
+  }
+}
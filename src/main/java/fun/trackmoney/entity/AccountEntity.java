@@ -7,6 +7,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 
@@ -16,7 +17,9 @@ import java.math.BigDecimal;
 public class AccountEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_account_account_id_seq")
+  @SequenceGenerator(name = "tb_account_account_id_seq", sequenceName = "tb_account_account_id_seq",
+      allocationSize = 50)
   private Integer accountId;
 
   @OneToOne
@@ -0,0 +1,83 @@
+package fun.trackmoney.entity;
+
+import fun.trackmoney.enums.TransactionType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+
+/**
+ * One row per account, month, category and transaction type. Rows are only written through the
+ * upsert queries in {@link fun.trackmoney.repository.AccountMonthSummaryRepository}.
+ */
+@Entity
+@Immutable
+@IdClass(AccountMonthSummaryId.class)
+@Table(name = "tb_account_month_summary")
+public class AccountMonthSummaryEntity {
+
+  @Id
+  @Column(name = "account_id")
+  private Integer accountId;
+
+  @Id
+  @Column(name = "summary_year")
+  private Integer summaryYear;
+
+  @Id
+  @Column(name = "summary_month")
+  private Short summaryMonth;
+
+  @Id
+  @Column(name = "category_id")
+  private Integer categoryId;
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(name = "transaction_type")
+  private TransactionType transactionType;
+
+  @Column(name = "total_amount", nullable = false, precision = 19, scale = 4)
+  private BigDecimal totalAmount;
+
+  @Column(name = "transaction_count", nullable = false)
+  private Integer transactionCount;
+
+  public AccountMonthSummaryEntity() {
+    // Default constructor required by JPA/Hibernate for entity instantiation.
+  }
+
+  public Integer getAccountId() {
+    return accountId;
+  }
+
+  public Integer getSummaryYear() {
+    return summaryYear;
+  }
+
+  public Short getSummaryMonth() {
+    return summaryMonth;
+  }
+
+  public Integer getCategoryId() {
+    return categoryId;
+  }
+
+  public TransactionType getTransactionType() {
+    return transactionType;
+  }
+
+  public BigDecimal getTotalAmount() {
+    return totalAmount;
+  }
+
+  public Integer getTransactionCount() {
+    return transactionCount;
+  }
+}
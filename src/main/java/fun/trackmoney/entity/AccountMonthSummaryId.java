@@ -0,0 +1,71 @@
+package fun.trackmoney.entity;
+
+import fun.trackmoney.enums.TransactionType;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+public class AccountMonthSummaryId implements Serializable {
+
+  private Integer accountId;
+  private Integer summaryYear;
+  private Short summaryMonth;
+  private Integer categoryId;
+  private TransactionType transactionType;
+
+  public AccountMonthSummaryId() {
+    // Default constructor required by JPA/Hibernate for composite keys.
+  }
+
+  public AccountMonthSummaryId(Integer accountId,
+                               Integer summaryYear,
+                               Short summaryMonth,
+                               Integer categoryId,
+                               TransactionType transactionType) {
+    this.accountId = accountId;
+    this.summaryYear = summaryYear;
+    this.summaryMonth = summaryMonth;
+    this.categoryId = categoryId;
+    this.transactionType = transactionType;
+  }
+
+  public Integer getAccountId() {
+    return accountId;
+  }
+
+  public Integer getSummaryYear() {
+    return summaryYear;
+  }
+
+  public Short getSummaryMonth() {
+    return summaryMonth;
+  }
+
+  public Integer getCategoryId() {
+    return categoryId;
+  }
+
+  public TransactionType getTransactionType() {
+    return transactionType;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof AccountMonthSummaryId that)) {
+      return false;
+    }
+    return Objects.equals(accountId, that.accountId)
+        && Objects.equals(summaryYear, that.summaryYear)
+        && Objects.equals(summaryMonth, that.summaryMonth)
+        && Objects.equals(categoryId, that.categoryId)
+        && transactionType == that.transactionType;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(accountId, summaryYear, summaryMonth, categoryId, transactionType);
+  }
+}
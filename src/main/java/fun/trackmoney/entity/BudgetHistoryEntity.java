@@ -13,8 +13,10 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
@@ -23,7 +25,9 @@ import java.time.LocalDateTime;
 public class BudgetHistoryEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_budget_history_history_id_seq")
+  @SequenceGenerator(name = "tb_budget_history_history_id_seq", sequenceName = "tb_budget_history_history_id_seq",
+      allocationSize = 50)
   @Column(name = "history_id")
   private Integer historyId;
 
@@ -45,6 +49,10 @@ public class BudgetHistoryEntity {
   @Column(name = "reference_year", nullable = false)
   private Integer referenceYear;
 
+  // first day of the reference month, generated by the database; only used to filter by month range
+  @Column(name = "reference_date", insertable = false, updatable = false)
+  private LocalDate referenceDate;
+
   @Column(name = "percent", nullable = false)
   private Short percent;
 
@@ -0,0 +1,152 @@
+package fun.trackmoney.entity;
+
+import fun.trackmoney.enums.JobStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * An inclusive range of account IDs processed by a {@link BudgetHistoryJobEntity} in one transaction.
+ * It is marked COMPLETED in the same transaction that inserts its history, so it doubles as the job checkpoint.
+ */
+@Entity
+@Table(name = "tb_budget_history_job_chunk")
+public class BudgetHistoryJobChunkEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_budget_history_job_chunk_chunk_id_seq")
+  @SequenceGenerator(name = "tb_budget_history_job_chunk_chunk_id_seq",
+      sequenceName = "tb_budget_history_job_chunk_chunk_id_seq", allocationSize = 50)
+  @Column(name = "chunk_id")
+  private Integer chunkId;
+
+  @Column(name = "job_id", nullable = false)
+  private Integer jobId;
+
+  @Column(name = "first_account_id", nullable = false)
+  private Integer firstAccountId;
+
+  @Column(name = "last_account_id", nullable = false)
+  private Integer lastAccountId;
+
+  @Column(name = "account_count", nullable = false)
+  private Integer accountCount;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 20)
+  private JobStatus status;
+
+  @Column(name = "generated_rows", nullable = false)
+  private Integer generatedRows;
+
+  @Column(name = "attempts", nullable = false)
+  private Integer attempts;
+
+  @Column(name = "error_message", length = 500)
+  private String errorMessage;
+
+  @Column(name = "completed_at")
+  private LocalDateTime completedAt;
+
+  public BudgetHistoryJobChunkEntity() {
+    // Default constructor required by JPA/Hibernate for entity instantiation.
+  }
+
+  public Integer getChunkId() {
+    return chunkId;
+  }
+
+  public BudgetHistoryJobChunkEntity setChunkId(Integer chunkId) {
+    this.chunkId = chunkId;
+    return this;
+  }
+
+  public Integer getJobId() {
+    return jobId;
+  }
+
+  public BudgetHistoryJobChunkEntity setJobId(Integer jobId) {
+    this.jobId = jobId;
+    return this;
+  }
+
+  public Integer getFirstAccountId() {
+    return firstAccountId;
+  }
+
+  public BudgetHistoryJobChunkEntity setFirstAccountId(Integer firstAccountId) {
+    this.firstAccountId = firstAccountId;
+    return this;
+  }
+
+  public Integer getLastAccountId() {
+    return lastAccountId;
+  }
+
+  public BudgetHistoryJobChunkEntity setLastAccountId(Integer lastAccountId) {
+    this.lastAccountId = lastAccountId;
+    return this;
+  }
+
+  public Integer getAccountCount() {
+    return accountCount;
+  }
+
+  public BudgetHistoryJobChunkEntity setAccountCount(Integer accountCount) {
+    this.accountCount = accountCount;
+    return this;
+  }
+
+  public JobStatus getStatus() {
+    return status;
+  }
+
+  public BudgetHistoryJobChunkEntity setStatus(JobStatus status) {
+    this.status = status;
+    return this;
+  }
+
+  public Integer getGeneratedRows() {
+    return generatedRows;
+  }
+
+  public BudgetHistoryJobChunkEntity setGeneratedRows(Integer generatedRows) {
+    this.generatedRows = generatedRows;
+    return this;
+  }
+
+  public Integer getAttempts() {
+    return attempts;
+  }
+
+  public BudgetHistoryJobChunkEntity setAttempts(Integer attempts) {
+    this.attempts = attempts;
+    return this;
+  }
+
+  public String getErrorMessage() {
+    return errorMessage;
+  }
+
+  public BudgetHistoryJobChunkEntity setErrorMessage(String errorMessage) {
+    this.errorMessage = errorMessage;
+    return this;
+  }
+
+  public LocalDateTime getCompletedAt() {
+    return completedAt;
+  }
+
+  public BudgetHistoryJobChunkEntity setCompletedAt(LocalDateTime completedAt) {
+    this.completedAt = completedAt;
+    return this;
+  }
+}
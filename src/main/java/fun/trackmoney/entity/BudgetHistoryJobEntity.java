@@ -0,0 +1,155 @@
+package fun.trackmoney.entity;
+
+import fun.trackmoney.enums.JobStatus;
+import fun.trackmoney.enums.JobTrigger;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * One run of the budget history generation for a reference month. Its work is split into
+ * {@link BudgetHistoryJobChunkEntity} rows that commit independently.
+ */
+@Entity
+@Table(name = "tb_budget_history_job")
+public class BudgetHistoryJobEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_budget_history_job_job_id_seq")
+  @SequenceGenerator(name = "tb_budget_history_job_job_id_seq", sequenceName = "tb_budget_history_job_job_id_seq",
+      allocationSize = 50)
+  @Column(name = "job_id")
+  private Integer jobId;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "triggered_by", nullable = false, length = 20)
+  private JobTrigger triggeredBy;
+
+  @Column(name = "reference_month", nullable = false)
+  private Short referenceMonth;
+
+  @Column(name = "reference_year", nullable = false)
+  private Integer referenceYear;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 20)
+  private JobStatus status;
+
+  @Column(name = "total_chunks", nullable = false)
+  private Integer totalChunks;
+
+  @Column(name = "total_accounts", nullable = false)
+  private Integer totalAccounts;
+
+  @Column(name = "started_at", nullable = false)
+  private LocalDateTime startedAt;
+
+  @Column(name = "finished_at")
+  private LocalDateTime finishedAt;
+
+  // written only through BudgetHistoryJobRepository.claimJob, so saving a stale copy never hands the job back
+  @Column(name = "fencing_token", insertable = false, updatable = false)
+  private Long fencingToken;
+
+  public BudgetHistoryJobEntity() {
+    // Default constructor required by JPA/Hibernate for entity instantiation.
+  }
+
+  public Integer getJobId() {
+    return jobId;
+  }
+
+  public BudgetHistoryJobEntity setJobId(Integer jobId) {
+    this.jobId = jobId;
+    return this;
+  }
+
+  public JobTrigger getTriggeredBy() {
+    return triggeredBy;
+  }
+
+  public BudgetHistoryJobEntity setTriggeredBy(JobTrigger triggeredBy) {
+    this.triggeredBy = triggeredBy;
+    return this;
+  }
+
+  public Short getReferenceMonth() {
+    return referenceMonth;
+  }
+
+  public BudgetHistoryJobEntity setReferenceMonth(Short referenceMonth) {
+    this.referenceMonth = referenceMonth;
+    return this;
+  }
+
+  public Integer getReferenceYear() {
+    return referenceYear;
+  }
+
+  public BudgetHistoryJobEntity setReferenceYear(Integer referenceYear) {
+    this.referenceYear = referenceYear;
+    return this;
+  }
+
+  public JobStatus getStatus() {
+    return status;
+  }
+
+  public BudgetHistoryJobEntity setStatus(JobStatus status) {
+    this.status = status;
+    return this;
+  }
+
+  public Integer getTotalChunks() {
+    return totalChunks;
+  }
+
+  public BudgetHistoryJobEntity setTotalChunks(Integer totalChunks) {
+    this.totalChunks = totalChunks;
+    return this;
+  }
+
+  public Integer getTotalAccounts() {
+    return totalAccounts;
+  }
+
+  public BudgetHistoryJobEntity setTotalAccounts(Integer totalAccounts) {
+    this.totalAccounts = totalAccounts;
+    return this;
+  }
+
+  public LocalDateTime getStartedAt() {
+    return startedAt;
+  }
+
+  public BudgetHistoryJobEntity setStartedAt(LocalDateTime startedAt) {
+    this.startedAt = startedAt;
+    return this;
+  }
+
+  public LocalDateTime getFinishedAt() {
+    return finishedAt;
+  }
+
+  public BudgetHistoryJobEntity setFinishedAt(LocalDateTime finishedAt) {
+    this.finishedAt = finishedAt;
+    return this;
+  }
+
+  public Long getFencingToken() {
+    return fencingToken;
+  }
+
+  public BudgetHistoryJobEntity setFencingToken(Long fencingToken) {
+    this.fencingToken = fencingToken;
+    return this;
+  }
+}
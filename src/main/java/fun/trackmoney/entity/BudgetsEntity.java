@@ -8,6 +8,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
@@ -19,7 +20,9 @@ import jakarta.validation.constraints.Positive;
 public class BudgetsEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_budget_budget_id_seq")
+  @SequenceGenerator(name = "tb_budget_budget_id_seq", sequenceName = "tb_budget_budget_id_seq",
+      allocationSize = 50)
   @Column(name = "budget_id")
   private Integer budgetId;
 
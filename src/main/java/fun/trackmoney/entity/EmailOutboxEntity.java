@@ -0,0 +1,152 @@
+package fun.trackmoney.entity;
+
+import fun.trackmoney.enums.EmailStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+import java.time.LocalDateTime;
+
+/**
+ * An e-mail waiting to be delivered, or the record of one that was. The body is rendered when the e-mail is queued,
+ * so delivery does not depend on the template or the data it was rendered from.
+ */
+@Entity
+@Table(name = "tb_email_outbox")
+public class EmailOutboxEntity {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_email_outbox_email_id_seq")
+  @SequenceGenerator(name = "tb_email_outbox_email_id_seq",
+      sequenceName = "tb_email_outbox_email_id_seq", allocationSize = 50)
+  @Column(name = "email_id")
+  private Long emailId;
+
+  @Column(name = "recipient", nullable = false)
+  private String recipient;
+
+  @Column(name = "subject", nullable = false)
+  private String subject;
+
+  @Column(name = "body", nullable = false, columnDefinition = "TEXT")
+  private String body;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "status", nullable = false, length = 20)
+  private EmailStatus status;
+
+  @Column(name = "attempts", nullable = false)
+  private Integer attempts;
+
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(name = "last_error", length = 500)
+  private String lastError;
+
+  @Column(name = "created_at", nullable = false)
+  private LocalDateTime createdAt;
+
+  @Column(name = "sent_at")
+  private LocalDateTime sentAt;
+
+  public EmailOutboxEntity() {
+    // Default constructor required by JPA/Hibernate for entity instantiation.
+  }
+
+  public Long getEmailId() {
+    return emailId;
+  }
+
+  public EmailOutboxEntity setEmailId(Long emailId) {
+    this.emailId = emailId;
+    return this;
+  }
+
+  public String getRecipient() {
+    return recipient;
+  }
+
+  public EmailOutboxEntity setRecipient(String recipient) {
+    this.recipient = recipient;
+    return this;
+  }
+
+  public String getSubject() {
+    return subject;
+  }
+
+  public EmailOutboxEntity setSubject(String subject) {
+    this.subject = subject;
+    return this;
+  }
+
+  public String getBody() {
+    return body;
+  }
+
+  public EmailOutboxEntity setBody(String body) {
+    this.body = body;
+    return this;
+  }
+
+  public EmailStatus getStatus() {
+    return status;
+  }
+
+  public EmailOutboxEntity setStatus(EmailStatus status) {
+    this.status = status;
+    return this;
+  }
+
+  public Integer getAttempts() {
+    return attempts;
+  }
+
+  public EmailOutboxEntity setAttempts(Integer attempts) {
+    this.attempts = attempts;
+    return this;
+  }
+
+  public LocalDateTime getNextAttemptAt() {
+    return nextAttemptAt;
+  }
+
+  public EmailOutboxEntity setNextAttemptAt(LocalDateTime nextAttemptAt) {
+    this.nextAttemptAt = nextAttemptAt;
+    return this;
+  }
+
+  public String getLastError() {
+    return lastError;
+  }
+
+  public EmailOutboxEntity setLastError(String lastError) {
+    this.lastError = lastError;
+    return this;
+  }
+
+  public LocalDateTime getCreatedAt() {
+    return createdAt;
+  }
+
+  public EmailOutboxEntity setCreatedAt(LocalDateTime createdAt) {
+    this.createdAt = createdAt;
+    return this;
+  }
+
+  public LocalDateTime getSentAt() {
+    return sentAt;
+  }
+
+  public EmailOutboxEntity setSentAt(LocalDateTime sentAt) {
+    this.sentAt = sentAt;
+    return this;
+  }
+}
@@ -11,6 +11,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import org.hibernate.validator.constraints.Length;
 
@@ -22,7 +23,9 @@ import java.math.BigDecimal;
 public class PotsEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_pots_pot_id_seq")
+  @SequenceGenerator(name = "tb_pots_pot_id_seq", sequenceName = "tb_pots_pot_id_seq",
+      allocationSize = 50)
   @Column(name = "pot_id")
   private Long potId;
 
@@ -14,6 +14,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 import java.math.BigDecimal;
@@ -25,7 +26,9 @@ import java.time.LocalDateTime;
 public class RecurringEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_recurring_recurring_id_seq")
+  @SequenceGenerator(name = "tb_recurring_recurring_id_seq", sequenceName = "tb_recurring_recurring_id_seq",
+      allocationSize = 50)
   @Column(name = "recurring_id")
   private Long id;
 
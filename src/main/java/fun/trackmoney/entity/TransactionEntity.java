@@ -11,6 +11,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -21,7 +22,9 @@ import java.time.LocalDateTime;
 public class TransactionEntity {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tb_transaction_transaction_id_seq")
+  @SequenceGenerator(name = "tb_transaction_transaction_id_seq", sequenceName = "tb_transaction_transaction_id_seq",
+      allocationSize = 50)
   private Integer transactionId;
 
   @Column(name = "transaction_name")
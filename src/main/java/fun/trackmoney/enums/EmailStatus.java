@@ -0,0 +1,7 @@
+package fun.trackmoney.enums;
+
+public enum EmailStatus {
+    PENDING,
+    SENT,
+    FAILED
+}
@@ -0,0 +1,8 @@
+package fun.trackmoney.enums;
+
+public enum JobStatus {
+    PENDING,
+    RUNNING,
+    COMPLETED,
+    FAILED
+}
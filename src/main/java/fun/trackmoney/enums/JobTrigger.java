@@ -0,0 +1,6 @@
+package fun.trackmoney.enums;
+
+public enum JobTrigger {
+    SCHEDULED,
+    RECOVERY
+}
@@ -0,0 +1,19 @@
+package fun.trackmoney.exception;
+
+import fun.trackmoney.utils.CustomFieldError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class InvalidCursorException extends RuntimeException {
+  private final List<CustomFieldError> errors = new ArrayList<>();
+
+  public InvalidCursorException(String message) {
+    super(message);
+    this.errors.add(new CustomFieldError("cursor", message));
+  }
+
+  public List<CustomFieldError> getErrors() {
+    return errors;
+  }
+}
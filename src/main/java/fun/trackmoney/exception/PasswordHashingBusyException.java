@@ -0,0 +1,19 @@
+package fun.trackmoney.exception;
+
+import fun.trackmoney.utils.CustomFieldError;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PasswordHashingBusyException extends RuntimeException {
+  private final List<CustomFieldError> errors = new ArrayList<>();
+
+  public PasswordHashingBusyException(String message) {
+    super(message);
+    this.errors.add(new CustomFieldError("password", message));
+  }
+
+  public List<CustomFieldError> getErrors() {
+    return errors;
+  }
+}
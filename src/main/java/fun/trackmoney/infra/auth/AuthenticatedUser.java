@@ -0,0 +1,38 @@
+package fun.trackmoney.infra.auth;
+
+import fun.trackmoney.entity.AccountEntity;
+import fun.trackmoney.entity.UserEntity;
+
+import java.util.UUID;
+
+/**
+ * The identity of an authenticated user as {@link PrincipalCache} keeps it between requests: the ids the services
+ * scope their queries by and the profile fields the API returns, but no password hash and no account balance.
+ */
+public record AuthenticatedUser(UUID userId,
+                                String name,
+                                String email,
+                                boolean active,
+                                Integer accountId,
+                                String accountName) {
+
+  public static AuthenticatedUser from(UserEntity user) {
+    AccountEntity account = user.getAccount();
+    return new AuthenticatedUser(user.getUserId(), user.getName(), user.getEmail(), user.isActive(),
+        account == null ? null : account.getAccountId(), account == null ? null : account.getName());
+  }
+
+  /**
+   * A fresh, detached user for the current request, so whatever a request changes on it never reaches the cache.
+   * Its account only carries id and name; read the balance through the account services.
+   * It must never be saved: its password hash and balance are null, and {@code UserEntity.account} cascades, so a
+   * save would wipe both. Load the user by id to change it; {@code UserService.update} rejects this copy.
+   */
+  public UserEntity toUserEntity() {
+    UserEntity user = new UserEntity(userId, name, email, null, active);
+    if (accountId != null) {
+      user.setAccount(new AccountEntity().setAccountId(accountId).setName(accountName).setUser(user));
+    }
+    return user;
+  }
+}
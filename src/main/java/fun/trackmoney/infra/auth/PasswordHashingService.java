@@ -0,0 +1,182 @@
+package fun.trackmoney.infra.auth;
+
+import fun.trackmoney.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Hashes and checks passwords on a small dedicated pool instead of the request threads.
+ * BCrypt is deliberately slow, so a burst of logins would otherwise tie up every request thread and core. The pool
+ * has a bounded queue; when it is full the request fails at once with {@link PasswordHashingBusyException} (a 503)
+ * rather than queueing up behind work it cannot finish in time.
+ * The BCrypt cost is picked at startup as the highest one that still hashes within the target latency on this
+ * hardware, and {@link #upgrade} lets a login re-hash a password stored with a lower cost.
+ */
+@Service
+public class PasswordHashingService {
+
+  static final int MIN_COST = 10;
+  static final int MAX_COST = 16;
+  // a cheap cost whose hashes run the same code, enough times for the JIT to compile it before timing
+  private static final int WARM_UP_COST = 4;
+  private static final int WARM_UP_HASHES = 50;
+  private static final int CALIBRATION_SAMPLES = 5;
+  private static final Logger LOG = LoggerFactory.getLogger(PasswordHashingService.class);
+  private static final String METER_PREFIX = "trackmoney.auth.password.hashing";
+
+  private final ThreadPoolExecutor workers;
+  private final BCryptPasswordEncoder encoder;
+  private final Timer waitTimer;
+  private final Timer hashTimer;
+  private final Timer verifyTimer;
+  private final Counter rejected;
+
+  @Autowired
+  public PasswordHashingService(MeterRegistry meterRegistry,
+                                @Value("${trackmoney.auth.password-hashing.workers:2}") int workerCount,
+                                @Value("${trackmoney.auth.password-hashing.queue-capacity:32}") int queueCapacity,
+                                @Value("${trackmoney.auth.password-hashing.target-latency:PT0.25S}")
+                                Duration targetLatency) {
+    this(meterRegistry, newWorkerPool(workerCount, queueCapacity), calibrateCost(targetLatency));
+  }
+
+  PasswordHashingService(MeterRegistry meterRegistry, ThreadPoolExecutor workers, int cost) {
+    this.workers = workers;
+    this.encoder = new BCryptPasswordEncoder(cost);
+    this.waitTimer = Timer.builder(METER_PREFIX + ".wait").register(meterRegistry);
+    this.hashTimer = Timer.builder(METER_PREFIX + ".duration").tag("operation", "hash").register(meterRegistry);
+    this.verifyTimer = Timer.builder(METER_PREFIX + ".duration").tag("operation", "verify").register(meterRegistry);
+    this.rejected = Counter.builder(METER_PREFIX + ".rejected").register(meterRegistry);
+    Gauge.builder(METER_PREFIX + ".queue", workers, pool -> pool.getQueue().size()).register(meterRegistry);
+  }
+
+  private static ThreadPoolExecutor newWorkerPool(int workerCount, int queueCapacity) {
+    return new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("password-hashing-"),
+        new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  /**
+   * Times a hash at the minimum cost and raises the cost while the doubled time still meets the target;
+   * each BCrypt cost step doubles the work. On a cold JVM the first hashes run interpreted and load classes, so the
+   * code is warmed up first and the fastest of a few samples is used.
+   */
+  private static int calibrateCost(Duration targetLatency) {
+    BCryptPasswordEncoder warmUp = new BCryptPasswordEncoder(WARM_UP_COST);
+    for (int i = 0; i < WARM_UP_HASHES; i++) {
+      warmUp.encode("calibration");
+    }
+    BCryptPasswordEncoder atMinCost = new BCryptPasswordEncoder(MIN_COST);
+    long nanos = fastestNanos(CALIBRATION_SAMPLES, () -> atMinCost.encode("calibration"));
+    int cost = costFor(nanos, targetLatency.toNanos());
+    LOG.info("Hashing passwords with BCrypt cost {} for a target latency of {} ms", cost, targetLatency.toMillis());
+    return cost;
+  }
+
+  static long fastestNanos(int samples, Runnable work) {
+    long fastest = Long.MAX_VALUE;
+    for (int i = 0; i < samples; i++) {
+      long start = System.nanoTime();
+      work.run();
+      fastest = Math.min(fastest, System.nanoTime() - start);
+    }
+    return fastest;
+  }
+
+  static int costFor(long nanosAtMinCost, long targetNanos) {
+    int cost = MIN_COST;
+    long nanos = nanosAtMinCost;
+    while (cost < MAX_COST && nanos * 2 <= targetNanos) {
+      cost++;
+      nanos *= 2;
+    }
+    return cost;
+  }
+
+  /**
+   * Hashes a new password with the current cost.
+   *
+   * @throws PasswordHashingBusyException when the hashing queue is full
+   */
+  public String hash(String rawPassword) {
+    return run(hashTimer, () -> encoder.encode(rawPassword));
+  }
+
+  /**
+   * Checks a password against its stored hash, whatever cost the hash was made with.
+   *
+   * @throws PasswordHashingBusyException when the hashing queue is full
+   */
+  public boolean matches(String rawPassword, String encodedPassword) {
+    return run(verifyTimer, () -> encoder.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * Re-hashes a password that was just verified when its stored hash uses a lower cost than the current one.
+   * Never fails the caller: when the pool is busy the upgrade is left for a later login.
+   *
+   * @return the new hash to store, or empty when the stored one is current
+   */
+  public Optional<String> upgrade(String rawPassword, String encodedPassword) {
+    if (!encoder.upgradeEncoding(encodedPassword)) {
+      return Optional.empty();
+    }
+    try {
+      return Optional.of(hash(rawPassword));
+    } catch (PasswordHashingBusyException e) {
+      return Optional.empty();
+    }
+  }
+
+  private <T> T run(Timer timer, Supplier<T> work) {
+    long submittedAt = System.nanoTime();
+    Future<T> result;
+    try {
+      result = workers.submit(() -> {
+        waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+        return timer.record(work);
+      });
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new PasswordHashingBusyException("Too many password requests right now, please try again shortly.");
+    }
+
+    try {
+      return result.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      result.cancel(true);
+      throw new IllegalStateException("Interrupted while waiting for password hashing", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Password hashing failed", e.getCause());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    workers.shutdown();
+  }
+}
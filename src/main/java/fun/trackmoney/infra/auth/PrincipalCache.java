@@ -0,0 +1,99 @@
+package fun.trackmoney.infra.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the principals of recently authenticated users in memory, keyed by the token subject (the email), so an
+ * authenticated request does not have to load the user and account rows first.
+ * The cache is a bounded Caffeine cache, so lookups from concurrent requests do not contend on a shared lock; past
+ * its maximum size it evicts the entries least likely to be used again. {@code UserService} evicts a user whenever it
+ * changes one; entries also expire after a short TTL, which bounds how long another node can serve a stale copy.
+ */
+@Component
+public class PrincipalCache {
+
+  private static final String LOOKUP_METER = "trackmoney.auth.principal.cache.lookup";
+
+  private final Cache<String, AuthenticatedUser> entries;
+  private final AtomicLong invalidations = new AtomicLong();
+  private final Counter hits;
+  private final Counter misses;
+
+  @Autowired
+  public PrincipalCache(MeterRegistry meterRegistry,
+                        @Value("${trackmoney.auth.principal-cache.max-size:10000}") int maxSize,
+                        @Value("${trackmoney.auth.principal-cache.ttl:PT5M}") Duration ttl) {
+    this(meterRegistry, maxSize, ttl.toMillis(), System::currentTimeMillis);
+  }
+
+  PrincipalCache(MeterRegistry meterRegistry, int maxSize, long ttlMillis, LongSupplier clock) {
+    this.entries = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(Duration.ofMillis(ttlMillis))
+        .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+        .build();
+    // every hit is a user lookup the database did not have to serve
+    this.hits = Counter.builder(LOOKUP_METER).tag("result", "hit").register(meterRegistry);
+    this.misses = Counter.builder(LOOKUP_METER).tag("result", "miss").register(meterRegistry);
+    Gauge.builder("trackmoney.auth.principal.cache.size", this, cache -> cache.size()).register(meterRegistry);
+  }
+
+  /**
+   * Returns the cached principal, loading and caching it on a miss or after it expired.
+   *
+   * @param email  the token subject
+   * @param loader loads the principal from the database; an empty result is not cached
+   */
+  public Optional<AuthenticatedUser> get(String email, Supplier<Optional<AuthenticatedUser>> loader) {
+    AuthenticatedUser cached = entries.getIfPresent(email);
+    if (cached != null) {
+      hits.increment();
+      return Optional.of(cached);
+    }
+
+    misses.increment();
+    long invalidationsBeforeLoad = invalidations.get();
+    Optional<AuthenticatedUser> loaded = loader.get();
+    loaded.ifPresent(principal -> {
+      // a user changed while we were reading it may have been read before the change; let the next request retry
+      if (invalidations.get() == invalidationsBeforeLoad) {
+        entries.put(email, principal);
+        // an invalidation that landed between the check and the put must not leave the stale copy behind
+        if (invalidations.get() != invalidationsBeforeLoad) {
+          entries.invalidate(email);
+        }
+      }
+    });
+    return loaded;
+  }
+
+  /**
+   * Drops the user's principal, so the next request reads the user again.
+   */
+  public void invalidate(String email) {
+    if (email == null) {
+      return;
+    }
+    invalidations.incrementAndGet();
+    entries.invalidate(email);
+  }
+
+  public int size() {
+    entries.cleanUp();
+    return (int) entries.estimatedSize();
+  }
+}
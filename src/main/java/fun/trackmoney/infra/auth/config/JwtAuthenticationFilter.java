@@ -1,7 +1,10 @@
 package fun.trackmoney.infra.auth.config;
 
-import com.auth0.jwt.exceptions.TokenExpiredException;
+import fun.trackmoney.infra.auth.AuthenticatedUser;
+import fun.trackmoney.infra.auth.PrincipalCache;
+import fun.trackmoney.infra.jwt.JwtClaims;
 import fun.trackmoney.infra.jwt.JwtService;
+import fun.trackmoney.infra.jwt.TokenRevocationService;
 import fun.trackmoney.entity.UserEntity;
 import fun.trackmoney.repository.UserRepository;
 import jakarta.servlet.FilterChain;
@@ -15,16 +18,22 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import java.io.IOException;
 import java.util.List;
+import java.util.Optional;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
   private final JwtService tokenService;
   private final UserRepository userRepository;
+  private final PrincipalCache principalCache;
+  private final TokenRevocationService revocationService;
 
-  public JwtAuthenticationFilter(JwtService tokenService, UserRepository userRepository) {
+  public JwtAuthenticationFilter(JwtService tokenService, UserRepository userRepository,
+                                 PrincipalCache principalCache, TokenRevocationService revocationService) {
     this.tokenService = tokenService;
     this.userRepository = userRepository;
+    this.principalCache = principalCache;
+    this.revocationService = revocationService;
   }
 
   @Override
@@ -34,25 +43,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     String token = this.recoverToken(request);
 
     if (token != null) {
-      String email;
-      String role;
-
-      try {
-        email = tokenService.extractEmail(token);
-        role = tokenService.extractRole(token);
-
-        if (email == null || role == null) {
-          response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
-          return;
-        }
-
-      } catch (TokenExpiredException e) {
+      Optional<JwtClaims> claims = tokenService.verify(token);
+      if (claims.isEmpty() || claims.get().subject() == null || claims.get().role() == null
+          || revocationService.isRevoked(claims.get())) {
         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
         return;
       }
+      String email = claims.get().subject();
+      String role = claims.get().role();
 
-      UserEntity user = userRepository.findByEmail(email)
-          .orElseThrow(() -> new RuntimeException("User Not Found"));
+      UserEntity user = principalCache.get(email, () -> userRepository.findByEmail(email).map(AuthenticatedUser::from))
+          .orElseThrow(() -> new RuntimeException("User Not Found"))
+          .toUserEntity();
 
       var authorities = List.of(new SimpleGrantedAuthority(role));
       var authentication = new UsernamePasswordAuthenticationToken(user, null, authorities);
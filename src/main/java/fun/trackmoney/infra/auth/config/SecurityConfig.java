@@ -1,5 +1,8 @@
 package fun.trackmoney.infra.auth.config;
 
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -19,9 +22,12 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 public class SecurityConfig {
 
   private final JwtAuthenticationFilter jwtAuthenticationFilter;
+  private final int managementPort;
 
-  public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter) {
+  public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter,
+                        @Value("${management.server.port:-1}") int managementPort) {
     this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+    this.managementPort = managementPort;
   }
 
   @Bean
@@ -31,6 +37,8 @@ public class SecurityConfig {
         .cors(Customizer.withDefaults())
         .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
         .authorizeHttpRequests(authorize -> authorize
+            // streamed responses finish on an async dispatch; the original request was already authorized
+            .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
             .requestMatchers(HttpMethod.POST, "/auth/login").permitAll()
             .requestMatchers(HttpMethod.POST, "/auth/register").permitAll()
             .requestMatchers(HttpMethod.POST, "/auth/forgot-password/**").permitAll()
@@ -38,7 +46,12 @@ public class SecurityConfig {
             .requestMatchers(HttpMethod.POST, "/auth/resend-verification-email").hasAuthority("USER_UNVERIFIED")
             .requestMatchers(HttpMethod.POST, "/auth/verify-email/**").hasAuthority("USER_UNVERIFIED")
             .requestMatchers(HttpMethod.GET, "/auth/refresh").hasAuthority("REFRESH")
-            .requestMatchers("/actuator/health").permitAll()
+            .requestMatchers("/actuator/health", "/actuator/health/liveness", "/actuator/health/readiness",
+                "/livez", "/readyz")
+            .permitAll()
+            // the other endpoints expose internals: only on the management port, which is not published
+            .requestMatchers(this::onManagementPort).permitAll()
+            .requestMatchers("/actuator/**").denyAll()
             .requestMatchers(HttpMethod.GET, "/auth/verify").hasAnyAuthority("USER_UNVERIFIED",
                 "RESET_PASSWORD",
                 "USER_ROLES")
@@ -53,6 +66,10 @@ public class SecurityConfig {
     return http.build();
   }
 
+  private boolean onManagementPort(HttpServletRequest request) {
+    return managementPort > 0 && request.getLocalPort() == managementPort;
+  }
+
   @Bean
   public PasswordEncoder passwordEncoder() {
     return new BCryptPasswordEncoder();
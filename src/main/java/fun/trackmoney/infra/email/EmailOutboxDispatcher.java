@@ -0,0 +1,264 @@
+package fun.trackmoney.infra.email;
+
+import fun.trackmoney.entity.EmailOutboxEntity;
+import fun.trackmoney.enums.EmailStatus;
+import fun.trackmoney.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Delivers the e-mail outbox. A worker claims a batch of due e-mails with FOR UPDATE SKIP LOCKED and moves them out
+ * of the other workers' reach for the claim lease, then sends the whole batch over one SMTP connection and records
+ * the outcome in a second transaction, so no database transaction waits on the mail server. A failed e-mail is
+ * retried with exponential backoff until it runs out of attempts. A node that dies mid-batch leaves its e-mails to
+ * be claimed again once the lease has run out, so delivery is at least once.
+ * The workers are woken up whenever an e-mail is queued, and on every poll for retries and e-mails queued elsewhere.
+ */
+@Component
+public class EmailOutboxDispatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+  private static final int MAX_ERROR_LENGTH = 500;
+  private static final Duration MAX_RETRY_BACKOFF = Duration.ofHours(1);
+
+  private final EmailOutboxRepository outboxRepository;
+  private final JavaMailSender mailSender;
+  private final EmailOutboxProperties properties;
+  private final TransactionTemplate transactionTemplate;
+  private final Executor workers;
+  private final AtomicLong pending = new AtomicLong();
+  private final Counter sent;
+  private final Counter retried;
+  private final Counter failed;
+  private final Timer batchTimer;
+
+  @Autowired
+  public EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                               JavaMailSender mailSender,
+                               EmailOutboxProperties properties,
+                               PlatformTransactionManager transactionManager,
+                               MeterRegistry meterRegistry) {
+    this(outboxRepository, mailSender, properties, transactionManager, meterRegistry,
+        newWorkerPool(properties.workers()));
+  }
+
+  EmailOutboxDispatcher(EmailOutboxRepository outboxRepository,
+                        JavaMailSender mailSender,
+                        EmailOutboxProperties properties,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        Executor workers) {
+    this.outboxRepository = outboxRepository;
+    this.mailSender = mailSender;
+    this.properties = properties;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.workers = workers;
+    this.sent = meterRegistry.counter("trackmoney.email.outbox.messages", "result", "sent");
+    this.retried = meterRegistry.counter("trackmoney.email.outbox.messages", "result", "retried");
+    this.failed = meterRegistry.counter("trackmoney.email.outbox.messages", "result", "failed");
+    this.batchTimer = meterRegistry.timer("trackmoney.email.outbox.batch");
+    meterRegistry.gauge("trackmoney.email.outbox.pending", pending);
+    if (workers instanceof ThreadPoolExecutor pool) {
+      meterRegistry.gauge("trackmoney.email.outbox.workers.active", pool, ThreadPoolExecutor::getActiveCount);
+    }
+  }
+
+  private static ExecutorService newWorkerPool(int workerCount) {
+    // a run drains everything due when it starts, so one queued run per worker is all a burst of wake-ups needs
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(workerCount), new CustomizableThreadFactory("email-outbox-"),
+        new ThreadPoolExecutor.DiscardPolicy());
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /**
+   * Starts the workers that are not running yet, without waiting for them.
+   */
+  public void wakeUp() {
+    for (int i = 0; i < properties.workers(); i++) {
+      workers.execute(this::drain);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${trackmoney.email.outbox.poll-interval:PT10S}")
+  public void poll() {
+    try {
+      pending.set(outboxRepository.countPending());
+    } catch (RuntimeException e) {
+      LOG.warn("Could not count the pending e-mails: {}", e.getMessage());
+    }
+    wakeUp();
+  }
+
+  @Scheduled(cron = "0 30 4 * * *")
+  public void purgeSent() {
+    int purged = outboxRepository.deleteSentBefore(LocalDateTime.now().minus(properties.retention()));
+    LOG.info("Purged {} sent e-mails from the outbox", purged);
+  }
+
+  /**
+   * One worker: claims and sends batches until no due e-mail is left.
+   *
+   * @return how many e-mails were sent
+   */
+  int drain() {
+    int delivered = 0;
+    while (true) {
+      List<EmailOutboxEntity> batch;
+      try {
+        batch = claim(LocalDateTime.now());
+      } catch (RuntimeException e) {
+        LOG.error("Could not claim e-mails from the outbox, stopping this worker: {}", e.getMessage(), e);
+        return delivered;
+      }
+      if (batch.isEmpty()) {
+        return delivered;
+      }
+      delivered += deliver(batch);
+    }
+  }
+
+  private List<EmailOutboxEntity> claim(LocalDateTime now) {
+    return transactionTemplate.execute(status -> {
+      List<EmailOutboxEntity> claimed = outboxRepository.claimDue(now, properties.batchSize());
+      LocalDateTime leaseEnd = now.plus(properties.claimLease());
+      claimed.forEach(email -> email.setNextAttemptAt(leaseEnd));
+      outboxRepository.saveAll(claimed);
+      return claimed;
+    });
+  }
+
+  private int deliver(List<EmailOutboxEntity> batch) {
+    Map<MimeMessage, EmailOutboxEntity> messages = new LinkedHashMap<>();
+    Map<EmailOutboxEntity, Exception> failures = new IdentityHashMap<>();
+    for (EmailOutboxEntity email : batch) {
+      try {
+        messages.put(toMimeMessage(email), email);
+      } catch (MessagingException e) {
+        failures.put(email, e);
+      }
+    }
+    if (!messages.isEmpty()) {
+      failures.putAll(send(messages));
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    batch.forEach(email -> record(email, failures.get(email), now));
+    try {
+      transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(batch));
+    } catch (RuntimeException e) {
+      LOG.error("Could not record the delivery of {} e-mails, they are sent again once their claim runs out",
+          batch.size(), e);
+    }
+    return batch.size() - failures.size();
+  }
+
+  /**
+   * Sends the messages over a single SMTP connection.
+   *
+   * @return the e-mails that were not sent, with the reason
+   */
+  private Map<EmailOutboxEntity, Exception> send(Map<MimeMessage, EmailOutboxEntity> messages) {
+    Map<EmailOutboxEntity, Exception> failures = new IdentityHashMap<>();
+    Timer.Sample sample = Timer.start();
+    try {
+      // JavaMailSender opens one connection per call and sends every message of the call over it
+      mailSender.send(messages.keySet().toArray(MimeMessage[]::new));
+    } catch (MailSendException e) {
+      e.getFailedMessages().forEach((message, cause) -> {
+        EmailOutboxEntity email = messages.get(message);
+        if (email != null) {
+          failures.put(email, cause);
+        }
+      });
+      if (failures.isEmpty()) {
+        messages.values().forEach(email -> failures.put(email, e));
+      }
+    } catch (MailException e) {
+      messages.values().forEach(email -> failures.put(email, e));
+    } finally {
+      sample.stop(batchTimer);
+    }
+    return failures;
+  }
+
+  private void record(EmailOutboxEntity email, Exception failure, LocalDateTime now) {
+    if (failure == null) {
+      email.setStatus(EmailStatus.SENT).setSentAt(now).setLastError(null);
+      sent.increment();
+      return;
+    }
+
+    int attempts = email.getAttempts() + 1;
+    email.setAttempts(attempts).setLastError(truncate(String.valueOf(failure.getMessage())));
+    if (attempts >= properties.maxAttempts()) {
+      email.setStatus(EmailStatus.FAILED);
+      failed.increment();
+      LOG.error("Giving up on e-mail {} after {} attempts: {}", email.getEmailId(), attempts, failure.getMessage());
+      return;
+    }
+    email.setNextAttemptAt(now.plus(backoff(properties.retryBackoff(), attempts)));
+    retried.increment();
+    LOG.warn("Could not send e-mail {} (attempt {}), retrying at {}: {}", email.getEmailId(), attempts,
+        email.getNextAttemptAt(), failure.getMessage());
+  }
+
+  private MimeMessage toMimeMessage(EmailOutboxEntity email) throws MessagingException {
+    MimeMessage mimeMessage = mailSender.createMimeMessage();
+    MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, true);
+    messageHelper.setTo(email.getRecipient());
+    messageHelper.setSubject(email.getSubject());
+    messageHelper.setText(email.getBody(), true);
+    return mimeMessage;
+  }
+
+  /**
+   * The wait after the given number of failed attempts: the base delay doubled with every attempt after the first,
+   * capped at an hour.
+   */
+  static Duration backoff(Duration base, int attempts) {
+    Duration delay = base.multipliedBy(1L << Math.min(attempts - 1, 20));
+    return delay.compareTo(MAX_RETRY_BACKOFF) > 0 ? MAX_RETRY_BACKOFF : delay;
+  }
+
+  private static String truncate(String message) {
+    return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (workers instanceof ExecutorService executorService) {
+      executorService.shutdown();
+    }
+  }
+}
@@ -0,0 +1,31 @@
+package fun.trackmoney.infra.email;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Delivery of the e-mail outbox, under {@code trackmoney.email.outbox}.
+ *
+ * @param workers      how many threads of this node send e-mails at the same time, each over its own SMTP connection
+ * @param batchSize    how many e-mails a worker claims and sends over one SMTP connection
+ * @param maxAttempts  after how many failed attempts an e-mail is given up on and marked FAILED
+ * @param retryBackoff the wait before the first retry; it doubles with every further attempt, up to an hour
+ * @param claimLease   how long a claimed e-mail is left alone by the other workers, i.e. the longest a batch may take
+ * @param retention    how long sent e-mails are kept before they are purged
+ */
+@ConfigurationProperties("trackmoney.email.outbox")
+public record EmailOutboxProperties(@DefaultValue("2") int workers,
+                                    @DefaultValue("50") int batchSize,
+                                    @DefaultValue("8") int maxAttempts,
+                                    @DefaultValue("PT30S") Duration retryBackoff,
+                                    @DefaultValue("PT5M") Duration claimLease,
+                                    @DefaultValue("P7D") Duration retention) {
+
+  public EmailOutboxProperties {
+    if (workers < 1 || batchSize < 1 || maxAttempts < 1) {
+      throw new IllegalArgumentException("The e-mail outbox needs at least 1 worker, batch size and attempt");
+    }
+  }
+}
@@ -1,58 +1,71 @@
 package fun.trackmoney.infra.email;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Async;
+import fun.trackmoney.entity.EmailOutboxEntity;
+import fun.trackmoney.enums.EmailStatus;
+import fun.trackmoney.repository.EmailOutboxRepository;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import java.time.LocalDateTime;
+
+/**
+ * Renders the application's e-mails and queues them in the outbox; {@link EmailOutboxDispatcher} delivers them.
+ * Queuing joins the caller's transaction, so an e-mail goes out if and only if that transaction commits.
+ */
 @Service
 public class EmailService {
 
-  private final JavaMailSender javaMailSender;
+  private final EmailOutboxRepository outboxRepository;
   private final TemplateEngine templateEngine;
+  private final EmailOutboxDispatcher dispatcher;
 
-
-  public EmailService(JavaMailSender javaMailSender, TemplateEngine templateEngine) {
-    this.javaMailSender = javaMailSender;
+  public EmailService(EmailOutboxRepository outboxRepository, TemplateEngine templateEngine,
+                      EmailOutboxDispatcher dispatcher) {
+    this.outboxRepository = outboxRepository;
     this.templateEngine = templateEngine;
+    this.dispatcher = dispatcher;
   }
 
-  @Async
-  public void sendEmailToVerifyEmail(String to, String name, Integer code) throws MessagingException {
-    MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-    MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, true);
-
-    messageHelper.setTo(to);
-    messageHelper.setSubject("Confirm your e-mail");
-
+  public void sendEmailToVerifyEmail(String to, String name, Integer code) {
     Context context = new Context();
     context.setVariable("verificationCode", code);
     context.setVariable("userName", name);
 
-    String htmlContent = templateEngine.process("email-template-verify-email", context);
-    messageHelper.setText(htmlContent, true);
-
-    javaMailSender.send(mimeMessage);
+    enqueue(to, "Confirm your e-mail", templateEngine.process("email-template-verify-email", context));
   }
 
-  public void sendEmailToResetPassword(String to, String name, String link) throws MessagingException {
-    MimeMessage mimeMessage = javaMailSender.createMimeMessage();
-    MimeMessageHelper messageHelper = new MimeMessageHelper(mimeMessage, true);
-
-    messageHelper.setTo(to);
-    messageHelper.setSubject("Confirm your e-mail");
-
+  public void sendEmailToResetPassword(String to, String name, String link) {
     Context context = new Context();
     context.setVariable("resetLink", link);
     context.setVariable("userName", name);
 
-    String htmlContent = templateEngine.process("email-template-reset-password", context);
-    messageHelper.setText(htmlContent, true);
+    enqueue(to, "Confirm your e-mail", templateEngine.process("email-template-reset-password", context));
+  }
+
+  private void enqueue(String to, String subject, String body) {
+    LocalDateTime now = LocalDateTime.now();
+    outboxRepository.save(new EmailOutboxEntity()
+        .setRecipient(to)
+        .setSubject(subject)
+        .setBody(body)
+        .setStatus(EmailStatus.PENDING)
+        .setAttempts(0)
+        .setNextAttemptAt(now)
+        .setCreatedAt(now));
 
-    javaMailSender.send(mimeMessage);
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      dispatcher.wakeUp();
+      return;
+    }
+    // the workers would not see the row before the commit
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        dispatcher.wakeUp();
+      }
+    });
   }
 }
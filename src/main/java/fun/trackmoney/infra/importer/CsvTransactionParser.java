@@ -0,0 +1,140 @@
+package fun.trackmoney.infra.importer;
+
+import fun.trackmoney.dto.transaction.ImportRowErrorDTO;
+import fun.trackmoney.enums.ImportFormat;
+import fun.trackmoney.enums.TransactionType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.LineNumberReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Parses comma separated files whose first line names the columns. Columns are matched by name, so the
+ * files produced by the CSV export can be imported back; unknown columns are ignored.
+ * Quoted fields may contain commas, doubled quotes and line breaks; a line break inside a field is read back as
+ * {@code \n}, and errors point at the line the row starts on.
+ */
+@Component
+public class CsvTransactionParser implements TransactionFileParser {
+
+  private static final String NAME = "transactionName";
+  private static final String CATEGORY = "categoryId";
+  private static final String TYPE = "transactionType";
+  private static final String AMOUNT = "amount";
+  private static final String DESCRIPTION = "description";
+  private static final String DATE = "transactionDate";
+
+  @Override
+  public ImportFormat format() {
+    return ImportFormat.CSV;
+  }
+
+  @Override
+  public void parse(Reader reader, ImportRowHandler handler) throws IOException {
+    LineNumberReader lines = new LineNumberReader(reader);
+    String header = readRecord(lines);
+    if (header == null) {
+      return;
+    }
+
+    Map<String, Integer> columns = indexColumns(split(header.replace("\uFEFF", "")));
+    List<String> missing = List.of(NAME, AMOUNT, DATE).stream()
+        .filter(column -> !columns.containsKey(key(column)))
+        .toList();
+    if (!missing.isEmpty()) {
+      handler.onError(new ImportRowErrorDTO(1, "header", "Missing required columns: " + missing));
+      return;
+    }
+
+    int lineNumber = lines.getLineNumber() + 1;
+    String record;
+    while ((record = readRecord(lines)) != null) {
+      if (!record.isBlank()) {
+        parseRow(lineNumber, split(record), columns, handler);
+      }
+      lineNumber = lines.getLineNumber() + 1;
+    }
+  }
+
+  /**
+   * Reads one row, joining the following lines while a quoted field is still open.
+   */
+  private String readRecord(LineNumberReader lines) throws IOException {
+    String line = lines.readLine();
+    if (line == null) {
+      return null;
+    }
+    StringBuilder record = new StringBuilder(line);
+    long quotes = line.chars().filter(c -> c == '"').count();
+    String next;
+    while (quotes % 2 != 0 && (next = lines.readLine()) != null) {
+      record.append('\n').append(next);
+      quotes += next.chars().filter(c -> c == '"').count();
+    }
+    return record.toString();
+  }
+
+  private void parseRow(int lineNumber, List<String> values, Map<String, Integer> columns,
+                        ImportRowHandler handler) {
+    try {
+      BigDecimal amount = ImportValues.amount(AMOUNT, value(values, columns, AMOUNT));
+      TransactionType type = ImportValues.type(TYPE, value(values, columns, TYPE), amount);
+      handler.onRow(new ImportedTransaction(
+          lineNumber,
+          ImportValues.text(value(values, columns, NAME)),
+          ImportValues.integer(CATEGORY, value(values, columns, CATEGORY)),
+          type,
+          amount.abs(),
+          ImportValues.text(value(values, columns, DESCRIPTION)),
+          ImportValues.isoDateTime(DATE, value(values, columns, DATE))));
+    } catch (ImportFieldException e) {
+      handler.onError(new ImportRowErrorDTO(lineNumber, e.getField(), e.getMessage()));
+    }
+  }
+
+  private Map<String, Integer> indexColumns(List<String> header) {
+    Map<String, Integer> columns = new HashMap<>();
+    for (int i = 0; i < header.size(); i++) {
+      columns.putIfAbsent(key(header.get(i)), i);
+    }
+    return columns;
+  }
+
+  private String value(List<String> values, Map<String, Integer> columns, String column) {
+    Integer index = columns.get(key(column));
+    return index == null || index >= values.size() ? null : values.get(index);
+  }
+
+  private String key(String column) {
+    return column.trim().toLowerCase(Locale.ROOT);
+  }
+
+  static List<String> split(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder current = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+        current.append('"');
+        i++;
+      } else if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ',' && !quoted) {
+        fields.add(current.toString());
+        current.setLength(0);
+      } else {
+        current.append(c);
+      }
+    }
+    fields.add(current.toString());
+    return fields;
+  }
+}
@@ -0,0 +1,19 @@
+package fun.trackmoney.infra.importer;
+
+/**
+ * Signals that a single field of an import row could not be converted. Parsers turn it into a row error
+ * and carry on with the next row.
+ */
+class ImportFieldException extends RuntimeException {
+
+  private final String field;
+
+  ImportFieldException(String field, String message) {
+    super(message);
+    this.field = field;
+  }
+
+  String getField() {
+    return field;
+  }
+}
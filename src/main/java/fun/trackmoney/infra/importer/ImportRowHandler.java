@@ -0,0 +1,10 @@
+package fun.trackmoney.infra.importer;
+
+import fun.trackmoney.dto.transaction.ImportRowErrorDTO;
+
+public interface ImportRowHandler {
+
+  void onRow(ImportedTransaction row);
+
+  void onError(ImportRowErrorDTO error);
+}
@@ -0,0 +1,71 @@
+package fun.trackmoney.infra.importer;
+
+import fun.trackmoney.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * Conversions shared by the import parsers.
+ */
+final class ImportValues {
+
+  private ImportValues() {
+  }
+
+  static BigDecimal amount(String field, String value) {
+    if (value == null || value.isBlank()) {
+      throw new ImportFieldException(field, "Amount is required.");
+    }
+    try {
+      return new BigDecimal(value.trim());
+    } catch (NumberFormatException e) {
+      throw new ImportFieldException(field, "Invalid amount: " + value.trim());
+    }
+  }
+
+  /**
+   * Resolves the type from its name ("INCOME", "Expense"...) or, when the file does not provide one,
+   * from the sign of the amount as bank statements usually do.
+   */
+  static TransactionType type(String field, String value, BigDecimal amount) {
+    if (value == null || value.isBlank()) {
+      return amount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME;
+    }
+    try {
+      return TransactionType.valueOf(value.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new ImportFieldException(field, "Invalid transaction type: " + value.trim());
+    }
+  }
+
+  static LocalDateTime isoDateTime(String field, String value) {
+    if (value == null || value.isBlank()) {
+      throw new ImportFieldException(field, "Date is required.");
+    }
+    String trimmed = value.trim();
+    try {
+      return trimmed.length() <= 10 ? LocalDate.parse(trimmed).atStartOfDay() : LocalDateTime.parse(trimmed);
+    } catch (DateTimeParseException e) {
+      throw new ImportFieldException(field, "Invalid date: " + trimmed);
+    }
+  }
+
+  static Integer integer(String field, String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    try {
+      return Integer.valueOf(value.trim());
+    } catch (NumberFormatException e) {
+      throw new ImportFieldException(field, "Invalid number: " + value.trim());
+    }
+  }
+
+  static String text(String value) {
+    return value == null || value.isBlank() ? null : value.trim();
+  }
+}
@@ -0,0 +1,19 @@
+package fun.trackmoney.infra.importer;
+
+import fun.trackmoney.enums.TransactionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A row read from an import file, already converted to typed values but not yet validated against the
+ * account (categories, lengths). {@code categoryId} is null when the file does not carry one.
+ */
+public record ImportedTransaction(int line,
+                                  String transactionName,
+                                  Integer categoryId,
+                                  TransactionType transactionType,
+                                  BigDecimal amount,
+                                  String description,
+                                  LocalDateTime transactionDate) {
+}
@@ -0,0 +1,131 @@
+package fun.trackmoney.infra.importer;
+
+import fun.trackmoney.dto.transaction.ImportRowErrorDTO;
+import fun.trackmoney.enums.ImportFormat;
+import fun.trackmoney.enums.TransactionType;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Extracts the {@code STMTTRN} records of an OFX statement. Works for both the SGML flavour (1.x, where
+ * leaf tags are not closed) and the XML one (2.x). The sign of {@code TRNAMT} gives the transaction type;
+ * OFX has no notion of category, so rows come out without one.
+ */
+@Component
+public class OfxTransactionParser implements TransactionFileParser {
+
+  private static final String TRANSACTION = "STMTTRN";
+  private static final String CLOSE_TRANSACTION = "/STMTTRN";
+  private static final DateTimeFormatter OFX_DATE = DateTimeFormatter.ofPattern("yyyyMMdd");
+  private static final DateTimeFormatter OFX_DATE_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss");
+
+  @Override
+  public ImportFormat format() {
+    return ImportFormat.OFX;
+  }
+
+  @Override
+  public void parse(Reader reader, ImportRowHandler handler) throws IOException {
+    BufferedReader input = new BufferedReader(reader);
+    RecordCollector collector = new RecordCollector(handler);
+    StringBuilder buffer = new StringBuilder();
+    int line = 1;
+    int c;
+
+    while ((c = input.read()) != -1) {
+      if (c == '\n') {
+        line++;
+      }
+      if (c == '<') {
+        collector.text(buffer.toString());
+        buffer.setLength(0);
+      } else if (c == '>') {
+        collector.tag(buffer.toString(), line);
+        buffer.setLength(0);
+      } else {
+        buffer.append((char) c);
+      }
+    }
+  }
+
+  /**
+   * Tracks the transaction record being read. Values are attached to the last opened tag, which is
+   * what makes unclosed SGML leaf tags work.
+   */
+  private final class RecordCollector {
+
+    private final ImportRowHandler handler;
+    private Map<String, String> record;
+    private String currentTag;
+    private int recordLine;
+
+    private RecordCollector(ImportRowHandler handler) {
+      this.handler = handler;
+    }
+
+    private void text(String value) {
+      if (record != null && currentTag != null && !value.isBlank()) {
+        record.put(currentTag, value.trim());
+      }
+    }
+
+    private void tag(String name, int line) {
+      String tag = name.trim().toUpperCase(Locale.ROOT);
+      currentTag = tag.startsWith("/") ? null : tag;
+      if (TRANSACTION.equals(tag)) {
+        record = new HashMap<>();
+        recordLine = line;
+      } else if (CLOSE_TRANSACTION.equals(tag) && record != null) {
+        emit(recordLine, record, handler);
+        record = null;
+      }
+    }
+  }
+
+  private void emit(int line, Map<String, String> record, ImportRowHandler handler) {
+    try {
+      BigDecimal amount = ImportValues.amount("TRNAMT", record.get("TRNAMT"));
+      String memo = ImportValues.text(record.get("MEMO"));
+      String name = ImportValues.text(record.get("NAME"));
+      handler.onRow(new ImportedTransaction(
+          line,
+          name != null ? name : memo,
+          null,
+          amount.signum() < 0 ? TransactionType.EXPENSE : TransactionType.INCOME,
+          amount.abs(),
+          memo,
+          date(record.get("DTPOSTED"))));
+    } catch (ImportFieldException e) {
+      handler.onError(new ImportRowErrorDTO(line, e.getField(), e.getMessage()));
+    }
+  }
+
+  /**
+   * OFX dates look like {@code 20250310}, {@code 20250310120000} or {@code 20250310120000.000[-3:BRT]};
+   * the fraction and time zone are ignored.
+   */
+  private LocalDateTime date(String value) {
+    if (value == null || value.length() < 8) {
+      throw new ImportFieldException("DTPOSTED", "Invalid date: " + value);
+    }
+    try {
+      if (value.length() >= 14 && Character.isDigit(value.charAt(13))) {
+        return LocalDateTime.parse(value.substring(0, 14), OFX_DATE_TIME);
+      }
+      return LocalDate.parse(value.substring(0, 8), OFX_DATE).atStartOfDay();
+    } catch (DateTimeParseException e) {
+      throw new ImportFieldException("DTPOSTED", "Invalid date: " + value);
+    }
+  }
+}
@@ -0,0 +1,17 @@
+package fun.trackmoney.infra.importer;
+
+import fun.trackmoney.enums.ImportFormat;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads an import file incrementally and hands each row to the handler as soon as it is parsed,
+ * so the whole file is never held in memory.
+ */
+public interface TransactionFileParser {
+
+  ImportFormat format();
+
+  void parse(Reader reader, ImportRowHandler handler) throws IOException;
+}
@@ -0,0 +1,16 @@
+package fun.trackmoney.infra.jwt;
+
+import java.time.Instant;
+
+/**
+ * The claims of a token whose signature, issuer and expiry {@link JwtService} has verified.
+ *
+ * @param id        the token id (jti); null for tokens issued before tokens carried one
+ * @param subject   the user's email
+ * @param role      the "roles" claim, e.g. USER_ROLES or REFRESH
+ * @param issuedAt  when the token was issued, to the millisecond; to the second for tokens issued before tokens
+ *                  carried the iat_ms claim, null for tokens issued before they carried iat
+ * @param expiresAt when the token stops being valid; null when it never expires
+ */
+public record JwtClaims(String id, String subject, String role, Instant issuedAt, Instant expiresAt) {
+}
@@ -5,8 +5,12 @@ import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
 
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.JWTVerifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -17,15 +21,26 @@ public class JwtService {
   private String secret;
 
   private static final String CLAIM_ROLES = "roles";
+  // iat has second precision; revocation compares against the issue time in milliseconds
+  static final String CLAIM_ISSUED_AT_MILLIS = "iat_ms";
   private static final String ISSUER = "trackmoney";
 
-  private static final String REFRESH = "REFRESH";
+  public static final String REFRESH = "REFRESH";
+  private static final int VERIFIED_TOKEN_CACHE_SIZE = 10_000;
+
+  // built once per secret; both are thread-safe and expensive enough to show up when created per request
+  private volatile Keys keys;
+  private final VerifiedTokenCache verifiedTokens = new VerifiedTokenCache(VERIFIED_TOKEN_CACHE_SIZE);
 
   public String generateAccessToken(String email) {
     try {
-      Algorithm algorithm = Algorithm.HMAC256(secret);
+      Algorithm algorithm = keys().algorithm();
+      Instant issuedAt = Instant.now();
       return JWT.create()
           .withIssuer(ISSUER)
+          .withJWTId(UUID.randomUUID().toString())
+          .withIssuedAt(issuedAt)
+          .withClaim(CLAIM_ISSUED_AT_MILLIS, issuedAt.toEpochMilli())
           .withClaim(CLAIM_ROLES, "USER_ROLES")
           .withSubject(email)
           .withExpiresAt(getAccessTokenExpiry())
@@ -37,9 +52,13 @@ public class JwtService {
 
   public String generateRefreshToken(String email) {
     try {
-      Algorithm algorithm = Algorithm.HMAC256(secret);
+      Algorithm algorithm = keys().algorithm();
+      Instant issuedAt = Instant.now();
       return JWT.create()
           .withIssuer(ISSUER)
+          .withJWTId(UUID.randomUUID().toString())
+          .withIssuedAt(issuedAt)
+          .withClaim(CLAIM_ISSUED_AT_MILLIS, issuedAt.toEpochMilli())
           .withClaim(CLAIM_ROLES, REFRESH)
           .withSubject(email)
           .withExpiresAt(getRefreshTokenExpiry())
@@ -51,9 +70,13 @@ public class JwtService {
 
   public String generateResetPasswordToken(String email) {
     try {
-      Algorithm algorithm = Algorithm.HMAC256(secret);
+      Algorithm algorithm = keys().algorithm();
+      Instant issuedAt = Instant.now();
       return JWT.create()
           .withIssuer(ISSUER)
+          .withJWTId(UUID.randomUUID().toString())
+          .withIssuedAt(issuedAt)
+          .withClaim(CLAIM_ISSUED_AT_MILLIS, issuedAt.toEpochMilli())
           .withClaim(CLAIM_ROLES, "RESET_PASSWORD")
           .withSubject(email)
           .withExpiresAt(getRestPasswordExpiry())
@@ -65,16 +88,46 @@ public class JwtService {
 
   protected DecodedJWT validateToken(String token) {
     try {
-      Algorithm algorithm = Algorithm.HMAC256(secret);
-      return JWT.require(algorithm)
-          .withIssuer(ISSUER)
-          .build()
-          .verify(token);
+      return keys().verifier().verify(token);
     } catch (JWTVerificationException e) {
       return null;
     }
   }
 
+  /**
+   * Verifies the token once and returns all the claims the caller needs from it.
+   * A token verified before is answered from memory until it expires.
+   *
+   * @return the claims, or empty when the signature, issuer or expiry does not check out
+   */
+  public Optional<JwtClaims> verify(String token) {
+    Optional<JwtClaims> cached = verifiedTokens.get(token);
+    if (cached.isPresent()) {
+      return cached;
+    }
+
+    DecodedJWT jwt = validateToken(token);
+    if (jwt == null) {
+      return Optional.empty();
+    }
+    Long issuedAtMillis = jwt.getClaim(CLAIM_ISSUED_AT_MILLIS).asLong();
+    Instant issuedAt = issuedAtMillis == null ? jwt.getIssuedAtAsInstant() : Instant.ofEpochMilli(issuedAtMillis);
+    JwtClaims claims = new JwtClaims(jwt.getId(), jwt.getSubject(), jwt.getClaim(CLAIM_ROLES).asString(),
+        issuedAt, jwt.getExpiresAtAsInstant());
+    verifiedTokens.put(token, claims);
+    return Optional.of(claims);
+  }
+
+  private Keys keys() {
+    Keys current = keys;
+    if (current == null || !Objects.equals(current.secret(), secret)) {
+      Algorithm algorithm = Algorithm.HMAC256(secret);
+      current = new Keys(secret, algorithm, JWT.require(algorithm).withIssuer(ISSUER).build());
+      keys = current;
+    }
+    return current;
+  }
+
   protected Instant getAccessTokenExpiry() {
     return Instant.now().plusSeconds(15L * 60);
   }
@@ -89,9 +142,13 @@ public class JwtService {
 
   public String generateVerificationToken(String email) {
     try {
-      Algorithm algorithm = Algorithm.HMAC256(secret);
+      Algorithm algorithm = keys().algorithm();
+      Instant issuedAt = Instant.now();
       return JWT.create()
           .withIssuer(ISSUER)
+          .withJWTId(UUID.randomUUID().toString())
+          .withIssuedAt(issuedAt)
+          .withClaim(CLAIM_ISSUED_AT_MILLIS, issuedAt.toEpochMilli())
           .withClaim(CLAIM_ROLES, "USER_UNVERIFIED")
           .withSubject(email)
           .withClaim("IsVerify", false)
@@ -103,12 +160,13 @@ public class JwtService {
   }
 
   public String extractEmail(String token) {
-    DecodedJWT jwt = validateToken(token);
-    return jwt != null ? jwt.getSubject() : null;
+    return verify(token).map(JwtClaims::subject).orElse(null);
   }
 
   public String extractRole(String token) {
-    DecodedJWT jwt = validateToken(token);
-    return jwt != null ? jwt.getClaim(CLAIM_ROLES).asString() : null;
+    return verify(token).map(JwtClaims::role).orElse(null);
+  }
+
+  private record Keys(String secret, Algorithm algorithm, JWTVerifier verifier) {
   }
-}
\ No newline at end of file
+}
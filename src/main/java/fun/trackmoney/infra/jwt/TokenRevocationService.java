@@ -0,0 +1,155 @@
+package fun.trackmoney.infra.jwt;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Revoked tokens, kept in Redis and mirrored in a per-node Bloom filter.
+ * All tokens of a user are revoked under "revoked-user:email", holding the time of revocation in epoch milliseconds,
+ * for as long as the longest-lived token. Checking a token only goes to Redis when the Bloom filter cannot rule out
+ * its user's key, so the usual never-revoked token costs no network hop. The filter is rebuilt from Redis every sync
+ * interval, which bounds how long a revocation made on another node goes unnoticed here; revocations made on this
+ * node take effect at once.
+ * Used refresh tokens are recorded under "used-refresh-token:jti", outside the filter and the sync scan: each login
+ * and refresh leaves one, and only the single-use check reads them back.
+ */
+@Service
+public class TokenRevocationService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TokenRevocationService.class);
+  static final String USER_KEY_PREFIX = "revoked-user:";
+  static final String USED_REFRESH_KEY_PREFIX = "used-refresh-token:";
+  // as long as a refresh token lives, the longest-lived token issued
+  private static final Duration USER_REVOCATION_TTL = Duration.ofDays(7);
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+  // revocations written before the time was kept in milliseconds hold epoch seconds, which stay below this
+  private static final long LEGACY_SECONDS_LIMIT = 100_000_000_000L;
+
+  private final StringRedisTemplate redisTemplate;
+  private final int expectedRevocations;
+  private final Counter bloomChecks;
+  private final Counter redisChecks;
+  private volatile BloomFilter filter;
+  // the filter being rebuilt, if any; revocations made meanwhile go into both
+  private volatile BloomFilter rebuilding;
+
+  public TokenRevocationService(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                                @Value("${trackmoney.auth.revocation.expected-revocations:100000}")
+                                int expectedRevocations) {
+    this.redisTemplate = redisTemplate;
+    this.expectedRevocations = expectedRevocations;
+    this.bloomChecks = meterRegistry.counter("trackmoney.auth.revocation.checks", "path", "bloom");
+    this.redisChecks = meterRegistry.counter("trackmoney.auth.revocation.checks", "path", "redis");
+    this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+  }
+
+  /**
+   * Uses up a single-use refresh token: the first call for a token id succeeds, every later one fails, on any node.
+   * The use is not a revocation, so it stays out of the Bloom filter that every authenticated request checks.
+   *
+   * @param tokenId   the token's jti
+   * @param expiresAt when the token expires; the record is kept until then
+   * @return whether this was the first use; false as well when Redis could not be asked
+   */
+  public boolean consume(String tokenId, Instant expiresAt) {
+    try {
+      return Boolean.TRUE.equals(redisTemplate.opsForValue()
+          .setIfAbsent(USED_REFRESH_KEY_PREFIX + tokenId, "1", ttlUntil(expiresAt)));
+    } catch (RuntimeException e) {
+      LOG.warn("Could not record the use of token {}, rejecting it", tokenId, e);
+      return false;
+    }
+  }
+
+  /**
+   * Revokes every token issued to the user up to now. Tokens issued afterwards are not affected.
+   */
+  public void revokeAllForUser(String email) {
+    String key = USER_KEY_PREFIX + email;
+    redisTemplate.opsForValue().set(key, String.valueOf(Instant.now().toEpochMilli()), USER_REVOCATION_TTL);
+    remember(key);
+  }
+
+  /**
+   * Whether the verified token was revoked with all tokens of its user.
+   * When the Bloom filter points at a revocation and Redis cannot confirm it, the token is treated as revoked.
+   */
+  public boolean isRevoked(JwtClaims claims) {
+    String userKey = USER_KEY_PREFIX + claims.subject();
+    if (!filter.mightContain(userKey)) {
+      bloomChecks.increment();
+      return false;
+    }
+
+    redisChecks.increment();
+    try {
+      return issuedBeforeRevocation(claims.issuedAt(), redisTemplate.opsForValue().get(userKey));
+    } catch (RuntimeException e) {
+      LOG.warn("Could not check the revocation of a token of {}, rejecting it", claims.subject(), e);
+      return true;
+    }
+  }
+
+  /**
+   * Rebuilds the Bloom filter from the revocations in Redis, picking up those made on other nodes and dropping
+   * the expired ones. The current filter stays in use when Redis cannot be read.
+   */
+  @Scheduled(fixedDelayString = "${trackmoney.auth.revocation.sync-interval:PT30S}")
+  public void sync() {
+    BloomFilter next = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+    rebuilding = next;
+    int revocations = 0;
+    try (Cursor<String> keys = redisTemplate.scan(ScanOptions.scanOptions().match("revoked-*").count(1000).build())) {
+      while (keys.hasNext()) {
+        next.add(keys.next());
+        revocations++;
+      }
+      filter = next;
+      LOG.debug("Synced the token revocation filter with {} revocations", revocations);
+    } catch (RuntimeException e) {
+      LOG.warn("Could not sync the token revocation filter, keeping the current one", e);
+    } finally {
+      rebuilding = null;
+    }
+  }
+
+  private void remember(String key) {
+    // read the rebuilding filter first: once it is cleared the filter in use is the rebuilt one
+    BloomFilter next = rebuilding;
+    if (next != null) {
+      next.add(key);
+    }
+    filter.add(key);
+  }
+
+  private static boolean issuedBeforeRevocation(Instant issuedAt, String revokedAt) {
+    if (revokedAt == null) {
+      return false;
+    }
+    long revokedAtMillis = Long.parseLong(revokedAt);
+    if (revokedAtMillis < LEGACY_SECONDS_LIMIT) {
+      // the whole second of a legacy revocation counts as revoked
+      revokedAtMillis = revokedAtMillis * 1000 + 999;
+    }
+    return issuedAt == null || issuedAt.toEpochMilli() <= revokedAtMillis;
+  }
+
+  private static Duration ttlUntil(Instant expiresAt) {
+    if (expiresAt == null) {
+      return USER_REVOCATION_TTL;
+    }
+    Duration remaining = Duration.between(Instant.now(), expiresAt);
+    return remaining.compareTo(Duration.ofSeconds(1)) < 0 ? Duration.ofSeconds(1) : remaining;
+  }
+}
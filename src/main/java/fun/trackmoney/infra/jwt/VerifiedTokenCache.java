@@ -0,0 +1,85 @@
+package fun.trackmoney.infra.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers recently verified tokens until they expire, so a client sending the same access token on every request
+ * has its signature checked once. Tokens are kept as SHA-256 digests only, never in clear. Backed by a bounded
+ * Caffeine cache like {@code PrincipalCache}, so concurrent requests do not contend on a shared lock; each entry
+ * expires at its token's expiry.
+ */
+class VerifiedTokenCache {
+
+  private final Cache<String, JwtClaims> entries;
+
+  VerifiedTokenCache(int maxSize) {
+    this(maxSize, System::currentTimeMillis);
+  }
+
+  VerifiedTokenCache(int maxSize, LongSupplier clock) {
+    this.entries = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new UntilTokenExpiry())
+        .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.getAsLong()))
+        .build();
+  }
+
+  Optional<JwtClaims> get(String token) {
+    return Optional.ofNullable(entries.getIfPresent(digest(token)));
+  }
+
+  /**
+   * Caches the claims of a verified token; tokens without an expiry are not cached.
+   */
+  void put(String token, JwtClaims claims) {
+    if (claims.expiresAt() == null) {
+      return;
+    }
+    entries.put(digest(token), claims);
+  }
+
+  int size() {
+    entries.cleanUp();
+    return (int) entries.estimatedSize();
+  }
+
+  private static String digest(String token) {
+    try {
+      byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+      return Base64.getEncoder().encodeToString(hash);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+
+  /**
+   * Expires an entry at its claims' expiresAt, read against the cache ticker (epoch time in nanoseconds).
+   */
+  private static final class UntilTokenExpiry implements Expiry<String, JwtClaims> {
+
+    @Override
+    public long expireAfterCreate(String key, JwtClaims claims, long currentTime) {
+      return Math.max(0, TimeUnit.MILLISECONDS.toNanos(claims.expiresAt().toEpochMilli()) - currentTime);
+    }
+
+    @Override
+    public long expireAfterUpdate(String key, JwtClaims claims, long currentTime, long currentDuration) {
+      return expireAfterCreate(key, claims, currentTime);
+    }
+
+    @Override
+    public long expireAfterRead(String key, JwtClaims claims, long currentTime, long currentDuration) {
+      return currentDuration;
+    }
+  }
+}
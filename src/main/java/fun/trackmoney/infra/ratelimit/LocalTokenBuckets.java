@@ -0,0 +1,79 @@
+package fun.trackmoney.infra.ratelimit;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory token buckets, used by {@link RateLimiter} on this node while Redis cannot be reached.
+ * The map is bounded by dropping buckets that have refilled completely, which behave exactly like a missing one.
+ */
+class LocalTokenBuckets {
+
+  private final int maxBuckets;
+  private final LongSupplier clock;
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+  LocalTokenBuckets(int maxBuckets, LongSupplier clock) {
+    this.maxBuckets = maxBuckets;
+    this.clock = clock;
+  }
+
+  /**
+   * Takes a token from the key's bucket.
+   *
+   * @return 0 when a token was taken, otherwise the milliseconds until the next one is available
+   */
+  long tryConsume(String key, RateLimitProperties.Bucket limit) {
+    long now = clock.getAsLong();
+    if (buckets.size() >= maxBuckets) {
+      dropFullBuckets(now);
+    }
+    Bucket bucket = buckets.computeIfAbsent(key, ignored -> new Bucket(limit, now));
+    synchronized (bucket) {
+      bucket.refill(now);
+      if (bucket.tokens >= 1) {
+        bucket.tokens -= 1;
+        return 0;
+      }
+      return (long) Math.ceil((1 - bucket.tokens) / bucket.tokensPerMilli);
+    }
+  }
+
+  int size() {
+    return buckets.size();
+  }
+
+  private void dropFullBuckets(long now) {
+    Iterator<Bucket> iterator = buckets.values().iterator();
+    while (iterator.hasNext()) {
+      Bucket bucket = iterator.next();
+      synchronized (bucket) {
+        bucket.refill(now);
+        if (bucket.tokens >= bucket.capacity) {
+          iterator.remove();
+        }
+      }
+    }
+  }
+
+  private static final class Bucket {
+    private final double capacity;
+    private final double tokensPerMilli;
+    private double tokens;
+    private long updatedAt;
+
+    Bucket(RateLimitProperties.Bucket limit, long now) {
+      this.capacity = limit.capacity();
+      this.tokensPerMilli = limit.refillPerMinute() / 60_000.0;
+      this.tokens = capacity;
+      this.updatedAt = now;
+    }
+
+    void refill(long now) {
+      tokens = Math.min(capacity, tokens + Math.max(0, now - updatedAt) * tokensPerMilli);
+      updatedAt = now;
+    }
+  }
+}
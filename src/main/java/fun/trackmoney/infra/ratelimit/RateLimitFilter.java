@@ -0,0 +1,161 @@
+package fun.trackmoney.infra.ratelimit;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fun.trackmoney.utils.response.ApiResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Applies the {@link RateLimitProperties} limits to the auth routes before the security chain runs, so a limited
+ * request costs neither a token verification nor any of the BCrypt, SMTP or Redis work behind the route.
+ * Each request takes a token from its client address bucket and, where configured, from the bucket of the email it
+ * targets; the latter stops one account from being hammered from many addresses.
+ * Behind the reverse proxy the client address is the one Tomcat takes from X-Forwarded-For
+ * ({@code server.forward-headers-strategy}), so clients do not all share the proxy's bucket.
+ */
+@Component
+@Order(SecurityProperties.DEFAULT_FILTER_ORDER - 10)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  // bodies of the limited routes are a few hundred bytes; a larger one is rejected rather than let past the email
+  // bucket unread
+  private static final int MAX_BUFFERED_BODY = 16 * 1024;
+  private static final String METER = "trackmoney.ratelimit.requests";
+
+  private final RateLimitProperties properties;
+  private final RateLimiter rateLimiter;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry meterRegistry;
+  private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+  public RateLimitFilter(RateLimitProperties properties,
+                         RateLimiter rateLimiter,
+                         ObjectMapper objectMapper,
+                         MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.rateLimiter = rateLimiter;
+    this.objectMapper = objectMapper;
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !properties.enabled() || properties.routes().isEmpty();
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    Map.Entry<String, RateLimitProperties.Route> matched = match(request);
+    if (matched == null) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    String name = matched.getKey();
+    RateLimitProperties.Route route = matched.getValue();
+    HttpServletRequest forwarded = request;
+    long wait = rateLimiter.tryConsume(name + ":ip:" + request.getRemoteAddr(), route.perIp());
+    if (wait == 0 && route.perEmail() != null) {
+      if (route.emailSource() == RateLimitProperties.EmailSource.BODY) {
+        forwarded = CachedBodyRequest.read(request, MAX_BUFFERED_BODY);
+        if (forwarded == null) {
+          count(name, "too_large");
+          reject(response, HttpStatus.PAYLOAD_TOO_LARGE, "Request body too large.");
+          return;
+        }
+      }
+      String email = resolveEmail(forwarded, route.emailSource());
+      if (email != null) {
+        wait = rateLimiter.tryConsume(name + ":email:" + email, route.perEmail());
+      }
+    }
+
+    count(name, wait == 0 ? "allowed" : "limited");
+    if (wait > 0) {
+      response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (wait + 999) / 1000)));
+      reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many requests, please try again later.");
+      return;
+    }
+    filterChain.doFilter(forwarded, response);
+  }
+
+  private Map.Entry<String, RateLimitProperties.Route> match(HttpServletRequest request) {
+    String path = request.getRequestURI().substring(request.getContextPath().length());
+    for (Map.Entry<String, RateLimitProperties.Route> entry : properties.routes().entrySet()) {
+      RateLimitProperties.Route route = entry.getValue();
+      if (route.method().equalsIgnoreCase(request.getMethod()) && pathMatcher.match(route.path(), path)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private String resolveEmail(HttpServletRequest request, RateLimitProperties.EmailSource source) {
+    String email = switch (source) {
+      case BODY -> request instanceof CachedBodyRequest cached ? emailFromBody(cached.getBody()) : null;
+      case PATH -> URLDecoder.decode(request.getRequestURI().substring(request.getRequestURI().lastIndexOf('/') + 1),
+          StandardCharsets.UTF_8);
+      case TOKEN -> emailFromToken(request.getHeader(HttpHeaders.AUTHORIZATION));
+    };
+    return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private String emailFromBody(byte[] body) {
+    try {
+      JsonNode email = objectMapper.readTree(body).path("email");
+      return email.isTextual() ? email.asText() : null;
+    } catch (IOException e) {
+      // a malformed body is rejected by the controller; it still spent its address token
+      return null;
+    }
+  }
+
+  /**
+   * Reads the subject without verifying the signature: the key only decides which bucket pays, and the security
+   * chain verifies the token right after.
+   */
+  private static String emailFromToken(String authorization) {
+    if (authorization == null || !authorization.startsWith("Bearer ")) {
+      return null;
+    }
+    try {
+      return JWT.decode(authorization.substring("Bearer ".length())).getSubject();
+    } catch (JWTDecodeException e) {
+      return null;
+    }
+  }
+
+  private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+    response.setStatus(status.value());
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    objectMapper.writeValue(response.getOutputStream(), ApiResponse.<Void>failure()
+        .message(message)
+        .build());
+  }
+
+  private void count(String route, String result) {
+    Counter.builder(METER).tag("route", route).tag("result", result).register(meterRegistry).increment();
+  }
+}
@@ -0,0 +1,51 @@
+package fun.trackmoney.infra.ratelimit;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.Map;
+
+/**
+ * Token-bucket limits of the public auth routes, under {@code trackmoney.rate-limit}.
+ *
+ * @param enabled whether the limits are applied at all
+ * @param routes  the limited routes by name; the name is part of the bucket keys and the metric tags
+ */
+@ConfigurationProperties("trackmoney.rate-limit")
+public record RateLimitProperties(boolean enabled, Map<String, Route> routes) {
+
+  public RateLimitProperties {
+    routes = routes == null ? Map.of() : Map.copyOf(routes);
+  }
+
+  /**
+   * @param method      the HTTP method, e.g. POST
+   * @param path        an Ant-style pattern relative to the context path, e.g. /auth/forgot-password/*
+   * @param perIp       the bucket every client address gets
+   * @param perEmail    the bucket every target email gets; null to limit by address only
+   * @param emailSource where the email is read from when {@code perEmail} is set
+   */
+  public record Route(String method, String path, Bucket perIp, Bucket perEmail, EmailSource emailSource) {
+  }
+
+  /**
+   * @param capacity        how many requests a burst may hold
+   * @param refillPerMinute how many requests are allowed per minute once the burst is spent
+   */
+  public record Bucket(int capacity, int refillPerMinute) {
+
+    public Bucket {
+      if (capacity < 1 || refillPerMinute < 1) {
+        throw new IllegalArgumentException("A rate-limit bucket needs a capacity and refill rate of at least 1");
+      }
+    }
+  }
+
+  public enum EmailSource {
+    /** the "email" field of the JSON request body */
+    BODY,
+    /** the last path segment */
+    PATH,
+    /** the subject of the bearer token */
+    TOKEN
+  }
+}
@@ -0,0 +1,82 @@
+package fun.trackmoney.infra.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Cluster-wide token buckets kept in Redis. A bucket is a hash of its token count and last refill time, updated by
+ * one Lua script so concurrent requests on any node never both take the last token; the script reads the clock of
+ * Redis itself, so the nodes' clocks do not have to agree. When Redis fails the node falls back to its own
+ * in-memory buckets: the limit then holds per node instead of per cluster, but the routes stay protected.
+ */
+@Service
+public class RateLimiter {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RateLimiter.class);
+  private static final String KEY_PREFIX = "rate:";
+  private static final int MAX_LOCAL_BUCKETS = 100_000;
+
+  // KEYS[1] bucket; ARGV[1] capacity, ARGV[2] tokens per ms. Returns 0 when a token was taken, else the wait in ms.
+  private static final RedisScript<Long> TAKE_TOKEN = new DefaultRedisScript<>(
+      "local capacity = tonumber(ARGV[1]) "
+          + "local rate = tonumber(ARGV[2]) "
+          + "local time = redis.call('time') "
+          + "local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000) "
+          + "local bucket = redis.call('hmget', KEYS[1], 'tokens', 'ts') "
+          + "local tokens = tonumber(bucket[1]) or capacity "
+          + "local ts = tonumber(bucket[2]) or now "
+          + "tokens = math.min(capacity, tokens + math.max(0, now - ts) * rate) "
+          + "local wait = 0 "
+          + "if tokens >= 1 then tokens = tokens - 1 else wait = math.ceil((1 - tokens) / rate) end "
+          + "redis.call('hset', KEYS[1], 'tokens', tostring(tokens), 'ts', now) "
+          + "redis.call('pexpire', KEYS[1], math.ceil(capacity / rate)) "
+          + "return wait", Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final LocalTokenBuckets localBuckets;
+  private final Counter fallbacks;
+
+  @Autowired
+  public RateLimiter(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry) {
+    this(redisTemplate, meterRegistry, new LocalTokenBuckets(MAX_LOCAL_BUCKETS, System::currentTimeMillis));
+  }
+
+  RateLimiter(StringRedisTemplate redisTemplate, MeterRegistry meterRegistry, LocalTokenBuckets localBuckets) {
+    this.redisTemplate = redisTemplate;
+    this.localBuckets = localBuckets;
+    this.fallbacks = Counter.builder("trackmoney.ratelimit.fallback")
+        .description("Rate-limit decisions taken locally because Redis was unavailable")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Takes one token from the bucket.
+   *
+   * @param key   identifies the bucket, e.g. "login:ip:10.0.0.1"
+   * @param limit the bucket size and refill rate
+   * @return 0 when the request may go on, otherwise the milliseconds until it may be retried
+   */
+  public long tryConsume(String key, RateLimitProperties.Bucket limit) {
+    double tokensPerMilli = limit.refillPerMinute() / 60_000.0;
+    try {
+      Long wait = redisTemplate.execute(TAKE_TOKEN, List.of(KEY_PREFIX + key),
+          String.valueOf(limit.capacity()), String.valueOf(tokensPerMilli));
+      if (wait != null) {
+        return wait;
+      }
+    } catch (RuntimeException e) {
+      LOG.debug("Rate limiter falling back to local buckets for {}", key, e);
+    }
+    fallbacks.increment();
+    return localBuckets.tryConsume(key, limit);
+  }
+}
@@ -0,0 +1,276 @@
+package fun.trackmoney.infra.redis;
+
+import fun.trackmoney.dto.lock.LockHolderDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+
+/**
+ * Lease-based mutual exclusion between application nodes, kept in Redis.
+ * A lock is a key holding "owner|fencingToken" with a TTL of the lease time. The holder renews it every third of the
+ * lease while it works, so a node that dies stops renewing and its lock frees itself; a node that cannot renew in
+ * time loses the lease and must stop. Every Redis failure is treated as "not held": a skipped run is recovered by the
+ * next one, a duplicated run is not.
+ */
+@Service
+public class DistributedLockService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(DistributedLockService.class);
+  private static final String LOCK_KEY_PREFIX = "lock:";
+  private static final String FENCE_KEY_PREFIX = "lock-fence:";
+  private static final char TOKEN_SEPARATOR = '|';
+
+  // KEYS[1] lock key, KEYS[2] fence counter; ARGV[1] owner, ARGV[2] lease in ms. Returns the token, 0 when taken.
+  private static final RedisScript<Long> ACQUIRE = new DefaultRedisScript<>(
+      "if redis.call('exists', KEYS[1]) == 1 then return 0 end "
+          + "local token = redis.call('incr', KEYS[2]) "
+          + "redis.call('set', KEYS[1], ARGV[1] .. '|' .. token, 'PX', ARGV[2]) "
+          + "return token", Long.class);
+  private static final RedisScript<Long> RENEW = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) end "
+          + "return 0", Long.class);
+  private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+      "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end "
+          + "return 0", Long.class);
+
+  private final StringRedisTemplate redisTemplate;
+  private final ScheduledExecutorService renewals;
+  private final String nodeId;
+
+  @Autowired
+  public DistributedLockService(StringRedisTemplate redisTemplate) {
+    this(redisTemplate, newRenewalScheduler(), ManagementFactory.getRuntimeMXBean().getName());
+  }
+
+  DistributedLockService(StringRedisTemplate redisTemplate, ScheduledExecutorService renewals, String nodeId) {
+    this.redisTemplate = redisTemplate;
+    this.renewals = renewals;
+    this.nodeId = nodeId;
+  }
+
+  private static ScheduledExecutorService newRenewalScheduler() {
+    CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("lock-renewal-");
+    threadFactory.setDaemon(true);
+    return Executors.newSingleThreadScheduledExecutor(threadFactory);
+  }
+
+  /**
+   * Takes the lock when no other node holds it, and keeps renewing it until the lease is closed.
+   *
+   * @param name      the lock name, e.g. "recurring-transactions"
+   * @param leaseTime how long the lock survives without renewal, i.e. after its holder dies
+   * @return the lease, or empty when another node holds the lock or Redis is unavailable
+   */
+  public Optional<LockLease> tryAcquire(String name, Duration leaseTime) {
+    long leaseMillis = leaseTime.toMillis();
+    Long token;
+    try {
+      token = redisTemplate.execute(ACQUIRE, List.of(LOCK_KEY_PREFIX + name, FENCE_KEY_PREFIX + name),
+          nodeId, String.valueOf(leaseMillis));
+    } catch (RuntimeException e) {
+      LOG.warn("Could not acquire lock {}, treating it as held elsewhere", name, e);
+      return Optional.empty();
+    }
+    if (token == null || token == 0) {
+      return Optional.empty();
+    }
+
+    LockLease lease = new LockLease(this, name, nodeId + TOKEN_SEPARATOR + token, token,
+        System.currentTimeMillis() + leaseMillis);
+    long renewEvery = Math.max(leaseMillis / 3, 1);
+    lease.setRenewal(renewals.scheduleAtFixedRate(() -> renew(lease, leaseMillis),
+        renewEvery, renewEvery, TimeUnit.MILLISECONDS));
+    LOG.debug("Acquired lock {} with fencing token {}", name, token);
+    return Optional.of(lease);
+  }
+
+  /**
+   * Runs the task only if this node takes the lock, so it runs at most once across the cluster at a time.
+   * Inside a transaction the lock is held until the transaction completes, and the commit is rolled back when
+   * the lease was lost meanwhile; outside of one it is released as soon as the task returns.
+   *
+   * @param name      the lock name
+   * @param leaseTime how long the lock survives without renewal
+   * @param task      the work, receiving the lease for its fencing token and {@link LockLease#isHeld()} checks
+   * @return the task result, or empty when the lock was not acquired or the task returned null
+   */
+  public <T> Optional<T> callExclusively(String name, Duration leaseTime, Function<LockLease, T> task) {
+    Optional<LockLease> acquired = tryAcquire(name, leaseTime);
+    if (acquired.isEmpty()) {
+      LOG.info("Lock {} is held by another node, skipping", name);
+      return Optional.empty();
+    }
+
+    LockLease lease = acquired.get();
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      try {
+        return Optional.ofNullable(task.apply(lease));
+      } finally {
+        release(lease);
+      }
+    }
+
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void beforeCommit(boolean readOnly) {
+        if (!isHeld(lease)) {
+          throw new IllegalStateException("Lost lock " + name + " before commit");
+        }
+      }
+
+      @Override
+      public void afterCompletion(int status) {
+        release(lease);
+      }
+    });
+    return Optional.ofNullable(task.apply(lease));
+  }
+
+  /**
+   * Runs the task only if this node takes the lock. See {@link #callExclusively(String, Duration, Function)}.
+   *
+   * @return whether the task ran
+   */
+  public boolean runExclusively(String name, Duration leaseTime, Runnable task) {
+    return callExclusively(name, leaseTime, lease -> {
+      task.run();
+      return Boolean.TRUE;
+    }).isPresent();
+  }
+
+  /**
+   * Splits a job into shards that the nodes of the cluster claim one at a time, each shard running on one node only.
+   * A finished shard keeps its lock until the lease runs out, so the name should identify the run (e.g. include its
+   * date) and the lease should outlast the spread between the nodes' start times. A failed shard is released at
+   * once for another node to pick up.
+   *
+   * @param name       the lock name prefix; shard n locks "name:n"
+   * @param shardCount the number of shards
+   * @param leaseTime  how long a shard lock survives without renewal, and how long a finished shard stays claimed
+   * @param task       processes one shard number
+   * @return how many shards this node processed
+   */
+  public int forEachShard(String name, int shardCount, Duration leaseTime, IntConsumer task) {
+    // start at a node-specific shard so the nodes fan out instead of all racing for shard 0
+    int offset = Math.floorMod(nodeId.hashCode(), shardCount);
+    int processed = 0;
+    for (int i = 0; i < shardCount; i++) {
+      int shard = (offset + i) % shardCount;
+      Optional<LockLease> lease = tryAcquire(name + ":" + shard, leaseTime);
+      if (lease.isEmpty()) {
+        continue;
+      }
+      try {
+        task.accept(shard);
+        processed++;
+        lease.get().stopRenewal();
+      } catch (RuntimeException e) {
+        release(lease.get());
+        throw e;
+      }
+    }
+    return processed;
+  }
+
+  /**
+   * Confirms in Redis that the lease still owns its lock.
+   *
+   * @return false when the lease expired, was taken over, or Redis could not be asked
+   */
+  public boolean isHeld(LockLease lease) {
+    if (!lease.isHeld()) {
+      return false;
+    }
+    try {
+      return lease.getValue().equals(redisTemplate.opsForValue().get(LOCK_KEY_PREFIX + lease.getName()));
+    } catch (RuntimeException e) {
+      LOG.warn("Could not check lock {}", lease.getName(), e);
+      return false;
+    }
+  }
+
+  /**
+   * Stops renewing the lease and deletes its lock, unless another node already owns it again.
+   */
+  public void release(LockLease lease) {
+    lease.lost();
+    try {
+      redisTemplate.execute(RELEASE, List.of(LOCK_KEY_PREFIX + lease.getName()), lease.getValue());
+    } catch (RuntimeException e) {
+      LOG.warn("Could not release lock {}, it expires with its lease", lease.getName(), e);
+    }
+  }
+
+  /**
+   * Lists the locks currently held anywhere in the cluster.
+   *
+   * @return the holders, ordered by lock name
+   */
+  public List<LockHolderDTO> getHolders() {
+    List<LockHolderDTO> holders = new ArrayList<>();
+    ScanOptions options = ScanOptions.scanOptions().match(LOCK_KEY_PREFIX + "*").count(100).build();
+    try (Cursor<String> keys = redisTemplate.scan(options)) {
+      while (keys.hasNext()) {
+        String key = keys.next();
+        String value = redisTemplate.opsForValue().get(key);
+        Long remaining = redisTemplate.getExpire(key, TimeUnit.MILLISECONDS);
+        int separator = value == null ? -1 : value.lastIndexOf(TOKEN_SEPARATOR);
+        if (separator > 0 && remaining != null && remaining > 0) {
+          holders.add(new LockHolderDTO(key.substring(LOCK_KEY_PREFIX.length()), value.substring(0, separator),
+              Long.parseLong(value.substring(separator + 1)), remaining));
+        }
+      }
+    }
+    holders.sort(Comparator.comparing(LockHolderDTO::name));
+    return holders;
+  }
+
+  private void renew(LockLease lease, long leaseMillis) {
+    long now = System.currentTimeMillis();
+    try {
+      Long renewed = redisTemplate.execute(RENEW, List.of(LOCK_KEY_PREFIX + lease.getName()),
+          lease.getValue(), String.valueOf(leaseMillis));
+      if (renewed != null && renewed == 1) {
+        lease.extendUntil(now + leaseMillis);
+        return;
+      }
+      LOG.warn("Lost lock {} (fencing token {}): it expired or was taken over", lease.getName(),
+          lease.getFencingToken());
+      lease.lost();
+    } catch (RuntimeException e) {
+      if (now >= lease.getExpiresAtMillis()) {
+        LOG.warn("Lost lock {}: could not renew it before the lease ran out", lease.getName(), e);
+        lease.lost();
+      } else {
+        LOG.warn("Could not renew lock {}, retrying", lease.getName(), e);
+      }
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    renewals.shutdownNow();
+  }
+}
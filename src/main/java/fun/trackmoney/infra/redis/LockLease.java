@@ -0,0 +1,76 @@
+package fun.trackmoney.infra.redis;
+
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * A held {@link DistributedLockService} lock. The fencing token grows with every acquisition of the same lock name,
+ * so a resource that remembers the highest token it has seen can reject a holder whose lease has already expired.
+ * Closing the lease releases the lock.
+ */
+public class LockLease implements AutoCloseable {
+
+  private final DistributedLockService lockService;
+  private final String name;
+  private final String value;
+  private final long fencingToken;
+  private volatile long expiresAtMillis;
+  private volatile boolean held = true;
+  private volatile ScheduledFuture<?> renewal;
+
+  LockLease(DistributedLockService lockService, String name, String value, long fencingToken, long expiresAtMillis) {
+    this.lockService = lockService;
+    this.name = name;
+    this.value = value;
+    this.fencingToken = fencingToken;
+    this.expiresAtMillis = expiresAtMillis;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public long getFencingToken() {
+    return fencingToken;
+  }
+
+  /**
+   * Whether this node still believes it holds the lock: the lease was neither released nor lost on renewal.
+   * Use {@link DistributedLockService#isHeld(LockLease)} to confirm against Redis before an irreversible step.
+   */
+  public boolean isHeld() {
+    return held && System.currentTimeMillis() < expiresAtMillis;
+  }
+
+  @Override
+  public void close() {
+    lockService.release(this);
+  }
+
+  String getValue() {
+    return value;
+  }
+
+  long getExpiresAtMillis() {
+    return expiresAtMillis;
+  }
+
+  void extendUntil(long expiresAtMillis) {
+    this.expiresAtMillis = expiresAtMillis;
+  }
+
+  void setRenewal(ScheduledFuture<?> renewal) {
+    this.renewal = renewal;
+  }
+
+  void lost() {
+    held = false;
+    stopRenewal();
+  }
+
+  void stopRenewal() {
+    ScheduledFuture<?> current = renewal;
+    if (current != null) {
+      current.cancel(false);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package fun.trackmoney.infra.redis;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Caches metrics results per account in Redis.
+ * Every key carries the account's version stamp, so a write only has to bump the stamp to make all of the
+ * account's cached metrics unreachable; the orphaned entries simply expire with the cache TTL.
+ */
+@Service
+public class MetricsCacheService {
+
+  public static final String METRICS_CACHE = "Metrics";
+
+  private static final Logger LOG = LoggerFactory.getLogger(MetricsCacheService.class);
+  private static final String VERSION_KEY_PREFIX = "metrics:version:";
+  private static final String LOOKUP_METER = "trackmoney.metrics.cache.lookup";
+
+  private final CacheManagerService cacheManagerService;
+  private final StringRedisTemplate redisTemplate;
+  private final Timer hitTimer;
+  private final Timer missTimer;
+  private final Timer errorTimer;
+
+  public MetricsCacheService(CacheManagerService cacheManagerService,
+                             StringRedisTemplate redisTemplate,
+                             MeterRegistry meterRegistry) {
+    this.cacheManagerService = cacheManagerService;
+    this.redisTemplate = redisTemplate;
+    this.hitTimer = lookupTimer(meterRegistry, "hit");
+    this.missTimer = lookupTimer(meterRegistry, "miss");
+    this.errorTimer = lookupTimer(meterRegistry, "error");
+  }
+
+  /**
+   * Builds the part of a cache key that identifies one metrics view and its parameters.
+   *
+   * @param view  the metrics view, e.g. "overview"
+   * @param parts the resolved request parameters (range, category, ...); nulls are kept as "null"
+   * @return the view key
+   */
+  public static String key(String view, Object... parts) {
+    return Arrays.stream(parts)
+        .map(String::valueOf)
+        .collect(Collectors.joining(":", view + ":", ""));
+  }
+
+  /**
+   * Returns the cached value for the account's current version, computing and storing it on a miss.
+   * When Redis is unavailable the value is computed directly, so the cache never fails a request.
+   *
+   * @param accountId the account the metrics belong to
+   * @param viewKey   the view key built with {@link #key(String, Object...)}
+   * @param type      the cached value type
+   * @param loader    computes the value on a miss
+   * @return the cached or freshly computed value
+   */
+  public <T> T getOrLoad(Integer accountId, String viewKey, Class<T> type, Supplier<T> loader) {
+    long start = System.nanoTime();
+    String key;
+    T cached;
+    try {
+      key = accountId + ":v" + currentVersion(accountId) + ":" + viewKey;
+      cached = cacheManagerService.get(METRICS_CACHE, key, type);
+    } catch (RuntimeException e) {
+      LOG.warn("Metrics cache lookup failed for account {}, computing {} directly", accountId, viewKey, e);
+      T value = loader.get();
+      errorTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return value;
+    }
+
+    if (cached != null) {
+      hitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+      return cached;
+    }
+
+    T value = loader.get();
+    try {
+      cacheManagerService.put(METRICS_CACHE, key, value);
+    } catch (RuntimeException e) {
+      LOG.warn("Could not store {} in the metrics cache for account {}", viewKey, accountId, e);
+    }
+    missTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    return value;
+  }
+
+  /**
+   * Invalidates every cached metric of the account. Inside a transaction the version is bumped only after
+   * commit, so a concurrent reader cannot cache the pre-write figures under the new version.
+   *
+   * @param accountId the account whose data changed
+   */
+  public void invalidate(Integer accountId) {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          bumpVersion(accountId);
+        }
+      });
+    } else {
+      bumpVersion(accountId);
+    }
+  }
+
+  private String currentVersion(Integer accountId) {
+    String version = redisTemplate.opsForValue().get(VERSION_KEY_PREFIX + accountId);
+    return version != null ? version : "0";
+  }
+
+  private void bumpVersion(Integer accountId) {
+    try {
+      redisTemplate.opsForValue().increment(VERSION_KEY_PREFIX + accountId);
+    } catch (RuntimeException e) {
+      LOG.warn("Could not invalidate the metrics cache for account {}", accountId, e);
+    }
+  }
+
+  private static Timer lookupTimer(MeterRegistry meterRegistry, String result) {
+    return Timer.builder(LOOKUP_METER)
+        .description("Metrics cache lookups, including the load time on a miss")
+        .tag("result", result)
+        .register(meterRegistry);
+  }
+}
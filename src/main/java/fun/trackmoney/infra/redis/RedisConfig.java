@@ -1,5 +1,6 @@
 package fun.trackmoney.infra.redis;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
@@ -16,7 +17,8 @@ import java.util.Map;
 public class RedisConfig {
 
   @Bean
-  public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory) {
+  public RedisCacheManager cacheManager(RedisConnectionFactory connectionFactory,
+                                        @Value("${trackmoney.metrics.cache.ttl:PT10M}") Duration metricsTtl) {
     RedisCacheConfiguration defaultConfiguration = RedisCacheConfiguration.defaultCacheConfig()
         .entryTtl(Duration.ofMinutes(15))
         .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(RedisSerializer.json())
@@ -24,6 +26,7 @@ public class RedisConfig {
 
     Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
     cacheConfigurations.put("EmailVerificationCodes", defaultConfiguration);
+    cacheConfigurations.put(MetricsCacheService.METRICS_CACHE, defaultConfiguration.entryTtl(metricsTtl));
 
     return RedisCacheManager.builder(connectionFactory)
         .cacheDefaults(defaultConfiguration)
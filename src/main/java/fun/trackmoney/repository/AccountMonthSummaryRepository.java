@@ -0,0 +1,141 @@
+package fun.trackmoney.repository;
+
+import fun.trackmoney.entity.AccountMonthSummaryEntity;
+import fun.trackmoney.entity.AccountMonthSummaryId;
+import fun.trackmoney.repository.projection.CategoryAggregateProjection;
+import fun.trackmoney.repository.projection.MonthAggregateProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Monthly rollup of tb_transaction per account, category and type.
+ * Month ranges are inclusive and compared as (year, month) rows so the primary key index is used.
+ */
+public interface AccountMonthSummaryRepository
+    extends JpaRepository<AccountMonthSummaryEntity, AccountMonthSummaryId> {
+
+  /**
+   * Adds a signed amount and count to one bucket, creating it when missing.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      value = """
+          INSERT INTO tb_account_month_summary
+              (account_id, summary_year, summary_month, category_id, transaction_type, total_amount, transaction_count)
+          VALUES (:accountId, :year, :month, :categoryId, :transactionType, :amount, :count)
+          ON CONFLICT (account_id, summary_year, summary_month, category_id, transaction_type)
+          DO UPDATE SET total_amount = tb_account_month_summary.total_amount + EXCLUDED.total_amount,
+                        transaction_count = tb_account_month_summary.transaction_count + EXCLUDED.transaction_count
+          """,
+      nativeQuery = true
+  )
+  void addToBucket(
+      @Param("accountId") Integer accountId,
+      @Param("year") int year,
+      @Param("month") int month,
+      @Param("categoryId") Integer categoryId,
+      @Param("transactionType") String transactionType,
+      @Param("amount") BigDecimal amount,
+      @Param("count") int count
+  );
+
+  @Transactional
+  @Modifying
+  @Query(value = "DELETE FROM tb_account_month_summary WHERE account_id = :accountId", nativeQuery = true)
+  int deleteAllByAccountId(@Param("accountId") Integer accountId);
+
+  /**
+   * Recomputes every bucket of an account from tb_transaction. Meant to run right after
+   * {@link #deleteAllByAccountId}; the upsert only matters for rows a concurrent writer created meanwhile.
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      value = """
+          INSERT INTO tb_account_month_summary
+              (account_id, summary_year, summary_month, category_id, transaction_type, total_amount, transaction_count)
+          SELECT t.account_id,
+                 EXTRACT(YEAR FROM t.transaction_date)::INTEGER,
+                 EXTRACT(MONTH FROM t.transaction_date)::SMALLINT,
+                 t.category_id,
+                 t.transaction_type,
+                 SUM(t.amount),
+                 COUNT(*)
+          FROM tb_transaction t
+          WHERE t.account_id = :accountId
+          GROUP BY t.account_id, EXTRACT(YEAR FROM t.transaction_date), EXTRACT(MONTH FROM t.transaction_date),
+                   t.category_id, t.transaction_type
+          ON CONFLICT (account_id, summary_year, summary_month, category_id, transaction_type)
+          DO UPDATE SET total_amount = tb_account_month_summary.total_amount + EXCLUDED.total_amount,
+                        transaction_count = tb_account_month_summary.transaction_count + EXCLUDED.transaction_count
+          """,
+      nativeQuery = true
+  )
+  int insertFromTransactions(@Param("accountId") Integer accountId);
+
+  /**
+   * Income and expense per month. Months whose transactions were all deleted are left out.
+   */
+  @Query(
+      value = """
+          SELECT s.summary_month as month,
+                 s.summary_year as year,
+                 COALESCE(SUM(CASE WHEN s.transaction_type = 'INCOME' THEN s.total_amount ELSE 0 END), 0) as income,
+                 COALESCE(SUM(CASE WHEN s.transaction_type = 'EXPENSE' THEN s.total_amount ELSE 0 END), 0) as expense
+          FROM tb_account_month_summary s
+          WHERE s.account_id = :accountId
+            AND (s.summary_year, s.summary_month) >= (:fromYear, :fromMonth)
+            AND (s.summary_year, s.summary_month) <= (:toYear, :toMonth)
+            AND (:categoryId IS NULL OR s.category_id = :categoryId)
+          GROUP BY s.summary_year, s.summary_month
+          HAVING SUM(s.transaction_count) > 0
+          ORDER BY s.summary_year, s.summary_month
+          """,
+      nativeQuery = true
+  )
+  List<MonthAggregateProjection> sumByMonth(
+      @Param("accountId") Integer accountId,
+      @Param("fromYear") int fromYear,
+      @Param("fromMonth") int fromMonth,
+      @Param("toYear") int toYear,
+      @Param("toMonth") int toMonth,
+      @Param("categoryId") Integer categoryId
+  );
+
+  /**
+   * Expenses per category over a month range, every category included, largest first.
+   */
+  @Query(
+      value = """
+          SELECT c.category_id as categoryId,
+                 c.name as categoryName,
+                 c.color as color,
+                 COALESCE(SUM(s.total_amount), 0) as amount
+          FROM tb_category c
+          LEFT JOIN tb_account_month_summary s ON s.category_id = c.category_id
+              AND s.account_id = :accountId
+              AND s.transaction_type = 'EXPENSE'
+              AND (s.summary_year, s.summary_month) >= (:fromYear, :fromMonth)
+              AND (s.summary_year, s.summary_month) <= (:toYear, :toMonth)
+              AND (:categoryId IS NULL OR c.category_id = :categoryId)
+          GROUP BY c.category_id, c.name, c.color
+          ORDER BY COALESCE(SUM(s.total_amount), 0) DESC
+          """,
+      nativeQuery = true
+  )
+  List<CategoryAggregateProjection> sumExpensesByCategory(
+      @Param("accountId") Integer accountId,
+      @Param("fromYear") int fromYear,
+      @Param("fromMonth") int fromMonth,
+      @Param("toYear") int toYear,
+      @Param("toMonth") int toMonth,
+      @Param("categoryId") Integer categoryId
+  );
+}
@@ -4,7 +4,10 @@ import fun.trackmoney.entity.AccountEntity;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -15,4 +18,26 @@ public interface AccountRepository extends JpaRepository<AccountEntity, Integer>
 
   @Query("SELECT a FROM AccountEntity a WHERE a.user.userId = :userId")
   Optional<AccountEntity> findDefaultAccountByUserId(@Param("userId") UUID userId);
+
+  /**
+   * Applies a signed delta to the balance in a single statement, so concurrent writers never lose updates
+   * and no read is needed beforehand. Returns the new balance, or empty when the account does not exist.
+   * Not {@code @Modifying}: the statement returns a row, so it has to run as a query.
+   */
+  @Transactional
+  @Query(value = "UPDATE tb_account SET balance = balance + :delta WHERE account_id = :accountId RETURNING balance",
+      nativeQuery = true)
+  Optional<BigDecimal> addToBalance(@Param("accountId") Integer accountId, @Param("delta") BigDecimal delta);
+
+  /**
+   * Takes the same row lock a balance update does, for writers that must be serialized per account
+   * without changing the balance. Only valid inside an existing transaction.
+   */
+  @Transactional(propagation = Propagation.MANDATORY)
+  @Query(value = "SELECT account_id FROM tb_account WHERE account_id = :accountId FOR NO KEY UPDATE",
+      nativeQuery = true)
+  Optional<Integer> lockById(@Param("accountId") Integer accountId);
+
+  @Query("SELECT a.accountId FROM AccountEntity a ORDER BY a.accountId")
+  List<Integer> findAllAccountIds();
 }
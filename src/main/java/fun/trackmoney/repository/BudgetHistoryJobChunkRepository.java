@@ -0,0 +1,33 @@
+package fun.trackmoney.repository;
+
+import fun.trackmoney.entity.BudgetHistoryJobChunkEntity;
+import fun.trackmoney.enums.JobStatus;
+import fun.trackmoney.repository.projection.JobProgressProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface BudgetHistoryJobChunkRepository extends JpaRepository<BudgetHistoryJobChunkEntity, Integer> {
+
+  List<BudgetHistoryJobChunkEntity> findByJobIdAndStatusInOrderByFirstAccountId(
+      Integer jobId,
+      Collection<JobStatus> statuses
+  );
+
+  @Query("""
+      SELECT COALESCE(SUM(CASE WHEN c.status = fun.trackmoney.enums.JobStatus.COMPLETED THEN 1 ELSE 0 END), 0)
+               AS completedChunks,
+             COALESCE(SUM(CASE WHEN c.status = fun.trackmoney.enums.JobStatus.FAILED THEN 1 ELSE 0 END), 0)
+               AS failedChunks,
+             COALESCE(SUM(CASE WHEN c.status = fun.trackmoney.enums.JobStatus.COMPLETED
+                               THEN c.accountCount ELSE 0 END), 0) AS processedAccounts,
+             COALESCE(SUM(c.generatedRows), 0) AS generatedRows,
+             MAX(c.completedAt) AS lastCompletedAt
+      FROM BudgetHistoryJobChunkEntity c
+      WHERE c.jobId = :jobId
+      """)
+  JobProgressProjection summarizeJob(@Param("jobId") Integer jobId);
+}
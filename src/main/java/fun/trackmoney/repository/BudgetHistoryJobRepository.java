@@ -0,0 +1,62 @@
+package fun.trackmoney.repository;
+
+import fun.trackmoney.entity.BudgetHistoryJobEntity;
+import fun.trackmoney.enums.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface BudgetHistoryJobRepository extends JpaRepository<BudgetHistoryJobEntity, Integer> {
+
+  Optional<BudgetHistoryJobEntity> findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+      Integer referenceYear,
+      Short referenceMonth,
+      Collection<JobStatus> statuses
+  );
+
+  List<BudgetHistoryJobEntity> findTop10ByOrderByJobIdDesc();
+
+  /**
+   * Hands the job to the holder of a lock lease, unless a holder with a newer fencing token already took it.
+   *
+   * @return 1 when the job was claimed, 0 when the caller's lease is stale
+   */
+  @Modifying
+  @Query(value = """
+      UPDATE tb_budget_history_job
+      SET fencing_token = :fencingToken
+      WHERE job_id = :jobId
+        AND (fencing_token IS NULL OR fencing_token < :fencingToken)
+      """, nativeQuery = true)
+  int claimJob(@Param("jobId") Integer jobId, @Param("fencingToken") long fencingToken);
+
+  /**
+   * Reads the fencing token of the job's current owner and share-locks the row until the transaction ends,
+   * so a newer owner cannot claim the job while a chunk of the previous one is still committing.
+   */
+  @Query(value = "SELECT fencing_token FROM tb_budget_history_job WHERE job_id = :jobId FOR SHARE",
+      nativeQuery = true)
+  Long findFencingTokenForShare(@Param("jobId") Integer jobId);
+
+  /**
+   * Records the outcome of a run, unless the job was claimed by a newer owner meanwhile.
+   *
+   * @return 1 when the job was updated, 0 when the caller no longer owns it
+   */
+  @Modifying
+  @Query("""
+      UPDATE BudgetHistoryJobEntity j
+      SET j.status = :status, j.finishedAt = :finishedAt
+      WHERE j.jobId = :jobId AND j.fencingToken = :fencingToken
+      """)
+  int finishJob(@Param("jobId") Integer jobId,
+                @Param("fencingToken") long fencingToken,
+                @Param("status") JobStatus status,
+                @Param("finishedAt") LocalDateTime finishedAt);
+}
@@ -1,22 +1,18 @@
 package fun.trackmoney.repository;
 
 import fun.trackmoney.entity.BudgetHistoryEntity;
-import fun.trackmoney.entity.BudgetsEntity;
+import fun.trackmoney.repository.projection.BudgetStatusCountProjection;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.util.List;
-import java.util.Optional;
 
 public interface BudgetHistoryRepository extends JpaRepository<BudgetHistoryEntity, Integer> {
 
-  Optional<BudgetHistoryEntity> findByBudgetAndReferenceMonthAndReferenceYear(
-      BudgetsEntity budget,
-      Short month,
-      Integer year
-  );
-
   List<BudgetHistoryEntity> findByAccountAccountIdOrderByReferenceYearDescReferenceMonthDesc(
       Integer accountId
   );
@@ -24,28 +20,99 @@ public interface BudgetHistoryRepository extends JpaRepository<BudgetHistoryEnti
   @Query("""
       SELECT bh FROM BudgetHistoryEntity bh
       WHERE bh.account.accountId = :accountId
-        AND bh.referenceYear >= :startYear
-        AND bh.referenceMonth >= :startMonth
-        AND bh.referenceYear <= :endYear
-        AND bh.referenceMonth <= :endMonth
-      ORDER BY bh.referenceYear DESC, bh.referenceMonth DESC
+        AND bh.referenceDate BETWEEN :startMonth AND :endMonth
+      ORDER BY bh.referenceDate DESC
       """)
   List<BudgetHistoryEntity> findByAccountAndDateRange(
       @Param("accountId") Integer accountId,
-      @Param("startYear") Integer startYear,
-      @Param("startMonth") Short startMonth,
-      @Param("endYear") Integer endYear,
-      @Param("endMonth") Short endMonth
+      @Param("startMonth") LocalDate startMonth,
+      @Param("endMonth") LocalDate endMonth
   );
 
-  @Query("""
-      SELECT COUNT(bh) > 0 FROM BudgetHistoryEntity bh
-      WHERE bh.account.accountId = :accountId
-        AND bh.referenceMonth = :month
-        AND bh.referenceYear = :year
-      """)
-  boolean existsHistoryForAccountAndMonth(
-      @Param("accountId") Integer accountId,
+  /**
+   * Creates the budget history of one month for every budget of the accounts in an inclusive ID range.
+   * Income and spending come from tb_account_month_summary; recurring income takes precedence over the month's
+   * income, like {@code BudgetHistoryService.getTotalIncomeForMonth}. Budgets that already have history for the
+   * month are skipped before an id is drawn, and the upsert only matters for rows a concurrent run created.
+   * Ids are reserved in pooled-lo blocks of 50, as the BudgetHistoryEntity mapping does: one nextval per 50 rows,
+   * where the column default would burn a whole block of the int4 sequence per row.
+   *
+   * @return the number of history rows created
+   */
+  @Transactional
+  @Modifying
+  @Query(
+      value = """
+          WITH budgets AS (
+              SELECT b.budget_id, b.account_id, b.category_id, b.percent
+              FROM tb_budget b
+              WHERE b.account_id BETWEEN :firstAccountId AND :lastAccountId
+                AND NOT EXISTS (
+                    SELECT 1 FROM tb_budget_history h
+                    WHERE h.budget_id = b.budget_id
+                      AND h.reference_month = :month
+                      AND h.reference_year = :year
+                )
+          ),
+          recurring_income AS (
+              SELECT r.account_id, SUM(r.amount) AS amount
+              FROM tb_recurring r
+              WHERE r.account_id BETWEEN :firstAccountId AND :lastAccountId
+                AND r.transaction_type = 'INCOME'
+              GROUP BY r.account_id
+          ),
+          month_income AS (
+              SELECT s.account_id, SUM(s.total_amount) AS amount
+              FROM tb_account_month_summary s
+              WHERE s.account_id BETWEEN :firstAccountId AND :lastAccountId
+                AND s.summary_year = :year
+                AND s.summary_month = :month
+                AND s.transaction_type = 'INCOME'
+              GROUP BY s.account_id
+          ),
+          calculated AS (
+              SELECT b.budget_id, b.account_id, b.category_id, b.percent, i.total_income,
+                     ROUND(i.total_income * b.percent / 100, 2) AS target_amount,
+                     COALESCE(s.total_amount, 0) AS spent_amount
+              FROM budgets b
+              JOIN (
+                  SELECT a.account_id,
+                         CASE WHEN r.amount > 0 THEN r.amount ELSE COALESCE(m.amount, 0) END AS total_income
+                  FROM (SELECT DISTINCT account_id FROM budgets) a
+                  LEFT JOIN recurring_income r ON r.account_id = a.account_id
+                  LEFT JOIN month_income m ON m.account_id = a.account_id
+              ) i ON i.account_id = b.account_id
+              LEFT JOIN tb_account_month_summary s
+                  ON s.account_id = b.account_id
+                 AND s.summary_year = :year
+                 AND s.summary_month = :month
+                 AND s.category_id = b.category_id
+                 AND s.transaction_type = 'EXPENSE'
+          ),
+          numbered AS (
+              SELECT c.*, ROW_NUMBER() OVER (ORDER BY c.budget_id) - 1 AS row_no
+              FROM calculated c
+          ),
+          id_blocks AS (
+              SELECT ROW_NUMBER() OVER () - 1 AS block_no,
+                     nextval('tb_budget_history_history_id_seq') AS first_id
+              FROM generate_series(1, (SELECT CAST(CEIL(COUNT(*) / 50.0) AS INTEGER) FROM numbered))
+          )
+          INSERT INTO tb_budget_history
+              (history_id, budget_id, account_id, category_id, reference_month, reference_year, percent,
+               target_amount, spent_amount, remaining_amount, total_income, status)
+          SELECT ib.first_id + c.row_no % 50, c.budget_id, c.account_id, c.category_id, :month, :year, c.percent,
+                 c.target_amount, c.spent_amount, c.target_amount - c.spent_amount, c.total_income,
+                 CASE WHEN c.spent_amount > c.target_amount THEN 'EXCEEDED' ELSE 'WITHIN_LIMIT' END
+          FROM numbered c
+          JOIN id_blocks ib ON ib.block_no = c.row_no / 50
+          ON CONFLICT (budget_id, reference_month, reference_year) DO NOTHING
+          """,
+      nativeQuery = true
+  )
+  int insertMonthlyHistory(
+      @Param("firstAccountId") Integer firstAccountId,
+      @Param("lastAccountId") Integer lastAccountId,
       @Param("month") Short month,
       @Param("year") Integer year
   );
@@ -77,19 +144,14 @@ public interface BudgetHistoryRepository extends JpaRepository<BudgetHistoryEnti
   @Query("""
       SELECT bh FROM BudgetHistoryEntity bh
       WHERE bh.account.accountId = :accountId
-        AND bh.referenceYear >= :startYear
-        AND bh.referenceMonth >= :startMonth
-        AND bh.referenceYear <= :endYear
-        AND bh.referenceMonth <= :endMonth
+        AND bh.referenceDate BETWEEN :startMonth AND :endMonth
         AND (:categoryId IS NULL OR bh.category.categoryId = :categoryId)
-      ORDER BY bh.referenceYear DESC, bh.referenceMonth DESC
+      ORDER BY bh.referenceDate DESC
       """)
   List<BudgetHistoryEntity> findByAccountAndDateRangeAndOptionalCategoryId(
       @Param("accountId") Integer accountId,
-      @Param("startYear") Integer startYear,
-      @Param("startMonth") Short startMonth,
-      @Param("endYear") Integer endYear,
-      @Param("endMonth") Short endMonth,
+      @Param("startMonth") LocalDate startMonth,
+      @Param("endMonth") LocalDate endMonth,
       @Param("categoryId") Integer categoryId
   );
 
@@ -123,53 +185,49 @@ public interface BudgetHistoryRepository extends JpaRepository<BudgetHistoryEnti
    * Used for budget performance metrics with flexible date ranges.
    *
    * @param accountId  the account ID
-   * @param startYear  the start year
-   * @param startMonth the start month
-   * @param endYear    the end year
-   * @param endMonth   the end month
+   * @param startMonth the first day of the start month
+   * @param endMonth   the first day of the end month
+   * @param categoryId the category ID to filter by (null for all categories)
    * @return list of budget histories
    */
   @Query("""
       SELECT bh FROM BudgetHistoryEntity bh
       WHERE bh.account.accountId = :accountId
-        AND (
-          (bh.referenceYear = :startYear AND bh.referenceMonth >= :startMonth) OR
-          (bh.referenceYear > :startYear AND bh.referenceYear < :endYear) OR
-          (bh.referenceYear = :endYear AND bh.referenceMonth <= :endMonth)
-        )
+        AND bh.referenceDate BETWEEN :startMonth AND :endMonth
         AND (:categoryId IS NULL OR bh.category.categoryId = :categoryId)
-      ORDER BY bh.referenceYear DESC, bh.referenceMonth DESC
+      ORDER BY bh.referenceDate DESC
       """)
   List<BudgetHistoryEntity> findByAccountAndYearMonthRange(
       @Param("accountId") Integer accountId,
-      @Param("startYear") Integer startYear,
-      @Param("startMonth") Short startMonth,
-      @Param("endYear") Integer endYear,
-      @Param("endMonth") Short endMonth,
+      @Param("startMonth") LocalDate startMonth,
+      @Param("endMonth") LocalDate endMonth,
       @Param("categoryId") Integer categoryId
   );
 
   /**
-   * Finds all budget histories for an account, year, and month.
+   * Counts the budget histories of an account, and how many of them were exceeded, for a range of
+   * reference months.
    * Used for budget overview metrics.
    *
-   * @param accountId the account ID
-   * @param year      the year
-   * @param month     the month
-   * @return list of budget histories
+   * @param accountId  the account ID
+   * @param startMonth the first day of the start month
+   * @param endMonth   the first day of the end month
+   * @param categoryId the category ID to filter by (null for all categories)
+   * @return total and exceeded counts
    */
   @Query("""
-      SELECT bh FROM BudgetHistoryEntity bh
+      SELECT COUNT(bh) AS total,
+             COALESCE(SUM(CASE WHEN bh.status = fun.trackmoney.enums.BudgetStatus.EXCEEDED THEN 1 ELSE 0 END), 0)
+               AS exceeded
+      FROM BudgetHistoryEntity bh
       WHERE bh.account.accountId = :accountId
-        AND bh.referenceYear = :year
-        AND bh.referenceMonth = :month
+        AND bh.referenceDate BETWEEN :startMonth AND :endMonth
         AND (:categoryId IS NULL OR bh.category.categoryId = :categoryId)
-      ORDER BY bh.category.name ASC
       """)
-  List<BudgetHistoryEntity> findByAccountAndYearAndMonth(
+  BudgetStatusCountProjection countByAccountAndMonthRange(
       @Param("accountId") Integer accountId,
-      @Param("year") Integer year,
-      @Param("month") Short month,
+      @Param("startMonth") LocalDate startMonth,
+      @Param("endMonth") LocalDate endMonth,
       @Param("categoryId") Integer categoryId
   );
 }
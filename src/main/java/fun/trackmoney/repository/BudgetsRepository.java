@@ -34,6 +34,23 @@ public interface BudgetsRepository extends JpaRepository<BudgetsEntity, Integer>
   Integer getTotalPercentExcludingId(@Param("account") AccountEntity account,
                                      @Param("id") Integer id);
 
+  /**
+   * Returns, in ascending order, up to {@code limit} IDs of accounts owning budgets that come after
+   * {@code afterAccountId}, so jobs can walk all accounts in keyset chunks.
+   */
+  @Query(
+      value = """
+          SELECT DISTINCT b.account_id
+          FROM tb_budget b
+          WHERE b.account_id > :afterAccountId
+          ORDER BY b.account_id
+          LIMIT :limit
+          """,
+      nativeQuery = true
+  )
+  List<Integer> findAccountIdsWithBudgetsAfter(@Param("afterAccountId") Integer afterAccountId,
+                                              @Param("limit") int limit);
+
   Optional<BudgetsEntity> findByBudgetIdAndAccount(Integer id, AccountEntity account);
 
   @Modifying
@@ -0,0 +1,38 @@
+package fun.trackmoney.repository;
+
+import fun.trackmoney.entity.EmailOutboxEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface EmailOutboxRepository extends JpaRepository<EmailOutboxEntity, Long> {
+
+  /**
+   * Claims up to a batch of pending e-mails that are due, oldest first, by row-locking them until the transaction
+   * ends. E-mails already claimed by another worker are skipped rather than waited for. Served by
+   * idx_email_outbox_pending.
+   */
+  @Query(value = """
+        SELECT *
+        FROM tb_email_outbox
+        WHERE status = 'PENDING'
+          AND next_attempt_at <= :now
+        ORDER BY next_attempt_at
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+      """, nativeQuery = true)
+  List<EmailOutboxEntity> claimDue(@Param("now") LocalDateTime now, @Param("batchSize") int batchSize);
+
+  @Query(value = "SELECT count(*) FROM tb_email_outbox WHERE status = 'PENDING'", nativeQuery = true)
+  long countPending();
+
+  @Transactional
+  @Modifying
+  @Query(value = "DELETE FROM tb_email_outbox WHERE status = 'SENT' AND sent_at < :before", nativeQuery = true)
+  int deleteSentBefore(@Param("before") LocalDateTime before);
+}
@@ -7,17 +7,43 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 public interface RecurringRepository extends JpaRepository<RecurringEntity, Long> {
 
-  @Query("""
-        SELECT r
-        FROM RecurringEntity r 
-        WHERE r.nextDate <= :currentDate
-      """)
-  List<RecurringEntity> findByNextDateBefore(@Param("currentDate") LocalDateTime currentDate);
+  /**
+   * Claims up to a batch of due rules, oldest first, by row-locking them until the transaction ends.
+   * Rules already claimed by another worker are skipped rather than waited for, so concurrent workers on any number
+   * of nodes each get a disjoint batch. Served by idx_recurring_next_date.
+   *
+   * @param excludedAccountIds accounts to leave alone; must not be empty
+   */
+  @Query(value = """
+        SELECT *
+        FROM tb_recurring
+        WHERE next_date <= :now
+          AND account_id NOT IN (:excludedAccountIds)
+        ORDER BY next_date
+        LIMIT :batchSize
+        FOR UPDATE SKIP LOCKED
+      """, nativeQuery = true)
+  List<RecurringEntity> claimDue(@Param("now") LocalDateTime now,
+                                 @Param("excludedAccountIds") Collection<Integer> excludedAccountIds,
+                                 @Param("batchSize") int batchSize);
+
+  /**
+   * Claims the due rules of one account that no other worker holds.
+   */
+  @Query(value = """
+        SELECT *
+        FROM tb_recurring
+        WHERE account_id = :accountId
+          AND next_date <= :now
+        FOR UPDATE SKIP LOCKED
+      """, nativeQuery = true)
+  List<RecurringEntity> claimDueForAccount(@Param("accountId") Integer accountId, @Param("now") LocalDateTime now);
 
   @Query("SELECT r FROM RecurringEntity r WHERE r.id = :id AND r.account.id = :accountId")
   Optional<RecurringEntity> findByIdAndAccount(@Param("id") Long id, @Param("accountId") Integer accountId);
@@ -25,6 +51,12 @@ public interface RecurringRepository extends JpaRepository<RecurringEntity, Long
   @Query("SELECT r FROM RecurringEntity r WHERE r.account.accountId = :accountId")
   List<RecurringEntity> findAllByAccountId(@Param("accountId") Integer accountId);
 
+  /**
+   * The account's rules with their categories in the same query, for callers that read every rule's category.
+   */
+  @Query("SELECT r FROM RecurringEntity r LEFT JOIN FETCH r.category WHERE r.account.accountId = :accountId")
+  List<RecurringEntity> findAllWithCategoryByAccountId(@Param("accountId") Integer accountId);
+
   @Query("""
         SELECT r FROM RecurringEntity r
         WHERE r.account.accountId = :accountId
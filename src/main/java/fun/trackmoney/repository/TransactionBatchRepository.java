@@ -0,0 +1,65 @@
+package fun.trackmoney.repository;
+
+import fun.trackmoney.entity.TransactionEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Plain JDBC writes for bulk paths, where going through the persistence context one entity at a time
+ * would cost a round trip per row. Runs on the connection of the surrounding JPA transaction.
+ * Ids are assigned to the given entities before they are inserted.
+ */
+@Repository
+public class TransactionBatchRepository {
+
+  private static final String INSERT_SQL = """
+      INSERT INTO tb_transaction
+          (transaction_id, account_id, category_id, transaction_type, amount, description, transaction_date,
+           transaction_name)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+      """;
+
+  // Same sequence and block size as the TransactionEntity mapping (pooled-lo, allocationSize = 50).
+  private static final String ID_BLOCKS_SQL =
+      "SELECT nextval('tb_transaction_transaction_id_seq') FROM generate_series(1, ?)";
+  static final int ID_BLOCK_SIZE = 50;
+
+  private final JdbcTemplate jdbcTemplate;
+
+  public TransactionBatchRepository(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = jdbcTemplate;
+  }
+
+  public void insertAll(List<TransactionEntity> transactions, int batchSize) {
+    if (transactions.isEmpty()) {
+      return;
+    }
+    assignIds(transactions);
+    jdbcTemplate.batchUpdate(INSERT_SQL, transactions, batchSize, (ps, transaction) -> {
+      ps.setInt(1, transaction.getTransactionId());
+      ps.setInt(2, transaction.getAccount().getAccountId());
+      ps.setInt(3, transaction.getCategory().getCategoryId());
+      ps.setString(4, transaction.getTransactionType().name());
+      ps.setBigDecimal(5, transaction.getAmount());
+      ps.setString(6, transaction.getDescription());
+      ps.setTimestamp(7, Timestamp.valueOf(transaction.getTransactionDate()));
+      ps.setString(8, transaction.getTransactionName());
+    });
+  }
+
+  /**
+   * Reserves ids the same way Hibernate's pooled-lo optimizer does: every nextval is the first id of a
+   * block of {@link #ID_BLOCK_SIZE}. Relying on the column default would burn a whole block per row.
+   */
+  private void assignIds(List<TransactionEntity> transactions) {
+    int blocks = (transactions.size() + ID_BLOCK_SIZE - 1) / ID_BLOCK_SIZE;
+    List<Long> blockStarts = jdbcTemplate.queryForList(ID_BLOCKS_SQL, Long.class, blocks);
+    for (int i = 0; i < transactions.size(); i++) {
+      long id = blockStarts.get(i / ID_BLOCK_SIZE) + i % ID_BLOCK_SIZE;
+      transactions.get(i).setTransactionId(Math.toIntExact(id));
+    }
+  }
+}
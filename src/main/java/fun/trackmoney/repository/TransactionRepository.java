@@ -1,21 +1,28 @@
 package fun.trackmoney.repository;
 
+import fun.trackmoney.dto.transaction.TransactionExportDTO;
 import fun.trackmoney.entity.AccountEntity;
+import fun.trackmoney.repository.projection.CategoryAmountProjection;
 import fun.trackmoney.repository.projection.CategoryAggregateProjection;
 import fun.trackmoney.repository.projection.MonthAggregateProjection;
 import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.enums.TransactionType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.NativeQuery;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<TransactionEntity, Integer> {
 
@@ -44,6 +51,101 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
       Pageable pageable
   );
 
+  /**
+   * Streams the account history straight into export DTOs. The fetch size makes the driver read through a
+   * server-side cursor, and since no entities are loaded the persistence context stays empty while streaming.
+   * Must be consumed inside a transaction and closed by the caller.
+   */
+  @QueryHints({
+      @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+      @QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true")
+  })
+  @Query("""
+          SELECT new fun.trackmoney.dto.transaction.TransactionExportDTO(
+              t.transactionId, t.transactionName, t.description, t.amount, t.transactionType,
+              c.categoryId, c.name, t.transactionDate)
+          FROM TransactionEntity t
+          LEFT JOIN t.category c
+          WHERE t.account.accountId = :accountId
+          ORDER BY t.transactionDate DESC, t.transactionId DESC
+      """)
+  Stream<TransactionExportDTO> streamExportByAccountId(@Param("accountId") Integer accountId);
+
+  // ===== Keyset Pagination Queries =====
+
+  /**
+   * First page of the keyset pagination. Ordered by (transactionDate, transactionId) descending so the
+   * following pages can seek from the last row instead of skipping an offset. No count query is issued.
+   */
+  @Query("""
+          SELECT t FROM TransactionEntity t
+          WHERE t.account.accountId = :accountId
+            AND (:transactionName IS NULL OR LOWER(t.transactionName) LIKE LOWER(CONCAT(:transactionName, '%')))
+            AND (:categoryId IS NULL OR t.category.categoryId = :categoryId)
+            AND (t.transactionDate >= COALESCE(:startDate, t.transactionDate))
+            AND (t.transactionDate <= COALESCE(:endDate, t.transactionDate))
+          ORDER BY t.transactionDate DESC, t.transactionId DESC
+      """)
+  List<TransactionEntity> findFirstPageByFilters(
+      @Param("accountId") Integer accountId,
+      @Param("transactionName") String transactionName,
+      @Param("categoryId") Integer categoryId,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate,
+      Pageable limit
+  );
+
+  /**
+   * Rows strictly older than the cursor position, newest first.
+   */
+  @Query("""
+          SELECT t FROM TransactionEntity t
+          WHERE t.account.accountId = :accountId
+            AND t.transactionDate <= :cursorDate
+            AND (t.transactionDate < :cursorDate OR t.transactionId < :cursorId)
+            AND (:transactionName IS NULL OR LOWER(t.transactionName) LIKE LOWER(CONCAT(:transactionName, '%')))
+            AND (:categoryId IS NULL OR t.category.categoryId = :categoryId)
+            AND (t.transactionDate >= COALESCE(:startDate, t.transactionDate))
+            AND (t.transactionDate <= COALESCE(:endDate, t.transactionDate))
+          ORDER BY t.transactionDate DESC, t.transactionId DESC
+      """)
+  List<TransactionEntity> findPageAfterCursor(
+      @Param("accountId") Integer accountId,
+      @Param("cursorDate") LocalDateTime cursorDate,
+      @Param("cursorId") Integer cursorId,
+      @Param("transactionName") String transactionName,
+      @Param("categoryId") Integer categoryId,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate,
+      Pageable limit
+  );
+
+  /**
+   * Rows strictly newer than the cursor position, oldest first. Callers reverse the result to restore
+   * the descending order of the page.
+   */
+  @Query("""
+          SELECT t FROM TransactionEntity t
+          WHERE t.account.accountId = :accountId
+            AND t.transactionDate >= :cursorDate
+            AND (t.transactionDate > :cursorDate OR t.transactionId > :cursorId)
+            AND (:transactionName IS NULL OR LOWER(t.transactionName) LIKE LOWER(CONCAT(:transactionName, '%')))
+            AND (:categoryId IS NULL OR t.category.categoryId = :categoryId)
+            AND (t.transactionDate >= COALESCE(:startDate, t.transactionDate))
+            AND (t.transactionDate <= COALESCE(:endDate, t.transactionDate))
+          ORDER BY t.transactionDate ASC, t.transactionId ASC
+      """)
+  List<TransactionEntity> findPageBeforeCursor(
+      @Param("accountId") Integer accountId,
+      @Param("cursorDate") LocalDateTime cursorDate,
+      @Param("cursorId") Integer cursorId,
+      @Param("transactionName") String transactionName,
+      @Param("categoryId") Integer categoryId,
+      @Param("startDate") LocalDateTime startDate,
+      @Param("endDate") LocalDateTime endDate,
+      Pageable limit
+  );
+
   @Query("SELECT t FROM TransactionEntity t WHERE t.account = :account AND t.transactionId = :id")
   Optional<TransactionEntity> findByIdAndAccount(@Param("id") Integer id, @Param("account") AccountEntity account);
 
@@ -69,36 +171,40 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
   )
   List<TransactionEntity> findLast5TransactionsPerCategory(@Param("accountId") Integer accountId);
 
-  @Query("SELECT t FROM TransactionEntity t " +
-      "WHERE t.transactionDate >= :startDate " +
-      "AND t.transactionDate <= :endDate")
-  List<TransactionEntity> findAllBetweenDates(LocalDateTime startDate, LocalDateTime endDate);
-
+  /**
+   * Sums the expenses of one account per category over a date range, so callers get every category's
+   * spent amount from a single grouped query instead of loading the transactions themselves.
+   */
   @Query("""
-      SELECT t FROM TransactionEntity t
+      SELECT t.category.categoryId AS categoryId, SUM(t.amount) AS amount
+      FROM TransactionEntity t
       WHERE t.account.accountId = :accountId
+        AND t.transactionType = 'EXPENSE'
         AND t.transactionDate >= :startDate
         AND t.transactionDate <= :endDate
-      ORDER BY t.transactionDate ASC
+      GROUP BY t.category.categoryId
       """)
-  List<TransactionEntity> findAllByAccountIdAndDateRange(
+  List<CategoryAmountProjection> sumExpensesGroupedByCategory(
       @Param("accountId") Integer accountId,
       @Param("startDate") LocalDateTime startDate,
       @Param("endDate") LocalDateTime endDate
   );
 
+  /**
+   * Sums one transaction type over a date range. The range predicates let Postgres answer it from
+   * idx_tx_account_date_type instead of reading the whole account history.
+   */
   @Query("""
       SELECT COALESCE(SUM(t.amount), 0)
       FROM TransactionEntity t
       WHERE t.account.accountId = :accountId
-        AND t.category.categoryId = :categoryId
-        AND t.transactionType = 'EXPENSE'
         AND t.transactionDate >= :startDate
         AND t.transactionDate <= :endDate
+        AND t.transactionType = :transactionType
       """)
-  BigDecimal sumExpensesByCategoryAndDateRange(
+  BigDecimal sumAmountByTypeAndDateRange(
       @Param("accountId") Integer accountId,
-      @Param("categoryId") Integer categoryId,
+      @Param("transactionType") TransactionType transactionType,
       @Param("startDate") LocalDateTime startDate,
       @Param("endDate") LocalDateTime endDate
   );
@@ -134,31 +240,6 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
 
   // ===== Metrics Queries =====
 
-  /**
-   * Aggregates income and expenses by month for a given year.
-   * Uses native query for better performance with CASE expressions.
-   */
-  @Query(
-      value = """
-          SELECT EXTRACT(MONTH FROM t.transaction_date) as month,
-                 EXTRACT(YEAR FROM t.transaction_date) as year,
-                 COALESCE(SUM(CASE WHEN t.transaction_type = 'INCOME' THEN t.amount ELSE 0 END), 0) as income,
-                 COALESCE(SUM(CASE WHEN t.transaction_type = 'EXPENSE' THEN t.amount ELSE 0 END), 0) as expense
-          FROM tb_transaction t
-          WHERE t.account_id = :accountId
-            AND EXTRACT(YEAR FROM t.transaction_date) = :year
-            AND (:categoryId IS NULL OR t.category_id = :categoryId)
-          GROUP BY EXTRACT(MONTH FROM t.transaction_date), EXTRACT(YEAR FROM t.transaction_date)
-          ORDER BY EXTRACT(MONTH FROM t.transaction_date)
-          """,
-      nativeQuery = true
-  )
-  List<MonthAggregateProjection> sumByMonthAndType(
-      @Param("accountId") Integer accountId,
-      @Param("year") int year,
-      @Param("categoryId") Integer categoryId
-  );
-
   /**
    * Aggregates income and expenses by month for a given date range.
    * Uses native query for better performance with CASE expressions.
@@ -186,35 +267,6 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
       @Param("categoryId") Integer categoryId
   );
 
-  /**
-   * Aggregates expenses by category for a specific month.
-   * Uses native query for correct projection handling.
-   */
-  @Query(
-      value = """
-          SELECT c.category_id as categoryId,
-                 c.name as categoryName,
-                 c.color as color,
-                 COALESCE(SUM(t.amount), 0) as amount
-          FROM tb_category c
-          LEFT JOIN tb_transaction t ON t.category_id = c.category_id
-              AND t.account_id = :accountId
-              AND t.transaction_type = 'EXPENSE'
-              AND EXTRACT(YEAR FROM t.transaction_date) = :year
-              AND EXTRACT(MONTH FROM t.transaction_date) = :month
-              AND (:categoryId IS NULL OR c.category_id = :categoryId)
-          GROUP BY c.category_id, c.name, c.color
-          ORDER BY COALESCE(SUM(t.amount), 0) DESC
-          """,
-      nativeQuery = true
-  )
-  List<CategoryAggregateProjection> sumByCategoryForMonth(
-      @Param("accountId") Integer accountId,
-      @Param("year") int year,
-      @Param("month") int month,
-      @Param("categoryId") Integer categoryId
-  );
-
   /**
    * Aggregates expenses by category for a date range.
    * Uses native query for correct projection handling.
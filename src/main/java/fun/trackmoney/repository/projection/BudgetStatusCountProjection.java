@@ -0,0 +1,22 @@
+package fun.trackmoney.repository.projection;
+
+/**
+ * Projection interface for budget history counts.
+ * Used by BudgetHistoryRepository to return both overview counters from a single query.
+ */
+public interface BudgetStatusCountProjection {
+
+  /**
+   * Gets the number of budget history entries.
+   *
+   * @return the total count
+   */
+  Long getTotal();
+
+  /**
+   * Gets the number of budget history entries with EXCEEDED status.
+   *
+   * @return the exceeded count
+   */
+  Long getExceeded();
+}
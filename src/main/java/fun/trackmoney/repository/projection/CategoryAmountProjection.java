@@ -0,0 +1,24 @@
+package fun.trackmoney.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Projection interface for a per-category total.
+ * Used by TransactionRepository to return the amount spent in each category of an account.
+ */
+public interface CategoryAmountProjection {
+
+  /**
+   * Gets the category ID.
+   *
+   * @return the category ID
+   */
+  Integer getCategoryId();
+
+  /**
+   * Gets the total amount for this category.
+   *
+   * @return the amount
+   */
+  BigDecimal getAmount();
+}
@@ -0,0 +1,44 @@
+package fun.trackmoney.repository.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Chunk totals of one budget history job.
+ */
+public interface JobProgressProjection {
+
+  /**
+   * Gets the number of chunks already committed.
+   *
+   * @return completed chunks
+   */
+  Long getCompletedChunks();
+
+  /**
+   * Gets the number of chunks whose last attempt failed.
+   *
+   * @return failed chunks
+   */
+  Long getFailedChunks();
+
+  /**
+   * Gets the number of accounts in the completed chunks.
+   *
+   * @return processed accounts
+   */
+  Long getProcessedAccounts();
+
+  /**
+   * Gets the number of history rows created by the completed chunks.
+   *
+   * @return generated rows
+   */
+  Long getGeneratedRows();
+
+  /**
+   * Gets when the most recent chunk completed.
+   *
+   * @return last completion time, or null when no chunk has completed
+   */
+  LocalDateTime getLastCompletedAt();
+}
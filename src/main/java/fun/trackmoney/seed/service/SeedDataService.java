@@ -17,6 +17,7 @@ import fun.trackmoney.seed.service.generator.TransactionGenerator;
 import fun.trackmoney.seed.service.model.SeedDataSummary;
 import fun.trackmoney.entity.TransactionEntity;
 import fun.trackmoney.repository.TransactionRepository;
+import fun.trackmoney.service.AccountMonthSummaryService;
 import fun.trackmoney.entity.UserEntity;
 import fun.trackmoney.repository.UserRepository;
 import org.slf4j.Logger;
@@ -50,6 +51,7 @@ public class SeedDataService {
   private final BudgetGenerator budgetGenerator;
   private final PotGenerator potGenerator;
   private final RecurringGenerator recurringGenerator;
+  private final AccountMonthSummaryService accountMonthSummaryService;
 
   public SeedDataService(@Value("${trackmoney.seed.password:Test@123}") String seedUserPassword,
                          PasswordEncoder passwordEncoder,
@@ -62,7 +64,8 @@ public class SeedDataService {
                          TransactionGenerator transactionGenerator,
                          BudgetGenerator budgetGenerator,
                          PotGenerator potGenerator,
-                         RecurringGenerator recurringGenerator) {
+                         RecurringGenerator recurringGenerator,
+                         AccountMonthSummaryService accountMonthSummaryService) {
     this.seedUserPassword = seedUserPassword;
     this.passwordEncoder = passwordEncoder;
     this.userRepository = userRepository;
@@ -75,6 +78,7 @@ public class SeedDataService {
     this.budgetGenerator = budgetGenerator;
     this.potGenerator = potGenerator;
     this.recurringGenerator = recurringGenerator;
+    this.accountMonthSummaryService = accountMonthSummaryService;
   }
 
   public boolean seedDataAlreadyExists() {
@@ -153,6 +157,7 @@ public class SeedDataService {
         LocalDateTime.now()
     );
     saveTransactionsInBatches(transactions, 100);
+    accountMonthSummaryService.recordAll(transactions);
     LOG.info("Created {} transactions", transactions.size());
     return transactions;
   }
@@ -0,0 +1,69 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.infra.redis.DistributedLockService;
+import fun.trackmoney.repository.AccountRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Recomputes the monthly summary of every account from tb_transaction, one account per transaction,
+ * to repair drift from writes that bypass the application (manual SQL, restores).
+ * The accounts are split into shards by ID that the nodes of the cluster claim through the distributed lock,
+ * so every account is rebuilt once per run however many nodes there are.
+ */
+@Component
+public class AccountMonthSummaryRebuildJob {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AccountMonthSummaryRebuildJob.class);
+  private static final String REBUILD_LOCK = "account-month-summary-rebuild";
+  private static final int SHARDS = 8;
+  // long enough for a finished shard to stay claimed until every node has gone through the shard list
+  private static final Duration SHARD_LEASE = Duration.ofHours(6);
+
+  private final AccountRepository accountRepository;
+  private final AccountMonthSummaryService accountMonthSummaryService;
+  private final DistributedLockService distributedLockService;
+
+  public AccountMonthSummaryRebuildJob(AccountRepository accountRepository,
+                                       AccountMonthSummaryService accountMonthSummaryService,
+                                       DistributedLockService distributedLockService) {
+    this.accountRepository = accountRepository;
+    this.accountMonthSummaryService = accountMonthSummaryService;
+    this.distributedLockService = distributedLockService;
+  }
+
+  /**
+   * Scheduled method - runs at 03:00 every Sunday
+   * Cron: 0 0 3 * * SUN
+   */
+  @Scheduled(cron = "0 0 3 * * SUN")
+  public void rebuildAll() {
+    List<Integer> accountIds = accountRepository.findAllAccountIds();
+    int shards = distributedLockService.forEachShard(REBUILD_LOCK + ":" + LocalDate.now(), SHARDS, SHARD_LEASE,
+        shard -> rebuildShard(accountIds.stream()
+            .filter(accountId -> Math.floorMod(accountId, SHARDS) == shard)
+            .toList()));
+    LOG.info("Monthly summary rebuild: this node processed {} of {} shards", shards, SHARDS);
+  }
+
+  private void rebuildShard(List<Integer> accountIds) {
+    LOG.info("Rebuilding monthly summaries for {} accounts", accountIds.size());
+
+    int failed = 0;
+    for (Integer accountId : accountIds) {
+      try {
+        accountMonthSummaryService.rebuildAccount(accountId);
+      } catch (Exception e) {
+        failed++;
+        LOG.error("Failed to rebuild monthly summary for account {}: {}", accountId, e.getMessage(), e);
+      }
+    }
+    LOG.info("Monthly summary rebuild finished: {} accounts, {} failed", accountIds.size(), failed);
+  }
+}
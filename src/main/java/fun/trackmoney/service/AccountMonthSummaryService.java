@@ -0,0 +1,103 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.enums.TransactionType;
+import fun.trackmoney.repository.AccountMonthSummaryRepository;
+import fun.trackmoney.repository.projection.MonthAggregateProjection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Keeps tb_account_month_summary in step with tb_transaction.
+ *
+ * <p>Writers must already hold the account row lock (any balance update takes it, otherwise
+ * {@link AccountService#lockAccount}) before touching the summary, and {@link #rebuildAccount} takes
+ * the same lock first. That keeps a rebuild from counting a concurrent write twice and avoids
+ * lock-order deadlocks between the two.
+ */
+@Service
+public class AccountMonthSummaryService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(AccountMonthSummaryService.class);
+
+  private final AccountMonthSummaryRepository accountMonthSummaryRepository;
+  private final AccountService accountService;
+
+  public AccountMonthSummaryService(AccountMonthSummaryRepository accountMonthSummaryRepository,
+                                    AccountService accountService) {
+    this.accountMonthSummaryRepository = accountMonthSummaryRepository;
+    this.accountService = accountService;
+  }
+
+  public void record(TransactionEntity transaction) {
+    addToBucket(Bucket.of(transaction), transaction.getAmount(), 1);
+  }
+
+  public void retract(TransactionEntity transaction) {
+    addToBucket(Bucket.of(transaction), transaction.getAmount().negate(), -1);
+  }
+
+  /**
+   * Records many transactions with one upsert per touched bucket.
+   */
+  public void recordAll(Collection<TransactionEntity> transactions) {
+    Map<Bucket, Totals> totals = new LinkedHashMap<>();
+    for (TransactionEntity transaction : transactions) {
+      totals.computeIfAbsent(Bucket.of(transaction), key -> new Totals()).add(transaction.getAmount());
+    }
+    totals.forEach((bucket, total) -> addToBucket(bucket, total.amount, total.count));
+  }
+
+  /**
+   * Income and expense of a single month, empty when the account has no transactions in it.
+   */
+  public Optional<MonthAggregateProjection> findMonth(Integer accountId, YearMonth month) {
+    return accountMonthSummaryRepository.sumByMonth(accountId, month.getYear(), month.getMonthValue(),
+        month.getYear(), month.getMonthValue(), null).stream().findFirst();
+  }
+
+  /**
+   * Discards the account's summary rows and recomputes them from its transactions.
+   */
+  @Transactional
+  public void rebuildAccount(Integer accountId) {
+    accountService.lockAccount(accountId);
+    accountMonthSummaryRepository.deleteAllByAccountId(accountId);
+    int buckets = accountMonthSummaryRepository.insertFromTransactions(accountId);
+    LOG.debug("Rebuilt {} monthly summary rows for account {}", buckets, accountId);
+  }
+
+  private void addToBucket(Bucket bucket, BigDecimal amount, int count) {
+    accountMonthSummaryRepository.addToBucket(bucket.accountId(), bucket.year(), bucket.month(),
+        bucket.categoryId(), bucket.type().name(), amount, count);
+  }
+
+  private record Bucket(Integer accountId, int year, int month, Integer categoryId, TransactionType type) {
+
+    static Bucket of(TransactionEntity transaction) {
+      LocalDateTime date = transaction.getTransactionDate();
+      return new Bucket(transaction.getAccount().getAccountId(), date.getYear(), date.getMonthValue(),
+          transaction.getCategory().getCategoryId(), transaction.getTransactionType());
+    }
+  }
+
+  private static final class Totals {
+    private BigDecimal amount = BigDecimal.ZERO;
+    private int count;
+
+    void add(BigDecimal value) {
+      amount = amount.add(value);
+      count++;
+    }
+  }
+}
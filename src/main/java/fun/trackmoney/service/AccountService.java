@@ -73,19 +73,22 @@ public class AccountService {
   }
 
   public boolean updateAccountBalance(BigDecimal balance, Integer accountId, Boolean isCredit) {
-    AccountEntity account = findById(accountId);
-
-    if(account == null) {
-      return false;
-    }
+    return adjustBalance(accountId, Boolean.TRUE.equals(isCredit) ? balance : balance.negate());
+  }
 
-    if (isCredit) {
-      account.setBalance(account.getBalance().add(balance));
-    } else{
-      account.setBalance(account.getBalance().subtract(balance));
-    }
+  /**
+   * Adds a signed amount to the account balance atomically in the database.
+   *
+   * @return false when the account does not exist
+   */
+  public boolean adjustBalance(Integer accountId, BigDecimal delta) {
+    return accountRepository.addToBalance(accountId, delta).isPresent();
+  }
 
-    accountRepository.save(account);
-    return true;
+  /**
+   * Locks the account row until the surrounding transaction ends, like a balance update would.
+   */
+  public void lockAccount(Integer accountId) {
+    accountRepository.lockById(accountId);
   }
 }
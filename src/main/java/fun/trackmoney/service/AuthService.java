@@ -14,17 +14,20 @@ import fun.trackmoney.dto.auth.internal.login.LoginResult;
 import fun.trackmoney.dto.auth.internal.login.LoginSuccess;
 import fun.trackmoney.dto.auth.internal.register.UserRegisterResult;
 import fun.trackmoney.dto.auth.internal.register.UserRegisterSuccess;
+import fun.trackmoney.infra.auth.PasswordHashingService;
+import fun.trackmoney.infra.jwt.JwtClaims;
 import fun.trackmoney.infra.jwt.JwtService;
+import fun.trackmoney.infra.jwt.TokenRevocationService;
 import fun.trackmoney.infra.email.EmailService;
 import fun.trackmoney.infra.redis.CacheManagerService;
 import fun.trackmoney.dto.user.UserRequestDTO;
 import fun.trackmoney.entity.UserEntity;
-import jakarta.mail.MessagingException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.security.SecureRandom;
 import java.util.Optional;
@@ -35,10 +38,12 @@ public class AuthService {
   @Value("${front.url}")
   private String frontUrl;
   private final UserService userService;
-  private final PasswordEncoder passwordEncoder;
+  private final PasswordHashingService passwordHashingService;
   private final JwtService jwtService;
   private final EmailService emailService;
   private final CacheManagerService cacheManagerService;
+  private final TokenRevocationService tokenRevocationService;
+  private final TransactionTemplate transactionTemplate;
   private static final SecureRandom SECURE_RANDOM = new SecureRandom();
   private static final Logger LOGGER = LoggerFactory.getLogger(AuthService.class);
 
@@ -47,34 +52,41 @@ public class AuthService {
   private static final String RESET_PASSWORD_EMAIL_ERROR_MSG = "Error sending reset password email to {}.";
 
   public AuthService(UserService userService,
-                     PasswordEncoder passwordEncoder,
+                     PasswordHashingService passwordHashingService,
                      JwtService jwtservice,
                      EmailService emailService,
-                     CacheManagerService cacheManagerService) {
+                     CacheManagerService cacheManagerService,
+                     TokenRevocationService tokenRevocationService,
+                     PlatformTransactionManager transactionManager) {
     this.userService = userService;
-    this.passwordEncoder = passwordEncoder;
+    this.passwordHashingService = passwordHashingService;
     this.jwtService = jwtservice;
     this.emailService = emailService;
     this.cacheManagerService = cacheManagerService;
+    this.tokenRevocationService = tokenRevocationService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
+  /**
+   * Registers the user and queues the verification e-mail in one transaction, so a user is never created without
+   * it. The password is hashed first, so the database connection is not held while the hash waits for a worker.
+   */
   public UserRegisterResult register(UserRequestDTO userDto)  {
-    UserRegisterResult result = userService.register(userDto);
-    if(result instanceof UserRegisterSuccess) {
-      Integer code;
-      boolean codeIsSaved;
-      do {
-        code = generateVerificationCode();
-        codeIsSaved = saveCode(code, userDto.email());
-      } while (!codeIsSaved);
-
-      try{
+    String passwordHash = passwordHashingService.hash(userDto.password());
+    return transactionTemplate.execute(status -> {
+      UserRegisterResult result = userService.register(userDto, passwordHash);
+      if(result instanceof UserRegisterSuccess) {
+        Integer code;
+        boolean codeIsSaved;
+        do {
+          code = generateVerificationCode();
+          codeIsSaved = saveCode(code, userDto.email());
+        } while (!codeIsSaved);
+
         emailService.sendEmailToVerifyEmail(userDto.email(), userDto.name(), code);
-      } catch (MessagingException ex) {
-        LOGGER.error(VERIFICATION_EMAIL_ERROR_MSG, userDto.email(), ex);
       }
-    }
-    return result;
+      return result;
+    });
   }
 
   public LoginResult login(LoginRequestDTO loginDto) {
@@ -84,9 +96,10 @@ public class AuthService {
     }
     UserEntity user = optionalUser.get();
 
-    if(!passwordEncoder.matches(loginDto.password(), user.getPassword())){
+    if(!passwordHashingService.matches(loginDto.password(), user.getPassword())){
       return new LoginFailure(AuthError.INVALID_CREDENTIALS);
     }
+    upgradePasswordHash(user, loginDto.password());
 
     if(!user.isActive()){
       String verificationToken = jwtService.generateVerificationToken(user.getEmail());
@@ -128,7 +141,7 @@ public class AuthService {
     } while (!codeIsSaved);
     try{
       emailService.sendEmailToVerifyEmail(user.getEmail(), user.getName(), code);
-    } catch (MessagingException ex) {
+    } catch (RuntimeException ex) {
       LOGGER.error(VERIFICATION_EMAIL_ERROR_MSG, user.getEmail(), ex);
       return new VerificationEmailFailure(AuthError.ERROR_SENDING_EMAIL);
     }
@@ -144,7 +157,7 @@ public class AuthService {
     String link = frontUrl + "/reset-password?token=" +  jwtCode;
     try {
       emailService.sendEmailToResetPassword(email, optionalUser.getName(), link);
-    } catch (RuntimeException | MessagingException ex) {
+    } catch (RuntimeException ex) {
       LOGGER.error(RESET_PASSWORD_EMAIL_ERROR_MSG, email, ex);
       return new ForgotPasswordFailure(AuthError.ERROR_SENDING_EMAIL);
     }
@@ -156,19 +169,44 @@ public class AuthService {
     if(user == null) {
       return new ForgotPasswordFailure(AuthError.USER_NOT_REGISTER);
     }
-    String password = passwordEncoder.encode(newPassword);
+    String password = passwordHashingService.hash(newPassword);
     user.setPassword(password);
     userService.update(user);
     return new ForgotPasswordSuccess();
   }
 
-  public String refreshAccessToken(String email) {
-    UserEntity user = userService.findUserByEmail(email).orElse(null);
+  /**
+   * Trades a refresh token for a new access token and a new refresh token. Each refresh token can be traded once,
+   * so a stolen one stops working as soon as either party has used it.
+   */
+  public LoginResult refreshTokens(String refreshToken) {
+    Optional<JwtClaims> claims = jwtService.verify(refreshToken)
+        .filter(verified -> JwtService.REFRESH.equals(verified.role()) && verified.id() != null);
+    if(claims.isEmpty() || !tokenRevocationService.consume(claims.get().id(), claims.get().expiresAt())) {
+      return new LoginFailure(AuthError.REFRESH_TOKEN_INVALID);
+    }
 
-    if(user == null) {
-      return null;
+    String email = claims.get().subject();
+    if(userService.findUserByEmail(email).isEmpty()) {
+      return new LoginFailure(AuthError.USER_NOT_REGISTER);
     }
-    return jwtService.generateAccessToken(email);
+    LoginResponseDTO tokens = new LoginResponseDTO(jwtService.generateAccessToken(email),
+        jwtService.generateRefreshToken(email));
+    return new LoginSuccess(tokens);
+  }
+
+  /**
+   * Signs the user out everywhere: every token issued to them so far stops being accepted.
+   */
+  public void logout(String email) {
+    tokenRevocationService.revokeAllForUser(email);
+  }
+
+  private void upgradePasswordHash(UserEntity user, String rawPassword) {
+    passwordHashingService.upgrade(rawPassword, user.getPassword()).ifPresent(hash -> {
+      user.setPassword(hash);
+      userService.update(user);
+    });
   }
 
   protected Boolean saveCode(Integer code, String email) {
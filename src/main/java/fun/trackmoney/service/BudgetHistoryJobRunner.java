@@ -0,0 +1,307 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.dto.budget.BudgetHistoryJobProgressDTO;
+import fun.trackmoney.entity.BudgetHistoryJobChunkEntity;
+import fun.trackmoney.entity.BudgetHistoryJobEntity;
+import fun.trackmoney.enums.JobStatus;
+import fun.trackmoney.enums.JobTrigger;
+import fun.trackmoney.infra.redis.MetricsCacheService;
+import fun.trackmoney.repository.BudgetHistoryJobChunkRepository;
+import fun.trackmoney.repository.BudgetHistoryJobRepository;
+import fun.trackmoney.repository.BudgetHistoryRepository;
+import fun.trackmoney.repository.BudgetsRepository;
+import fun.trackmoney.repository.projection.JobProgressProjection;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the budget history generation of one month as a job of account-range chunks.
+ * The chunks are planned up front and processed on a bounded worker pool. Each one commits on its own, together
+ * with its COMPLETED mark, so a failure only loses that chunk and a crashed or failed run resumes where it stopped.
+ * A run is owned by the fencing token of the caller's lock lease: each chunk re-checks it under a row lock on the
+ * job before committing, so a node whose lease expired mid-run cannot write next to the node that took over.
+ */
+@Component
+public class BudgetHistoryJobRunner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(BudgetHistoryJobRunner.class);
+  private static final List<JobStatus> UNFINISHED_JOB = List.of(JobStatus.RUNNING, JobStatus.FAILED);
+  private static final List<JobStatus> UNFINISHED_CHUNK = List.of(JobStatus.PENDING, JobStatus.FAILED);
+  private static final int MAX_ERROR_LENGTH = 500;
+
+  private final BudgetHistoryJobRepository jobRepository;
+  private final BudgetHistoryJobChunkRepository chunkRepository;
+  private final BudgetHistoryRepository budgetHistoryRepository;
+  private final BudgetsRepository budgetsRepository;
+  private final MetricsCacheService metricsCacheService;
+  private final TransactionTemplate transactionTemplate;
+  private final Executor workers;
+  private final int chunkSize;
+
+  @Autowired
+  public BudgetHistoryJobRunner(BudgetHistoryJobRepository jobRepository,
+                                BudgetHistoryJobChunkRepository chunkRepository,
+                                BudgetHistoryRepository budgetHistoryRepository,
+                                BudgetsRepository budgetsRepository,
+                                MetricsCacheService metricsCacheService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${trackmoney.budget-history.job.workers:4}") int workerCount,
+                                @Value("${trackmoney.budget-history.job.chunk-size:1000}") int chunkSize) {
+    this(jobRepository, chunkRepository, budgetHistoryRepository, budgetsRepository, metricsCacheService,
+        transactionManager, newWorkerPool(workerCount), chunkSize);
+  }
+
+  BudgetHistoryJobRunner(BudgetHistoryJobRepository jobRepository,
+                         BudgetHistoryJobChunkRepository chunkRepository,
+                         BudgetHistoryRepository budgetHistoryRepository,
+                         BudgetsRepository budgetsRepository,
+                         MetricsCacheService metricsCacheService,
+                         PlatformTransactionManager transactionManager,
+                         Executor workers,
+                         int chunkSize) {
+    this.jobRepository = jobRepository;
+    this.chunkRepository = chunkRepository;
+    this.budgetHistoryRepository = budgetHistoryRepository;
+    this.budgetsRepository = budgetsRepository;
+    this.metricsCacheService = metricsCacheService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.workers = workers;
+    this.chunkSize = chunkSize;
+  }
+
+  private static ExecutorService newWorkerPool(int workerCount) {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), new CustomizableThreadFactory("budget-history-"));
+    // the job runs once a month; keep no idle threads in between
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /**
+   * Generates the history of a month, resuming the latest unfinished job of that month when there is one.
+   * A recovery run does nothing when the month already has a completed job.
+   *
+   * @param month        the reference month
+   * @param trigger      what started the run
+   * @param fencingToken the fencing token of the lock lease the caller holds for the run
+   * @return the progress of the job once every chunk has been attempted, or empty when nothing had to run or a
+   *     newer lock holder took the job over
+   */
+  public Optional<BudgetHistoryJobProgressDTO> run(YearMonth month, JobTrigger trigger, long fencingToken) {
+    BudgetHistoryJobEntity job = transactionTemplate.execute(status -> startJob(month, trigger, fencingToken));
+    if (job == null) {
+      return Optional.empty();
+    }
+
+    List<BudgetHistoryJobChunkEntity> chunks =
+        chunkRepository.findByJobIdAndStatusInOrderByFirstAccountId(job.getJobId(), UNFINISHED_CHUNK);
+    LOG.info("Budget history job {} for {}: {} of {} chunks to process",
+        job.getJobId(), month, chunks.size(), job.getTotalChunks());
+
+    List<CompletableFuture<Boolean>> results = new ArrayList<>();
+    for (BudgetHistoryJobChunkEntity chunk : chunks) {
+      results.add(CompletableFuture.supplyAsync(() -> processChunk(chunk, month, fencingToken), workers));
+    }
+    boolean allCompleted = results.stream().allMatch(CompletableFuture::join);
+
+    JobStatus outcome = allCompleted ? JobStatus.COMPLETED : JobStatus.FAILED;
+    LocalDateTime finishedAt = LocalDateTime.now();
+    Integer finished = transactionTemplate.execute(status ->
+        jobRepository.finishJob(job.getJobId(), fencingToken, outcome, finishedAt));
+    if (finished == null || finished == 0) {
+      LOG.warn("Budget history job {} was taken over by a newer lock holder, leaving it to them", job.getJobId());
+      return Optional.empty();
+    }
+    job.setStatus(outcome).setFinishedAt(finishedAt);
+
+    BudgetHistoryJobProgressDTO progress = toProgress(job);
+    LOG.info("Budget history job {} finished as {}: {} entries created, {} chunks failed",
+        job.getJobId(), job.getStatus(), progress.generatedRows(), progress.failedChunks());
+    return Optional.of(progress);
+  }
+
+  /**
+   * Gets the progress of the most recent jobs, newest first.
+   *
+   * @return progress of up to ten jobs
+   */
+  public List<BudgetHistoryJobProgressDTO> getRecentJobs() {
+    return jobRepository.findTop10ByOrderByJobIdDesc().stream()
+        .map(this::toProgress)
+        .toList();
+  }
+
+  /**
+   * Gets the progress of one job.
+   *
+   * @param jobId the job ID
+   * @return the job progress, or empty when the job does not exist
+   */
+  public Optional<BudgetHistoryJobProgressDTO> getJob(Integer jobId) {
+    return jobRepository.findById(jobId).map(this::toProgress);
+  }
+
+  private BudgetHistoryJobEntity startJob(YearMonth month, JobTrigger trigger, long fencingToken) {
+    short referenceMonth = (short) month.getMonthValue();
+    Optional<BudgetHistoryJobEntity> unfinished = jobRepository
+        .findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+            month.getYear(), referenceMonth, UNFINISHED_JOB);
+    if (unfinished.isPresent()) {
+      if (jobRepository.claimJob(unfinished.get().getJobId(), fencingToken) == 0) {
+        LOG.warn("Budget history job {} is owned by a newer lock holder, not resuming it",
+            unfinished.get().getJobId());
+        return null;
+      }
+      LOG.info("Resuming budget history job {} for {}", unfinished.get().getJobId(), month);
+      return jobRepository.save(unfinished.get().setStatus(JobStatus.RUNNING).setFinishedAt(null));
+    }
+
+    if (trigger == JobTrigger.RECOVERY && jobRepository
+        .findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+            month.getYear(), referenceMonth, List.of(JobStatus.COMPLETED))
+        .isPresent()) {
+      return null;
+    }
+
+    BudgetHistoryJobEntity job = planJob(month, trigger);
+    jobRepository.claimJob(job.getJobId(), fencingToken);
+    return job;
+  }
+
+  private BudgetHistoryJobEntity planJob(YearMonth month, JobTrigger trigger) {
+    BudgetHistoryJobEntity job = jobRepository.save(new BudgetHistoryJobEntity()
+        .setTriggeredBy(trigger)
+        .setReferenceMonth((short) month.getMonthValue())
+        .setReferenceYear(month.getYear())
+        .setStatus(JobStatus.RUNNING)
+        .setTotalChunks(0)
+        .setTotalAccounts(0)
+        .setStartedAt(LocalDateTime.now()));
+
+    List<BudgetHistoryJobChunkEntity> chunks = new ArrayList<>();
+    int totalAccounts = 0;
+    List<Integer> accountIds = budgetsRepository.findAccountIdsWithBudgetsAfter(0, chunkSize);
+    while (!accountIds.isEmpty()) {
+      Integer lastAccountId = accountIds.get(accountIds.size() - 1);
+      chunks.add(new BudgetHistoryJobChunkEntity()
+          .setJobId(job.getJobId())
+          .setFirstAccountId(accountIds.get(0))
+          .setLastAccountId(lastAccountId)
+          .setAccountCount(accountIds.size())
+          .setStatus(JobStatus.PENDING)
+          .setGeneratedRows(0)
+          .setAttempts(0));
+      totalAccounts += accountIds.size();
+      accountIds = budgetsRepository.findAccountIdsWithBudgetsAfter(lastAccountId, chunkSize);
+    }
+    chunkRepository.saveAll(chunks);
+
+    LOG.info("Planned budget history job {} for {}: {} accounts in {} chunks",
+        job.getJobId(), month, totalAccounts, chunks.size());
+    return jobRepository.save(job.setTotalChunks(chunks.size()).setTotalAccounts(totalAccounts));
+  }
+
+  private boolean processChunk(BudgetHistoryJobChunkEntity chunk, YearMonth month, long fencingToken) {
+    int attempts = chunk.getAttempts() + 1;
+    try {
+      transactionTemplate.executeWithoutResult(status -> {
+        Long owner = jobRepository.findFencingTokenForShare(chunk.getJobId());
+        if (owner == null || owner != fencingToken) {
+          throw new SupersededException(owner);
+        }
+        int count = budgetHistoryRepository.insertMonthlyHistory(
+            chunk.getFirstAccountId(), chunk.getLastAccountId(), (short) month.getMonthValue(), month.getYear());
+        if (count > 0) {
+          budgetsRepository.findAccountIdsWithBudgetsAfter(chunk.getFirstAccountId() - 1, chunk.getAccountCount())
+              .forEach(metricsCacheService::invalidate);
+        }
+        chunkRepository.save(chunk
+            .setStatus(JobStatus.COMPLETED)
+            .setGeneratedRows(count)
+            .setAttempts(attempts)
+            .setErrorMessage(null)
+            .setCompletedAt(LocalDateTime.now()));
+      });
+      return true;
+    } catch (SupersededException e) {
+      LOG.warn("Skipping budget history chunk {}: {}", chunk.getChunkId(), e.getMessage());
+      return false;
+    } catch (RuntimeException e) {
+      LOG.error("Budget history chunk {} (accounts {}-{}) failed: {}",
+          chunk.getChunkId(), chunk.getFirstAccountId(), chunk.getLastAccountId(), e.getMessage(), e);
+      String error = String.valueOf(e.getMessage());
+      chunkRepository.save(chunk
+          .setStatus(JobStatus.FAILED)
+          .setAttempts(attempts)
+          .setErrorMessage(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error));
+      return false;
+    }
+  }
+
+  private BudgetHistoryJobProgressDTO toProgress(BudgetHistoryJobEntity job) {
+    JobProgressProjection chunks = chunkRepository.summarizeJob(job.getJobId());
+    long processedAccounts = chunks.getProcessedAccounts();
+
+    LocalDateTime until = job.getFinishedAt() != null ? job.getFinishedAt() : LocalDateTime.now();
+    long elapsedMillis = Math.max(Duration.between(job.getStartedAt(), until).toMillis(), 1);
+    double accountsPerSecond = processedAccounts * 1000.0 / elapsedMillis;
+
+    LocalDateTime estimatedCompletion = job.getFinishedAt();
+    if (job.getStatus() == JobStatus.RUNNING && accountsPerSecond > 0) {
+      long remainingAccounts = job.getTotalAccounts() - processedAccounts;
+      estimatedCompletion = LocalDateTime.now().plusSeconds((long) Math.ceil(remainingAccounts / accountsPerSecond));
+    }
+
+    return new BudgetHistoryJobProgressDTO(
+        job.getJobId(),
+        job.getTriggeredBy(),
+        job.getReferenceMonth(),
+        job.getReferenceYear(),
+        job.getStatus(),
+        job.getTotalChunks(),
+        chunks.getCompletedChunks(),
+        chunks.getFailedChunks(),
+        job.getTotalAccounts(),
+        processedAccounts,
+        chunks.getGeneratedRows(),
+        job.getStartedAt(),
+        job.getFinishedAt(),
+        accountsPerSecond,
+        estimatedCompletion
+    );
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (workers instanceof ExecutorService executorService) {
+      executorService.shutdown();
+    }
+  }
+
+  private static final class SupersededException extends RuntimeException {
+
+    SupersededException(Long owner) {
+      super("the job is owned by fencing token " + owner);
+    }
+  }
+}
@@ -1,10 +1,14 @@
 package fun.trackmoney.service;
 
+import fun.trackmoney.dto.budget.BudgetHistoryJobProgressDTO;
 import fun.trackmoney.dto.budget.BudgetHistoryResponseDTO;
 import fun.trackmoney.dto.budget.GenerationResultDTO;
 import fun.trackmoney.entity.BudgetHistoryEntity;
 import fun.trackmoney.entity.BudgetsEntity;
 import fun.trackmoney.enums.BudgetStatus;
+import fun.trackmoney.enums.JobTrigger;
+import fun.trackmoney.infra.redis.DistributedLockService;
+import fun.trackmoney.infra.redis.MetricsCacheService;
 import fun.trackmoney.mapper.BudgetHistoryMapper;
 import fun.trackmoney.repository.BudgetHistoryRepository;
 import fun.trackmoney.repository.BudgetsRepository;
@@ -13,6 +17,7 @@ import fun.trackmoney.enums.TransactionType;
 import fun.trackmoney.entity.TransactionEntity;
 import fun.trackmoney.mapper.TransactionSimpleMapper;
 import fun.trackmoney.repository.TransactionRepository;
+import fun.trackmoney.repository.projection.CategoryAmountProjection;
 import fun.trackmoney.entity.UserEntity;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,17 +27,22 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Service
 public class BudgetHistoryService {
 
   private static final Logger LOG = LoggerFactory.getLogger(BudgetHistoryService.class);
   private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+  private static final String JOB_LOCK = "budget-history-job";
+  private static final Duration JOB_LEASE = Duration.ofMinutes(5);
 
   private final BudgetHistoryRepository budgetHistoryRepository;
   private final BudgetsRepository budgetsRepository;
@@ -40,6 +50,9 @@ public class BudgetHistoryService {
   private final TransactionSimpleMapper transactionSimpleMapper;
   private final BudgetHistoryMapper budgetHistoryMapper;
   private final RecurringService recurringService;
+  private final MetricsCacheService metricsCacheService;
+  private final BudgetHistoryJobRunner budgetHistoryJobRunner;
+  private final DistributedLockService distributedLockService;
 
   public BudgetHistoryService(
       BudgetHistoryRepository budgetHistoryRepository,
@@ -47,83 +60,47 @@ public class BudgetHistoryService {
       TransactionRepository transactionRepository,
       TransactionSimpleMapper transactionSimpleMapper,
       BudgetHistoryMapper budgetHistoryMapper,
-      RecurringService recurringService) {
+      RecurringService recurringService,
+      MetricsCacheService metricsCacheService,
+      BudgetHistoryJobRunner budgetHistoryJobRunner,
+      DistributedLockService distributedLockService) {
     this.budgetHistoryRepository = budgetHistoryRepository;
     this.budgetsRepository = budgetsRepository;
     this.transactionRepository = transactionRepository;
     this.transactionSimpleMapper = transactionSimpleMapper;
     this.budgetHistoryMapper = budgetHistoryMapper;
     this.recurringService = recurringService;
+    this.metricsCacheService = metricsCacheService;
+    this.budgetHistoryJobRunner = budgetHistoryJobRunner;
+    this.distributedLockService = distributedLockService;
   }
 
   /**
    * Scheduled method - runs at midnight on the 1st of each month
-   * Generates budget history for the PREVIOUS month
+   * Generates budget history for the PREVIOUS month, on one node of the cluster only
    * Cron: 0 0 0 1 * * (midnight, 1st day of month, every month)
    */
   @Scheduled(cron = "0 0 0 1 * *")
-  @Transactional
   public void generateMonthlyHistory() {
     LOG.info("Starting monthly budget history generation");
-    YearMonth lastMonth = YearMonth.now().minusMonths(1);
-    short month = (short) lastMonth.getMonthValue();
-    int year = lastMonth.getYear();
-
-    List<Integer> accountIds = budgetsRepository.findAll()
-        .stream()
-        .map(b -> b.getAccount().getAccountId())
-        .distinct()
-        .toList();
-
-    int totalGenerated = 0;
-    for (Integer accountId : accountIds) {
-      if (!budgetHistoryRepository.existsHistoryForAccountAndMonth(accountId, month, year)) {
-        int count = generateHistoryForAccount(accountId, month, year);
-        totalGenerated += count;
-      }
-    }
-
-    LOG.info("Completed monthly budget history generation: {} entries created for {}/{}",
-        totalGenerated, month, year);
+    runJob(JobTrigger.SCHEDULED);
   }
 
   /**
    * Recovery method - runs on application startup
-   * Checks for missing months and generates history if needed
+   * Resumes an interrupted run for the previous month, or generates the month if it never completed
+   * @return the progress of the run, or empty when the month was already complete or another node is running it
    */
-  @Transactional
-  public void recoverMissingHistory() {
+  public Optional<BudgetHistoryJobProgressDTO> recoverMissingHistory() {
     LOG.info("Starting budget history recovery");
-    LocalDate now = LocalDate.now();
-    LocalDate lastMonth = now.minusMonths(1);
-
-    List<Integer> accountIds = budgetsRepository.findAll()
-        .stream()
-        .map(b -> b.getAccount().getAccountId())
-        .distinct()
-        .toList();
-
-    int totalRecovered = 0;
-    for (Integer accountId : accountIds) {
-      LocalDate checkDate = getOldestBudgetDate(accountId);
-      if (checkDate == null) {
-        continue;
-      }
-
-      while (checkDate.isBefore(lastMonth) || checkDate.equals(lastMonth)) {
-        short month = (short) checkDate.getMonthValue();
-        int year = checkDate.getYear();
-
-        if (!budgetHistoryRepository.existsHistoryForAccountAndMonth(accountId, month, year)) {
-          int count = generateHistoryForAccount(accountId, month, year);
-          totalRecovered += count;
-        }
-
-        checkDate = checkDate.plusMonths(1);
-      }
-    }
+    return runJob(JobTrigger.RECOVERY);
+  }
 
-    LOG.info("Completed budget history recovery: {} entries recovered", totalRecovered);
+  private Optional<BudgetHistoryJobProgressDTO> runJob(JobTrigger trigger) {
+    YearMonth month = YearMonth.now().minusMonths(1);
+    return distributedLockService.callExclusively(JOB_LOCK, JOB_LEASE,
+            lease -> budgetHistoryJobRunner.run(month, trigger, lease.getFencingToken()))
+        .flatMap(progress -> progress);
   }
 
   /**
@@ -201,13 +178,13 @@ public class BudgetHistoryService {
       Integer endYear,
       Integer categoryId) {
     Integer accountId = currentUser.getAccount().getAccountId();
+    LocalDate rangeStart = LocalDate.of(startYear, startMonth, 1);
+    LocalDate rangeEnd = LocalDate.of(endYear, endMonth, 1);
     if (categoryId == null) {
-      return budgetHistoryRepository.findByAccountAndDateRange(
-          accountId, startYear, startMonth, endYear, endMonth
-      );
+      return budgetHistoryRepository.findByAccountAndDateRange(accountId, rangeStart, rangeEnd);
     }
     return budgetHistoryRepository.findByAccountAndDateRangeAndOptionalCategoryId(
-        accountId, startYear, startMonth, endYear, endMonth, categoryId
+        accountId, rangeStart, rangeEnd, categoryId
     );
   }
 
@@ -215,91 +192,24 @@ public class BudgetHistoryService {
    * Generates budget history for one account for a specific month
    */
   private int generateHistoryForAccount(Integer accountId, short month, int year) {
-    List<BudgetsEntity> budgets = budgetsRepository.findAllByAccountAccountId(accountId);
+    int count = budgetHistoryRepository.insertMonthlyHistory(accountId, accountId, month, year);
 
-    if (budgets.isEmpty()) {
-      return 0;
-    }
-
-    LocalDate monthStart = LocalDate.of(year, month, 1);
-    LocalDate monthEnd = YearMonth.of(year, month).atEndOfMonth();
-    LocalDateTime startDate = monthStart.atStartOfDay();
-    LocalDateTime endDate = monthEnd.atTime(23, 59, 59);
-
-    BigDecimal totalIncome = getTotalIncomeForMonth(accountId, startDate, endDate);
-
-    int count = 0;
-    for (BudgetsEntity budget : budgets) {
-      // Check if history already exists for this budget/month/year
-      if (budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-          budget, month, year).isPresent()) {
-        continue;
-      }
-
-      BudgetHistoryEntity history = calculateBudgetHistory(
-          budget, month, year, startDate, endDate, totalIncome
-      );
-
-      if (history != null) {
-        budgetHistoryRepository.save(history);
-        count++;
-      }
+    if (count > 0) {
+      metricsCacheService.invalidate(accountId);
     }
-
     return count;
   }
 
-  /**
-   * Calculates all fields for a single budget history entry
-   */
-  private BudgetHistoryEntity calculateBudgetHistory(
-      BudgetsEntity budget,
-      short month,
-      int year,
-      LocalDateTime startDate,
-      LocalDateTime endDate,
-      BigDecimal totalIncome) {
-
-    CategoryEntity category = budget.getCategory();
-    Integer accountId = budget.getAccount().getAccountId();
-    short percent = budget.getPercent();
-
-    BigDecimal targetAmount = calculateTargetAmount(totalIncome, percent);
-    BigDecimal spentAmount = getSpentAmount(accountId, category, startDate, endDate);
-    BigDecimal remainingAmount = calculateRemainingAmount(targetAmount, spentAmount);
-    BudgetStatus status = determineBudgetStatus(spentAmount, targetAmount);
-
-    return buildBudgetHistoryEntity(budget, category, month, year, percent,
-        targetAmount, spentAmount, remainingAmount, totalIncome, status);
-  }
-
-  private BigDecimal calculateTargetAmount(BigDecimal totalIncome, short percent) {
+  static BigDecimal calculateTargetAmount(BigDecimal totalIncome, short percent) {
     return totalIncome
         .multiply(BigDecimal.valueOf(percent))
         .divide(HUNDRED, 2, RoundingMode.HALF_UP);
   }
 
-  private BigDecimal getSpentAmount(Integer accountId, CategoryEntity category,
-                                     LocalDateTime startDate, LocalDateTime endDate) {
-    BigDecimal spentAmount = transactionRepository.sumExpensesByCategoryAndDateRange(
-        accountId,
-        category.getCategoryId(),
-        startDate,
-        endDate
-    );
-    return spentAmount != null ? spentAmount : BigDecimal.ZERO;
-  }
-
   private BigDecimal calculateRemainingAmount(BigDecimal targetAmount, BigDecimal spentAmount) {
     return targetAmount.subtract(spentAmount);
   }
 
-  private BudgetStatus determineBudgetStatus(BigDecimal spentAmount, BigDecimal targetAmount) {
-    return spentAmount.compareTo(targetAmount) > 0
-        ? BudgetStatus.EXCEEDED
-        : BudgetStatus.WITHIN_LIMIT;
-  }
-
   private BudgetHistoryEntity buildBudgetHistoryEntity(
       BudgetsEntity budget,
       CategoryEntity category,
@@ -326,10 +236,11 @@ public class BudgetHistoryService {
   }
 
   /**
-   * Gets total income for an account within a date range
-   * First tries to get from recurring transactions, falls back to individual transactions
+   * Gets the income budgets are calculated from for an account within a date range.
+   * Recurring income takes precedence; otherwise the income transactions of the range are summed in SQL.
+   * Shared with {@link BudgetsService} so both screens use the same figure.
    */
-  private BigDecimal getTotalIncomeForMonth(
+  public BigDecimal getTotalIncomeForMonth(
       Integer accountId,
       LocalDateTime startDate,
       LocalDateTime endDate) {
@@ -342,28 +253,8 @@ public class BudgetHistoryService {
     }
 
     // Fall back to individual transactions if no recurring income found
-    List<TransactionEntity> transactions = transactionRepository
-        .findAllByAccountIdAndDateRange(accountId, startDate, endDate);
-
-    return transactions.stream()
-        .filter(t -> TransactionType.INCOME.equals(t.getTransactionType()))
-        .map(TransactionEntity::getAmount)
-        .filter(Objects::nonNull)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-  }
-
-  /**
-   * Get the oldest budget date for an account
-   */
-  private LocalDate getOldestBudgetDate(Integer accountId) {
-    List<BudgetsEntity> budgets = budgetsRepository.findAllByAccountAccountId(accountId);
-    if (budgets.isEmpty()) {
-      return null;
-    }
-
-    // For now, just return current year - 1 as a safe starting point
-    // In a real implementation, you might want to track when budgets were created
-    return LocalDate.now().minusMonths(1);
+    return transactionRepository.sumAmountByTypeAndDateRange(
+        accountId, TransactionType.INCOME, startDate, endDate);
   }
 
   /**
@@ -441,35 +332,49 @@ public class BudgetHistoryService {
     }
 
     budgetHistoryRepository.delete(history);
+    metricsCacheService.invalidate(accountId);
     LOG.info("Deleted budget history entry");
   }
 
   /**
-   * Generates provisional budget history for the current month.
-   * This method creates or overwrites budget history entries for the current month
-   * with PROVISIONAL status, based on transactions from the start of the month until now.
+   * Calculates provisional budget history for the current month without persisting it.
+   * Figures cover the transactions from the start of the month until today, with every category's
+   * spending read from a single grouped query, so read endpoints can merge them with the stored history.
    *
    * @param accountId  the user's account ID
    * @param categoryId the category ID to filter by (null for all categories)
+   * @return unsaved history entries with PROVISIONAL status, one per budget
    */
-  @Transactional
-  public void generateProvisionalHistoryForCurrentMonth(Integer accountId, Integer categoryId) {
+  @Transactional(readOnly = true)
+  public List<BudgetHistoryEntity> calculateProvisionalHistoryForCurrentMonth(Integer accountId, Integer categoryId) {
     LocalDate now = LocalDate.now();
     short currentMonth = (short) now.getMonthValue();
     int currentYear = now.getYear();
 
     List<BudgetsEntity> budgets = getBudgetsForAccount(accountId, categoryId);
     if (budgets.isEmpty()) {
-      return;
+      return List.of();
     }
 
-    LocalDateTime monthStart = LocalDate.of(currentYear, currentMonth, 1).atStartOfDay();
+    LocalDateTime monthStart = now.withDayOfMonth(1).atStartOfDay();
     LocalDateTime monthEnd = now.atTime(23, 59, 59);
     BigDecimal totalIncome = getTotalIncomeForMonth(accountId, monthStart, monthEnd);
-
-    for (BudgetsEntity budget : budgets) {
-      createProvisionalHistoryForBudget(budget, currentMonth, currentYear, totalIncome, monthStart, monthEnd);
-    }
+    Map<Integer, BigDecimal> spentByCategory = transactionRepository
+        .sumExpensesGroupedByCategory(accountId, monthStart, monthEnd)
+        .stream()
+        .collect(Collectors.toMap(CategoryAmountProjection::getCategoryId, CategoryAmountProjection::getAmount));
+
+    return budgets.stream()
+        .map(budget -> {
+          CategoryEntity category = budget.getCategory();
+          short percent = budget.getPercent();
+          BigDecimal targetAmount = calculateTargetAmount(totalIncome, percent);
+          BigDecimal spentAmount = spentByCategory.getOrDefault(category.getCategoryId(), BigDecimal.ZERO);
+          return buildBudgetHistoryEntity(budget, category, currentMonth, currentYear, percent, targetAmount,
+              spentAmount, calculateRemainingAmount(targetAmount, spentAmount), totalIncome,
+              BudgetStatus.PROVISIONAL);
+        })
+        .toList();
   }
 
   private List<BudgetsEntity> getBudgetsForAccount(Integer accountId, Integer categoryId) {
@@ -483,39 +388,4 @@ public class BudgetHistoryService {
 
     return budgets;
   }
-
-  private void createProvisionalHistoryForBudget(
-      BudgetsEntity budget,
-      short currentMonth,
-      int currentYear,
-      BigDecimal totalIncome,
-      LocalDateTime monthStart,
-      LocalDateTime monthEnd) {
-    // Delete existing history if present
-    budgetHistoryRepository
-        .findByBudgetAndReferenceMonthAndReferenceYear(budget, currentMonth, currentYear)
-        .ifPresent(budgetHistoryRepository::delete);
-
-    CategoryEntity category = budget.getCategory();
-    short percent = budget.getPercent();
-    BigDecimal targetAmount = calculateTargetAmount(totalIncome, percent);
-    BigDecimal spentAmount = getSpentAmount(
-        budget.getAccount().getAccountId(), category, monthStart, monthEnd);
-    BigDecimal remainingAmount = targetAmount.subtract(spentAmount);
-
-    BudgetHistoryEntity history = new BudgetHistoryEntity()
-        .setBudget(budget)
-        .setAccount(budget.getAccount())
-        .setCategory(category)
-        .setReferenceMonth(currentMonth)
-        .setReferenceYear(currentYear)
-        .setPercent(percent)
-        .setTargetAmount(targetAmount)
-        .setSpentAmount(spentAmount)
-        .setRemainingAmount(remainingAmount)
-        .setTotalIncome(totalIncome)
-        .setStatus(BudgetStatus.PROVISIONAL);
-
-    budgetHistoryRepository.save(history);
-  }
 }
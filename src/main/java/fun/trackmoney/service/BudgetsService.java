@@ -1,5 +1,6 @@
 package fun.trackmoney.service;
 
+import fun.trackmoney.infra.redis.MetricsCacheService;
 import fun.trackmoney.mapper.AccountMapper;
 import fun.trackmoney.dto.budget.BudgetCreateDTO;
 import fun.trackmoney.dto.budget.BudgetResponseDTO;
@@ -11,14 +12,15 @@ import fun.trackmoney.enums.BudgetError;
 import fun.trackmoney.mapper.BudgetMapper;
 import fun.trackmoney.repository.BudgetsRepository;
 import fun.trackmoney.entity.CategoryEntity;
-import fun.trackmoney.entity.TransactionEntity;
 import fun.trackmoney.entity.UserEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class BudgetsService {
@@ -28,25 +30,32 @@ public class BudgetsService {
   private final CategoryService categoryService;
   private final TransactionService transactionService;
   private final AccountMapper accountMapper;
-  private final RecurringService recurringService;
+  private final AccountService accountService;
+  private final BudgetHistoryService budgetHistoryService;
+  private final MetricsCacheService metricsCacheService;
 
   public BudgetsService(BudgetsRepository budgetsRepository,
                         BudgetMapper budgetMapper,
                         CategoryService categoryService,
                         TransactionService transactionService,
                         AccountMapper accountMapper,
-                        RecurringService recurringService) {
+                        AccountService accountService,
+                        BudgetHistoryService budgetHistoryService,
+                        MetricsCacheService metricsCacheService) {
     this.budgetsRepository = budgetsRepository;
     this.budgetMapper = budgetMapper;
     this.categoryService = categoryService;
     this.transactionService = transactionService;
     this.accountMapper = accountMapper;
-    this.recurringService = recurringService;
+    this.accountService = accountService;
+    this.budgetHistoryService = budgetHistoryService;
+    this.metricsCacheService = metricsCacheService;
   }
 
   @Transactional
   public BudgetResult create(BudgetCreateDTO dto, UserEntity currentUser) {
-    var account = currentUser.getAccount();
+    // the principal's account does not carry the balance, which the response includes
+    var account = accountService.findById(currentUser.getAccount().getAccountId());
     var category = categoryService.findEntityById(dto.categoryId());
 
     if (category == null) {
@@ -72,6 +81,7 @@ public class BudgetsService {
         .setCategory(category)
         .setPercent(dto.percent());
     var data = budgetMapper.entityToResponseDTO(budgetsRepository.save(budget));
+    metricsCacheService.invalidate(account.getAccountId());
     return new BudgetSuccess(data);
   }
 
@@ -80,33 +90,26 @@ public class BudgetsService {
     var budgets = budgetsRepository.findAllByAccountAccountId(accountId);
 
     var allTransactions = transactionService.getLast5TransactionsPerCategory(accountId);
-    List<BudgetResponseDTO> budgetDTOS = new ArrayList<>();
-    List<TransactionEntity> currentMonthTransaction = transactionService.getCurrentMonthTransactions();
+    // the principal's account does not carry the balance, which changes with every transaction
+    var accountDto = accountMapper.accountEntityToAccountResponse(accountService.findById(accountId));
 
-    // Try to get income from recurring transactions first, fall back to individual transactions
-    BigDecimal recurringIncome = recurringService.getIncomeFromRecurring(accountId);
-    int income = recurringIncome.compareTo(BigDecimal.ZERO) > 0
-        ? recurringIncome.intValue()
-        : transactionService.getIncome(currentUser.getUserId()).intValue();
+    YearMonth currentMonth = YearMonth.now();
+    Map<Integer, BigDecimal> spentByCategory = transactionService.getExpensesByCategory(accountId, currentMonth);
+    BigDecimal income = budgetHistoryService.getTotalIncomeForMonth(accountId,
+        currentMonth.atDay(1).atStartOfDay(), currentMonth.atEndOfMonth().atTime(23, 59, 59));
 
-    for(BudgetsEntity budget : budgets) {
+    List<BudgetResponseDTO> budgetDTOS = new ArrayList<>(budgets.size());
+    for (BudgetsEntity budget : budgets) {
       CategoryEntity category = budget.getCategory();
-      int currentAmount = getCurrentAmountWested(category, currentMonthTransaction);
-      var categoryTransactionLast5 = allTransactions.get(category);
-      int targetAmount = income * budget.getPercent() / 100;
-
-      var accountDto = accountMapper.accountEntityToAccountResponse(currentUser.getAccount());
-
-      var budgetDto = new BudgetResponseDTO(
+      budgetDTOS.add(new BudgetResponseDTO(
           budget.getBudgetId(),
           category,
           accountDto,
           budget.getPercent(),
-          BigDecimal.valueOf(targetAmount),
-          BigDecimal.valueOf(currentAmount),
-          categoryTransactionLast5
-          );
-      budgetDTOS.add(budgetDto);
+          BudgetHistoryService.calculateTargetAmount(income, budget.getPercent()),
+          spentByCategory.getOrDefault(category.getCategoryId(), BigDecimal.ZERO),
+          allTransactions.get(category)
+      ));
     }
 
     return budgetDTOS;
@@ -156,6 +159,7 @@ public class BudgetsService {
     budget.setCategory(category);
     budget.setPercent(dto.percent());
     var budgetUpdated = budgetsRepository.save(budget);
+    metricsCacheService.invalidate(account.getAccountId());
     var budgetResponseDTO = budgetMapper.entityToResponseDTO(budgetUpdated);
 
     return new BudgetSuccess(budgetResponseDTO);
@@ -164,15 +168,6 @@ public class BudgetsService {
   @Transactional
   public void deleteById(Integer id, UserEntity currentUser) {
     budgetsRepository.deleteByBudgetIdAndAccount(id, currentUser.getAccount());
-  }
-
-  public int getCurrentAmountWested(CategoryEntity category, List<TransactionEntity> transactions) {
-    int sum = 0;
-    for(TransactionEntity transaction : transactions) {
-      if(transaction.getCategory().equals(category)) {
-        sum += transaction.getAmount().intValue();
-      }
-    }
-    return sum;
+    metricsCacheService.invalidate(currentUser.getAccount().getAccountId());
   }
 }
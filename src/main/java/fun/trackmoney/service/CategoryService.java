@@ -8,6 +8,9 @@ import fun.trackmoney.repository.CategoryRepository;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class CategoryService {
@@ -33,4 +36,9 @@ public class CategoryService {
   public CategoryEntity findEntityById(Integer categoryId) {
     return categoryRepository.findById(categoryId).orElse(null);
   }
+
+  public Map<Integer, CategoryEntity> findAllEntitiesById() {
+    return categoryRepository.findAll().stream()
+        .collect(Collectors.toMap(CategoryEntity::getCategoryId, Function.identity()));
+  }
 }
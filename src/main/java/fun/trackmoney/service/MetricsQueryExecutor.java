@@ -0,0 +1,79 @@
+package fun.trackmoney.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent queries of a metrics request concurrently, so a response costs about as much as its
+ * slowest query. Each query runs in its own read-only transaction and therefore on its own connection.
+ * The pool is bounded well below the connection pool size; when it is saturated the calling thread runs
+ * the query itself instead of failing.
+ */
+@Component
+public class MetricsQueryExecutor {
+
+  private final Executor executor;
+  private final TransactionTemplate readOnlyTransaction;
+
+  @Autowired
+  public MetricsQueryExecutor(PlatformTransactionManager transactionManager,
+                              @Value("${trackmoney.metrics.executor.pool-size:4}") int poolSize,
+                              @Value("${trackmoney.metrics.executor.queue-capacity:100}") int queueCapacity) {
+    this(new ThreadPoolExecutor(poolSize, poolSize, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(queueCapacity),
+        new CustomizableThreadFactory("metrics-"), new ThreadPoolExecutor.CallerRunsPolicy()), transactionManager);
+  }
+
+  MetricsQueryExecutor(Executor executor, PlatformTransactionManager transactionManager) {
+    this.executor = executor;
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  /**
+   * Starts a query in its own read-only transaction.
+   *
+   * @param query the query to run
+   * @return the pending result
+   */
+  public <T> CompletableFuture<T> submit(Supplier<T> query) {
+    return CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> query.get()), executor);
+  }
+
+  /**
+   * Waits for a query started with {@link #submit(Supplier)}, rethrowing its failure unwrapped.
+   *
+   * @param result the pending result
+   * @return the query result
+   */
+  public static <T> T await(CompletableFuture<T> result) {
+    try {
+      return result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (executor instanceof ExecutorService executorService) {
+      executorService.shutdown();
+    }
+  }
+}
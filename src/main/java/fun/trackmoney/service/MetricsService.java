@@ -1,12 +1,14 @@
 package fun.trackmoney.service;
 
 import fun.trackmoney.entity.BudgetHistoryEntity;
+import fun.trackmoney.repository.AccountMonthSummaryRepository;
 import fun.trackmoney.repository.BudgetHistoryRepository;
 import fun.trackmoney.enums.BudgetStatus;
 import fun.trackmoney.dto.metrics.response.BudgetPerformanceDTO;
 import fun.trackmoney.dto.metrics.response.CategoryBreakdownDTO;
 import fun.trackmoney.dto.metrics.response.DashboardOverviewDTO;
 import fun.trackmoney.dto.metrics.response.MonthlySummaryDTO;
+import fun.trackmoney.repository.projection.BudgetStatusCountProjection;
 import fun.trackmoney.repository.projection.CategoryAggregateProjection;
 import fun.trackmoney.repository.projection.MonthAggregateProjection;
 import fun.trackmoney.repository.TransactionRepository;
@@ -15,11 +17,12 @@ import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.time.YearMonth;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 /**
@@ -32,13 +35,19 @@ public class MetricsService {
   private final TransactionRepository transactionRepository;
   private final BudgetHistoryRepository budgetHistoryRepository;
   private final BudgetHistoryService budgetHistoryService;
+  private final AccountMonthSummaryRepository accountMonthSummaryRepository;
+  private final MetricsQueryExecutor metricsQueryExecutor;
 
   public MetricsService(TransactionRepository transactionRepository,
                         BudgetHistoryRepository budgetHistoryRepository,
-                        BudgetHistoryService budgetHistoryService) {
+                        BudgetHistoryService budgetHistoryService,
+                        AccountMonthSummaryRepository accountMonthSummaryRepository,
+                        MetricsQueryExecutor metricsQueryExecutor) {
     this.transactionRepository = transactionRepository;
     this.budgetHistoryRepository = budgetHistoryRepository;
     this.budgetHistoryService = budgetHistoryService;
+    this.accountMonthSummaryRepository = accountMonthSummaryRepository;
+    this.metricsQueryExecutor = metricsQueryExecutor;
   }
 
   /**
@@ -50,8 +59,8 @@ public class MetricsService {
    * @return monthly summary with income, expense, and balance per month
    */
   public MonthlySummaryDTO getMonthlySummary(Integer accountId, int year, Integer categoryId) {
-    List<MonthAggregateProjection> aggregates = transactionRepository
-        .sumByMonthAndType(accountId, year, categoryId);
+    List<MonthAggregateProjection> aggregates = accountMonthSummaryRepository
+        .sumByMonth(accountId, year, 1, year, 12, categoryId);
 
     List<MonthlySummaryDTO.MonthSummary> months = aggregates.stream()
         .map(agg -> new MonthlySummaryDTO.MonthSummary(
@@ -81,11 +90,7 @@ public class MetricsService {
       LocalDate endDate,
       Integer categoryId
   ) {
-    LocalDateTime startDateTime = startDate.atStartOfDay();
-    LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
-    List<MonthAggregateProjection> aggregates = transactionRepository
-        .sumByMonthAndTypeForDateRange(accountId, startDateTime, endDateTime, categoryId);
+    List<MonthAggregateProjection> aggregates = sumByMonth(accountId, startDate, endDate, categoryId);
 
     List<MonthlySummaryDTO.MonthSummary> months = aggregates.stream()
         .map(agg -> new MonthlySummaryDTO.MonthSummary(
@@ -110,8 +115,8 @@ public class MetricsService {
    * @return category breakdown with amounts and percentages
    */
   public CategoryBreakdownDTO getByCategory(Integer accountId, int year, int month, Integer categoryId) {
-    List<CategoryAggregateProjection> aggregates = transactionRepository
-        .sumByCategoryForMonth(accountId, year, month, categoryId);
+    List<CategoryAggregateProjection> aggregates = accountMonthSummaryRepository
+        .sumExpensesByCategory(accountId, year, month, year, month, categoryId);
 
     BigDecimal total = aggregates.stream()
         .map(CategoryAggregateProjection::getAmount)
@@ -144,11 +149,7 @@ public class MetricsService {
       LocalDate endDate,
       Integer categoryId
   ) {
-    LocalDateTime startDateTime = startDate.atStartOfDay();
-    LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
-    List<CategoryAggregateProjection> aggregates = transactionRepository
-        .sumByCategoryForDateRange(accountId, startDateTime, endDateTime, categoryId);
+    List<CategoryAggregateProjection> aggregates = sumExpensesByCategory(accountId, startDate, endDate, categoryId);
 
     BigDecimal total = aggregates.stream()
         .map(CategoryAggregateProjection::getAmount)
@@ -177,6 +178,9 @@ public class MetricsService {
   public BudgetPerformanceDTO getBudgetPerformance(Integer accountId, int year, Integer categoryId) {
     List<BudgetHistoryEntity> histories = budgetHistoryRepository
         .findByAccountAndYear(accountId, year, categoryId);
+    if (year == YearMonth.now().getYear()) {
+      histories = withProvisionalCurrentMonth(histories, accountId, categoryId);
+    }
 
     // Group by month
     Map<Integer, List<BudgetHistoryEntity>> byMonth = histories.stream()
@@ -205,19 +209,15 @@ public class MetricsService {
       LocalDate endDate,
       Integer categoryId
   ) {
-    // Generate provisional history if the date range corresponds to the current month
-    if (isCurrentMonthRange(startDate, endDate)) {
-      budgetHistoryService.generateProvisionalHistoryForCurrentMonth(accountId, categoryId);
-    }
-
     List<BudgetHistoryEntity> histories = budgetHistoryRepository.findByAccountAndYearMonthRange(
         accountId,
-        startDate.getYear(),
-        (short) startDate.getMonthValue(),
-        endDate.getYear(),
-        (short) endDate.getMonthValue(),
+        startDate.withDayOfMonth(1),
+        endDate.withDayOfMonth(1),
         categoryId
     );
+    if (coversCurrentMonth(startDate, endDate)) {
+      histories = withProvisionalCurrentMonth(histories, accountId, categoryId);
+    }
 
     // Group by month and year
     Map<String, List<BudgetHistoryEntity>> byMonthAndYear = histories.stream()
@@ -249,21 +249,24 @@ public class MetricsService {
     int currentMonth = now.getMonthValue();
     int currentYear = now.getYear();
 
-    MonthAggregateProjection currentMonthData = getCurrentMonthFinancials(
-        accountId, currentYear, currentMonth, categoryId);
-    long exceededCount = getExceededBudgetsCount(
-        accountId, currentYear, currentMonth, categoryId);
-    int totalBudgetsCount = getTotalBudgetsCount(
-        accountId, currentYear, currentMonth, categoryId);
-    CategoryAggregateProjection topCategory = getTopExpenseCategory(
-        accountId, currentYear, currentMonth, categoryId);
+    // the three queries are independent, so they run concurrently
+    CompletableFuture<MonthAggregateProjection> financials = metricsQueryExecutor.submit(
+        () -> getCurrentMonthFinancials(accountId, currentYear, currentMonth, categoryId));
+    CompletableFuture<BudgetCounts> budgetCounts = metricsQueryExecutor.submit(
+        () -> countBudgets(accountId, YearMonth.from(now), YearMonth.from(now), categoryId));
+    CompletableFuture<CategoryAggregateProjection> topExpense = metricsQueryExecutor.submit(
+        () -> getTopExpenseCategory(accountId, currentYear, currentMonth, categoryId));
+
+    MonthAggregateProjection currentMonthData = MetricsQueryExecutor.await(financials);
+    BudgetCounts budgets = MetricsQueryExecutor.await(budgetCounts);
+    CategoryAggregateProjection topCategory = MetricsQueryExecutor.await(topExpense);
 
     return new DashboardOverviewDTO(
         currentMonthData.getIncome(),
         currentMonthData.getExpense(),
         currentMonthData.getIncome().subtract(currentMonthData.getExpense()),
-        (int) exceededCount,
-        totalBudgetsCount,
+        budgets.exceeded(),
+        budgets.total(),
         topCategory != null ? topCategory.getCategoryName() : "N/A",
         topCategory != null ? topCategory.getAmount() : BigDecimal.ZERO,
         currentMonth,
@@ -286,29 +289,29 @@ public class MetricsService {
       LocalDate endDate,
       Integer categoryId
   ) {
-    LocalDateTime startDateTime = startDate.atStartOfDay();
-    LocalDateTime endDateTime = endDate.atTime(23, 59, 59);
-
-    // Get aggregated financial data for the period
-    FinancialAggregate financials = getFinancialsForDateRange(
-        accountId, startDateTime, endDateTime, categoryId);
-
-    // Get budget status for the period
-    long exceededCount = getExceededBudgetsCountForDateRange(
-        accountId, startDateTime, endDateTime, categoryId);
-    int totalBudgetsCount = getTotalBudgetsCountForDateRange(
-        accountId, startDateTime, endDateTime, categoryId);
-
-    // Get top expense category for the period
-    CategoryAggregateProjection topCategory = getTopExpenseCategoryForDateRange(
-        accountId, startDateTime, endDateTime, categoryId);
+    // Budgets count for a month when its first day is within the period
+    YearMonth firstBudgetMonth = startDate.getDayOfMonth() == 1
+        ? YearMonth.from(startDate)
+        : YearMonth.from(startDate).plusMonths(1);
+
+    // the three queries are independent, so they run concurrently
+    CompletableFuture<FinancialAggregate> periodFinancials = metricsQueryExecutor.submit(
+        () -> getFinancialsForDateRange(accountId, startDate, endDate, categoryId));
+    CompletableFuture<BudgetCounts> budgetCounts = metricsQueryExecutor.submit(
+        () -> countBudgets(accountId, firstBudgetMonth, YearMonth.from(endDate), categoryId));
+    CompletableFuture<CategoryAggregateProjection> topExpense = metricsQueryExecutor.submit(
+        () -> getTopExpenseCategoryForDateRange(accountId, startDate, endDate, categoryId));
+
+    FinancialAggregate financials = MetricsQueryExecutor.await(periodFinancials);
+    BudgetCounts budgets = MetricsQueryExecutor.await(budgetCounts);
+    CategoryAggregateProjection topCategory = MetricsQueryExecutor.await(topExpense);
 
     return new DashboardOverviewDTO(
         financials.totalIncome(),
         financials.totalExpense(),
         financials.totalBalance(),
-        (int) exceededCount,
-        totalBudgetsCount,
+        budgets.exceeded(),
+        budgets.total(),
         topCategory != null ? topCategory.getCategoryName() : "N/A",
         topCategory != null ? topCategory.getAmount() : BigDecimal.ZERO,
         startDate.getMonthValue(),
@@ -331,11 +334,10 @@ public class MetricsService {
       int month,
       Integer categoryId
   ) {
-    List<MonthAggregateProjection> monthlyData = transactionRepository
-        .sumByMonthAndType(accountId, year, categoryId);
+    List<MonthAggregateProjection> monthlyData = accountMonthSummaryRepository
+        .sumByMonth(accountId, year, month, year, month, categoryId);
 
     return monthlyData.stream()
-        .filter(m -> m.getMonth() == month)
         .findFirst()
         .orElse(new MonthAggregateProjection() {
           @Override
@@ -361,36 +363,59 @@ public class MetricsService {
   }
 
   /**
-   * Gets count of exceeded budgets for a specific month.
+   * Counts the budget histories, and how many of them were exceeded, for a range of reference months.
+   * The current month is never stored, so when the range covers it its budgets are counted from the
+   * provisional figures instead.
    *
-   * @param accountId the account ID
-   * @param year      the year
-   * @param month     the month
+   * @param accountId  the account ID
+   * @param firstMonth the first reference month (inclusive)
+   * @param lastMonth  the last reference month (inclusive)
    * @param categoryId the category ID to filter by (null for all categories)
-   * @return count of exceeded budgets
+   * @return total and exceeded counts
    */
-  private long getExceededBudgetsCount(Integer accountId, int year, int month, Integer categoryId) {
-    List<BudgetHistoryEntity> budgetHistories = budgetHistoryRepository
-        .findByAccountAndYearAndMonth(accountId, year, (short) month, categoryId);
+  private BudgetCounts countBudgets(
+      Integer accountId,
+      YearMonth firstMonth,
+      YearMonth lastMonth,
+      Integer categoryId
+  ) {
+    YearMonth currentMonth = YearMonth.now();
+    if (currentMonth.isBefore(firstMonth) || currentMonth.isAfter(lastMonth)) {
+      return countStoredBudgets(accountId, firstMonth, lastMonth, categoryId);
+    }
 
-    return budgetHistories.stream()
-        .filter(b -> b.getStatus() == BudgetStatus.EXCEEDED)
+    // history is only written for closed months, so nothing stored lies after the previous one
+    YearMonth previousMonth = currentMonth.minusMonths(1);
+    BudgetCounts stored = firstMonth.isAfter(previousMonth)
+        ? new BudgetCounts(0, 0)
+        : countStoredBudgets(accountId, firstMonth, previousMonth, categoryId);
+    List<BudgetHistoryEntity> provisional = budgetHistoryService
+        .calculateProvisionalHistoryForCurrentMonth(accountId, categoryId);
+    int exceeded = (int) provisional.stream()
+        .filter(history -> "EXCEEDED".equals(determineStatus(history)))
         .count();
+
+    return new BudgetCounts(stored.total() + provisional.size(), stored.exceeded() + exceeded);
   }
 
   /**
-   * Gets total count of budgets for a specific month.
+   * Counts the stored budget histories, and how many of them were exceeded, for a range of reference months.
    *
-   * @param accountId the account ID
-   * @param year      the year
-   * @param month     the month
+   * @param accountId  the account ID
+   * @param firstMonth the first reference month (inclusive)
+   * @param lastMonth  the last reference month (inclusive)
    * @param categoryId the category ID to filter by (null for all categories)
-   * @return total count of budgets
+   * @return total and exceeded counts
    */
-  private int getTotalBudgetsCount(Integer accountId, int year, int month, Integer categoryId) {
-    List<BudgetHistoryEntity> budgetHistories = budgetHistoryRepository
-        .findByAccountAndYearAndMonth(accountId, year, (short) month, categoryId);
-    return budgetHistories.size();
+  private BudgetCounts countStoredBudgets(
+      Integer accountId,
+      YearMonth firstMonth,
+      YearMonth lastMonth,
+      Integer categoryId
+  ) {
+    BudgetStatusCountProjection counts = budgetHistoryRepository.countByAccountAndMonthRange(
+        accountId, firstMonth.atDay(1), lastMonth.atDay(1), categoryId);
+    return new BudgetCounts(counts.getTotal().intValue(), counts.getExceeded().intValue());
   }
 
   /**
@@ -408,8 +433,8 @@ public class MetricsService {
       int month,
       Integer categoryId
   ) {
-    List<CategoryAggregateProjection> categories = transactionRepository
-        .sumByCategoryForMonth(accountId, year, month, categoryId);
+    List<CategoryAggregateProjection> categories = accountMonthSummaryRepository
+        .sumExpensesByCategory(accountId, year, month, year, month, categoryId);
     return categories.stream()
         .findFirst()
         .orElse(null);
@@ -496,20 +521,19 @@ public class MetricsService {
   /**
    * Gets financial data aggregated for a date range.
    *
-   * @param accountId     the account ID
-   * @param startDateTime the start date and time
-   * @param endDateTime   the end date and time
+   * @param accountId  the account ID
+   * @param startDate  the start date (inclusive)
+   * @param endDate    the end date (inclusive)
    * @param categoryId the category ID to filter by (null for all categories)
    * @return financial aggregate with total income, expense, and balance
    */
   private FinancialAggregate getFinancialsForDateRange(
       Integer accountId,
-      LocalDateTime startDateTime,
-      LocalDateTime endDateTime,
+      LocalDate startDate,
+      LocalDate endDate,
       Integer categoryId
   ) {
-    List<MonthAggregateProjection> monthlyData = transactionRepository
-        .sumByMonthAndTypeForDateRange(accountId, startDateTime, endDateTime, categoryId);
+    List<MonthAggregateProjection> monthlyData = sumByMonth(accountId, startDate, endDate, categoryId);
 
     BigDecimal totalIncome = monthlyData.stream()
         .map(MonthAggregateProjection::getIncome)
@@ -523,113 +547,125 @@ public class MetricsService {
   }
 
   /**
-   * Gets count of exceeded budgets for a date range.
+   * Gets the top expense category for a date range.
    *
-   * @param accountId     the account ID
-   * @param startDateTime the start date and time
-   * @param endDateTime   the end date and time
+   * @param accountId  the account ID
+   * @param startDate  the start date (inclusive)
+   * @param endDate    the end date (inclusive)
    * @param categoryId the category ID to filter by (null for all categories)
-   * @return count of exceeded budgets
+   * @return top category projection or null if no expenses
    */
-  private long getExceededBudgetsCountForDateRange(
+  private CategoryAggregateProjection getTopExpenseCategoryForDateRange(
       Integer accountId,
-      LocalDateTime startDateTime,
-      LocalDateTime endDateTime,
+      LocalDate startDate,
+      LocalDate endDate,
       Integer categoryId
   ) {
-    List<BudgetHistoryEntity> budgetHistories = budgetHistoryRepository
-        .findByAccountAndYearMonthRange(
-            accountId,
-            startDateTime.getYear(),
-            (short) startDateTime.getMonthValue(),
-            endDateTime.getYear(),
-            (short) endDateTime.getMonthValue(),
-            categoryId
-        );
-
-    // Filter by actual transaction date range and count exceeded
-    return budgetHistories.stream()
-        .filter(b -> {
-          LocalDate budgetDate = LocalDate.of(b.getReferenceYear(), b.getReferenceMonth(), 1);
-          LocalDate start = startDateTime.toLocalDate();
-          LocalDate end = endDateTime.toLocalDate();
-          return !budgetDate.isBefore(start) && !budgetDate.isAfter(end);
-        })
-        .filter(b -> b.getStatus() == BudgetStatus.EXCEEDED)
-        .count();
+    List<CategoryAggregateProjection> categories = sumExpensesByCategory(accountId, startDate, endDate, categoryId);
+    return categories.stream()
+        .findFirst()
+        .orElse(null);
   }
 
   /**
-   * Gets total count of budgets for a date range.
+   * Aggregates income and expenses by month, from the monthly summary when the range is made of
+   * whole months and from the transactions otherwise.
    *
-   * @param accountId     the account ID
-   * @param startDateTime the start date and time
-   * @param endDateTime   the end date and time
+   * @param accountId  the account ID
+   * @param startDate  the start date (inclusive)
+   * @param endDate    the end date (inclusive)
    * @param categoryId the category ID to filter by (null for all categories)
-   * @return total count of budgets
+   * @return month aggregates in chronological order
    */
-  private int getTotalBudgetsCountForDateRange(
+  private List<MonthAggregateProjection> sumByMonth(
       Integer accountId,
-      LocalDateTime startDateTime,
-      LocalDateTime endDateTime,
+      LocalDate startDate,
+      LocalDate endDate,
       Integer categoryId
   ) {
-    List<BudgetHistoryEntity> budgetHistories = budgetHistoryRepository
-        .findByAccountAndYearMonthRange(
-            accountId,
-            startDateTime.getYear(),
-            (short) startDateTime.getMonthValue(),
-            endDateTime.getYear(),
-            (short) endDateTime.getMonthValue(),
-            categoryId
-        );
-
-    // Filter by actual transaction date range
-    return (int) budgetHistories.stream()
-        .filter(b -> {
-          LocalDate budgetDate = LocalDate.of(b.getReferenceYear(), b.getReferenceMonth(), 1);
-          LocalDate start = startDateTime.toLocalDate();
-          LocalDate end = endDateTime.toLocalDate();
-          return !budgetDate.isBefore(start) && !budgetDate.isAfter(end);
-        })
-        .count();
+    if (coversWholeMonths(startDate, endDate)) {
+      return accountMonthSummaryRepository.sumByMonth(accountId, startDate.getYear(), startDate.getMonthValue(),
+          endDate.getYear(), endDate.getMonthValue(), categoryId);
+    }
+    return transactionRepository.sumByMonthAndTypeForDateRange(
+        accountId, startDate.atStartOfDay(), endDate.atTime(23, 59, 59), categoryId);
   }
 
   /**
-   * Gets the top expense category for a date range.
+   * Aggregates expenses by category, from the monthly summary when the range is made of whole months
+   * and from the transactions otherwise.
    *
-   * @param accountId     the account ID
-   * @param startDateTime the start date and time
-   * @param endDateTime   the end date and time
+   * @param accountId  the account ID
+   * @param startDate  the start date (inclusive)
+   * @param endDate    the end date (inclusive)
    * @param categoryId the category ID to filter by (null for all categories)
-   * @return top category projection or null if no expenses
+   * @return category aggregates, largest expense first
    */
-  private CategoryAggregateProjection getTopExpenseCategoryForDateRange(
+  private List<CategoryAggregateProjection> sumExpensesByCategory(
       Integer accountId,
-      LocalDateTime startDateTime,
-      LocalDateTime endDateTime,
+      LocalDate startDate,
+      LocalDate endDate,
       Integer categoryId
   ) {
-    List<CategoryAggregateProjection> categories = transactionRepository
-        .sumByCategoryForDateRange(accountId, startDateTime, endDateTime, categoryId);
-    return categories.stream()
-        .findFirst()
-        .orElse(null);
+    if (coversWholeMonths(startDate, endDate)) {
+      return accountMonthSummaryRepository.sumExpensesByCategory(accountId, startDate.getYear(),
+          startDate.getMonthValue(), endDate.getYear(), endDate.getMonthValue(), categoryId);
+    }
+    return transactionRepository.sumByCategoryForDateRange(
+        accountId, startDate.atStartOfDay(), endDate.atTime(23, 59, 59), categoryId);
+  }
+
+  /**
+   * Checks if the range starts on the first day of a month and ends on the last day of a month.
+   *
+   * @param startDate the start date
+   * @param endDate   the end date
+   * @return true if the range can be answered from the monthly summary
+   */
+  private boolean coversWholeMonths(LocalDate startDate, LocalDate endDate) {
+    return startDate.getDayOfMonth() == 1
+        && endDate.equals(YearMonth.from(endDate).atEndOfMonth())
+        && !startDate.isAfter(endDate);
   }
 
   /**
-   * Checks if the given date range corresponds to the current month.
+   * Checks if the current month falls within the date range.
    *
    * @param startDate the start date
    * @param endDate   the end date
-   * @return true if both dates are within the current month
+   * @return true if the range includes the current month
+   */
+  private boolean coversCurrentMonth(LocalDate startDate, LocalDate endDate) {
+    YearMonth currentMonth = YearMonth.now();
+
+    return !currentMonth.isBefore(YearMonth.from(startDate)) && !currentMonth.isAfter(YearMonth.from(endDate));
+  }
+
+  /**
+   * Replaces the stored current month entries with provisional figures calculated at read time,
+   * so performance reads never write history.
+   *
+   * @param histories  the stored budget history entries
+   * @param accountId  the account ID
+   * @param categoryId the category ID to filter by (null for all categories)
+   * @return the stored entries of past months followed by the provisional current month entries
    */
-  private boolean isCurrentMonthRange(LocalDate startDate, LocalDate endDate) {
+  private List<BudgetHistoryEntity> withProvisionalCurrentMonth(
+      List<BudgetHistoryEntity> histories,
+      Integer accountId,
+      Integer categoryId
+  ) {
     YearMonth currentMonth = YearMonth.now();
-    YearMonth startMonth = YearMonth.from(startDate);
-    YearMonth endMonth = YearMonth.from(endDate);
+    List<BudgetHistoryEntity> merged = new ArrayList<>(histories);
+    merged.removeIf(h -> currentMonth.equals(YearMonth.of(h.getReferenceYear(), h.getReferenceMonth())));
+    merged.addAll(budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(accountId, categoryId));
+    return merged;
+  }
 
-    return startMonth.equals(currentMonth) && endMonth.equals(currentMonth);
+  /**
+   * Record to hold the budget counters of the overview.
+   */
+  private record BudgetCounts(int total, int exceeded) {
   }
 
   /**
@@ -0,0 +1,134 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.dto.recurring.RecurringOccurrenceDTO;
+import fun.trackmoney.entity.RecurringEntity;
+import fun.trackmoney.enums.Frequency;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+/**
+ * The occurrences of a set of recurring rules within a time window, in date order.
+ * Each rule is a lazy cursor over its own schedule and the cursors are merged through a heap keyed by their next
+ * date, so the next occurrence costs O(log rules) and nothing past what the caller consumes is ever computed.
+ * Occurrences on the same instant come out by rule id.
+ */
+public final class RecurringCalendar implements Iterator<RecurringOccurrenceDTO> {
+
+  private final PriorityQueue<Cursor> cursors = new PriorityQueue<>(
+      Comparator.comparing((Cursor cursor) -> cursor.date).thenComparing(cursor -> cursor.rule.getId()));
+  private final LocalDateTime end;
+
+  /**
+   * @param rules the rules to expand; their next date is the first occurrence, earlier ones are not listed
+   * @param start occurrences from this time on, inclusive
+   * @param end   occurrences before this time, exclusive
+   */
+  public RecurringCalendar(List<RecurringEntity> rules, LocalDateTime start, LocalDateTime end) {
+    this.end = end;
+    for (RecurringEntity rule : rules) {
+      LocalDateTime date = rule.getNextDate();
+      if (date == null || rule.getFrequency() == null) {
+        continue;
+      }
+      date = firstOnOrAfter(rule.getFrequency(), date, start);
+      if (date.isBefore(end)) {
+        cursors.add(new Cursor(rule, date));
+      }
+    }
+  }
+
+  /**
+   * First occurrence on or after {@code start}, reached by skipping whole periods at once so a window far ahead of
+   * the rule costs the same as one right after it.
+   * Repeated months and years clamp a day past the 28th down to shorter months, so such a day is stepped one period
+   * at a time until it settles; from there on a single jump lands on the same date the steps would.
+   */
+  static LocalDateTime firstOnOrAfter(Frequency frequency, LocalDateTime date, LocalDateTime start) {
+    LocalDateTime first = date;
+    while (first.isBefore(start) && !settled(frequency, first)) {
+      first = nextOccurrence(frequency, first);
+    }
+    if (first.isBefore(start)) {
+      ChronoUnit period = period(frequency);
+      first = first.plus(period.between(first, start), period);
+    }
+    while (first.isBefore(start)) {
+      first = nextOccurrence(frequency, first);
+    }
+    return first;
+  }
+
+  /**
+   * Whether every later occurrence is a whole number of periods after this one.
+   */
+  private static boolean settled(Frequency frequency, LocalDateTime date) {
+    return switch (frequency) {
+      case DAILY -> true;
+      case WEEKLY -> date.getDayOfWeek() == DayOfWeek.MONDAY;
+      case MONTHLY, YEARLY -> date.getDayOfMonth() <= 28;
+    };
+  }
+
+  private static ChronoUnit period(Frequency frequency) {
+    return switch (frequency) {
+      case DAILY -> ChronoUnit.DAYS;
+      case WEEKLY -> ChronoUnit.WEEKS;
+      case MONTHLY -> ChronoUnit.MONTHS;
+      case YEARLY -> ChronoUnit.YEARS;
+    };
+  }
+
+  /**
+   * Date of the occurrence that follows the given one.
+   */
+  static LocalDateTime nextOccurrence(Frequency frequency, LocalDateTime date) {
+    return switch (frequency) {
+      case DAILY -> date.plusDays(1);
+      case WEEKLY -> date.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+      case MONTHLY -> date.plusMonths(1);
+      case YEARLY -> date.plusYears(1);
+    };
+  }
+
+  @Override
+  public boolean hasNext() {
+    return !cursors.isEmpty();
+  }
+
+  @Override
+  public RecurringOccurrenceDTO next() {
+    Cursor cursor = cursors.poll();
+    if (cursor == null) {
+      throw new NoSuchElementException();
+    }
+    RecurringEntity rule = cursor.rule;
+    RecurringOccurrenceDTO occurrence = new RecurringOccurrenceDTO(rule.getId(), rule.getTransactionName(),
+        rule.getTransactionType(), rule.getAmount(),
+        rule.getCategory() == null ? null : rule.getCategory().getCategoryId(), cursor.date);
+
+    LocalDateTime following = nextOccurrence(rule.getFrequency(), cursor.date);
+    if (following.isBefore(end)) {
+      cursor.date = following;
+      cursors.add(cursor);
+    }
+    return occurrence;
+  }
+
+  private static final class Cursor {
+    private final RecurringEntity rule;
+    private LocalDateTime date;
+
+    Cursor(RecurringEntity rule, LocalDateTime date) {
+      this.rule = rule;
+      this.date = date;
+    }
+  }
+}
@@ -0,0 +1,143 @@
+package fun.trackmoney.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fun.trackmoney.dto.recurring.RecurringCalendarDTO;
+import fun.trackmoney.dto.recurring.RecurringOccurrenceDTO;
+import fun.trackmoney.entity.RecurringEntity;
+import fun.trackmoney.entity.UserEntity;
+import fun.trackmoney.enums.ExportFormat;
+import fun.trackmoney.enums.TransactionType;
+import fun.trackmoney.repository.RecurringRepository;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Projects an account's recurring rules onto a date window: which transactions they will post, and when.
+ * The rules are read once and expanded lazily by a {@link RecurringCalendar}, so the cost follows the number of
+ * occurrences actually consumed rather than the length of the window.
+ */
+@Service
+public class RecurringCalendarService {
+
+  static final int DEFAULT_WINDOW_MONTHS = 12;
+  static final int MAX_WINDOW_YEARS = 10;
+  static final int MAX_LIMIT = 5000;
+  private static final String CSV_HEADER = "recurringId,transactionName,transactionType,amount,categoryId,date";
+
+  private final RecurringRepository recurringRepository;
+  private final ObjectMapper objectMapper;
+
+  public RecurringCalendarService(RecurringRepository recurringRepository, ObjectMapper objectMapper) {
+    this.recurringRepository = recurringRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Lists the occurrences between two dates, both inclusive, with the income and expense they add up to.
+   *
+   * @param from  first day, today when null
+   * @param to    last day, twelve months after {@code from} when null; at most ten years after it
+   * @param limit how many occurrences to list, between 1 and {@value #MAX_LIMIT}; the totals count them all
+   */
+  public RecurringCalendarDTO getCalendar(UserEntity currentUser, LocalDate from, LocalDate to, int limit) {
+    LocalDate start = resolveFrom(from);
+    LocalDate end = resolveTo(start, to);
+    int cappedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+    RecurringCalendar calendar = openCalendar(currentUser, start, end);
+    List<RecurringOccurrenceDTO> occurrences = new ArrayList<>();
+    long total = 0;
+    BigDecimal totalIncome = BigDecimal.ZERO;
+    BigDecimal totalExpense = BigDecimal.ZERO;
+    while (calendar.hasNext()) {
+      RecurringOccurrenceDTO occurrence = calendar.next();
+      total++;
+      if (occurrences.size() < cappedLimit) {
+        occurrences.add(occurrence);
+      }
+      if (occurrence.amount() == null) {
+        continue;
+      }
+      if (occurrence.transactionType() == TransactionType.INCOME) {
+        totalIncome = totalIncome.add(occurrence.amount());
+      } else {
+        totalExpense = totalExpense.add(occurrence.amount());
+      }
+    }
+    return new RecurringCalendarDTO(start, end, occurrences, total > occurrences.size(), total,
+        totalIncome, totalExpense);
+  }
+
+  /**
+   * Writes every occurrence between two dates to the output stream as it is computed, with no limit.
+   * See {@link #getCalendar} for the window defaults.
+   */
+  public void export(UserEntity currentUser, LocalDate from, LocalDate to, ExportFormat format,
+                     OutputStream outputStream) throws IOException {
+    LocalDate start = resolveFrom(from);
+    RecurringCalendar calendar = openCalendar(currentUser, start, resolveTo(start, to));
+    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+    if (format == ExportFormat.CSV) {
+      writer.write(CSV_HEADER);
+      writer.write('\n');
+    }
+    while (calendar.hasNext()) {
+      RecurringOccurrenceDTO occurrence = calendar.next();
+      writer.write(format == ExportFormat.CSV ? toCsvLine(occurrence) : objectMapper.writeValueAsString(occurrence));
+      writer.write('\n');
+    }
+    writer.flush();
+  }
+
+  private RecurringCalendar openCalendar(UserEntity currentUser, LocalDate from, LocalDate to) {
+    if (to.isBefore(from)) {
+      return new RecurringCalendar(List.of(), from.atStartOfDay(), from.atStartOfDay());
+    }
+    List<RecurringEntity> rules =
+        recurringRepository.findAllWithCategoryByAccountId(currentUser.getAccount().getAccountId());
+    return new RecurringCalendar(rules, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+  }
+
+  private static LocalDate resolveFrom(LocalDate from) {
+    return from == null ? LocalDate.now() : from;
+  }
+
+  private static LocalDate resolveTo(LocalDate from, LocalDate to) {
+    LocalDate latest = from.plusYears(MAX_WINDOW_YEARS);
+    if (to == null) {
+      return from.plusMonths(DEFAULT_WINDOW_MONTHS);
+    }
+    return to.isAfter(latest) ? latest : to;
+  }
+
+  private String toCsvLine(RecurringOccurrenceDTO occurrence) {
+    return String.join(",",
+        String.valueOf(occurrence.recurringId()),
+        csvField(occurrence.transactionName()),
+        occurrence.transactionType() == null ? "" : occurrence.transactionType().name(),
+        occurrence.amount() == null ? "" : occurrence.amount().toPlainString(),
+        occurrence.categoryId() == null ? "" : String.valueOf(occurrence.categoryId()),
+        occurrence.date().toString());
+  }
+
+  private String csvField(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+      return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+    return value;
+  }
+}
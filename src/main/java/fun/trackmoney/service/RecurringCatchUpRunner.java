@@ -0,0 +1,258 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.dto.recurring.internal.RecurringCatchUpResult;
+import fun.trackmoney.entity.RecurringEntity;
+import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.enums.TransactionType;
+import fun.trackmoney.infra.redis.MetricsCacheService;
+import fun.trackmoney.repository.RecurringRepository;
+import fun.trackmoney.repository.TransactionBatchRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Posts every missed occurrence of the due recurring rules, however many periods behind they are.
+ * Workers repeatedly claim a batch of due rules with FOR UPDATE SKIP LOCKED, so any number of workers on any number
+ * of nodes share the work without coordinating: a claimed rule is row-locked until its batch commits and is no
+ * longer due afterwards, so each occurrence is posted exactly once. Within a batch the occurrences of each account
+ * are expanded in memory, inserted as one JDBC batch and applied to the balance and monthly summary as one net
+ * change. When a batch fails its accounts are retried one per transaction, so a bad rule only holds back its own
+ * account, which is left out for the rest of the run and stays due for the next one.
+ */
+@Component
+public class RecurringCatchUpRunner {
+
+  private static final Logger LOG = LoggerFactory.getLogger(RecurringCatchUpRunner.class);
+  private static final int INSERT_BATCH_SIZE = 1000;
+  // account ids start at 1; keeps the NOT IN list of the claim query from ever being empty
+  private static final Integer NO_ACCOUNT = 0;
+  // a little over a year of a DAILY rule; a rule further behind is claimed again by a later batch
+  static final int MAX_OCCURRENCES_PER_RULE = 400;
+
+  private final RecurringRepository recurringRepository;
+  private final TransactionBatchRepository transactionBatchRepository;
+  private final AccountService accountService;
+  private final AccountMonthSummaryService accountMonthSummaryService;
+  private final MetricsCacheService metricsCacheService;
+  private final TransactionTemplate transactionTemplate;
+  private final Executor workers;
+  private final int workerCount;
+  private final int batchSize;
+
+  @Autowired
+  public RecurringCatchUpRunner(RecurringRepository recurringRepository,
+                                TransactionBatchRepository transactionBatchRepository,
+                                AccountService accountService,
+                                AccountMonthSummaryService accountMonthSummaryService,
+                                MetricsCacheService metricsCacheService,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${trackmoney.recurring.catch-up.workers:4}") int workerCount,
+                                @Value("${trackmoney.recurring.catch-up.batch-size:200}") int batchSize) {
+    this(recurringRepository, transactionBatchRepository, accountService, accountMonthSummaryService,
+        metricsCacheService, transactionManager, newWorkerPool(workerCount), workerCount, batchSize);
+  }
+
+  RecurringCatchUpRunner(RecurringRepository recurringRepository,
+                         TransactionBatchRepository transactionBatchRepository,
+                         AccountService accountService,
+                         AccountMonthSummaryService accountMonthSummaryService,
+                         MetricsCacheService metricsCacheService,
+                         PlatformTransactionManager transactionManager,
+                         Executor workers,
+                         int workerCount,
+                         int batchSize) {
+    this.recurringRepository = recurringRepository;
+    this.transactionBatchRepository = transactionBatchRepository;
+    this.accountService = accountService;
+    this.accountMonthSummaryService = accountMonthSummaryService;
+    this.metricsCacheService = metricsCacheService;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.workers = workers;
+    this.workerCount = workerCount;
+    this.batchSize = batchSize;
+  }
+
+  private static ExecutorService newWorkerPool(int workerCount) {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(workerCount, workerCount, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(), new CustomizableThreadFactory("recurring-"));
+    // the job runs once a day; keep no idle threads in between
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /**
+   * Posts the occurrences of every rule that is due at the given time, on all workers, until none is left.
+   *
+   * @param now occurrences dated up to and including this time are posted
+   * @return what this node posted
+   */
+  public RecurringCatchUpResult run(LocalDateTime now) {
+    Set<Integer> failedAccounts = ConcurrentHashMap.newKeySet();
+    failedAccounts.add(NO_ACCOUNT);
+    List<CompletableFuture<Totals>> results = new ArrayList<>();
+    for (int i = 0; i < workerCount; i++) {
+      results.add(CompletableFuture.supplyAsync(() -> drain(now, failedAccounts), workers));
+    }
+
+    Totals totals = new Totals();
+    results.forEach(result -> totals.add(result.join()));
+    totals.failedAccounts = failedAccounts.size() - 1;
+
+    RecurringCatchUpResult result = totals.toResult();
+    LOG.info("Recurring catch-up finished: {} transactions from {} rules in {} accounts, {} accounts failed",
+        result.transactions(), result.rules(), result.accounts(), result.failedAccounts());
+    return result;
+  }
+
+  /**
+   * One worker: claims and posts batches until no unclaimed due rule is left.
+   */
+  private Totals drain(LocalDateTime now, Set<Integer> failedAccounts) {
+    Totals totals = new Totals();
+    while (true) {
+      List<Integer> claimedAccounts = new ArrayList<>();
+      try {
+        Totals posted = inTransaction(() -> post(
+            recurringRepository.claimDue(now, List.copyOf(failedAccounts), batchSize), now, claimedAccounts));
+        if (posted.rules == 0) {
+          return totals;
+        }
+        totals.add(posted);
+      } catch (RuntimeException e) {
+        if (claimedAccounts.isEmpty()) {
+          LOG.error("Could not claim recurring rules, stopping this worker: {}", e.getMessage(), e);
+          return totals;
+        }
+        LOG.warn("Recurring batch failed, retrying its {} accounts one by one: {}",
+            claimedAccounts.size(), e.getMessage());
+        claimedAccounts.forEach(accountId -> totals.add(postAccountAlone(accountId, now, failedAccounts)));
+      }
+    }
+  }
+
+  private Totals postAccountAlone(Integer accountId, LocalDateTime now, Set<Integer> failedAccounts) {
+    try {
+      return inTransaction(() ->
+          post(recurringRepository.claimDueForAccount(accountId, now), now, new ArrayList<>()));
+    } catch (RuntimeException e) {
+      failedAccounts.add(accountId);
+      LOG.error("Failed to post recurring transactions for account {}: {}", accountId, e.getMessage(), e);
+      return new Totals();
+    }
+  }
+
+  private Totals inTransaction(Supplier<Totals> work) {
+    return transactionTemplate.execute(status -> work.get());
+  }
+
+  private Totals post(List<RecurringEntity> claimed, LocalDateTime now, List<Integer> claimedAccounts) {
+    Map<Integer, List<RecurringEntity>> rulesByAccount = new TreeMap<>();
+    for (RecurringEntity rule : claimed) {
+      rulesByAccount.computeIfAbsent(rule.getAccount().getAccountId(), key -> new ArrayList<>()).add(rule);
+    }
+    claimedAccounts.addAll(rulesByAccount.keySet());
+
+    Totals posted = new Totals();
+    // ascending account order, so two workers never wait on each other's account row locks in a cycle
+    rulesByAccount.forEach((accountId, rules) -> postAccount(accountId, rules, now, posted));
+    return posted;
+  }
+
+  private void postAccount(Integer accountId, List<RecurringEntity> rules, LocalDateTime now, Totals posted) {
+    List<TransactionEntity> occurrences = new ArrayList<>();
+    BigDecimal balanceChange = BigDecimal.ZERO;
+    for (RecurringEntity rule : rules) {
+      List<TransactionEntity> expanded = expand(rule, now);
+      for (TransactionEntity occurrence : expanded) {
+        balanceChange = occurrence.getTransactionType() == TransactionType.INCOME
+            ? balanceChange.add(occurrence.getAmount())
+            : balanceChange.subtract(occurrence.getAmount());
+      }
+      occurrences.addAll(expanded);
+    }
+
+    // the balance update takes the account row lock the monthly summary writers must hold
+    if (balanceChange.signum() != 0) {
+      accountService.adjustBalance(accountId, balanceChange);
+    } else {
+      accountService.lockAccount(accountId);
+    }
+    transactionBatchRepository.insertAll(occurrences, INSERT_BATCH_SIZE);
+    accountMonthSummaryService.recordAll(occurrences);
+    recurringRepository.saveAll(rules);
+    metricsCacheService.invalidate(accountId);
+
+    posted.accounts++;
+    posted.rules += rules.size();
+    posted.transactions += occurrences.size();
+  }
+
+  /**
+   * Builds the rule's occurrences up to the given time and advances the rule past them.
+   */
+  private static List<TransactionEntity> expand(RecurringEntity rule, LocalDateTime now) {
+    List<TransactionEntity> occurrences = new ArrayList<>();
+    LocalDateTime next = rule.getNextDate();
+    while (!next.isAfter(now) && occurrences.size() < MAX_OCCURRENCES_PER_RULE) {
+      occurrences.add(new TransactionEntity()
+          .setAccount(rule.getAccount())
+          .setCategory(rule.getCategory())
+          .setTransactionName(rule.getTransactionName())
+          .setTransactionType(rule.getTransactionType())
+          .setAmount(rule.getAmount())
+          .setDescription(rule.getDescription())
+          .setTransactionDate(next));
+      rule.setLastDate(next);
+      next = RecurringCalendar.nextOccurrence(rule.getFrequency(), next);
+    }
+    rule.setNextDate(next);
+    return occurrences;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    if (workers instanceof ExecutorService executorService) {
+      executorService.shutdown();
+    }
+  }
+
+  private static final class Totals {
+    private int accounts;
+    private int rules;
+    private int transactions;
+    private int failedAccounts;
+
+    void add(Totals other) {
+      accounts += other.accounts;
+      rules += other.rules;
+      transactions += other.transactions;
+    }
+
+    RecurringCatchUpResult toResult() {
+      return new RecurringCatchUpResult(accounts, rules, transactions, failedAccounts);
+    }
+  }
+}
@@ -10,19 +10,14 @@ import fun.trackmoney.entity.RecurringEntity;
 import fun.trackmoney.mapper.RecurringMapper;
 import fun.trackmoney.repository.RecurringRepository;
 import fun.trackmoney.dto.transaction.BillResponseDTO;
-import fun.trackmoney.dto.transaction.CreateTransactionDTO;
-import fun.trackmoney.dto.transaction.internal.TransactionFailure;
-import fun.trackmoney.dto.transaction.internal.TransactionResult;
 import fun.trackmoney.entity.UserEntity;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.TemporalAdjusters;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -33,17 +28,17 @@ public class RecurringService {
   private final RecurringRepository recurringRepository;
   private final RecurringMapper recurringMapper;
   private final CategoryService categoryService;
-  private final TransactionService transactionService;
+  private final RecurringCatchUpRunner recurringCatchUpRunner;
 
 
   public RecurringService(RecurringRepository recurringRepository,
                           RecurringMapper recurringMapper,
                           CategoryService categoryService,
-                          TransactionService transactionService) {
+                          RecurringCatchUpRunner recurringCatchUpRunner) {
     this.recurringRepository = recurringRepository;
     this.recurringMapper = recurringMapper;
     this.categoryService = categoryService;
-    this.transactionService = transactionService;
+    this.recurringCatchUpRunner = recurringCatchUpRunner;
   }
 
   @Transactional
@@ -93,50 +88,17 @@ public class RecurringService {
   }
 
   protected LocalDateTime calculateNextRun(Frequency frequency, LocalDateTime lastDate) {
-    return switch (frequency) {
-      case DAILY -> lastDate.plusDays(1);
-      case WEEKLY -> lastDate.with(TemporalAdjusters.next(DayOfWeek.MONDAY));
-      case MONTHLY -> lastDate.plusMonths(1);
-      case YEARLY -> lastDate.plusYears(1);
-    };
+    return RecurringCalendar.nextOccurrence(frequency, lastDate);
   }
 
+  /**
+   * Scheduled method - runs at midnight every day, on every node.
+   * Posts every occurrence missed since each rule's next date; the nodes' workers split the due rules between them
+   * by claiming batches with SKIP LOCKED, so no cluster lock is needed.
+   */
   @Scheduled(cron = "0 0 0 * * *")
-  @Transactional
   public void recurringTransactions() {
-
-    List<RecurringEntity> recurrences =
-        recurringRepository.findByNextDateBefore(LocalDateTime.now());
-
-    for (RecurringEntity recurring : recurrences) {
-      processRecurring(recurring);
-    }
-  }
-
-
-  protected void processRecurring(RecurringEntity recurring) {
-    CreateTransactionDTO dto = new CreateTransactionDTO(
-        recurring.getTransactionName(),
-        recurring.getCategory().getCategoryId(),
-        recurring.getTransactionType(),
-        recurring.getAmount(),
-        recurring.getDescription(),
-        recurring.getNextDate()
-    );
-
-    TransactionResult result =
-        transactionService.createTransaction(dto, recurring.getAccount().getUser());
-
-    if (result instanceof TransactionFailure failure) {
-      throw new IllegalStateException("Failed to create transaction: " + failure.error());
-    }
-
-    LocalDateTime next = calculateNextRun(
-        recurring.getFrequency(), recurring.getNextDate());
-
-    recurring.setLastDate(recurring.getNextDate());
-    recurring.setNextDate(next);
-    recurringRepository.save(recurring);
+    recurringCatchUpRunner.run(LocalDateTime.now());
   }
 
 
@@ -145,40 +107,33 @@ public class RecurringService {
     return recurringMapper.toResponse(recurringRepository.findAllByAccountId(accountId));
   }
 
+  /**
+   * Sums the expense rules by where their next date falls: overdue, upcoming, and due within a week.
+   */
   public BillResponseDTO getBill(UserEntity currentUser) {
     Integer accountId = currentUser.getAccount().getAccountId();
-    var result = recurringRepository.findAllByAccountId(accountId);
-
-    BigDecimal totalBillsBeforeToday = result.stream()
-        .filter(recurring ->
-            recurring.getNextDate().toLocalDate().isBefore(LocalDate.now())
-                && recurring.getTransactionType().equals(TransactionType.EXPENSE)
-        )
-        .map(RecurringEntity::getAmount)
-        .filter(Objects::nonNull)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-
-    BigDecimal totalUpComing = result.stream()
-        .filter(recurring ->
-            recurring.getNextDate().toLocalDate().isAfter(LocalDate.now())
-                && recurring.getTransactionType().equals(TransactionType.EXPENSE)
-        )
-        .map(RecurringEntity::getAmount)
-        .filter(Objects::nonNull)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-    BigDecimal totalBueSoon = result.stream()
-        .filter(recurring -> {
-          LocalDate date = recurring.getNextDate().toLocalDate();
-          return !date.isBefore(LocalDate.now())
-              && !date.isAfter(LocalDate.now().plusDays(7))
-              && recurring.getTransactionType().equals(TransactionType.EXPENSE);
-        })
-        .map(RecurringEntity::getAmount)
-        .filter(Objects::nonNull)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
-
+    LocalDate today = LocalDate.now();
+    LocalDate dueSoonLimit = today.plusDays(7);
+
+    BigDecimal totalBillsBeforeToday = BigDecimal.ZERO;
+    BigDecimal totalUpComing = BigDecimal.ZERO;
+    BigDecimal totalBueSoon = BigDecimal.ZERO;
+    for (RecurringEntity recurring : recurringRepository.findAllByAccountId(accountId)) {
+      if (recurring.getTransactionType() != TransactionType.EXPENSE || recurring.getAmount() == null) {
+        continue;
+      }
+      LocalDate date = recurring.getNextDate().toLocalDate();
+      if (date.isBefore(today)) {
+        totalBillsBeforeToday = totalBillsBeforeToday.add(recurring.getAmount());
+        continue;
+      }
+      if (date.isAfter(today)) {
+        totalUpComing = totalUpComing.add(recurring.getAmount());
+      }
+      if (!date.isAfter(dueSoonLimit)) {
+        totalBueSoon = totalBueSoon.add(recurring.getAmount());
+      }
+    }
     return new BillResponseDTO(totalBillsBeforeToday, totalUpComing, totalBueSoon);
   }
 
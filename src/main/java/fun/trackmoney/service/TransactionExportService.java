@@ -0,0 +1,79 @@
+package fun.trackmoney.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fun.trackmoney.dto.transaction.TransactionExportDTO;
+import fun.trackmoney.enums.ExportFormat;
+import fun.trackmoney.repository.TransactionRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+@Service
+public class TransactionExportService {
+
+  private static final String CSV_HEADER =
+      "transactionId,transactionName,description,amount,transactionType,categoryId,categoryName,transactionDate";
+
+  private final TransactionRepository transactionRepository;
+  private final ObjectMapper objectMapper;
+
+  public TransactionExportService(TransactionRepository transactionRepository, ObjectMapper objectMapper) {
+    this.transactionRepository = transactionRepository;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Writes every transaction of the account to the output stream, one row at a time.
+   * Rows come from a database cursor as DTOs, so nothing is kept in the persistence context and
+   * memory stays flat regardless of the account history size.
+   */
+  @Transactional(readOnly = true)
+  public void export(Integer accountId, ExportFormat format, OutputStream outputStream) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+
+    if (format == ExportFormat.CSV) {
+      writer.write(CSV_HEADER);
+      writer.write('\n');
+    }
+
+    try (Stream<TransactionExportDTO> rows = transactionRepository.streamExportByAccountId(accountId)) {
+      Iterator<TransactionExportDTO> iterator = rows.iterator();
+      while (iterator.hasNext()) {
+        TransactionExportDTO row = iterator.next();
+        writer.write(format == ExportFormat.CSV ? toCsvLine(row) : objectMapper.writeValueAsString(row));
+        writer.write('\n');
+      }
+    }
+    writer.flush();
+  }
+
+  private String toCsvLine(TransactionExportDTO row) {
+    return String.join(",",
+        String.valueOf(row.transactionId()),
+        csvField(row.transactionName()),
+        csvField(row.description()),
+        row.amount() == null ? "" : row.amount().toPlainString(),
+        row.transactionType() == null ? "" : row.transactionType().name(),
+        row.categoryId() == null ? "" : String.valueOf(row.categoryId()),
+        csvField(row.categoryName()),
+        row.transactionDate() == null ? "" : row.transactionDate().toString());
+  }
+
+  private String csvField(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.contains(",") || value.contains("\"") || value.contains("\n") || value.contains("\r")) {
+      return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+    return value;
+  }
+}
@@ -0,0 +1,197 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.dto.transaction.ImportRowErrorDTO;
+import fun.trackmoney.dto.transaction.TransactionImportResultDTO;
+import fun.trackmoney.entity.AccountEntity;
+import fun.trackmoney.entity.CategoryEntity;
+import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.entity.UserEntity;
+import fun.trackmoney.enums.ImportFormat;
+import fun.trackmoney.enums.TransactionType;
+import fun.trackmoney.exception.AccountNotFoundException;
+import fun.trackmoney.infra.importer.ImportRowHandler;
+import fun.trackmoney.infra.importer.ImportedTransaction;
+import fun.trackmoney.infra.importer.TransactionFileParser;
+import fun.trackmoney.infra.redis.MetricsCacheService;
+import fun.trackmoney.repository.TransactionBatchRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+@Service
+public class TransactionImportService {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TransactionImportService.class);
+
+  static final int BATCH_SIZE = 1000;
+  static final int MAX_REPORTED_ERRORS = 500;
+  private static final int MAX_NAME_LENGTH = 50;
+  private static final int MAX_DESCRIPTION_LENGTH = 255;
+
+  private final Map<ImportFormat, TransactionFileParser> parsers = new EnumMap<>(ImportFormat.class);
+  private final CategoryService categoryService;
+  private final AccountService accountService;
+  private final TransactionBatchRepository transactionBatchRepository;
+  private final AccountMonthSummaryService accountMonthSummaryService;
+  private final MetricsCacheService metricsCacheService;
+
+  public TransactionImportService(List<TransactionFileParser> parsers,
+                                  CategoryService categoryService,
+                                  AccountService accountService,
+                                  TransactionBatchRepository transactionBatchRepository,
+                                  AccountMonthSummaryService accountMonthSummaryService,
+                                  MetricsCacheService metricsCacheService) {
+    parsers.forEach(parser -> this.parsers.put(parser.format(), parser));
+    this.categoryService = categoryService;
+    this.accountService = accountService;
+    this.transactionBatchRepository = transactionBatchRepository;
+    this.accountMonthSummaryService = accountMonthSummaryService;
+    this.metricsCacheService = metricsCacheService;
+  }
+
+  /**
+   * Imports a statement file into the user's account. Valid rows are inserted in JDBC batches while the
+   * file is being read; invalid rows are skipped and reported with their line number. The account balance
+   * is adjusted once at the end with the net amount of the imported rows. A dry run validates everything
+   * without writing.
+   */
+  @Transactional
+  public TransactionImportResultDTO importTransactions(UserEntity currentUser,
+                                                       InputStream file,
+                                                       ImportFormat format,
+                                                       Integer defaultCategoryId,
+                                                       boolean dryRun) throws IOException {
+    AccountEntity account = currentUser.getAccount();
+    if (account == null) {
+      throw new AccountNotFoundException("Account not found!");
+    }
+
+    if (!dryRun) {
+      // held until commit, so the monthly summary is updated the same way as by single writes
+      accountService.lockAccount(account.getAccountId());
+    }
+    ImportSession session = new ImportSession(account, categoryService.findAllEntitiesById(), defaultCategoryId,
+        dryRun);
+    parsers.get(format).parse(new InputStreamReader(file, StandardCharsets.UTF_8), session);
+    session.flush();
+
+    if (!dryRun && session.balanceChange.signum() != 0) {
+      accountService.updateAccountBalance(session.balanceChange.abs(), account.getAccountId(),
+          session.balanceChange.signum() > 0);
+    }
+    if (!dryRun && session.importedRows > 0) {
+      metricsCacheService.invalidate(account.getAccountId());
+    }
+
+    LOG.info("{} import for account {}: {} rows read, {} imported, {} rejected (dry run: {})",
+        format, account.getAccountId(), session.totalRows, session.importedRows, session.rejectedRows, dryRun);
+    return new TransactionImportResultDTO(dryRun, session.totalRows, session.importedRows, session.rejectedRows,
+        session.balanceChange, session.errors);
+  }
+
+  private final class ImportSession implements ImportRowHandler {
+
+    private final AccountEntity account;
+    private final Map<Integer, CategoryEntity> categories;
+    private final Integer defaultCategoryId;
+    private final boolean dryRun;
+    private final List<TransactionEntity> batch = new ArrayList<>(BATCH_SIZE);
+    private final List<ImportRowErrorDTO> errors = new ArrayList<>();
+    private BigDecimal balanceChange = BigDecimal.ZERO;
+    private int totalRows;
+    private int importedRows;
+    private int rejectedRows;
+
+    private ImportSession(AccountEntity account, Map<Integer, CategoryEntity> categories,
+                          Integer defaultCategoryId, boolean dryRun) {
+      this.account = account;
+      this.categories = categories;
+      this.defaultCategoryId = defaultCategoryId;
+      this.dryRun = dryRun;
+    }
+
+    @Override
+    public void onRow(ImportedTransaction row) {
+      totalRows++;
+      Integer categoryId = row.categoryId() != null ? row.categoryId() : defaultCategoryId;
+      ImportRowErrorDTO error = validate(row, categoryId);
+      if (error != null) {
+        reject(error);
+        return;
+      }
+
+      batch.add(new TransactionEntity()
+          .setAccount(account)
+          .setCategory(categories.get(categoryId))
+          .setTransactionName(row.transactionName())
+          .setTransactionType(row.transactionType())
+          .setAmount(row.amount())
+          .setDescription(row.description())
+          .setTransactionDate(row.transactionDate()));
+      balanceChange = row.transactionType() == TransactionType.INCOME
+          ? balanceChange.add(row.amount())
+          : balanceChange.subtract(row.amount());
+      importedRows++;
+
+      if (batch.size() >= BATCH_SIZE) {
+        flush();
+      }
+    }
+
+    @Override
+    public void onError(ImportRowErrorDTO error) {
+      totalRows++;
+      reject(error);
+    }
+
+    private void reject(ImportRowErrorDTO error) {
+      rejectedRows++;
+      if (errors.size() < MAX_REPORTED_ERRORS) {
+        errors.add(error);
+      }
+    }
+
+    private ImportRowErrorDTO validate(ImportedTransaction row, Integer categoryId) {
+      if (row.transactionName() == null) {
+        return new ImportRowErrorDTO(row.line(), "transactionName", "Name is required.");
+      }
+      if (row.transactionName().length() > MAX_NAME_LENGTH) {
+        return new ImportRowErrorDTO(row.line(), "transactionName",
+            "Name must have at most " + MAX_NAME_LENGTH + " characters.");
+      }
+      if (row.description() != null && row.description().length() > MAX_DESCRIPTION_LENGTH) {
+        return new ImportRowErrorDTO(row.line(), "description",
+            "Description must have at most " + MAX_DESCRIPTION_LENGTH + " characters.");
+      }
+      if (row.amount().signum() == 0) {
+        return new ImportRowErrorDTO(row.line(), "amount", "Amount must be greater than zero.");
+      }
+      if (categoryId == null) {
+        return new ImportRowErrorDTO(row.line(), "categoryId", "Category is required.");
+      }
+      if (!categories.containsKey(categoryId)) {
+        return new ImportRowErrorDTO(row.line(), "categoryId", "Category not found.");
+      }
+      return null;
+    }
+
+    private void flush() {
+      if (!dryRun) {
+        transactionBatchRepository.insertAll(batch, BATCH_SIZE);
+        accountMonthSummaryService.recordAll(batch);
+      }
+      batch.clear();
+    }
+  }
+}
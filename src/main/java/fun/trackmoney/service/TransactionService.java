@@ -4,18 +4,25 @@ import fun.trackmoney.entity.AccountEntity;
 import fun.trackmoney.entity.CategoryEntity;
 import fun.trackmoney.enums.TransactionType;
 import fun.trackmoney.dto.transaction.CreateTransactionDTO;
+import fun.trackmoney.dto.transaction.TransactionCursorPageDTO;
 import fun.trackmoney.dto.transaction.TransactionResponseDTO;
 import fun.trackmoney.dto.transaction.TransactionUpdateDTO;
+import fun.trackmoney.enums.CursorDirection;
 import fun.trackmoney.enums.TransactionsError;
+import fun.trackmoney.dto.transaction.internal.TransactionCursor;
 import fun.trackmoney.dto.transaction.internal.TransactionFailure;
 import fun.trackmoney.dto.transaction.internal.TransactionResult;
 import fun.trackmoney.dto.transaction.internal.TransactionSuccess;
 import fun.trackmoney.entity.TransactionEntity;
 import fun.trackmoney.exception.TransactionNotFoundException;
+import fun.trackmoney.infra.redis.MetricsCacheService;
 import fun.trackmoney.mapper.TransactionMapper;
 import fun.trackmoney.repository.TransactionRepository;
+import fun.trackmoney.repository.projection.CategoryAmountProjection;
+import fun.trackmoney.repository.projection.MonthAggregateProjection;
 import fun.trackmoney.entity.UserEntity;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -23,6 +30,9 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -32,24 +42,35 @@ import java.util.stream.Collectors;
 @Service
 public class TransactionService {
 
+  private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
   private final TransactionRepository transactionRepository;
   private final TransactionMapper transactionMapper;
   private final AccountService accountService;
   private final CategoryService categoryService;
+  private final AccountMonthSummaryService accountMonthSummaryService;
+  private final MetricsCacheService metricsCacheService;
 
   public TransactionService(TransactionRepository transactionRepository,
                             TransactionMapper transactionMapper,
                             AccountService accountService,
-                            CategoryService categoryService) {
+                            CategoryService categoryService,
+                            AccountMonthSummaryService accountMonthSummaryService,
+                            MetricsCacheService metricsCacheService) {
     this.transactionRepository = transactionRepository;
     this.transactionMapper = transactionMapper;
     this.accountService = accountService;
     this.categoryService = categoryService;
+    this.accountMonthSummaryService = accountMonthSummaryService;
+    this.metricsCacheService = metricsCacheService;
   }
 
   @Transactional
   public TransactionResult createTransaction(CreateTransactionDTO transactionDTO, UserEntity currentUser) {
-    AccountEntity account = currentUser.getAccount();
+    // the principal's account does not carry the balance, which the response includes
+    AccountEntity account = currentUser.getAccount() == null
+        ? null
+        : accountService.findById(currentUser.getAccount().getAccountId());
 
     if (account == null) {
       return new TransactionFailure(TransactionsError.ACCOUNT_NOT_FOUND);
@@ -66,10 +87,13 @@ public class TransactionService {
     transactionEntity.setAccount(account);
     transactionEntity.setCategory(category);
 
-    var response = transactionMapper.toResponseDTO(transactionRepository.save(transactionEntity));
+    TransactionEntity saved = transactionRepository.save(transactionEntity);
+    var response = transactionMapper.toResponseDTO(saved);
 
     boolean isCredit = TransactionType.INCOME.equals(transactionDTO.transactionType());
     accountService.updateAccountBalance(transactionDTO.amount(), account.getAccountId(), isCredit);
+    accountMonthSummaryService.record(saved);
+    metricsCacheService.invalidate(account.getAccountId());
 
     return new TransactionSuccess(response);
   }
@@ -91,14 +115,18 @@ public class TransactionService {
     TransactionEntity oldTransaction = transactionRepository.findByIdAndAccount(id, account)
         .orElseThrow(() -> new TransactionNotFoundException("Transaction not found."));
 
-    if (oldTransaction.getTransactionType() == TransactionType.INCOME) {
-      accountService.updateAccountBalance(oldTransaction.getAmount(), account.getAccountId(), false);
-    } else {
-      accountService.updateAccountBalance(oldTransaction.getAmount(), account.getAccountId(), true);
+    // revert the old amount and apply the new one as a single balance change
+    BigDecimal delta = signedAmount(dto.transactionType(), dto.amount())
+        .subtract(signedAmount(oldTransaction.getTransactionType(), oldTransaction.getAmount()));
+    boolean summaryChanged = delta.signum() != 0 || movesSummaryBucket(oldTransaction, dto);
+    if (delta.signum() != 0) {
+      accountService.adjustBalance(account.getAccountId(), delta);
+    } else if (summaryChanged) {
+      accountService.lockAccount(account.getAccountId());
+    }
+    if (summaryChanged) {
+      accountMonthSummaryService.retract(oldTransaction);
     }
-
-    boolean newIsCredit = (dto.transactionType() == TransactionType.INCOME);
-    accountService.updateAccountBalance(dto.amount(), account.getAccountId(), newIsCredit);
 
     oldTransaction.setTransactionName(dto.transactionName());
     oldTransaction.setAmount(dto.amount());
@@ -107,17 +135,34 @@ public class TransactionService {
     oldTransaction.setTransactionType(dto.transactionType());
     oldTransaction.setTransactionDate(dto.transactionDate());
 
-    return transactionMapper.toResponseDTO(transactionRepository.save(oldTransaction));
+    TransactionEntity saved = transactionRepository.save(oldTransaction);
+    if (summaryChanged) {
+      accountMonthSummaryService.record(saved);
+    }
+    metricsCacheService.invalidate(account.getAccountId());
+    return transactionMapper.toResponseDTO(saved);
+  }
+
+  private static boolean movesSummaryBucket(TransactionEntity transaction, TransactionUpdateDTO dto) {
+    return !YearMonth.from(transaction.getTransactionDate()).equals(YearMonth.from(dto.transactionDate()))
+        || !Objects.equals(transaction.getCategory().getCategoryId(), dto.categoryId())
+        || transaction.getTransactionType() != dto.transactionType();
+  }
+
+  private static BigDecimal signedAmount(TransactionType type, BigDecimal amount) {
+    return type == TransactionType.INCOME ? amount : amount.negate();
   }
 
   @Transactional
   public void delete(Integer id, UserEntity currentUser) {
-    TransactionEntity transaction = transactionRepository.findById(id).orElse(null);
+    TransactionEntity transaction = transactionRepository.findByIdAndAccount(id, currentUser.getAccount()).orElse(null);
 
     if(transaction != null){
       boolean isCredit = !transaction.getTransactionType().equals(TransactionType.INCOME);
       Integer accountId = currentUser.getAccount().getAccountId();
       accountService.updateAccountBalance(transaction.getAmount(), accountId , isCredit);
+      accountMonthSummaryService.retract(transaction);
+      metricsCacheService.invalidate(accountId);
     }
 
     transactionRepository.deleteByIdAndAccountId(id, currentUser.getAccount());
@@ -125,38 +170,16 @@ public class TransactionService {
 
   public BigDecimal getIncome(UUID userId) {
     Integer accountId = accountService.findAccountDefaultByUserId(userId).getAccountId();
-    LocalDate today = LocalDate.now();
-    int currentMonth = today.getMonthValue();
-    int currentYear = today.getYear();
-
-    return transactionRepository.findAllByAccountId(accountId)
-        .stream()
-        .filter(t -> TransactionType.INCOME.equals(t.getTransactionType()))
-        .filter(t -> {
-          LocalDate date = t.getTransactionDate().toLocalDate();
-          return date.getMonthValue() == currentMonth && date.getYear() == currentYear;
-        })
-        .map(TransactionEntity::getAmount)
-        .filter(Objects::nonNull)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    return accountMonthSummaryService.findMonth(accountId, YearMonth.now())
+        .map(MonthAggregateProjection::getIncome)
+        .orElse(BigDecimal.ZERO);
   }
 
   public BigDecimal getExpense(UserEntity currentUser) {
     Integer accountId = currentUser.getAccount().getAccountId();
-    LocalDate today = LocalDate.now();
-    int currentMonth = today.getMonthValue();
-    int currentYear = today.getYear();
-
-    return transactionRepository.findAllByAccountId(accountId)
-        .stream()
-        .filter(t -> TransactionType.EXPENSE.equals(t.getTransactionType()))
-        .filter(t -> {
-          LocalDate date = t.getTransactionDate().toLocalDate();
-          return date.getMonthValue() == currentMonth && date.getYear() == currentYear;
-        })
-        .map(TransactionEntity::getAmount)
-        .filter(Objects::nonNull)
-        .reduce(BigDecimal.ZERO, BigDecimal::add);
+    return accountMonthSummaryService.findMonth(accountId, YearMonth.now())
+        .map(MonthAggregateProjection::getExpense)
+        .orElse(BigDecimal.ZERO);
   }
 
   public Page<TransactionResponseDTO> getPaginatedTransactions(Pageable pageable,
@@ -168,12 +191,8 @@ public class TransactionService {
                                                                ) {
     Integer accountId = currentUser.getAccount().getAccountId();
 
-    LocalDateTime startDateTime = null;
-    LocalDateTime endDateTime = null;
-    if (startDate != null && endDate != null) {
-      startDateTime = startDate.atStartOfDay();
-      endDateTime = endDate.atTime(23, 59, 59);
-    }
+    LocalDateTime startDateTime = filterStart(startDate, endDate);
+    LocalDateTime endDateTime = filterEnd(startDate, endDate);
     if(name == null){
       name = "";
     }
@@ -181,6 +200,73 @@ public class TransactionService {
         .map(transactionMapper::toResponseDTO);
   }
 
+  public TransactionCursorPageDTO getCursorPaginatedTransactions(UserEntity currentUser,
+                                                                 String cursor,
+                                                                 CursorDirection direction,
+                                                                 int size,
+                                                                 String name,
+                                                                 Integer categoryId,
+                                                                 LocalDate startDate,
+                                                                 LocalDate endDate) {
+    Integer accountId = currentUser.getAccount().getAccountId();
+    int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+    // one extra row tells whether there is another page without running a count query
+    Pageable limit = PageRequest.ofSize(pageSize + 1);
+    String nameFilter = name == null ? "" : name;
+    LocalDateTime startDateTime = filterStart(startDate, endDate);
+    LocalDateTime endDateTime = filterEnd(startDate, endDate);
+
+    TransactionCursor position = cursor == null || cursor.isBlank() ? null : TransactionCursor.decode(cursor);
+    boolean backwards = position != null && direction == CursorDirection.PREV;
+
+    List<TransactionEntity> rows;
+    if (position == null) {
+      rows = transactionRepository.findFirstPageByFilters(
+          accountId, nameFilter, categoryId, startDateTime, endDateTime, limit);
+    } else if (backwards) {
+      rows = transactionRepository.findPageBeforeCursor(accountId, position.transactionDate(),
+          position.transactionId(), nameFilter, categoryId, startDateTime, endDateTime, limit);
+    } else {
+      rows = transactionRepository.findPageAfterCursor(accountId, position.transactionDate(),
+          position.transactionId(), nameFilter, categoryId, startDateTime, endDateTime, limit);
+    }
+
+    boolean hasMore = rows.size() > pageSize;
+    List<TransactionEntity> page = new ArrayList<>(rows.subList(0, Math.min(rows.size(), pageSize)));
+    if (backwards) {
+      Collections.reverse(page);
+    }
+    return toCursorPage(page, pageSize, position != null, hasMore, backwards);
+  }
+
+  private TransactionCursorPageDTO toCursorPage(List<TransactionEntity> page,
+                                                int pageSize,
+                                                boolean hasCursor,
+                                                boolean hasMore,
+                                                boolean backwards) {
+    String nextCursor = null;
+    String prevCursor = null;
+    if (!page.isEmpty()) {
+      boolean olderRowsExist = backwards || hasMore;
+      boolean newerRowsExist = backwards ? hasMore : hasCursor;
+      if (olderRowsExist) {
+        nextCursor = TransactionCursor.of(page.get(page.size() - 1)).encode();
+      }
+      if (newerRowsExist) {
+        prevCursor = TransactionCursor.of(page.get(0)).encode();
+      }
+    }
+    return new TransactionCursorPageDTO(transactionMapper.toResponseDTOList(page), pageSize, nextCursor, prevCursor);
+  }
+
+  private static LocalDateTime filterStart(LocalDate startDate, LocalDate endDate) {
+    return startDate != null && endDate != null ? startDate.atStartOfDay() : null;
+  }
+
+  private static LocalDateTime filterEnd(LocalDate startDate, LocalDate endDate) {
+    return startDate != null && endDate != null ? endDate.atTime(23, 59, 59) : null;
+  }
+
   public Map<CategoryEntity, List<TransactionResponseDTO>> getLast5TransactionsPerCategory(Integer accountId) {
     List<TransactionEntity> transactions =
         transactionRepository.findLast5TransactionsPerCategory(accountId);
@@ -195,10 +281,10 @@ public class TransactionService {
         ));
   }
 
-  public List<TransactionEntity> getCurrentMonthTransactions() {
-    LocalDateTime startDate = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-    LocalDateTime endDate = LocalDateTime.now();
-
-    return transactionRepository.findAllBetweenDates(startDate, endDate);
+  public Map<Integer, BigDecimal> getExpensesByCategory(Integer accountId, YearMonth month) {
+    return transactionRepository.sumExpensesGroupedByCategory(
+            accountId, month.atDay(1).atStartOfDay(), month.atEndOfMonth().atTime(23, 59, 59))
+        .stream()
+        .collect(Collectors.toMap(CategoryAmountProjection::getCategoryId, CategoryAmountProjection::getAmount));
   }
 }
@@ -8,10 +8,11 @@ import fun.trackmoney.dto.auth.internal.register.UserRegisterSuccess;
 import fun.trackmoney.dto.user.UserRequestDTO;
 import fun.trackmoney.dto.user.UserResponseDTO;
 import fun.trackmoney.entity.UserEntity;
+import fun.trackmoney.infra.auth.PrincipalCache;
+import fun.trackmoney.infra.jwt.TokenRevocationService;
 import fun.trackmoney.mapper.UserMapper;
 import fun.trackmoney.repository.UserRepository;
 import jakarta.transaction.Transactional;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -23,25 +24,33 @@ public class UserService {
 
   private final UserRepository userRepository;
   private final UserMapper userMapper;
-  private final PasswordEncoder encoder;
+  private final PrincipalCache principalCache;
+  private final TokenRevocationService tokenRevocationService;
 
   public UserService(UserRepository userRepository,
                      UserMapper userMapper,
-                     PasswordEncoder encoder) {
+                     PrincipalCache principalCache,
+                     TokenRevocationService tokenRevocationService) {
     this.userRepository = userRepository;
     this.userMapper = userMapper;
-    this.encoder = encoder;
+    this.principalCache = principalCache;
+    this.tokenRevocationService = tokenRevocationService;
   }
 
+  /**
+   * Creates the user with its default account.
+   *
+   * @param passwordHash the hash of the requested password, computed before the transaction starts
+   */
   @Transactional
-  public UserRegisterResult register(UserRequestDTO userRequestDTO) {
+  public UserRegisterResult register(UserRequestDTO userRequestDTO, String passwordHash) {
     Optional<UserEntity> userExist= findUserByEmail(userRequestDTO.email());
     if(userExist.isPresent()) {
       return new UserRegisterFailure(AuthError.EMAIL_ALREADY_EXISTS);
     }
 
     UserEntity user = userMapper.userRequestDTOToEntity(userRequestDTO);
-    user.setPassword(encoder.encode(user.getPassword()));
+    user.setPassword(passwordHash);
 
     AccountEntity account = new AccountEntity()
         .setName("Default Account")
@@ -64,6 +73,7 @@ public class UserService {
 
     user.activate();
     userRepository.save(user);
+    principalCache.invalidate(email);
     return true;
   }
 
@@ -75,8 +85,19 @@ public class UserService {
     return userRepository.findById(userId);
   }
 
+  /**
+   * Saves a user loaded from the database. The request principal from {@code AuthenticatedUser.toUserEntity} is
+   * rejected: it has no password hash and its account no balance, and saving it would wipe both.
+   *
+   * @throws IllegalArgumentException when given a request principal instead of a loaded user
+   */
   public void update(UserEntity user) {
+    if (user.getPassword() == null) {
+      throw new IllegalArgumentException(
+          "User " + user.getUserId() + " is a request principal; load it by id before updating it");
+    }
     userRepository.save(user);
+    principalCache.invalidate(user.getEmail());
   }
 
   public boolean deleteUser(UserEntity currentUser) {
@@ -88,6 +109,8 @@ public class UserService {
     userExist.get().deletedUser();
 
     userRepository.save(userExist.get());
+    principalCache.invalidate(currentUser.getEmail());
+    tokenRevocationService.revokeAllForUser(currentUser.getEmail());
     return true;
   }
 }
@@ -0,0 +1,13 @@
+-- Hibernate now draws ids from these sequences with the pooled-lo optimizer: one nextval
+-- reserves a block of 50 ids, which lets inserts be sent as JDBC batches instead of one
+-- IDENTITY round trip per row. The increment must match allocationSize on the entities.
+-- The keys stay int4, so a plain SQL insert must not rely on the column default: each such row
+-- would take a whole block and burn through the key space 50 times faster. Bulk SQL inserts
+-- reserve blocks with nextval and number their rows within them instead (TransactionBatchRepository,
+-- BudgetHistoryRepository.insertMonthlyHistory); no other table here is written outside of JPA.
+ALTER SEQUENCE tb_transaction_transaction_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tb_budget_history_history_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tb_budget_budget_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tb_recurring_recurring_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tb_pots_pot_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tb_account_account_id_seq INCREMENT BY 50;
@@ -0,0 +1,34 @@
+-- Per-account monthly rollup of transactions, maintained by the application in the same
+-- database transaction as every transaction insert, update and delete.
+-- Dashboard metrics read a handful of rows from here instead of aggregating tb_transaction.
+CREATE TABLE tb_account_month_summary (
+    account_id INTEGER NOT NULL,
+    summary_year INTEGER NOT NULL,
+    summary_month SMALLINT NOT NULL CHECK (summary_month BETWEEN 1 AND 12),
+    category_id INTEGER NOT NULL,
+    transaction_type VARCHAR(50) NOT NULL,
+
+    total_amount NUMERIC(19, 4) NOT NULL DEFAULT 0.0000,
+    transaction_count INTEGER NOT NULL DEFAULT 0,
+
+    CONSTRAINT pk_account_month_summary
+        PRIMARY KEY (account_id, summary_year, summary_month, category_id, transaction_type),
+    CONSTRAINT fk_account_month_summary_account FOREIGN KEY (account_id)
+        REFERENCES tb_account(account_id) ON DELETE CASCADE,
+    CONSTRAINT fk_account_month_summary_category FOREIGN KEY (category_id)
+        REFERENCES tb_category(category_id)
+);
+
+-- Backfill from existing transactions
+INSERT INTO tb_account_month_summary
+    (account_id, summary_year, summary_month, category_id, transaction_type, total_amount, transaction_count)
+SELECT t.account_id,
+       EXTRACT(YEAR FROM t.transaction_date)::INTEGER,
+       EXTRACT(MONTH FROM t.transaction_date)::SMALLINT,
+       t.category_id,
+       t.transaction_type,
+       SUM(t.amount),
+       COUNT(*)
+FROM tb_transaction t
+GROUP BY t.account_id, EXTRACT(YEAR FROM t.transaction_date), EXTRACT(MONTH FROM t.transaction_date),
+         t.category_id, t.transaction_type;
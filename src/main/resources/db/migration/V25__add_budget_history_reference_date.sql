@@ -0,0 +1,13 @@
+-- Month bucket of a budget history row as a single sortable value.
+-- Range filters over (reference_year, reference_month) need OR-expanded predicates that Postgres cannot turn
+-- into one index range; a range on reference_date is a single index scan.
+ALTER TABLE tb_budget_history
+    ADD COLUMN reference_date DATE GENERATED ALWAYS AS (make_date(reference_year, reference_month, 1)) STORED;
+
+CREATE INDEX idx_budget_history_account_reference_date
+    ON tb_budget_history(account_id, reference_date);
+
+-- Same columns as idx_budget_history_account_date from V18
+DROP INDEX IF EXISTS idx_budget_history_account_year_month;
+
+COMMENT ON INDEX idx_budget_history_account_reference_date IS 'Optimizes budget history lookups by month range';
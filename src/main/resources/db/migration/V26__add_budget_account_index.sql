@@ -0,0 +1,4 @@
+-- Monthly budget history generation walks accounts in keyset chunks and joins their budgets by account range.
+-- Used by: BudgetsRepository.findAccountIdsWithBudgetsAfter and BudgetHistoryRepository.insertMonthlyHistory
+CREATE INDEX idx_budget_account
+  ON tb_budget(account_id);
@@ -0,0 +1,40 @@
+-- Runs of the budget history generation, split into account ranges that commit independently.
+-- A chunk is marked COMPLETED in the same transaction that inserts its history, so a crashed or
+-- failed run resumes with the chunks that are still PENDING or FAILED.
+CREATE TABLE tb_budget_history_job (
+    job_id SERIAL PRIMARY KEY,
+    triggered_by VARCHAR(20) NOT NULL CHECK (triggered_by IN ('SCHEDULED', 'RECOVERY')),
+    reference_month SMALLINT NOT NULL CHECK (reference_month BETWEEN 1 AND 12),
+    reference_year INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('RUNNING', 'COMPLETED', 'FAILED')),
+    total_chunks INTEGER NOT NULL DEFAULT 0,
+    total_accounts INTEGER NOT NULL DEFAULT 0,
+    started_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    finished_at TIMESTAMP NULL
+);
+
+CREATE INDEX idx_budget_history_job_period
+    ON tb_budget_history_job(reference_year, reference_month, status);
+
+CREATE TABLE tb_budget_history_job_chunk (
+    chunk_id SERIAL PRIMARY KEY,
+    job_id INTEGER NOT NULL,
+    first_account_id INTEGER NOT NULL,
+    last_account_id INTEGER NOT NULL,
+    account_count INTEGER NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED')),
+    generated_rows INTEGER NOT NULL DEFAULT 0,
+    attempts INTEGER NOT NULL DEFAULT 0,
+    error_message VARCHAR(500) NULL,
+    completed_at TIMESTAMP NULL,
+
+    CONSTRAINT fk_budget_history_job_chunk_job FOREIGN KEY (job_id)
+        REFERENCES tb_budget_history_job(job_id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_budget_history_job_chunk_job_status
+    ON tb_budget_history_job_chunk(job_id, status);
+
+-- Same pooled-lo allocation as the other entities (see V23)
+ALTER SEQUENCE tb_budget_history_job_job_id_seq INCREMENT BY 50;
+ALTER SEQUENCE tb_budget_history_job_chunk_chunk_id_seq INCREMENT BY 50;
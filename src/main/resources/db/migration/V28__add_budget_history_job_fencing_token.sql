@@ -0,0 +1,4 @@
+-- Fencing token of the distributed lock lease that currently owns the job. A node whose lease expired
+-- keeps an older token, so its chunks are rejected once a newer owner has claimed the job.
+ALTER TABLE tb_budget_history_job
+  ADD COLUMN fencing_token BIGINT NULL;
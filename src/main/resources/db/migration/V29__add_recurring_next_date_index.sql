@@ -0,0 +1,6 @@
+-- Workers claim due recurring rules oldest first with FOR UPDATE SKIP LOCKED.
+-- A partial index cannot hold "next_date <= now()" (the predicate must be immutable), so the full
+-- column is indexed; the claim reads it in order and stops after one batch.
+-- Used by: RecurringRepository.claimDue
+CREATE INDEX idx_recurring_next_date
+  ON tb_recurring(next_date);
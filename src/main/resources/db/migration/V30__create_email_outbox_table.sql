@@ -0,0 +1,27 @@
+-- Outgoing e-mails, inserted in the same transaction as the change that triggers them and delivered
+-- by EmailOutboxDispatcher. Claiming a row pushes its next_attempt_at forward by the claim lease, so
+-- a node that dies while sending leaves the row to be claimed again once the lease has run out.
+CREATE TABLE tb_email_outbox (
+    email_id BIGSERIAL PRIMARY KEY,
+    recipient VARCHAR(255) NOT NULL,
+    subject VARCHAR(255) NOT NULL,
+    body TEXT NOT NULL,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'SENT', 'FAILED')),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    last_error VARCHAR(500) NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    sent_at TIMESTAMP NULL
+);
+
+-- Only pending rows are ever claimed, and they are a small fraction of the table.
+-- Used by: EmailOutboxRepository.claimDue, EmailOutboxRepository.countPending
+CREATE INDEX idx_email_outbox_pending
+    ON tb_email_outbox(next_attempt_at) WHERE status = 'PENDING';
+
+-- Used by: EmailOutboxRepository.deleteSentBefore
+CREATE INDEX idx_email_outbox_sent_at
+    ON tb_email_outbox(sent_at) WHERE status = 'SENT';
+
+-- Same pooled-lo allocation as the other entities (see V23)
+ALTER SEQUENCE tb_email_outbox_email_id_seq INCREMENT BY 50;
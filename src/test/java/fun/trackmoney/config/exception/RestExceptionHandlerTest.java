@@ -3,6 +3,7 @@ package fun.trackmoney.config.exception;
 import fun.trackmoney.exception.AccountNotFoundException;
 import fun.trackmoney.exception.BudgetsNotFoundException;
 import fun.trackmoney.exception.CategoryNotFoundException;
+import fun.trackmoney.exception.InvalidCursorException;
 import fun.trackmoney.exception.TransactionNotFoundException;
 import fun.trackmoney.exception.UserNotFoundException;
 import fun.trackmoney.utils.CustomFieldError;
@@ -183,4 +184,17 @@ class RestExceptionHandlerTest {
     assertEquals("param", secondError.getField());
     assertEquals("invalid user data", secondError.getMessage());
   }
+
+  @Test
+  void invalidCursor_shouldReturnBadRequestWithError() {
+    InvalidCursorException exception = new InvalidCursorException("Invalid cursor.");
+    ResponseEntity<ApiResponse<List<CustomFieldError>>> response = restExceptionHandler.invalidCursor(exception);
+
+    assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    ApiResponse<List<CustomFieldError>> apiResponse = response.getBody();
+    assertNotNull(apiResponse);
+    assertFalse(apiResponse.isSuccess());
+    assertEquals("Invalid cursor.", apiResponse.getMessage());
+    assertEquals("cursor", apiResponse.getErrors().get(0).getField());
+  }
 }
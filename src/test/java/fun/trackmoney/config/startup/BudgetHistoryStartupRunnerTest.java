@@ -0,0 +1,96 @@
+package fun.trackmoney.config.startup;
+
+import fun.trackmoney.dto.budget.BudgetHistoryJobProgressDTO;
+import fun.trackmoney.enums.JobStatus;
+import fun.trackmoney.enums.JobTrigger;
+import fun.trackmoney.service.BudgetHistoryService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetHistoryStartupRunnerTest {
+
+  @Mock
+  private BudgetHistoryService budgetHistoryService;
+
+  private SimpleMeterRegistry meterRegistry;
+  private BudgetHistoryStartupRunner runner;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    runner = new BudgetHistoryStartupRunner(budgetHistoryService, meterRegistry, true);
+  }
+
+  @Test
+  void onReadinessChange_shouldRecoverOnlyTheFirstTimeTrafficIsAccepted() {
+    when(budgetHistoryService.recoverMissingHistory()).thenReturn(Optional.empty());
+
+    runner.onReadinessChange(readiness(ReadinessState.REFUSING_TRAFFIC));
+    runner.onReadinessChange(readiness(ReadinessState.ACCEPTING_TRAFFIC));
+    runner.onReadinessChange(readiness(ReadinessState.ACCEPTING_TRAFFIC));
+
+    verify(budgetHistoryService, times(1)).recoverMissingHistory();
+  }
+
+  @Test
+  void onReadinessChange_shouldDoNothingWhenDisabled() {
+    runner = new BudgetHistoryStartupRunner(budgetHistoryService, meterRegistry, false);
+
+    runner.onReadinessChange(readiness(ReadinessState.ACCEPTING_TRAFFIC));
+
+    verifyNoInteractions(budgetHistoryService);
+  }
+
+  @Test
+  void recover_shouldRecordDurationAndEntries() {
+    when(budgetHistoryService.recoverMissingHistory()).thenReturn(Optional.of(progress(JobStatus.COMPLETED, 42)));
+
+    runner.recover();
+
+    assertEquals(1, meterRegistry.get("trackmoney.budget_history.recovery").tag("outcome", "completed")
+        .timer().count());
+    assertEquals(42.0, meterRegistry.get("trackmoney.budget_history.recovery.entries").counter().count());
+  }
+
+  @Test
+  void recover_shouldRecordSkippedWhenMonthAlreadyComplete() {
+    when(budgetHistoryService.recoverMissingHistory()).thenReturn(Optional.empty());
+
+    runner.recover();
+
+    assertEquals(1, meterRegistry.get("trackmoney.budget_history.recovery").tag("outcome", "skipped")
+        .timer().count());
+  }
+
+  @Test
+  void recover_shouldRecordErrorInsteadOfThrowing() {
+    when(budgetHistoryService.recoverMissingHistory()).thenThrow(new IllegalStateException("database down"));
+
+    assertDoesNotThrow(() -> runner.recover());
+
+    assertEquals(1, meterRegistry.get("trackmoney.budget_history.recovery").tag("outcome", "error")
+        .timer().count());
+  }
+
+  private static AvailabilityChangeEvent<ReadinessState> readiness(ReadinessState state) {
+    return new AvailabilityChangeEvent<>(new Object(), state);
+  }
+
+  private static BudgetHistoryJobProgressDTO progress(JobStatus status, long generatedRows) {
+    return new BudgetHistoryJobProgressDTO(1, JobTrigger.RECOVERY, 3, 2025, status, 1, 1, 0, 10, 10,
+        generatedRows, LocalDateTime.now().minusSeconds(1), LocalDateTime.now(), 10.0, LocalDateTime.now());
+  }
+}
@@ -0,0 +1,28 @@
+package fun.trackmoney.config.startup;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FirstRequestTimerTest {
+
+  @Test
+  void shouldRecordOnlyTheFirstRequest() throws Exception {
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    FirstRequestTimer filter = new FirstRequestTimer(meterRegistry, System.currentTimeMillis() - 5_000);
+
+    filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), new MockFilterChain());
+    filter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), new MockFilterChain());
+
+    Timer timer = meterRegistry.get("trackmoney.startup.first_request").timer();
+    assertEquals(1, timer.count());
+    assertTrue(timer.totalTime(TimeUnit.MILLISECONDS) >= 5_000);
+  }
+}
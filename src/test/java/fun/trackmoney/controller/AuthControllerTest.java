@@ -37,6 +37,7 @@ import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.util.UUID;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -374,12 +375,9 @@ class AuthControllerTest {
 
   @Test
   void shouldReturnBadRequestWhenUserNotFound() {
-    UserEntity user = new UserEntity(UUID.randomUUID(), "John Doe", "test@example.com", "123", true);
-
-    when(authUtils.getCurrentUser()).thenReturn(user);
-    when(authService.refreshAccessToken(user.getEmail())).thenReturn(null);
+    when(authService.refreshTokens("refresh-jwt")).thenReturn(new LoginFailure(AuthError.USER_NOT_REGISTER));
 
-    ResponseEntity<ApiResponse<RefreshTokenResponse>> response = authController.refreshAccessToken();
+    ResponseEntity<ApiResponse<RefreshTokenResponse>> response = authController.refreshAccessToken("Bearer refresh-jwt");
 
     assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
     assertNotNull(response.getBody());
@@ -389,18 +387,39 @@ class AuthControllerTest {
   }
 
   @Test
-  void shouldReturnOkWhenTokenIsGenerated() {
-    UserEntity user = new UserEntity(UUID.randomUUID(), "John Doe", "test@example.com", "123", true);
-    String expectedToken = "new-mocked-access-token";
+  void shouldReturnUnauthorizedWhenRefreshTokenIsRejected() {
+    when(authService.refreshTokens("refresh-jwt")).thenReturn(new LoginFailure(AuthError.REFRESH_TOKEN_INVALID));
 
-    when(authUtils.getCurrentUser()).thenReturn(user);
-    when(authService.refreshAccessToken(user.getEmail())).thenReturn(expectedToken);
+    ResponseEntity<ApiResponse<RefreshTokenResponse>> response = authController.refreshAccessToken("Bearer refresh-jwt");
 
-    ResponseEntity<ApiResponse<RefreshTokenResponse>> response = authController.refreshAccessToken();
+    assertEquals(HttpStatus.UNAUTHORIZED, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertFalse(response.getBody().isSuccess());
+    assertEquals("Token", response.getBody().getErrors().get(0).getField());
+  }
+
+  @Test
+  void shouldReturnOkWhenTokenIsGenerated() {
+    when(authService.refreshTokens("refresh-jwt"))
+        .thenReturn(new LoginSuccess(new LoginResponseDTO("new-access-jwt", "new-refresh-jwt")));
+
+    ResponseEntity<ApiResponse<RefreshTokenResponse>> response = authController.refreshAccessToken("Bearer refresh-jwt");
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertNotNull(response.getBody());
     assertTrue(response.getBody().isSuccess());
-    assertEquals(expectedToken, response.getBody().getData().accessToken());
+    assertEquals("new-access-jwt", response.getBody().getData().accessToken());
+    assertEquals("new-refresh-jwt", response.getBody().getData().refreshToken());
+  }
+
+  @Test
+  void logoutShouldRevokeTheCurrentUsersTokens() {
+    UserEntity user = new UserEntity(UUID.randomUUID(), "John Doe", "test@example.com", "123", true);
+    when(authUtils.getCurrentUser()).thenReturn(user);
+
+    ResponseEntity<ApiResponse<Void>> response = authController.logout();
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    verify(authService).logout("test@example.com");
   }
 }
@@ -5,6 +5,7 @@ import fun.trackmoney.dto.metrics.response.BudgetPerformanceDTO;
 import fun.trackmoney.dto.metrics.response.CategoryBreakdownDTO;
 import fun.trackmoney.dto.metrics.response.DashboardOverviewDTO;
 import fun.trackmoney.dto.metrics.response.MonthlySummaryDTO;
+import fun.trackmoney.infra.redis.MetricsCacheService;
 import fun.trackmoney.service.MetricsService;
 import fun.trackmoney.entity.UserEntity;
 import fun.trackmoney.utils.response.ApiResponse;
@@ -21,6 +22,7 @@ import org.springframework.http.ResponseEntity;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -31,6 +33,9 @@ class MetricsControllerTest {
   @Mock
   private MetricsService metricsService;
 
+  @Mock
+  private MetricsCacheService metricsCacheService;
+
   @InjectMocks
   private MetricsController metricsController;
 
@@ -39,6 +44,8 @@ class MetricsControllerTest {
   @BeforeEach
   void setUp() {
     mockUser = UserEntityFactory.defaultUser();
+    lenient().when(metricsCacheService.getOrLoad(any(), any(), any(), any()))
+        .thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(3).get());
   }
 
   @Test
@@ -429,4 +436,22 @@ class MetricsControllerTest {
     assertEquals(HttpStatus.OK, response.getStatusCode());
     verify(metricsService, times(1)).getByCategory(accountId, year, currentMonth, null);
   }
+
+  @Test
+  void getOverview_shouldServeCachedResultWithoutCallingService() {
+    Integer accountId = mockUser.getAccount().getAccountId();
+    DashboardOverviewDTO cached = new DashboardOverviewDTO(
+        BigDecimal.TEN, BigDecimal.ONE, BigDecimal.valueOf(9), 0, 0, "N/A", BigDecimal.ZERO, 1, 2025
+    );
+    String key = MetricsCacheService.key("overview", LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), 3);
+
+    doReturn(cached).when(metricsCacheService)
+        .getOrLoad(eq(accountId), eq(key), eq(DashboardOverviewDTO.class), any());
+
+    ResponseEntity<ApiResponse<DashboardOverviewDTO>> response =
+        metricsController.getOverview(mockUser, LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), 3);
+
+    assertSame(cached, response.getBody().getData());
+    verifyNoInteractions(metricsService);
+  }
 }
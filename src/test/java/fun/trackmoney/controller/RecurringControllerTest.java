@@ -3,6 +3,9 @@ import fun.trackmoney.controller.RecurringController;
 
 import fun.trackmoney.dto.recurring.CreateRecurringRequest;
 import fun.trackmoney.dto.recurring.RecurringResponse;
+import fun.trackmoney.dto.recurring.RecurringCalendarDTO;
+import fun.trackmoney.enums.ExportFormat;
+import fun.trackmoney.service.RecurringCalendarService;
 import fun.trackmoney.service.RecurringService;
 import fun.trackmoney.testutils.CreateRecurringRequestFactory;
 import fun.trackmoney.testutils.RecurringResponseFactory;
@@ -18,7 +21,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -38,6 +43,9 @@ class RecurringControllerTest {
   @Mock
   private RecurringService recurringService;
 
+  @Mock
+  private RecurringCalendarService recurringCalendarService;
+
   @InjectMocks
   private RecurringController recurringController;
 
@@ -202,4 +210,36 @@ class RecurringControllerTest {
 
     verify(recurringService, times(1)).getBill(mockUser);
   }
-}
\ No newline at end of file
+
+  @Test
+  void getCalendar_shouldReturnTheCalendarFromTheService() {
+    UserEntity mockUser = UserEntityFactory.defaultUser();
+    LocalDate from = LocalDate.of(2025, 3, 1);
+    RecurringCalendarDTO calendar = new RecurringCalendarDTO(from, from.plusMonths(12), List.of(), false, 0,
+        BigDecimal.ZERO, BigDecimal.ZERO);
+    when(recurringCalendarService.getCalendar(mockUser, from, null, 100)).thenReturn(calendar);
+
+    ResponseEntity<ApiResponse<RecurringCalendarDTO>> response =
+        recurringController.getCalendar(from, null, 100, mockUser);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("Successfully retrieved the recurring calendar", response.getBody().getMessage());
+    assertEquals(calendar, response.getBody().getData());
+  }
+
+  @Test
+  void exportCalendar_shouldStreamThroughCalendarService() throws Exception {
+    UserEntity mockUser = UserEntityFactory.defaultUser();
+
+    var response = recurringController.exportCalendar(null, null, ExportFormat.NDJSON, mockUser);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("application/x-ndjson", response.getHeaders().getContentType().toString());
+    assertEquals("attachment; filename=\"recurring-calendar.ndjson\"",
+        response.getHeaders().getFirst("Content-Disposition"));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    response.getBody().writeTo(outputStream);
+    verify(recurringCalendarService, times(1)).export(mockUser, null, null, ExportFormat.NDJSON, outputStream);
+  }
+}
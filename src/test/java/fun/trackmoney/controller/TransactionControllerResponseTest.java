@@ -0,0 +1,120 @@
+package fun.trackmoney.controller;
+
+import fun.trackmoney.entity.AccountEntity;
+import fun.trackmoney.entity.CategoryEntity;
+import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.entity.UserEntity;
+import fun.trackmoney.infra.auth.AuthenticatedUser;
+import fun.trackmoney.infra.redis.MetricsCacheService;
+import fun.trackmoney.mapper.AccountMapper;
+import fun.trackmoney.mapper.TransactionMapper;
+import fun.trackmoney.mapper.UserMapper;
+import fun.trackmoney.repository.TransactionRepository;
+import fun.trackmoney.service.AccountMonthSummaryService;
+import fun.trackmoney.service.AccountService;
+import fun.trackmoney.service.CategoryService;
+import fun.trackmoney.service.TransactionExportService;
+import fun.trackmoney.service.TransactionImportService;
+import fun.trackmoney.service.TransactionService;
+import fun.trackmoney.testutils.CategoryEntityFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.method.annotation.AuthenticationPrincipalArgumentResolver;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.hamcrest.Matchers.aMapWithSize;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the JSON a client gets back for a new transaction when the caller is a cached principal, whose account
+ * carries no balance, going through the real service and mappers.
+ */
+@ExtendWith(MockitoExtension.class)
+class TransactionControllerResponseTest {
+
+  private static final UUID USER_ID = UUID.fromString("5b0f3c1e-8a52-4f7e-9d1a-2f6c3e4b5a69");
+
+  @Mock
+  private TransactionRepository transactionRepository;
+  @Mock
+  private AccountService accountService;
+  @Mock
+  private CategoryService categoryService;
+  @Mock
+  private AccountMonthSummaryService accountMonthSummaryService;
+  @Mock
+  private MetricsCacheService metricsCacheService;
+  @Mock
+  private TransactionExportService transactionExportService;
+  @Mock
+  private TransactionImportService transactionImportService;
+
+  private MockMvc mockMvc;
+
+  @BeforeEach
+  void setUp() {
+    TransactionService transactionService = new TransactionService(transactionRepository,
+        new TransactionMapper(new AccountMapper(new UserMapper())), accountService, categoryService,
+        accountMonthSummaryService, metricsCacheService);
+    mockMvc = MockMvcBuilders
+        .standaloneSetup(new TransactionController(transactionService, transactionExportService,
+            transactionImportService))
+        .setCustomArgumentResolvers(new AuthenticationPrincipalArgumentResolver())
+        .build();
+
+    UserEntity principal = new AuthenticatedUser(USER_ID, "Ana", "ana@trackmoney.fun", true, 7, "Main")
+        .toUserEntity();
+    SecurityContextHolder.setContext(
+        new SecurityContextImpl(new UsernamePasswordAuthenticationToken(principal, null, List.of())));
+  }
+
+  @AfterEach
+  void tearDown() {
+    SecurityContextHolder.clearContext();
+  }
+
+  @Test
+  void createTransactionShouldReturnTheAccountWithItsBalance() throws Exception {
+    UserEntity owner = new UserEntity(USER_ID, "Ana", "ana@trackmoney.fun", "hash", true);
+    AccountEntity stored = new AccountEntity(7, owner, "Main", new BigDecimal("1250.40"));
+    CategoryEntity category = CategoryEntityFactory.defaultCategory();
+    when(accountService.findById(7)).thenReturn(stored);
+    when(categoryService.findEntityById(1)).thenReturn(category);
+    when(transactionRepository.save(any(TransactionEntity.class)))
+        .thenAnswer(invocation -> invocation.<TransactionEntity>getArgument(0).setTransactionId(42));
+
+    mockMvc.perform(post("/transaction")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"transactionName": "Groceries", "categoryId": 1, "transactionType": "EXPENSE",
+                 "amount": 80.00, "description": "Weekly shop", "transactionDate": "2025-03-05T10:00:00"}
+                """))
+        .andExpect(status().isCreated())
+        .andExpect(jsonPath("$.data.transactionId").value(42))
+        .andExpect(jsonPath("$.data.account", aMapWithSize(4)))
+        .andExpect(jsonPath("$.data.account.accountId").value(7))
+        .andExpect(jsonPath("$.data.account.name").value("Main"))
+        .andExpect(jsonPath("$.data.account.balance").value(1250.40))
+        .andExpect(jsonPath("$.data.account.user.userId").value(USER_ID.toString()))
+        .andExpect(jsonPath("$.data.account.user.name").value("Ana"))
+        .andExpect(jsonPath("$.data.account.user.email").value("ana@trackmoney.fun"))
+        .andExpect(jsonPath("$.data.account.user.password").doesNotExist());
+  }
+}
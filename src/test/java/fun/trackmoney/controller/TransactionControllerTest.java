@@ -6,12 +6,19 @@ import fun.trackmoney.testutils.TransactionResponseDTOFactory;
 import fun.trackmoney.testutils.TransactionUpdateDTOFactory;
 import fun.trackmoney.testutils.UserEntityFactory;
 import fun.trackmoney.dto.transaction.CreateTransactionDTO;
+import fun.trackmoney.dto.transaction.TransactionCursorPageDTO;
+import fun.trackmoney.dto.transaction.TransactionImportResultDTO;
 import fun.trackmoney.dto.transaction.TransactionResponseDTO;
+import fun.trackmoney.enums.CursorDirection;
+import fun.trackmoney.enums.ExportFormat;
+import fun.trackmoney.enums.ImportFormat;
 import fun.trackmoney.dto.transaction.TransactionUpdateDTO;
 import fun.trackmoney.enums.TransactionsError;
 import fun.trackmoney.dto.transaction.internal.TransactionFailure;
 import fun.trackmoney.dto.transaction.internal.TransactionResult;
 import fun.trackmoney.dto.transaction.internal.TransactionSuccess;
+import fun.trackmoney.service.TransactionExportService;
+import fun.trackmoney.service.TransactionImportService;
 import fun.trackmoney.service.TransactionService;
 import fun.trackmoney.entity.UserEntity;
 import fun.trackmoney.utils.response.ApiResponse;
@@ -26,7 +33,9 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
+import org.springframework.mock.web.MockMultipartFile;
 
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
@@ -40,6 +49,10 @@ class TransactionControllerTest {
 
   @Mock
   private TransactionService transactionService;
+  @Mock
+  private TransactionExportService transactionExportService;
+  @Mock
+  private TransactionImportService transactionImportService;
   @InjectMocks
   private TransactionController transactionController;
 
@@ -220,4 +233,57 @@ class TransactionControllerTest {
     assertEquals("Paginated transactions", response.getBody().getMessage());
     verify(transactionService, times(1)).getPaginatedTransactions(pageable, user, "some name", 1, startDate, endDate);
   }
+
+  @Test
+  void getTransactionCursorPagination() {
+    UserEntity user = UserEntityFactory.defaultUser();
+    TransactionResponseDTO transaction = TransactionResponseDTOFactory.defaultTransactionResponse();
+    TransactionCursorPageDTO page = new TransactionCursorPageDTO(List.of(transaction), 20, "next", null);
+
+    when(transactionService.getCursorPaginatedTransactions(
+        user, null, CursorDirection.NEXT, 20, null, null, null, null)).thenReturn(page);
+
+    var response = transactionController.getCursorPaginatedTransactions(
+        null, CursorDirection.NEXT, 20, null, null, null, null, user);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertNotNull(response.getBody());
+    assertEquals("Cursor paginated transactions", response.getBody().getMessage());
+    assertEquals(page, response.getBody().getData());
+  }
+
+  @Test
+  void exportTransactionsShouldStreamThroughExportService() throws Exception {
+    UserEntity user = UserEntityFactory.defaultUser();
+
+    var response = transactionController.exportTransactions(ExportFormat.CSV, user);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("text/csv", response.getHeaders().getContentType().toString());
+    assertEquals("attachment; filename=\"transactions.csv\"",
+        response.getHeaders().getFirst("Content-Disposition"));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    response.getBody().writeTo(outputStream);
+    verify(transactionExportService, times(1))
+        .export(user.getAccount().getAccountId(), ExportFormat.CSV, outputStream);
+  }
+
+  @Test
+  void importTransactionsShouldDelegateFileToImportService() throws Exception {
+    UserEntity user = UserEntityFactory.defaultUser();
+    MockMultipartFile file = new MockMultipartFile("file", "statement.csv", "text/csv", "a,b".getBytes());
+    TransactionImportResultDTO result = new TransactionImportResultDTO(true, 1, 1, 0, BigDecimal.TEN, List.of());
+
+    when(transactionImportService.importTransactions(
+        eq(user), any(),
+        eq(ImportFormat.CSV), eq(3),
+        eq(true))).thenReturn(result);
+
+    var response = transactionController.importTransactions(file, ImportFormat.CSV, 3, true, user);
+
+    assertEquals(HttpStatus.OK, response.getStatusCode());
+    assertEquals("Import validated", response.getBody().getMessage());
+    assertEquals(result, response.getBody().getData());
+  }
 }
@@ -0,0 +1,113 @@
+package fun.trackmoney.infra.auth;
+
+import fun.trackmoney.exception.PasswordHashingBusyException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PasswordHashingServiceTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private ThreadPoolExecutor workers;
+  private PasswordHashingService passwordHashingService;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    workers = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1));
+    passwordHashingService = new PasswordHashingService(meterRegistry, workers, 5);
+  }
+
+  @AfterEach
+  void tearDown() {
+    workers.shutdownNow();
+  }
+
+  @Test
+  void shouldHashAndVerifyOnTheWorkerPool() {
+    String hash = passwordHashingService.hash("Secret1#");
+
+    assertTrue(passwordHashingService.matches("Secret1#", hash));
+    assertFalse(passwordHashingService.matches("Wrong1#", hash));
+    assertEquals(1, meterRegistry.get("trackmoney.auth.password.hashing.duration").tag("operation", "hash")
+        .timer().count());
+    assertEquals(3, meterRegistry.get("trackmoney.auth.password.hashing.wait").timer().count());
+  }
+
+  @Test
+  void shouldFailFastWhenTheQueueIsFull() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch started = new CountDownLatch(1);
+    workers.execute(() -> {
+      started.countDown();
+      awaitQuietly(release);
+    });
+    started.await();
+    workers.execute(() -> awaitQuietly(release));
+
+    assertThrows(PasswordHashingBusyException.class, () -> passwordHashingService.hash("Secret1#"));
+    assertEquals(1.0, meterRegistry.get("trackmoney.auth.password.hashing.rejected").counter().count());
+    release.countDown();
+  }
+
+  @Test
+  void shouldUpgradeOnlyHashesWithALowerCost() {
+    String weak = new BCryptPasswordEncoder(4).encode("Secret1#");
+    String current = passwordHashingService.hash("Secret1#");
+
+    String upgraded = passwordHashingService.upgrade("Secret1#", weak).orElseThrow();
+
+    assertTrue(upgraded.startsWith("$2a$05$"));
+    assertTrue(passwordHashingService.upgrade("Secret1#", current).isEmpty());
+  }
+
+  @Test
+  void costForShouldDoubleTheWorkPerStepUpToTheTarget() {
+    assertEquals(PasswordHashingService.MIN_COST, PasswordHashingService.costFor(300, 250));
+    assertEquals(12, PasswordHashingService.costFor(60, 250));
+    assertEquals(PasswordHashingService.MAX_COST, PasswordHashingService.costFor(1, 1_000_000));
+  }
+
+  @Test
+  void fastestNanosShouldIgnoreASlowColdFirstRun() {
+    AtomicInteger runs = new AtomicInteger();
+
+    long fastest = PasswordHashingService.fastestNanos(5, () -> {
+      if (runs.getAndIncrement() == 0) {
+        sleepQuietly(200);
+      }
+    });
+
+    assertEquals(5, runs.get());
+    assertTrue(fastest < TimeUnit.MILLISECONDS.toNanos(200), "fastest was " + fastest);
+  }
+
+  private static void sleepQuietly(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
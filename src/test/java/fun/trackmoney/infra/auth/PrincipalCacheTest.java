@@ -0,0 +1,104 @@
+package fun.trackmoney.infra.auth;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PrincipalCacheTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AtomicLong now;
+  private AtomicInteger loads;
+  private PrincipalCache principalCache;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    now = new AtomicLong(1_000);
+    loads = new AtomicInteger();
+    principalCache = new PrincipalCache(meterRegistry, 2, 60_000, now::get);
+  }
+
+  @Test
+  void shouldLoadOnceAndCountHits() {
+    Optional<AuthenticatedUser> first = principalCache.get("a@mail.com", () -> load("a@mail.com"));
+    Optional<AuthenticatedUser> second = principalCache.get("a@mail.com", () -> load("a@mail.com"));
+
+    assertEquals(first, second);
+    assertEquals(1, loads.get());
+    assertEquals(1.0, lookups("hit"));
+    assertEquals(1.0, lookups("miss"));
+  }
+
+  @Test
+  void shouldReloadAfterTtlAndAfterInvalidation() {
+    principalCache.get("a@mail.com", () -> load("a@mail.com"));
+    now.addAndGet(60_000);
+    principalCache.get("a@mail.com", () -> load("a@mail.com"));
+    principalCache.invalidate("a@mail.com");
+    principalCache.get("a@mail.com", () -> load("a@mail.com"));
+
+    assertEquals(3, loads.get());
+  }
+
+  @Test
+  void shouldStayWithinItsMaximumSize() {
+    for (String email : new String[] {"a@mail.com", "b@mail.com", "c@mail.com", "d@mail.com"}) {
+      principalCache.get(email, () -> load(email));
+    }
+
+    assertEquals(4, loads.get());
+    assertEquals(2, principalCache.size());
+  }
+
+  @Test
+  void shouldServeConcurrentLookupsWithoutLosingEntries() throws InterruptedException {
+    principalCache = new PrincipalCache(meterRegistry, 1_000, 60_000, now::get);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    for (int thread = 0; thread < 8; thread++) {
+      pool.execute(() -> {
+        for (int i = 0; i < 2_000; i++) {
+          String email = "user" + (i % 100) + "@mail.com";
+          principalCache.get(email, () -> load(email));
+        }
+      });
+    }
+    pool.shutdown();
+    assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+    assertEquals(100, principalCache.size());
+    assertEquals(16_000.0, lookups("hit") + lookups("miss"));
+    assertEquals((double) loads.get(), lookups("miss"));
+  }
+
+  @Test
+  void shouldNotCacheMissingUsersOrUsersInvalidatedWhileLoading() {
+    assertTrue(principalCache.get("gone@mail.com", Optional::empty).isEmpty());
+    principalCache.get("a@mail.com", () -> {
+      principalCache.invalidate("a@mail.com");
+      return load("a@mail.com");
+    });
+
+    assertEquals(0, principalCache.size());
+  }
+
+  private Optional<AuthenticatedUser> load(String email) {
+    loads.incrementAndGet();
+    return Optional.of(new AuthenticatedUser(UUID.randomUUID(), "name", email, true, 1, "Default Account"));
+  }
+
+  private double lookups(String result) {
+    return meterRegistry.get("trackmoney.auth.principal.cache.lookup").tag("result", result).counter().count();
+  }
+}
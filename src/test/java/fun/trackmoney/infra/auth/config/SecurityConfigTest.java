@@ -0,0 +1,92 @@
+package fun.trackmoney.infra.auth.config;
+
+import fun.trackmoney.infra.auth.PrincipalCache;
+import fun.trackmoney.infra.jwt.JwtService;
+import fun.trackmoney.infra.jwt.TokenRevocationService;
+import fun.trackmoney.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Only the health probes may answer on the API port; the other actuator endpoints expose internals and are
+ * reachable on the unpublished management port only.
+ */
+@SpringJUnitWebConfig(SecurityConfigTest.TestConfig.class)
+@TestPropertySource(properties = "management.server.port=8081")
+class SecurityConfigTest {
+
+  private static final SimpleGrantedAuthority USER_ROLES = new SimpleGrantedAuthority("USER_ROLES");
+
+  @Autowired
+  private WebApplicationContext context;
+
+  private MockMvc mockMvc;
+
+  @MockitoBean
+  private JwtService jwtService;
+
+  @MockitoBean
+  private UserRepository userRepository;
+
+  @MockitoBean
+  private PrincipalCache principalCache;
+
+  @MockitoBean
+  private TokenRevocationService tokenRevocationService;
+
+  @BeforeEach
+  void setUp() {
+    mockMvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"/actuator/metrics", "/actuator/budgethistoryjobs", "/actuator/locks"})
+  void actuatorEndpointsShouldBeForbiddenToSignedInUsersOnTheApiPort(String path) throws Exception {
+    mockMvc.perform(get(path).with(port(8080)).with(user("user@example.com").authorities(USER_ROLES)))
+        .andExpect(status().isForbidden());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"/actuator/metrics", "/actuator/budgethistoryjobs", "/actuator/locks"})
+  void actuatorEndpointsShouldPassSecurityOnTheManagementPort(String path) throws Exception {
+    // no endpoint is mapped in this slice, so getting past security means a 404
+    mockMvc.perform(get(path).with(port(8081))).andExpect(status().isNotFound());
+  }
+
+  @Test
+  void healthProbesShouldStayOpenOnTheApiPort() throws Exception {
+    mockMvc.perform(get("/readyz").with(port(8080))).andExpect(status().isNotFound());
+  }
+
+  private static RequestPostProcessor port(int port) {
+    return request -> {
+      request.setLocalPort(port);
+      return request;
+    };
+  }
+
+  @Configuration
+  @EnableWebMvc
+  @Import({SecurityConfig.class, JwtAuthenticationFilter.class})
+  static class TestConfig {
+  }
+}
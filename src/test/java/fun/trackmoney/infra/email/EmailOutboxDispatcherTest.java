@@ -0,0 +1,168 @@
+package fun.trackmoney.infra.email;
+
+import fun.trackmoney.entity.EmailOutboxEntity;
+import fun.trackmoney.enums.EmailStatus;
+import fun.trackmoney.repository.EmailOutboxRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class EmailOutboxDispatcherTest {
+
+  private static final EmailOutboxProperties PROPERTIES =
+      new EmailOutboxProperties(1, 10, 3, Duration.ofSeconds(30), Duration.ofMinutes(5), Duration.ofDays(7));
+
+  private EmailOutboxRepository outboxRepository;
+  private JavaMailSender mailSender;
+  private SimpleMeterRegistry meterRegistry;
+  private EmailOutboxDispatcher dispatcher;
+
+  @BeforeEach
+  void setUp() {
+    outboxRepository = mock(EmailOutboxRepository.class);
+    mailSender = mock(JavaMailSender.class);
+    when(mailSender.createMimeMessage())
+        .thenAnswer(invocation -> new MimeMessage(Session.getInstance(new Properties())));
+    meterRegistry = new SimpleMeterRegistry();
+    dispatcher = new EmailOutboxDispatcher(outboxRepository, mailSender, PROPERTIES,
+        mock(PlatformTransactionManager.class), meterRegistry, Runnable::run);
+  }
+
+  @Test
+  void shouldSendAClaimedBatchOverOneConnectionAndMarkItSent() {
+    EmailOutboxEntity first = pending(1L, "a@mail.com");
+    EmailOutboxEntity second = pending(2L, "b@mail.com");
+    when(outboxRepository.claimDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of(first, second), List.of());
+
+    assertEquals(2, dispatcher.drain());
+
+    ArgumentCaptor<MimeMessage[]> sent = ArgumentCaptor.forClass(MimeMessage[].class);
+    verify(mailSender, times(1)).send(sent.capture());
+    assertEquals(2, sent.getValue().length);
+    assertEquals(EmailStatus.SENT, first.getStatus());
+    assertEquals(EmailStatus.SENT, second.getStatus());
+    assertNotNull(first.getSentAt());
+    assertEquals(2.0, messages("sent"));
+  }
+
+  @Test
+  void shouldRetryTheWholeBatchWithBackoffWhenTheServerCannotBeReached() {
+    EmailOutboxEntity first = pending(1L, "a@mail.com");
+    EmailOutboxEntity second = pending(2L, "b@mail.com");
+    when(outboxRepository.claimDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of(first, second), List.of());
+    doThrow(new MailSendException("connection refused")).when(mailSender).send(any(MimeMessage[].class));
+    LocalDateTime before = LocalDateTime.now();
+
+    assertEquals(0, dispatcher.drain());
+
+    for (EmailOutboxEntity email : List.of(first, second)) {
+      assertEquals(EmailStatus.PENDING, email.getStatus());
+      assertEquals(1, email.getAttempts());
+      assertEquals("connection refused", email.getLastError());
+      assertFalse(email.getNextAttemptAt().isBefore(before.plusSeconds(30)));
+    }
+    verify(outboxRepository, times(2)).saveAll(List.of(first, second));
+    assertEquals(2.0, messages("retried"));
+  }
+
+  @Test
+  void shouldMarkOnlyTheFailedMessagesOfAPartiallySentBatch() {
+    EmailOutboxEntity accepted = pending(1L, "a@mail.com");
+    EmailOutboxEntity rejected = pending(2L, "b@mail.com");
+    when(outboxRepository.claimDue(any(LocalDateTime.class), anyInt()))
+        .thenReturn(List.of(accepted, rejected), List.of());
+    doAnswer(invocation -> {
+      Object secondMessage = invocation.getArguments()[1];
+      throw new MailSendException("partial", null, Map.of(secondMessage, new RuntimeException("bad recipient")));
+    }).when(mailSender).send(any(MimeMessage[].class));
+
+    assertEquals(1, dispatcher.drain());
+
+    assertEquals(EmailStatus.SENT, accepted.getStatus());
+    assertNull(accepted.getLastError());
+    assertEquals(EmailStatus.PENDING, rejected.getStatus());
+    assertEquals(1, rejected.getAttempts());
+    assertEquals(1.0, messages("sent"));
+    assertEquals(1.0, messages("retried"));
+  }
+
+  @Test
+  void shouldGiveUpAfterTheLastAttempt() {
+    EmailOutboxEntity email = pending(1L, "a@mail.com").setAttempts(2);
+    when(outboxRepository.claimDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of(email), List.of());
+    doThrow(new MailSendException("connection refused")).when(mailSender).send(any(MimeMessage[].class));
+
+    dispatcher.drain();
+
+    assertEquals(EmailStatus.FAILED, email.getStatus());
+    assertEquals(3, email.getAttempts());
+    assertEquals(1.0, messages("failed"));
+  }
+
+  @Test
+  void shouldStopTheWorkerWhenTheOutboxCannotBeClaimed() {
+    when(outboxRepository.claimDue(any(LocalDateTime.class), anyInt())).thenThrow(new RuntimeException("db down"));
+
+    assertEquals(0, dispatcher.drain());
+  }
+
+  @Test
+  void pollShouldPublishThePendingCount() {
+    when(outboxRepository.countPending()).thenReturn(7L);
+    when(outboxRepository.claimDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of());
+
+    dispatcher.poll();
+
+    assertEquals(7.0, meterRegistry.get("trackmoney.email.outbox.pending").gauge().value());
+  }
+
+  @Test
+  void backoffShouldDoubleUpToAnHour() {
+    Duration base = Duration.ofSeconds(30);
+
+    assertEquals(Duration.ofSeconds(30), EmailOutboxDispatcher.backoff(base, 1));
+    assertEquals(Duration.ofSeconds(120), EmailOutboxDispatcher.backoff(base, 3));
+    assertEquals(Duration.ofHours(1), EmailOutboxDispatcher.backoff(base, 40));
+  }
+
+  private static EmailOutboxEntity pending(Long id, String recipient) {
+    return new EmailOutboxEntity()
+        .setEmailId(id)
+        .setRecipient(recipient)
+        .setSubject("Confirm your e-mail")
+        .setBody("<html>hi</html>")
+        .setStatus(EmailStatus.PENDING)
+        .setAttempts(0)
+        .setNextAttemptAt(LocalDateTime.now())
+        .setCreatedAt(LocalDateTime.now());
+  }
+
+  private double messages(String result) {
+    return meterRegistry.get("trackmoney.email.outbox.messages").tag("result", result).counter().count();
+  }
+}
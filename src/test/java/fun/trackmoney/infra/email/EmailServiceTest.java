@@ -1,92 +1,81 @@
 package fun.trackmoney.infra.email;
 
-import fun.trackmoney.infra.email.EmailService;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import fun.trackmoney.entity.EmailOutboxEntity;
+import fun.trackmoney.enums.EmailStatus;
+import fun.trackmoney.repository.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.mail.javamail.JavaMailSender;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.*;
 
 
 class EmailServiceTest {
 
-  private JavaMailSender mailSender;
+  private EmailOutboxRepository outboxRepository;
   private TemplateEngine templateEngine;
+  private EmailOutboxDispatcher dispatcher;
   private EmailService emailService;
 
   @BeforeEach
   void setUp() {
-    mailSender = mock(JavaMailSender.class);
+    outboxRepository = mock(EmailOutboxRepository.class);
     templateEngine = mock(TemplateEngine.class);
-    emailService = new EmailService(mailSender, templateEngine);
+    dispatcher = mock(EmailOutboxDispatcher.class);
+    emailService = new EmailService(outboxRepository, templateEngine, dispatcher);
   }
 
-  private MimeMessage mockMimeMessage() {
-    MimeMessage mimeMessage = mock(MimeMessage.class);
-    when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
-    return mimeMessage;
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
   }
 
   @Test
-  void shouldSendVerifyEmailSuccessfully() throws MessagingException {
-    String to = "test@example.com";
-    String name = "Test User";
-    Integer code = 1234;
-
-    MimeMessage mimeMessage = mockMimeMessage();
+  void shouldQueueVerifyEmailAndWakeUpTheDispatcher() {
     when(templateEngine.process(eq("email-template-verify-email"), any(Context.class)))
         .thenReturn("<html>Email Content</html>");
 
-    emailService.sendEmailToVerifyEmail(to, name, code);
-
-    verify(mailSender).createMimeMessage();
-    verify(templateEngine).process(eq("email-template-verify-email"), any(Context.class));
-    verify(mailSender).send(mimeMessage);
-  }
-
-  @Test
-  void shouldThrowExceptionWhenVerifyEmailFails() {
-    String to = "test@example.com";
-    String name = "Test User";
-    Integer code = 1234;
-
-    when(mailSender.createMimeMessage()).thenThrow(new RuntimeException("Mail error"));
+    emailService.sendEmailToVerifyEmail("test@example.com", "Test User", 1234);
 
-    assertThrows(RuntimeException.class, () ->
-        emailService.sendEmailToVerifyEmail(to, name, code));
+    ArgumentCaptor<EmailOutboxEntity> queued = ArgumentCaptor.forClass(EmailOutboxEntity.class);
+    verify(outboxRepository).save(queued.capture());
+    assertEquals("test@example.com", queued.getValue().getRecipient());
+    assertEquals("<html>Email Content</html>", queued.getValue().getBody());
+    assertEquals(EmailStatus.PENDING, queued.getValue().getStatus());
+    assertEquals(0, queued.getValue().getAttempts());
+    verify(dispatcher).wakeUp();
   }
 
   @Test
-  void shouldSendResetPasswordEmailSuccessfully() throws MessagingException {
-    String to = "test@example.com";
-    String name = "Test User";
-    String link = "http://reset-link.com";
-
-    MimeMessage mimeMessage = mockMimeMessage();
+  void shouldWakeUpTheDispatcherOnlyAfterTheCallersTransactionCommits() {
     when(templateEngine.process(eq("email-template-reset-password"), any(Context.class)))
         .thenReturn("<html>Reset Content</html>");
+    TransactionSynchronizationManager.initSynchronization();
 
-    emailService.sendEmailToResetPassword(to, name, link);
+    emailService.sendEmailToResetPassword("test@example.com", "Test User", "http://reset-link.com");
 
-    verify(mailSender).createMimeMessage();
-    verify(templateEngine).process(eq("email-template-reset-password"), any(Context.class));
-    verify(mailSender).send(mimeMessage);
+    verify(outboxRepository).save(any(EmailOutboxEntity.class));
+    verify(dispatcher, never()).wakeUp();
+    TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+    verify(dispatcher).wakeUp();
   }
 
   @Test
-  void shouldThrowExceptionWhenResetPasswordEmailFails()  {
-    String to = "test@example.com";
-    String name = "Test User";
-    String link = "http://reset-link.com";
-
-    when(mailSender.createMimeMessage()).thenThrow(new RuntimeException("Mail error"));
+  void shouldNotQueueAnythingWhenTheTemplateFails() {
+    when(templateEngine.process(eq("email-template-reset-password"), any(Context.class)))
+        .thenThrow(new RuntimeException("Template error"));
 
     assertThrows(RuntimeException.class, () ->
-        emailService.sendEmailToResetPassword(to, name, link));
+        emailService.sendEmailToResetPassword("test@example.com", "Test User", "http://reset-link.com"));
+    verifyNoInteractions(outboxRepository, dispatcher);
   }
 }
@@ -0,0 +1,153 @@
+package fun.trackmoney.infra.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import fun.trackmoney.dto.transaction.TransactionExportDTO;
+import fun.trackmoney.enums.ExportFormat;
+import fun.trackmoney.enums.TransactionType;
+import fun.trackmoney.repository.TransactionRepository;
+import fun.trackmoney.service.TransactionExportService;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CsvTransactionParserTest {
+
+  private final CsvTransactionParser parser = new CsvTransactionParser();
+
+  @Test
+  void parse_shouldMapColumnsByHeaderName() throws IOException {
+    String csv = """
+        amount,transactionDate,transactionName,categoryId,transactionType,description
+        10.50,2025-03-10T12:00,Market,2,EXPENSE,"bread, milk"
+        2500,2025-03-05,Salary,,income,
+        """;
+
+    RecordingRowHandler handler = parse(csv);
+
+    assertTrue(handler.errors.isEmpty());
+    assertEquals(2, handler.rows.size());
+    ImportedTransaction market = handler.rows.get(0);
+    assertEquals(2, market.line());
+    assertEquals("Market", market.transactionName());
+    assertEquals(2, market.categoryId());
+    assertEquals(TransactionType.EXPENSE, market.transactionType());
+    assertEquals(new BigDecimal("10.50"), market.amount());
+    assertEquals("bread, milk", market.description());
+    assertEquals(LocalDateTime.of(2025, 3, 10, 12, 0), market.transactionDate());
+
+    ImportedTransaction salary = handler.rows.get(1);
+    assertNull(salary.categoryId());
+    assertNull(salary.description());
+    assertEquals(TransactionType.INCOME, salary.transactionType());
+    assertEquals(LocalDateTime.of(2025, 3, 5, 0, 0), salary.transactionDate());
+  }
+
+  @Test
+  void parse_shouldDeriveTypeFromSignWhenTypeColumnIsMissing() throws IOException {
+    String csv = """
+        transactionName,amount,transactionDate
+        Rent,-1200.00,2025-03-01
+        """;
+
+    RecordingRowHandler handler = parse(csv);
+
+    assertEquals(TransactionType.EXPENSE, handler.rows.get(0).transactionType());
+    assertEquals(new BigDecimal("1200.00"), handler.rows.get(0).amount());
+  }
+
+  @Test
+  void parse_shouldReportInvalidRowsAndKeepGoing() throws IOException {
+    String csv = """
+        transactionName,amount,transactionDate,transactionType
+        Broken,abc,2025-03-01,EXPENSE
+        Wrong type,10,2025-03-01,TRANSFER
+
+        Ok,10,2025-03-02,EXPENSE
+        """;
+
+    RecordingRowHandler handler = parse(csv);
+
+    assertEquals(1, handler.rows.size());
+    assertEquals(5, handler.rows.get(0).line());
+    assertEquals(2, handler.errors.size());
+    assertEquals(2, handler.errors.get(0).line());
+    assertEquals("amount", handler.errors.get(0).field());
+    assertEquals("transactionType", handler.errors.get(1).field());
+  }
+
+  @Test
+  void parse_shouldRejectFileWithoutRequiredColumns() throws IOException {
+    RecordingRowHandler handler = parse("name,value\nMarket,10\n");
+
+    assertTrue(handler.rows.isEmpty());
+    assertEquals(1, handler.errors.size());
+    assertEquals("header", handler.errors.get(0).field());
+  }
+
+  @Test
+  void split_shouldHandleQuotedFields() {
+    assertEquals(List.of("a", "b, c", "say \"hi\"", ""), CsvTransactionParser.split("a,\"b, c\",\"say \"\"hi\"\"\","));
+  }
+
+  @Test
+  void parse_shouldReadQuotedLineBreaksAndReportTheLineTheRowStartsOn() throws IOException {
+    String csv = "transactionName,description,amount,transactionDate\n"
+        + "Market,\"bread\nmilk, \"\"fresh\"\"\",10.50,2025-03-10T12:00\n"
+        + "Rent,,oops,2025-03-01\n";
+
+    RecordingRowHandler handler = parse(csv);
+
+    assertEquals(1, handler.rows.size());
+    assertEquals(2, handler.rows.get(0).line());
+    assertEquals("bread\nmilk, \"fresh\"", handler.rows.get(0).description());
+    assertEquals(1, handler.errors.size());
+    assertEquals(4, handler.errors.get(0).line());
+  }
+
+  @Test
+  void parse_shouldImportTheCsvExportBack() throws IOException {
+    TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    when(transactionRepository.streamExportByAccountId(1)).thenReturn(Stream.of(
+        new TransactionExportDTO(1, "Market, bakery", "bread\nmilk\r\nsaid \"hi\"", new BigDecimal("10.50"),
+            TransactionType.EXPENSE, 2, "Food", LocalDateTime.of(2025, 3, 10, 12, 0)),
+        new TransactionExportDTO(2, "Salary", null, new BigDecimal("2500.00"),
+            TransactionType.INCOME, 3, "Income", LocalDateTime.of(2025, 3, 5, 9, 30))));
+    ByteArrayOutputStream exported = new ByteArrayOutputStream();
+    new TransactionExportService(transactionRepository, new ObjectMapper()).export(1, ExportFormat.CSV, exported);
+
+    RecordingRowHandler handler = parse(exported.toString(StandardCharsets.UTF_8));
+
+    assertTrue(handler.errors.isEmpty(), () -> handler.errors.toString());
+    assertEquals(2, handler.rows.size());
+    ImportedTransaction market = handler.rows.get(0);
+    assertEquals("Market, bakery", market.transactionName());
+    assertEquals("bread\nmilk\nsaid \"hi\"", market.description());
+    assertEquals(new BigDecimal("10.50"), market.amount());
+    assertEquals(TransactionType.EXPENSE, market.transactionType());
+    assertEquals(2, market.categoryId());
+    assertEquals(LocalDateTime.of(2025, 3, 10, 12, 0), market.transactionDate());
+    ImportedTransaction salary = handler.rows.get(1);
+    assertEquals(5, salary.line());
+    assertNull(salary.description());
+    assertEquals(LocalDateTime.of(2025, 3, 5, 9, 30), salary.transactionDate());
+  }
+
+  private RecordingRowHandler parse(String content) throws IOException {
+    RecordingRowHandler handler = new RecordingRowHandler();
+    parser.parse(new StringReader(content), handler);
+    return handler;
+  }
+}
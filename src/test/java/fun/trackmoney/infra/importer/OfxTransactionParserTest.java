@@ -0,0 +1,106 @@
+package fun.trackmoney.infra.importer;
+
+import fun.trackmoney.enums.TransactionType;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OfxTransactionParserTest {
+
+  private final OfxTransactionParser parser = new OfxTransactionParser();
+
+  @Test
+  void parse_shouldReadSgmlStatementWithUnclosedTags() throws IOException {
+    String ofx = """
+        OFXHEADER:100
+        DATA:OFXSGML
+
+        <OFX>
+        <BANKMSGSRSV1><STMTTRNRS><STMTRS>
+        <BANKTRANLIST>
+        <STMTTRN>
+        <TRNTYPE>DEBIT
+        <DTPOSTED>20250310120000.000[-3:BRT]
+        <TRNAMT>-45.90
+        <FITID>1
+        <NAME>Bakery
+        <MEMO>Bread and milk
+        </STMTTRN>
+        <STMTTRN>
+        <TRNTYPE>CREDIT
+        <DTPOSTED>20250305
+        <TRNAMT>2500.00
+        <MEMO>Salary
+        </STMTTRN>
+        </BANKTRANLIST>
+        </STMTRS></STMTTRNRS></BANKMSGSRSV1>
+        </OFX>
+        """;
+
+    RecordingRowHandler handler = parse(ofx);
+
+    assertTrue(handler.errors.isEmpty());
+    assertEquals(2, handler.rows.size());
+    ImportedTransaction bakery = handler.rows.get(0);
+    assertEquals(7, bakery.line());
+    assertEquals("Bakery", bakery.transactionName());
+    assertEquals("Bread and milk", bakery.description());
+    assertEquals(TransactionType.EXPENSE, bakery.transactionType());
+    assertEquals(new BigDecimal("45.90"), bakery.amount());
+    assertEquals(LocalDateTime.of(2025, 3, 10, 12, 0), bakery.transactionDate());
+    assertNull(bakery.categoryId());
+
+    ImportedTransaction salary = handler.rows.get(1);
+    assertEquals("Salary", salary.transactionName());
+    assertEquals(TransactionType.INCOME, salary.transactionType());
+    assertEquals(LocalDateTime.of(2025, 3, 5, 0, 0), salary.transactionDate());
+  }
+
+  @Test
+  void parse_shouldReadXmlStatementOnASingleLine() throws IOException {
+    String ofx = "<OFX><STMTTRN><TRNTYPE>DEBIT</TRNTYPE><DTPOSTED>20250101</DTPOSTED>"
+        + "<TRNAMT>-10</TRNAMT><NAME>Coffee</NAME></STMTTRN></OFX>";
+
+    RecordingRowHandler handler = parse(ofx);
+
+    assertEquals(1, handler.rows.size());
+    assertEquals("Coffee", handler.rows.get(0).transactionName());
+    assertEquals(new BigDecimal("10"), handler.rows.get(0).amount());
+  }
+
+  @Test
+  void parse_shouldReportRecordsWithInvalidValues() throws IOException {
+    String ofx = """
+        <STMTTRN>
+        <DTPOSTED>2025
+        <TRNAMT>-10
+        <NAME>Bad date
+        </STMTTRN>
+        <STMTTRN>
+        <DTPOSTED>20250101
+        <NAME>No amount
+        </STMTTRN>
+        """;
+
+    RecordingRowHandler handler = parse(ofx);
+
+    assertTrue(handler.rows.isEmpty());
+    assertEquals(2, handler.errors.size());
+    assertEquals("DTPOSTED", handler.errors.get(0).field());
+    assertEquals(1, handler.errors.get(0).line());
+    assertEquals("TRNAMT", handler.errors.get(1).field());
+  }
+
+  private RecordingRowHandler parse(String content) throws IOException {
+    RecordingRowHandler handler = new RecordingRowHandler();
+    parser.parse(new StringReader(content), handler);
+    return handler;
+  }
+}
@@ -0,0 +1,22 @@
+package fun.trackmoney.infra.importer;
+
+import fun.trackmoney.dto.transaction.ImportRowErrorDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class RecordingRowHandler implements ImportRowHandler {
+
+  final List<ImportedTransaction> rows = new ArrayList<>();
+  final List<ImportRowErrorDTO> errors = new ArrayList<>();
+
+  @Override
+  public void onRow(ImportedTransaction row) {
+    rows.add(row);
+  }
+
+  @Override
+  public void onError(ImportRowErrorDTO error) {
+    errors.add(error);
+  }
+}
@@ -0,0 +1,42 @@
+package fun.trackmoney.infra.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+  @Test
+  void shouldAlwaysContainWhatWasAdded() {
+    BloomFilter filter = new BloomFilter(1000, 0.01);
+    for (int i = 0; i < 1000; i++) {
+      filter.add("revoked-token:" + i);
+    }
+
+    for (int i = 0; i < 1000; i++) {
+      assertTrue(filter.mightContain("revoked-token:" + i));
+    }
+  }
+
+  @Test
+  void shouldKeepFalsePositivesNearTheConfiguredRate() {
+    BloomFilter filter = new BloomFilter(1000, 0.01);
+    for (int i = 0; i < 1000; i++) {
+      filter.add("revoked-token:" + i);
+    }
+
+    int falsePositives = 0;
+    for (int i = 0; i < 10_000; i++) {
+      if (filter.mightContain("revoked-user:" + i + "@mail.com")) {
+        falsePositives++;
+      }
+    }
+    assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+  }
+
+  @Test
+  void emptyFilterShouldContainNothing() {
+    assertFalse(new BloomFilter(10, 0.01).mightContain("revoked-user:a@mail.com"));
+  }
+}
@@ -2,6 +2,7 @@ package fun.trackmoney.infra.jwt;
 
 import fun.trackmoney.infra.jwt.JwtService;
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTCreationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import org.junit.jupiter.api.BeforeEach;
@@ -13,8 +14,11 @@ import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.Instant;
 import java.util.Date;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 class JwtServiceTest {
 
@@ -178,4 +182,75 @@ class JwtServiceTest {
     long diffSeconds = expiry.getEpochSecond() - now.getEpochSecond();
     assertTrue(diffSeconds >= 6 * 24 * 3600 && diffSeconds <= 8 * 24 * 3600);
   }
+
+  @Test
+  void verifyShouldReturnAllClaimsFromOneVerification() {
+    String token = jwtService.generateAccessToken("claims@example.com");
+
+    Optional<JwtClaims> first = jwtService.verify(token);
+    Optional<JwtClaims> second = jwtService.verify(token);
+
+    assertTrue(first.isPresent());
+    assertEquals("claims@example.com", first.get().subject());
+    assertEquals("USER_ROLES", first.get().role());
+    assertNotNull(first.get().expiresAt());
+    assertEquals(first, second);
+    verify(jwtService, times(1)).validateToken(token);
+  }
+
+  @Test
+  void verifyShouldRejectExpiredTokensAndForeignSignatures() {
+    String expired = JWT.create()
+        .withIssuer("trackmoney")
+        .withSubject("old@example.com")
+        .withClaim("roles", "USER_ROLES")
+        .withExpiresAt(Instant.now().minusSeconds(60))
+        .sign(Algorithm.HMAC256(secretKey));
+    String foreign = JWT.create()
+        .withIssuer("trackmoney")
+        .withSubject("evil@example.com")
+        .withClaim("roles", "USER_ROLES")
+        .withExpiresAt(Instant.now().plusSeconds(60))
+        .sign(Algorithm.HMAC256("anothersecret"));
+
+    assertTrue(jwtService.verify(expired).isEmpty());
+    assertTrue(jwtService.verify(foreign).isEmpty());
+  }
+
+  @Test
+  void refreshTokensShouldCarryADistinctIdAndTheirIssueTime() {
+    JwtClaims first = jwtService.verify(jwtService.generateRefreshToken("refresh@example.com")).orElseThrow();
+    JwtClaims second = jwtService.verify(jwtService.generateRefreshToken("refresh@example.com")).orElseThrow();
+
+    assertEquals(JwtService.REFRESH, first.role());
+    assertNotNull(first.id());
+    assertNotEquals(first.id(), second.id());
+    assertNotNull(first.issuedAt());
+    assertFalse(first.issuedAt().isAfter(Instant.now()));
+  }
+
+  @Test
+  void verifyShouldReadTheIssueTimeToTheMillisecond() {
+    String token = jwtService.generateAccessToken("ms@example.com");
+    DecodedJWT jwt = JWT.decode(token);
+
+    JwtClaims claims = jwtService.verify(token).orElseThrow();
+
+    assertEquals(jwt.getClaim("iat_ms").asLong(), claims.issuedAt().toEpochMilli());
+    assertEquals(jwt.getIssuedAtAsInstant().getEpochSecond(), claims.issuedAt().getEpochSecond());
+  }
+
+  @Test
+  void verifyShouldFallBackToTheSecondIssueTimeOfOlderTokens() {
+    Instant issuedAt = Instant.parse("2025-03-01T10:00:00Z");
+    String older = JWT.create()
+        .withIssuer("trackmoney")
+        .withSubject("old@example.com")
+        .withClaim("roles", "USER_ROLES")
+        .withIssuedAt(issuedAt)
+        .withExpiresAt(Instant.now().plusSeconds(60))
+        .sign(Algorithm.HMAC256(secretKey));
+
+    assertEquals(issuedAt, jwtService.verify(older).orElseThrow().issuedAt());
+  }
 }
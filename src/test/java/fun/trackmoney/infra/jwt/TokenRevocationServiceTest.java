@@ -0,0 +1,161 @@
+package fun.trackmoney.infra.jwt;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTest {
+
+  private StringRedisTemplate redisTemplate;
+  private ValueOperations<String, String> values;
+  private SimpleMeterRegistry meterRegistry;
+  private TokenRevocationService revocationService;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    redisTemplate = mock(StringRedisTemplate.class);
+    values = mock(ValueOperations.class);
+    when(redisTemplate.opsForValue()).thenReturn(values);
+    meterRegistry = new SimpleMeterRegistry();
+    revocationService = new TokenRevocationService(redisTemplate, meterRegistry, 1000);
+  }
+
+  @Test
+  void shouldAnswerUnrevokedTokensWithoutAskingRedis() {
+    assertFalse(revocationService.isRevoked(claims("jti-1", Instant.now())));
+
+    verify(values, never()).get(anyString());
+    assertEquals(1.0, checks("bloom"));
+  }
+
+  @Test
+  void shouldConsumeATokenOnlyOnce() {
+    Instant expiresAt = Instant.now().plusSeconds(3600);
+    when(values.setIfAbsent(eq("used-refresh-token:jti-1"), eq("1"), any(Duration.class))).thenReturn(true, false);
+
+    assertTrue(revocationService.consume("jti-1", expiresAt));
+    assertFalse(revocationService.consume("jti-1", expiresAt));
+  }
+
+  @Test
+  void shouldKeepUsedRefreshTokensOutOfTheRevocationFilter() {
+    when(values.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(true);
+    for (int i = 0; i < 500; i++) {
+      revocationService.consume("jti-" + i, Instant.now().plusSeconds(3600));
+    }
+
+    for (int i = 0; i < 500; i++) {
+      assertFalse(revocationService.isRevoked(claims("jti-" + i, Instant.now())));
+    }
+    verify(values, never()).get(anyString());
+    assertEquals(500.0, checks("bloom"));
+  }
+
+  @Test
+  void shouldRejectTheTokenWhenItsUseCannotBeRecorded() {
+    when(values.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+        .thenThrow(new RedisConnectionFailureException("down"));
+
+    assertFalse(revocationService.consume("jti-1", Instant.now().plusSeconds(60)));
+  }
+
+  @Test
+  void shouldRevokeOnlyTheTokensIssuedBeforeTheUserWasRevoked() {
+    revocationService.revokeAllForUser("a@mail.com");
+    long revokedAt = revokedAtStoredFor("a@mail.com");
+
+    assertTrue(revocationService.isRevoked(claims("jti-1", Instant.ofEpochMilli(revokedAt - 60_000))));
+    assertFalse(revocationService.isRevoked(claims("jti-2", Instant.ofEpochMilli(revokedAt + 1))));
+    verify(values).set(eq("revoked-user:a@mail.com"), anyString(), eq(Duration.ofDays(7)));
+  }
+
+  @Test
+  void shouldAcceptTokensOfALoginInTheSameSecondAsTheLogout() {
+    Instant logout = Instant.parse("2025-03-01T10:00:00.200Z");
+    when(values.get("revoked-user:a@mail.com")).thenReturn(String.valueOf(logout.toEpochMilli()));
+    revocationService.revokeAllForUser("a@mail.com");
+
+    assertTrue(revocationService.isRevoked(claims("jti-1", logout.minusMillis(100))));
+    assertFalse(revocationService.isRevoked(claims("jti-2", logout.plusMillis(300))));
+  }
+
+  @Test
+  void shouldStillHonourRevocationsStoredInSeconds() {
+    Instant logout = Instant.parse("2025-03-01T10:00:00Z");
+    when(values.get("revoked-user:a@mail.com")).thenReturn(String.valueOf(logout.getEpochSecond()));
+    revocationService.revokeAllForUser("a@mail.com");
+
+    assertTrue(revocationService.isRevoked(claims("jti-1", logout.plusMillis(999))));
+    assertFalse(revocationService.isRevoked(claims("jti-2", logout.plusSeconds(1))));
+  }
+
+  @Test
+  void shouldTreatASuspectedRevocationAsRevokedWhenRedisIsDown() {
+    revocationService.revokeAllForUser("a@mail.com");
+    when(values.get("revoked-user:a@mail.com")).thenThrow(new RedisConnectionFailureException("down"));
+
+    assertTrue(revocationService.isRevoked(claims("jti-1", Instant.now())));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void syncShouldPickUpRevocationsMadeOnOtherNodes() {
+    Cursor<String> keys = mock(Cursor.class);
+    when(keys.hasNext()).thenReturn(true, false);
+    when(keys.next()).thenReturn("revoked-user:a@mail.com");
+    when(redisTemplate.scan(any(ScanOptions.class))).thenReturn(keys);
+    when(values.get("revoked-user:a@mail.com")).thenReturn(String.valueOf(Instant.now().toEpochMilli()));
+
+    revocationService.sync();
+
+    assertTrue(revocationService.isRevoked(claims("jti-9", Instant.now().minusSeconds(60))));
+    verify(keys).close();
+  }
+
+  @Test
+  void syncShouldKeepTheCurrentFilterWhenRedisIsDown() {
+    revocationService.revokeAllForUser("a@mail.com");
+    when(redisTemplate.scan(any(ScanOptions.class))).thenThrow(new RedisConnectionFailureException("down"));
+    when(values.get("revoked-user:a@mail.com")).thenReturn(String.valueOf(Instant.now().toEpochMilli()));
+
+    revocationService.sync();
+
+    assertTrue(revocationService.isRevoked(claims("jti-1", Instant.now().minusSeconds(60))));
+  }
+
+  private long revokedAtStoredFor(String email) {
+    ArgumentCaptor<String> revokedAt = ArgumentCaptor.forClass(String.class);
+    verify(values).set(eq("revoked-user:" + email), revokedAt.capture(), any(Duration.class));
+    when(values.get("revoked-user:" + email)).thenReturn(revokedAt.getValue());
+    return Long.parseLong(revokedAt.getValue());
+  }
+
+  private static JwtClaims claims(String id, Instant issuedAt) {
+    return new JwtClaims(id, "a@mail.com", "USER_ROLES", issuedAt, issuedAt.plusSeconds(900));
+  }
+
+  private double checks(String path) {
+    return meterRegistry.get("trackmoney.auth.revocation.checks").tag("path", path).counter().count();
+  }
+}
@@ -0,0 +1,56 @@
+package fun.trackmoney.infra.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VerifiedTokenCacheTest {
+
+  private static final Instant NOW = Instant.parse("2025-03-01T10:00:00Z");
+
+  private final AtomicLong clock = new AtomicLong(NOW.toEpochMilli());
+
+  @Test
+  void shouldForgetTokensOnceTheyExpire() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, clock::get);
+    JwtClaims claims = new JwtClaims(null, "a@mail.com", "USER_ROLES", null, NOW.plusSeconds(60));
+    cache.put("token-a", claims);
+
+    assertEquals(claims, cache.get("token-a").orElseThrow());
+    clock.addAndGet(59_999);
+    assertEquals(claims, cache.get("token-a").orElseThrow());
+    clock.addAndGet(1);
+    assertTrue(cache.get("token-a").isEmpty());
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  void shouldExpireEachTokenAtItsOwnExpiry() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(10, clock::get);
+    cache.put("token-short", new JwtClaims(null, "a@mail.com", "USER_ROLES", null, NOW.plusSeconds(10)));
+    cache.put("token-long", new JwtClaims(null, "a@mail.com", "REFRESH", null, NOW.plusSeconds(600)));
+    cache.put("token-expired", new JwtClaims(null, "a@mail.com", "USER_ROLES", null, NOW.minusSeconds(1)));
+
+    clock.addAndGet(10_000);
+
+    assertTrue(cache.get("token-short").isEmpty());
+    assertTrue(cache.get("token-long").isPresent());
+    assertTrue(cache.get("token-expired").isEmpty());
+  }
+
+  @Test
+  void shouldStayBoundedAndSkipTokensWithoutExpiry() {
+    VerifiedTokenCache cache = new VerifiedTokenCache(2, clock::get);
+    cache.put("token-a", new JwtClaims(null, "a@mail.com", "USER_ROLES", null, NOW.plusSeconds(60)));
+    cache.put("token-b", new JwtClaims(null, "b@mail.com", "USER_ROLES", null, NOW.plusSeconds(60)));
+    cache.put("token-c", new JwtClaims(null, "c@mail.com", "USER_ROLES", null, NOW.plusSeconds(60)));
+    cache.put("token-d", new JwtClaims(null, "d@mail.com", "USER_ROLES", null, null));
+
+    assertEquals(2, cache.size());
+    assertTrue(cache.get("token-d").isEmpty());
+  }
+}
@@ -0,0 +1,79 @@
+package fun.trackmoney.infra.ratelimit;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CachedBodyRequestTest {
+
+  @Test
+  void readListenerShouldReadTheWholeBufferedBody() throws IOException {
+    CachedBodyRequest request = CachedBodyRequest.read(post("{\"email\":\"a@mail.com\"}"), 1024);
+    ServletInputStream input = request.getInputStream();
+    ByteArrayOutputStream read = new ByteArrayOutputStream();
+    List<String> events = new ArrayList<>();
+
+    input.setReadListener(new ReadListener() {
+      @Override
+      public void onDataAvailable() throws IOException {
+        events.add("data");
+        while (input.isReady() && !input.isFinished()) {
+          read.write(input.read());
+        }
+      }
+
+      @Override
+      public void onAllDataRead() {
+        events.add("done");
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        events.add("error");
+      }
+    });
+
+    assertEquals(List.of("data", "done"), events);
+    assertEquals("{\"email\":\"a@mail.com\"}", read.toString(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  void readListenerShouldReceiveTheErrorOfAFailedRead() throws IOException {
+    CachedBodyRequest request = CachedBodyRequest.read(post("{}"), 1024);
+    List<Throwable> errors = new ArrayList<>();
+    IOException failure = new IOException("client went away");
+
+    request.getInputStream().setReadListener(new ReadListener() {
+      @Override
+      public void onDataAvailable() throws IOException {
+        throw failure;
+      }
+
+      @Override
+      public void onAllDataRead() {
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        errors.add(t);
+      }
+    });
+
+    assertEquals(List.of(failure), errors);
+  }
+
+  private static MockHttpServletRequest post(String body) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/auth/login");
+    request.setContent(body.getBytes(StandardCharsets.UTF_8));
+    return request;
+  }
+}
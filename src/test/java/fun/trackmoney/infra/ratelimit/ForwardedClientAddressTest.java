@@ -0,0 +1,90 @@
+package fun.trackmoney.infra.ratelimit;
+
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.apache.catalina.valves.RemoteIpValve;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.autoconfigure.web.embedded.TomcatWebServerFactoryCustomizer;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.core.env.StandardEnvironment;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Starts an embedded Tomcat configured from the main application.yaml and checks the address the rate limiter keys its
+ * per-IP buckets by: the client's behind the proxy, never one an outside caller claims for itself.
+ */
+class ForwardedClientAddressTest {
+
+  private TomcatServletWebServerFactory factory;
+  private WebServer server;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    StandardEnvironment environment = new StandardEnvironment();
+    new YamlPropertySourceLoader().load("application", new FileSystemResource("src/main/resources/application.yaml"))
+        .forEach(environment.getPropertySources()::addLast);
+    ServerProperties serverProperties = Binder.get(environment).bind("server", ServerProperties.class).get();
+
+    factory = new TomcatServletWebServerFactory(0);
+    new TomcatWebServerFactoryCustomizer(environment, serverProperties).customize(factory);
+    server = factory.getWebServer(context -> context.addServlet("remote-address", new HttpServlet() {
+      @Override
+      protected void doGet(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.getWriter().write(request.getRemoteAddr());
+      }
+    }).addMapping("/*"));
+    server.start();
+  }
+
+  @AfterEach
+  void tearDown() {
+    server.stop();
+  }
+
+  @Test
+  void shouldTakeTheClientAddressFromTheProxy() throws Exception {
+    assertEquals("203.0.113.7", remoteAddress("203.0.113.7, 10.0.0.5"));
+  }
+
+  @Test
+  void shouldKeepThePeerAddressWithoutForwardedHeaders() throws Exception {
+    assertEquals("127.0.0.1", remoteAddress(null));
+  }
+
+  @Test
+  void shouldOnlyTrustInternalProxies() {
+    RemoteIpValve valve = factory.getEngineValves().stream()
+        .filter(RemoteIpValve.class::isInstance)
+        .map(RemoteIpValve.class::cast)
+        .findFirst()
+        .orElseThrow();
+
+    assertTrue("172.18.0.2".matches(valve.getInternalProxies()));
+    assertFalse("203.0.113.9".matches(valve.getInternalProxies()));
+  }
+
+  private String remoteAddress(String forwardedFor) throws Exception {
+    HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + server.getPort() + "/"));
+    if (forwardedFor != null) {
+      request.header("X-Forwarded-For", forwardedFor);
+    }
+    return HttpClient.newHttpClient().send(request.build(), HttpResponse.BodyHandlers.ofString()).body();
+  }
+}
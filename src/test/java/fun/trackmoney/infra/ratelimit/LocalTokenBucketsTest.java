@@ -0,0 +1,39 @@
+package fun.trackmoney.infra.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LocalTokenBucketsTest {
+
+  private static final RateLimitProperties.Bucket TWO_PER_MINUTE = new RateLimitProperties.Bucket(2, 2);
+
+  private final AtomicLong now = new AtomicLong(0);
+
+  @Test
+  void shouldAllowTheBurstThenAskToWaitForTheRefill() {
+    LocalTokenBuckets buckets = new LocalTokenBuckets(100, now::get);
+
+    assertEquals(0, buckets.tryConsume("login:ip:1", TWO_PER_MINUTE));
+    assertEquals(0, buckets.tryConsume("login:ip:1", TWO_PER_MINUTE));
+    assertEquals(30_000, buckets.tryConsume("login:ip:1", TWO_PER_MINUTE));
+
+    now.addAndGet(30_000);
+    assertEquals(0, buckets.tryConsume("login:ip:1", TWO_PER_MINUTE));
+    assertEquals(0, buckets.tryConsume("login:ip:2", TWO_PER_MINUTE));
+  }
+
+  @Test
+  void shouldDropRefilledBucketsWhenFull() {
+    LocalTokenBuckets buckets = new LocalTokenBuckets(2, now::get);
+    buckets.tryConsume("a", TWO_PER_MINUTE);
+    buckets.tryConsume("b", TWO_PER_MINUTE);
+
+    now.addAndGet(60_000);
+    buckets.tryConsume("c", TWO_PER_MINUTE);
+
+    assertEquals(1, buckets.size());
+  }
+}
@@ -0,0 +1,153 @@
+package fun.trackmoney.infra.ratelimit;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RateLimitFilterTest {
+
+  private static final RateLimitProperties.Bucket PER_IP = new RateLimitProperties.Bucket(10, 5);
+  private static final RateLimitProperties.Bucket PER_EMAIL = new RateLimitProperties.Bucket(3, 1);
+
+  private RateLimiter rateLimiter;
+  private RateLimitFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    rateLimiter = mock(RateLimiter.class);
+    RateLimitProperties properties = new RateLimitProperties(true, Map.of(
+        "login", new RateLimitProperties.Route("POST", "/auth/login", PER_IP, PER_EMAIL,
+            RateLimitProperties.EmailSource.BODY),
+        "forgot-password", new RateLimitProperties.Route("POST", "/auth/forgot-password/*", PER_IP, PER_EMAIL,
+            RateLimitProperties.EmailSource.PATH),
+        "resend", new RateLimitProperties.Route("POST", "/auth/resend-verification-email", PER_IP, PER_EMAIL,
+            RateLimitProperties.EmailSource.TOKEN)));
+    filter = new RateLimitFilter(properties, rateLimiter, new ObjectMapper().registerModule(new JavaTimeModule()),
+        new SimpleMeterRegistry());
+  }
+
+  @Test
+  void shouldLimitByAddressAndBodyEmailAndKeepTheBodyReadable() throws Exception {
+    when(rateLimiter.tryConsume(anyString(), any())).thenReturn(0L);
+    MockHttpServletRequest request = post("/api/v1/auth/login");
+    request.setContent("{\"email\":\"John@Mail.com\",\"password\":\"x\"}".getBytes(StandardCharsets.UTF_8));
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    verify(rateLimiter).tryConsume("login:ip:10.0.0.1", PER_IP);
+    verify(rateLimiter).tryConsume("login:email:john@mail.com", PER_EMAIL);
+    String forwardedBody = new String(chain.getRequest().getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+    assertTrue(forwardedBody.contains("John@Mail.com"));
+  }
+
+  @Test
+  void shouldReadTheBodyEmailWhenTheLengthIsNotDeclared() throws Exception {
+    when(rateLimiter.tryConsume(anyString(), any())).thenReturn(0L);
+    MockHttpServletRequest request = chunked(post("/api/v1/auth/login"));
+    request.setContent("{\"email\":\"john@mail.com\",\"password\":\"x\"}".getBytes(StandardCharsets.UTF_8));
+
+    filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+    verify(rateLimiter).tryConsume("login:email:john@mail.com", PER_EMAIL);
+  }
+
+  @Test
+  void shouldRejectBodiesTooLargeToReadForTheEmail() throws Exception {
+    when(rateLimiter.tryConsume(anyString(), any())).thenReturn(0L);
+    MockHttpServletRequest request = chunked(post("/api/v1/auth/login"));
+    request.setContent(("{\"email\":\"john@mail.com\",\"padding\":\"" + " ".repeat(20_000) + "\"}")
+        .getBytes(StandardCharsets.UTF_8));
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(request, response, chain);
+
+    assertEquals(413, response.getStatus());
+    assertNull(chain.getRequest());
+    verify(rateLimiter, never()).tryConsume(eq("login:email:john@mail.com"), any());
+  }
+
+  @Test
+  void shouldRejectWith429AndRetryAfterWhenTheAddressIsLimited() throws Exception {
+    when(rateLimiter.tryConsume("forgot-password:ip:10.0.0.1", PER_IP)).thenReturn(1_500L);
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(post("/api/v1/auth/forgot-password/a%40mail.com"), response, chain);
+
+    assertEquals(429, response.getStatus());
+    assertEquals("2", response.getHeader("Retry-After"));
+    assertNull(chain.getRequest());
+    verify(rateLimiter, never()).tryConsume(eq("forgot-password:email:a@mail.com"), any());
+  }
+
+  @Test
+  void shouldKeyByPathEmailAndTokenSubject() throws Exception {
+    when(rateLimiter.tryConsume(anyString(), any())).thenReturn(0L);
+    MockHttpServletRequest resend = post("/api/v1/auth/resend-verification-email");
+    resend.addHeader("Authorization", "Bearer " + JWT.create().withSubject("Token@Mail.com")
+        .sign(Algorithm.HMAC256("any")));
+
+    filter.doFilter(post("/api/v1/auth/forgot-password/a%40mail.com"), new MockHttpServletResponse(),
+        new MockFilterChain());
+    filter.doFilter(resend, new MockHttpServletResponse(), new MockFilterChain());
+
+    verify(rateLimiter).tryConsume("forgot-password:email:a@mail.com", PER_EMAIL);
+    verify(rateLimiter).tryConsume("resend:email:token@mail.com", PER_EMAIL);
+  }
+
+  @Test
+  void shouldLeaveOtherRoutesAlone() throws Exception {
+    MockFilterChain chain = new MockFilterChain();
+
+    filter.doFilter(post("/api/v1/transaction"), new MockHttpServletResponse(), chain);
+
+    assertEquals("/api/v1/transaction", ((MockHttpServletRequest) chain.getRequest()).getRequestURI());
+    verify(rateLimiter, never()).tryConsume(anyString(), any());
+  }
+
+  /**
+   * A request sent with Transfer-Encoding: chunked, which declares no length.
+   */
+  private static MockHttpServletRequest chunked(MockHttpServletRequest request) {
+    MockHttpServletRequest chunked = new MockHttpServletRequest(request.getMethod(), request.getRequestURI()) {
+      @Override
+      public long getContentLengthLong() {
+        return -1;
+      }
+    };
+    chunked.setContextPath(request.getContextPath());
+    chunked.setRemoteAddr(request.getRemoteAddr());
+    chunked.addHeader("Transfer-Encoding", "chunked");
+    return chunked;
+  }
+
+  private static MockHttpServletRequest post(String uri) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+    request.setContextPath("/api/v1");
+    request.setRemoteAddr("10.0.0.1");
+    return request;
+  }
+}
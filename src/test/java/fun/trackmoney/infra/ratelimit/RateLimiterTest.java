@@ -0,0 +1,55 @@
+package fun.trackmoney.infra.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RateLimiterTest {
+
+  private static final RateLimitProperties.Bucket ONE_PER_MINUTE = new RateLimitProperties.Bucket(1, 1);
+
+  private StringRedisTemplate redisTemplate;
+  private SimpleMeterRegistry meterRegistry;
+  private RateLimiter rateLimiter;
+
+  @BeforeEach
+  void setUp() {
+    redisTemplate = mock(StringRedisTemplate.class);
+    meterRegistry = new SimpleMeterRegistry();
+    rateLimiter = new RateLimiter(redisTemplate, meterRegistry, new LocalTokenBuckets(100, () -> 0L));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldReturnTheWaitComputedByRedis() {
+    when(redisTemplate.execute(any(RedisScript.class), eq(List.of("rate:login:ip:1")), eq("1"), any()))
+        .thenReturn(0L, 42_000L);
+
+    assertEquals(0, rateLimiter.tryConsume("login:ip:1", ONE_PER_MINUTE));
+    assertEquals(42_000, rateLimiter.tryConsume("login:ip:1", ONE_PER_MINUTE));
+    assertEquals(0.0, meterRegistry.get("trackmoney.ratelimit.fallback").counter().count());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void shouldFallBackToLocalBucketsWhenRedisIsDown() {
+    when(redisTemplate.execute(any(RedisScript.class), anyList(), any(), any()))
+        .thenThrow(new RedisConnectionFailureException("down"));
+
+    assertEquals(0, rateLimiter.tryConsume("login:ip:1", ONE_PER_MINUTE));
+    assertEquals(60_000, rateLimiter.tryConsume("login:ip:1", ONE_PER_MINUTE));
+    assertEquals(2.0, meterRegistry.get("trackmoney.ratelimit.fallback").counter().count());
+  }
+}
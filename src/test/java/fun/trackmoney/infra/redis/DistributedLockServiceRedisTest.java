@@ -0,0 +1,132 @@
+package fun.trackmoney.infra.redis;
+
+import fun.trackmoney.dto.lock.LockHolderDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Runs the lock against a real Redis at SPRING_REDIS_HOST:SPRING_REDIS_PORT (localhost:6379 by default),
+ * e.g. {@code docker run -p 6379:6379 redis}. Skipped when no Redis answers there.
+ */
+class DistributedLockServiceRedisTest {
+
+  private static LettuceConnectionFactory connectionFactory;
+  private static StringRedisTemplate redisTemplate;
+
+  private DistributedLockService nodeA;
+  private DistributedLockService nodeB;
+  private String name;
+
+  @BeforeAll
+  static void connect() {
+    RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+        System.getenv().getOrDefault("SPRING_REDIS_HOST", "localhost"),
+        Integer.parseInt(System.getenv().getOrDefault("SPRING_REDIS_PORT", "6379")));
+    connectionFactory = new LettuceConnectionFactory(configuration);
+    connectionFactory.afterPropertiesSet();
+    connectionFactory.start();
+    boolean available;
+    try (RedisConnection connection = connectionFactory.getConnection()) {
+      available = "PONG".equals(connection.ping());
+    } catch (RuntimeException e) {
+      available = false;
+    }
+    assumeTrue(available, "no Redis reachable for the distributed lock tests");
+    redisTemplate = new StringRedisTemplate(connectionFactory);
+  }
+
+  @AfterAll
+  static void disconnect() {
+    connectionFactory.destroy();
+  }
+
+  @BeforeEach
+  void setUp() {
+    nodeA = new DistributedLockService(redisTemplate, Executors.newSingleThreadScheduledExecutor(), "node-a");
+    nodeB = new DistributedLockService(redisTemplate, Executors.newSingleThreadScheduledExecutor(), "node-b");
+    name = "test-" + UUID.randomUUID();
+  }
+
+  @AfterEach
+  void tearDown() {
+    nodeA.shutdown();
+    nodeB.shutdown();
+    redisTemplate.delete(List.of("lock:" + name, "lock-fence:" + name));
+  }
+
+  @Test
+  void lock_shouldBeHeldByOneNodeAtATime() {
+    try (LockLease lease = nodeA.tryAcquire(name, Duration.ofSeconds(10)).orElseThrow()) {
+      assertTrue(nodeB.tryAcquire(name, Duration.ofSeconds(10)).isEmpty());
+      assertTrue(nodeA.isHeld(lease));
+    }
+
+    LockLease next = nodeB.tryAcquire(name, Duration.ofSeconds(10)).orElseThrow();
+    next.close();
+  }
+
+  @Test
+  void fencingToken_shouldGrowWithEveryAcquisition() {
+    LockLease first = nodeA.tryAcquire(name, Duration.ofSeconds(10)).orElseThrow();
+    first.close();
+    LockLease second = nodeB.tryAcquire(name, Duration.ofSeconds(10)).orElseThrow();
+    second.close();
+
+    assertTrue(second.getFencingToken() > first.getFencingToken());
+  }
+
+  @Test
+  void renewal_shouldKeepTheLockPastItsLeaseTime() throws InterruptedException {
+    try (LockLease lease = nodeA.tryAcquire(name, Duration.ofMillis(300)).orElseThrow()) {
+      Thread.sleep(900);
+
+      assertTrue(nodeA.isHeld(lease));
+      assertTrue(nodeB.tryAcquire(name, Duration.ofMillis(300)).isEmpty());
+    }
+  }
+
+  @Test
+  void expiredLease_shouldBeTakenOverAndRejectedByFencing() throws InterruptedException {
+    LockLease stale = nodeA.tryAcquire(name, Duration.ofMillis(300)).orElseThrow();
+    // simulate a paused node: its renewals stop and the lease runs out
+    stale.stopRenewal();
+    Thread.sleep(500);
+
+    try (LockLease current = nodeB.tryAcquire(name, Duration.ofSeconds(10)).orElseThrow()) {
+      assertFalse(nodeA.isHeld(stale));
+      assertTrue(current.getFencingToken() > stale.getFencingToken());
+      // the stale holder must not delete the new owner's lock
+      stale.close();
+      assertTrue(nodeB.isHeld(current));
+    }
+  }
+
+  @Test
+  void holders_shouldListTheOwnerAndFencingToken() {
+    try (LockLease lease = nodeA.tryAcquire(name, Duration.ofSeconds(10)).orElseThrow()) {
+      LockHolderDTO holder = nodeB.getHolders().stream()
+          .filter(candidate -> candidate.name().equals(name))
+          .findFirst()
+          .orElseThrow();
+
+      assertEquals("node-a", holder.owner());
+      assertEquals(lease.getFencingToken(), holder.fencingToken());
+      assertTrue(holder.remainingLeaseMillis() > 0);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package fun.trackmoney.infra.redis;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class DistributedLockServiceTest {
+
+  private static final Duration LEASE = Duration.ofSeconds(30);
+  private static final List<String> JOB_KEYS = List.of("lock:job", "lock-fence:job");
+
+  private StringRedisTemplate redisTemplate;
+  private ValueOperations<String, String> valueOperations;
+  private ScheduledExecutorService renewals;
+  private ScheduledFuture<?> renewal;
+  private DistributedLockService lockService;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    redisTemplate = mock(StringRedisTemplate.class);
+    valueOperations = mock(ValueOperations.class);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    renewals = mock(ScheduledExecutorService.class);
+    renewal = mock(ScheduledFuture.class);
+    doReturn(renewal).when(renewals).scheduleAtFixedRate(any(Runnable.class), anyLong(), anyLong(), any());
+    lockService = new DistributedLockService(redisTemplate, renewals, "node-a");
+  }
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void tryAcquire_shouldReturnLeaseWithFencingTokenAndScheduleRenewal() {
+    acquireReturns(JOB_KEYS, 5L);
+
+    LockLease lease = lockService.tryAcquire("job", LEASE).orElseThrow();
+
+    assertEquals(5L, lease.getFencingToken());
+    assertTrue(lease.isHeld());
+    verify(renewals).scheduleAtFixedRate(any(Runnable.class), eq(10_000L), eq(10_000L), eq(TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void tryAcquire_shouldReturnEmptyWhenAnotherNodeHoldsTheLock() {
+    acquireReturns(JOB_KEYS, 0L);
+
+    assertTrue(lockService.tryAcquire("job", LEASE).isEmpty());
+    verifyNoInteractions(renewals);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void tryAcquire_shouldFailClosedWhenRedisIsDown() {
+    when(redisTemplate.execute(any(RedisScript.class), eq(JOB_KEYS), eq("node-a"), eq("30000")))
+        .thenThrow(new RedisConnectionFailureException("down"));
+
+    assertTrue(lockService.tryAcquire("job", LEASE).isEmpty());
+  }
+
+  @Test
+  void runExclusively_shouldReleaseTheLockOnceTheTaskReturns() {
+    acquireReturns(JOB_KEYS, 5L);
+    List<String> calls = new ArrayList<>();
+
+    boolean ran = lockService.runExclusively("job", LEASE, () -> calls.add("task"));
+
+    assertTrue(ran);
+    assertEquals(List.of("task"), calls);
+    verifyReleased("node-a|5");
+    verify(renewal).cancel(false);
+  }
+
+  @Test
+  void runExclusively_shouldSkipTheTaskWhenTheLockIsHeld() {
+    acquireReturns(JOB_KEYS, 0L);
+
+    boolean ran = lockService.runExclusively("job", LEASE, () -> fail("must not run"));
+
+    assertFalse(ran);
+  }
+
+  @Test
+  void callExclusively_shouldHoldTheLockUntilTheTransactionCompletes() {
+    acquireReturns(JOB_KEYS, 5L);
+    when(valueOperations.get("lock:job")).thenReturn("node-a|5");
+    TransactionSynchronizationManager.initSynchronization();
+
+    Optional<String> result = lockService.callExclusively("job", LEASE, lease -> "done");
+
+    assertEquals(Optional.of("done"), result);
+    verifyNotReleased();
+    TransactionSynchronization synchronization = TransactionSynchronizationManager.getSynchronizations().get(0);
+    assertDoesNotThrow(() -> synchronization.beforeCommit(false));
+    synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+    verifyReleased("node-a|5");
+  }
+
+  @Test
+  void callExclusively_shouldRollBackWhenTheLockWasTakenOverBeforeCommit() {
+    acquireReturns(JOB_KEYS, 5L);
+    when(valueOperations.get("lock:job")).thenReturn("node-b|6");
+    TransactionSynchronizationManager.initSynchronization();
+
+    lockService.callExclusively("job", LEASE, lease -> "done");
+
+    TransactionSynchronization synchronization = TransactionSynchronizationManager.getSynchronizations().get(0);
+    assertThrows(IllegalStateException.class, () -> synchronization.beforeCommit(false));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void renewal_shouldLoseTheLeaseWhenAnotherNodeOwnsTheLock() {
+    acquireReturns(JOB_KEYS, 5L);
+    LockLease lease = lockService.tryAcquire("job", LEASE).orElseThrow();
+    ArgumentCaptor<Runnable> renewTask = ArgumentCaptor.forClass(Runnable.class);
+    verify(renewals).scheduleAtFixedRate(renewTask.capture(), anyLong(), anyLong(), any());
+    when(redisTemplate.execute(any(RedisScript.class), eq(List.of("lock:job")), eq("node-a|5"), eq("30000")))
+        .thenReturn(0L);
+
+    renewTask.getValue().run();
+
+    assertFalse(lease.isHeld());
+    assertFalse(lockService.isHeld(lease));
+    verify(renewal).cancel(false);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void renewal_shouldKeepTheLeaseWhileRedisIsBrieflyUnavailable() {
+    acquireReturns(JOB_KEYS, 5L);
+    LockLease lease = lockService.tryAcquire("job", LEASE).orElseThrow();
+    ArgumentCaptor<Runnable> renewTask = ArgumentCaptor.forClass(Runnable.class);
+    verify(renewals).scheduleAtFixedRate(renewTask.capture(), anyLong(), anyLong(), any());
+    when(redisTemplate.execute(any(RedisScript.class), eq(List.of("lock:job")), eq("node-a|5"), eq("30000")))
+        .thenThrow(new RedisConnectionFailureException("down"));
+
+    renewTask.getValue().run();
+
+    assertTrue(lease.isHeld());
+    verify(renewal, never()).cancel(anyBoolean());
+  }
+
+  @Test
+  void forEachShard_shouldOnlyProcessTheShardsThisNodeClaims() {
+    acquireReturns(List.of("lock:rebuild:0", "lock-fence:rebuild:0"), 0L);
+    acquireReturns(List.of("lock:rebuild:1", "lock-fence:rebuild:1"), 3L);
+    acquireReturns(List.of("lock:rebuild:2", "lock-fence:rebuild:2"), 0L);
+    List<Integer> processed = new ArrayList<>();
+
+    int count = lockService.forEachShard("rebuild", 3, LEASE, processed::add);
+
+    assertEquals(1, count);
+    assertEquals(List.of(1), processed);
+    // a finished shard stays claimed until its lease runs out
+    verifyNotReleased();
+  }
+
+  @Test
+  void forEachShard_shouldReleaseAShardThatFailed() {
+    acquireReturns(List.of("lock:rebuild:0", "lock-fence:rebuild:0"), 3L);
+
+    assertThrows(IllegalStateException.class, () -> lockService.forEachShard("rebuild", 1, LEASE, shard -> {
+      throw new IllegalStateException("boom");
+    }));
+
+    verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("lock:rebuild:0")), eq("node-a|3"));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void acquireReturns(List<String> keys, long token) {
+    when(redisTemplate.execute(any(RedisScript.class), eq(keys), eq("node-a"), eq("30000"))).thenReturn(token);
+  }
+
+  @SuppressWarnings("unchecked")
+  private void verifyReleased(String value) {
+    verify(redisTemplate).execute(any(RedisScript.class), eq(List.of("lock:job")), eq(value));
+  }
+
+  @SuppressWarnings("unchecked")
+  private void verifyNotReleased() {
+    verify(redisTemplate, never()).execute(any(RedisScript.class), anyList(), anyString());
+  }
+}
@@ -0,0 +1,117 @@
+package fun.trackmoney.infra.redis;
+
+import fun.trackmoney.dto.metrics.response.MonthlySummaryDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class MetricsCacheServiceTest {
+
+  private static final String VIEW_KEY = MetricsCacheService.key("monthly-summary", 2025, null);
+
+  private CacheManagerService cacheManagerService;
+  private ValueOperations<String, String> valueOperations;
+  private SimpleMeterRegistry meterRegistry;
+  private MetricsCacheService metricsCacheService;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void setUp() {
+    cacheManagerService = mock(CacheManagerService.class);
+    StringRedisTemplate redisTemplate = mock(StringRedisTemplate.class);
+    valueOperations = mock(ValueOperations.class);
+    when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    meterRegistry = new SimpleMeterRegistry();
+    metricsCacheService = new MetricsCacheService(cacheManagerService, redisTemplate, meterRegistry);
+  }
+
+  @Test
+  void key_shouldJoinViewAndParameters() {
+    assertEquals("monthly-summary:2025:null", VIEW_KEY);
+  }
+
+  @Test
+  void getOrLoad_shouldComputeAndStoreOnMiss() {
+    MonthlySummaryDTO computed = new MonthlySummaryDTO(List.of());
+    when(valueOperations.get("metrics:version:7")).thenReturn(null);
+
+    MonthlySummaryDTO result = metricsCacheService.getOrLoad(7, VIEW_KEY, MonthlySummaryDTO.class, () -> computed);
+
+    assertSame(computed, result);
+    verify(cacheManagerService).put(MetricsCacheService.METRICS_CACHE, "7:v0:" + VIEW_KEY, computed);
+    assertEquals(1, lookups("miss"));
+  }
+
+  @Test
+  void getOrLoad_shouldReturnCachedValueForCurrentVersion() {
+    MonthlySummaryDTO cached = new MonthlySummaryDTO(List.of());
+    AtomicInteger loads = new AtomicInteger();
+    when(valueOperations.get("metrics:version:7")).thenReturn("3");
+    when(cacheManagerService.get(MetricsCacheService.METRICS_CACHE, "7:v3:" + VIEW_KEY, MonthlySummaryDTO.class))
+        .thenReturn(cached);
+
+    MonthlySummaryDTO result = metricsCacheService.getOrLoad(7, VIEW_KEY, MonthlySummaryDTO.class, () -> {
+      loads.incrementAndGet();
+      return null;
+    });
+
+    assertSame(cached, result);
+    assertEquals(0, loads.get());
+    assertEquals(1, lookups("hit"));
+  }
+
+  @Test
+  void getOrLoad_shouldComputeDirectlyWhenRedisIsDown() {
+    MonthlySummaryDTO computed = new MonthlySummaryDTO(List.of());
+    when(valueOperations.get("metrics:version:7")).thenThrow(new RedisConnectionFailureException("down"));
+
+    MonthlySummaryDTO result = metricsCacheService.getOrLoad(7, VIEW_KEY, MonthlySummaryDTO.class, () -> computed);
+
+    assertSame(computed, result);
+    verify(cacheManagerService, never()).put(any(), any(), any());
+    assertEquals(1, lookups("error"));
+  }
+
+  @Test
+  void invalidate_shouldBumpVersionImmediatelyOutsideTransaction() {
+    metricsCacheService.invalidate(7);
+
+    verify(valueOperations).increment("metrics:version:7");
+  }
+
+  @Test
+  void invalidate_shouldBumpVersionOnlyAfterCommit() {
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      metricsCacheService.invalidate(7);
+      verify(valueOperations, never()).increment(any());
+
+      TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+      verify(valueOperations).increment("metrics:version:7");
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  void invalidate_shouldNotFailWhenRedisIsDown() {
+    when(valueOperations.increment("metrics:version:7")).thenThrow(new RedisConnectionFailureException("down"));
+
+    assertDoesNotThrow(() -> metricsCacheService.invalidate(7));
+  }
+
+  private long lookups(String result) {
+    return meterRegistry.get("trackmoney.metrics.cache.lookup").tag("result", result).timer().count();
+  }
+}
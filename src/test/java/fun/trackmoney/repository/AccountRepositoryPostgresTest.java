@@ -0,0 +1,103 @@
+package fun.trackmoney.repository;
+
+import fun.trackmoney.entity.AccountEntity;
+import fun.trackmoney.entity.UserEntity;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the balance update against a real PostgreSQL at SPRING_DATASOURCE_URL (the developerDB on localhost:5432
+ * by default), e.g. {@code docker run -p 5432:5432 -e POSTGRES_USER=developerDB -e POSTGRES_PASSWORD=developerDB
+ * postgres}. Flyway migrates it first. Skipped when no database answers there.
+ */
+@DataJpaTest(properties = "spring.flyway.enabled=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIf("postgresAvailable")
+class AccountRepositoryPostgresTest {
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private UserEntity user;
+  private AccountEntity account;
+
+  static boolean postgresAvailable() {
+    DriverManager.setLoginTimeout(2);
+    try (Connection connection = DriverManager.getConnection(
+        System.getenv().getOrDefault("SPRING_DATASOURCE_URL", "jdbc:postgresql://localhost:5432/developerDB"),
+        System.getenv().getOrDefault("SPRING_DATASOURCE_USERNAME", "developerDB"),
+        System.getenv().getOrDefault("SPRING_DATASOURCE_PASSWORD", "developerDB"))) {
+      return connection.isValid(2);
+    } catch (SQLException e) {
+      return false;
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new UserEntity(null, "Concurrent", UUID.randomUUID() + "@example.com", "hash", true));
+    account = accountRepository.save(new AccountEntity(null, user, "Concurrent", BigDecimal.ZERO));
+  }
+
+  @AfterEach
+  void tearDown() {
+    accountRepository.deleteById(account.getAccountId());
+    userRepository.deleteById(user.getUserId());
+  }
+
+  @Test
+  void addToBalanceShouldKeepEveryConcurrentWrite() throws InterruptedException {
+    int writers = 16;
+    int writesPerWriter = 100;
+    ExecutorService executor = Executors.newFixedThreadPool(writers);
+    CountDownLatch start = new CountDownLatch(1);
+    for (int w = 0; w < writers; w++) {
+      BigDecimal delta = w % 4 == 0 ? new BigDecimal("-1.25") : new BigDecimal("1.25");
+      executor.execute(() -> {
+        awaitQuietly(start);
+        for (int i = 0; i < writesPerWriter; i++) {
+          accountRepository.addToBalance(account.getAccountId(), delta);
+        }
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+
+    // 12 crediting writers and 4 debiting writers, 100 writes of 1.25 each
+    BigDecimal balance = accountRepository.findById(account.getAccountId()).orElseThrow().getBalance();
+    assertEquals(0, new BigDecimal("1000.00").compareTo(balance), "balance was " + balance);
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,182 @@
+package fun.trackmoney.repository;
+
+import fun.trackmoney.entity.AccountEntity;
+import fun.trackmoney.entity.BudgetHistoryEntity;
+import fun.trackmoney.entity.BudgetsEntity;
+import fun.trackmoney.entity.CategoryEntity;
+import fun.trackmoney.entity.RecurringEntity;
+import fun.trackmoney.entity.UserEntity;
+import fun.trackmoney.enums.BudgetStatus;
+import fun.trackmoney.enums.Frequency;
+import fun.trackmoney.enums.TransactionType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Runs the set-based monthly history insert against a real PostgreSQL, set up as described on
+ * {@link AccountRepositoryPostgresTest}. Skipped when no database answers there.
+ */
+@DataJpaTest(properties = "spring.flyway.enabled=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@EnabledIf("fun.trackmoney.repository.AccountRepositoryPostgresTest#postgresAvailable")
+class BudgetHistoryRepositoryPostgresTest {
+
+  private static final short MONTH = 3;
+  private static final int YEAR = 2024;
+
+  @Autowired
+  private BudgetHistoryRepository budgetHistoryRepository;
+
+  @Autowired
+  private BudgetsRepository budgetsRepository;
+
+  @Autowired
+  private RecurringRepository recurringRepository;
+
+  @Autowired
+  private AccountMonthSummaryRepository accountMonthSummaryRepository;
+
+  @Autowired
+  private CategoryRepository categoryRepository;
+
+  @Autowired
+  private AccountRepository accountRepository;
+
+  @Autowired
+  private UserRepository userRepository;
+
+  private UserEntity user;
+  private AccountEntity account;
+  private CategoryEntity category;
+
+  @BeforeEach
+  void setUp() {
+    user = userRepository.save(new UserEntity(null, "History", UUID.randomUUID() + "@example.com", "hash", true));
+    account = accountRepository.save(new AccountEntity(null, user, "History", BigDecimal.ZERO));
+    category = categoryRepository.findAll().get(0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    budgetHistoryRepository.deleteAll(history());
+    budgetsRepository.deleteAll(budgetsRepository.findAllByAccountAccountId(account.getAccountId()));
+    recurringRepository.deleteAll(recurringRepository.findAllByAccountId(account.getAccountId()));
+    accountMonthSummaryRepository.deleteAllByAccountId(account.getAccountId());
+    accountRepository.deleteById(account.getAccountId());
+    userRepository.deleteById(user.getUserId());
+  }
+
+  @Test
+  void shouldMarkTheBudgetExceeded_whenSpentIsAboveTheRoundedTarget() {
+    addBudget((short) 10);
+    addToMonth(TransactionType.INCOME, "333.33");
+    addToMonth(TransactionType.EXPENSE, "40.00");
+
+    assertEquals(1, insert());
+
+    BudgetHistoryEntity history = history().get(0);
+    assertAmount("333.33", history.getTotalIncome());
+    assertAmount("33.33", history.getTargetAmount());
+    assertAmount("40.00", history.getSpentAmount());
+    assertAmount("-6.67", history.getRemainingAmount());
+    assertEquals(BudgetStatus.EXCEEDED, history.getStatus());
+  }
+
+  @Test
+  void shouldRecordZeroSpent_whenTheMonthHasNoExpenses() {
+    addBudget((short) 25);
+    addToMonth(TransactionType.INCOME, "1000.00");
+
+    assertEquals(1, insert());
+
+    BudgetHistoryEntity history = history().get(0);
+    assertAmount("250.00", history.getTargetAmount());
+    assertAmount("0", history.getSpentAmount());
+    assertAmount("250.00", history.getRemainingAmount());
+    assertEquals(BudgetStatus.WITHIN_LIMIT, history.getStatus());
+  }
+
+  @Test
+  void shouldUseRecurringIncomeInsteadOfTheMonthIncome() {
+    addBudget((short) 10);
+    addToMonth(TransactionType.INCOME, "1000.00");
+    recurringRepository.save(new RecurringEntity(null, Frequency.MONTHLY, LocalDateTime.of(YEAR, MONTH, 5, 0, 0),
+        null, account, category, TransactionType.INCOME, new BigDecimal("2500.00"), null, "Salary"));
+
+    assertEquals(1, insert());
+
+    BudgetHistoryEntity history = history().get(0);
+    assertAmount("2500.00", history.getTotalIncome());
+    assertAmount("250.00", history.getTargetAmount());
+  }
+
+  @Test
+  void shouldInsertNothing_whenTheMonthAlreadyHasHistory() {
+    addBudget((short) 10);
+    addToMonth(TransactionType.INCOME, "1000.00");
+
+    assertEquals(1, insert());
+    assertEquals(0, insert());
+    assertEquals(1, history().size());
+  }
+
+  @Test
+  void shouldNumberRowsInsideReservedIdBlocks_whenTheChunkHasMoreThanOneBlockOfBudgets() {
+    int budgets = 60;
+    for (int i = 0; i < budgets; i++) {
+      addBudget((short) 1);
+    }
+    addToMonth(TransactionType.INCOME, "1000.00");
+
+    assertEquals(budgets, insert());
+
+    List<Integer> ids = history().stream().map(BudgetHistoryEntity::getHistoryId).sorted().toList();
+    assertEquals(budgets, ids.stream().distinct().count());
+    // Rows 0-49 fill the first block, rows 50-59 the start of a second block drawn by its own nextval
+    for (int i = 1; i < budgets; i++) {
+      if (i != 50) {
+        assertEquals(ids.get(i - 1) + 1, ids.get(i), "ids " + ids);
+      }
+    }
+    assertTrue(ids.get(50) >= ids.get(0) + 50, "ids " + ids);
+    assertEquals(0, (ids.get(50) - ids.get(0)) % 50, "ids " + ids);
+  }
+
+  private void addBudget(short percent) {
+    budgetsRepository.save(new BudgetsEntity(null, category, account, percent));
+  }
+
+  private void addToMonth(TransactionType type, String amount) {
+    accountMonthSummaryRepository.addToBucket(account.getAccountId(), YEAR, MONTH, category.getCategoryId(),
+        type.name(), new BigDecimal(amount), 1);
+  }
+
+  private int insert() {
+    return budgetHistoryRepository.insertMonthlyHistory(account.getAccountId(), account.getAccountId(), MONTH, YEAR);
+  }
+
+  private List<BudgetHistoryEntity> history() {
+    return budgetHistoryRepository.findByAccountAccountIdOrderByReferenceYearDescReferenceMonthDesc(
+        account.getAccountId());
+  }
+
+  private static void assertAmount(String expected, BigDecimal actual) {
+    assertEquals(0, new BigDecimal(expected).compareTo(actual), "amount was " + actual);
+  }
+}
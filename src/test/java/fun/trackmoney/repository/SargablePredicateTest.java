@@ -0,0 +1,113 @@
+package fun.trackmoney.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Query;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the filters of the repository queries against predicates Postgres cannot answer from an index:
+ * functions applied to a date column, and inequalities over the separate budget history year/month columns.
+ * Month ranges go through tb_budget_history.reference_date, transaction ranges through transaction_date.
+ */
+class SargablePredicateTest {
+
+  private static final List<Class<?>> REPOSITORIES = List.of(
+      AccountMonthSummaryRepository.class,
+      AccountRepository.class,
+      BudgetHistoryJobChunkRepository.class,
+      BudgetHistoryJobRepository.class,
+      BudgetHistoryRepository.class,
+      BudgetsRepository.class,
+      CategoryRepository.class,
+      PotsRepository.class,
+      RecurringRepository.class,
+      TransactionRepository.class,
+      UserRepository.class
+  );
+
+  private static final Pattern CLAUSE = Pattern.compile(
+      "\\b(FROM|GROUP\\s+BY|ORDER\\s+BY|ON\\s+CONFLICT)\\b", Pattern.CASE_INSENSITIVE);
+  private static final Pattern DATE_FUNCTION = Pattern.compile(
+      "\\b(EXTRACT|DATE_PART|DATE_TRUNC|YEAR|MONTH)\\s*\\(", Pattern.CASE_INSENSITIVE);
+  private static final Pattern SPLIT_MONTH_RANGE = Pattern.compile(
+      "reference_?(year|month)\\s*(<|>)", Pattern.CASE_INSENSITIVE);
+
+  @Test
+  void queryFiltersShouldNotWrapDateColumnsInFunctions() {
+    List<String> offenders = offendingMethods(DATE_FUNCTION);
+
+    assertTrue(offenders.isEmpty(), "Non-sargable date predicates in " + offenders);
+  }
+
+  @Test
+  void budgetHistoryRangesShouldUseReferenceDate() {
+    List<String> offenders = offendingMethods(SPLIT_MONTH_RANGE);
+
+    assertTrue(offenders.isEmpty(), "Year/month inequality predicates in " + offenders);
+  }
+
+  @Test
+  void filterExtractionShouldIgnoreGrouping() {
+    String query = "SELECT EXTRACT(YEAR FROM t.d) FROM tb t WHERE t.d >= :s GROUP BY EXTRACT(YEAR FROM t.d)";
+
+    assertTrue(filterOf(query).toUpperCase(Locale.ROOT).contains("WHERE T.D >= :S"));
+    assertTrue(!DATE_FUNCTION.matcher(filterOf(query)).find());
+  }
+
+  private static List<String> offendingMethods(Pattern predicate) {
+    List<String> offenders = new ArrayList<>();
+    for (Class<?> repository : REPOSITORIES) {
+      for (Method method : repository.getDeclaredMethods()) {
+        Query query = method.getAnnotation(Query.class);
+        if (query != null && predicate.matcher(filterOf(query.value())).find()) {
+          offenders.add(repository.getSimpleName() + "." + method.getName());
+        }
+      }
+    }
+    return offenders;
+  }
+
+  /**
+   * Returns the filtering part of a query: from its top-level FROM up to a top-level grouping, ordering or
+   * upsert clause. Clauses inside parentheses, like the FROM of EXTRACT(YEAR FROM ...), are skipped.
+   */
+  private static String filterOf(String query) {
+    int[] depth = parenthesisDepth(query);
+    Matcher clause = CLAUSE.matcher(query);
+    int start = -1;
+    while (clause.find()) {
+      if (depth[clause.start()] != 0) {
+        continue;
+      }
+      if (start < 0 && clause.group(1).equalsIgnoreCase("FROM")) {
+        start = clause.end();
+      } else if (start >= 0 && !clause.group(1).equalsIgnoreCase("FROM")) {
+        return query.substring(start, clause.start());
+      }
+    }
+    return start < 0 ? "" : query.substring(start);
+  }
+
+  private static int[] parenthesisDepth(String query) {
+    int[] depth = new int[query.length()];
+    int current = 0;
+    for (int i = 0; i < query.length(); i++) {
+      if (query.charAt(i) == ')') {
+        current--;
+      }
+      depth[i] = current;
+      if (query.charAt(i) == '(') {
+        current++;
+      }
+    }
+    return depth;
+  }
+}
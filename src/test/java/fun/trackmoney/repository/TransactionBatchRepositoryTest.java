@@ -0,0 +1,57 @@
+package fun.trackmoney.repository;
+
+import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.testutils.TransactionEntityFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TransactionBatchRepositoryTest {
+
+  private JdbcTemplate jdbcTemplate;
+  private TransactionBatchRepository transactionBatchRepository;
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate = mock(JdbcTemplate.class);
+    transactionBatchRepository = new TransactionBatchRepository(jdbcTemplate);
+  }
+
+  @Test
+  void insertAll_shouldAssignIdsFromReservedBlocks() {
+    List<TransactionEntity> transactions = new ArrayList<>();
+    for (int i = 0; i < TransactionBatchRepository.ID_BLOCK_SIZE + 2; i++) {
+      transactions.add(TransactionEntityFactory.defaultExpenseNow().setTransactionId(null));
+    }
+    when(jdbcTemplate.queryForList(anyString(), eq(Long.class), eq(2))).thenReturn(List.of(101L, 501L));
+
+    transactionBatchRepository.insertAll(transactions, 1000);
+
+    assertEquals(101, transactions.get(0).getTransactionId());
+    assertEquals(150, transactions.get(TransactionBatchRepository.ID_BLOCK_SIZE - 1).getTransactionId());
+    assertEquals(501, transactions.get(TransactionBatchRepository.ID_BLOCK_SIZE).getTransactionId());
+    assertEquals(502, transactions.get(TransactionBatchRepository.ID_BLOCK_SIZE + 1).getTransactionId());
+    verify(jdbcTemplate).batchUpdate(anyString(), eq(transactions), eq(1000),
+        ArgumentMatchers.<ParameterizedPreparedStatementSetter<TransactionEntity>>any());
+  }
+
+  @Test
+  void insertAll_shouldDoNothingForEmptyList() {
+    transactionBatchRepository.insertAll(List.of(), 1000);
+
+    verifyNoInteractions(jdbcTemplate);
+  }
+}
@@ -0,0 +1,83 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.repository.AccountMonthSummaryRepository;
+import fun.trackmoney.testutils.TransactionEntityFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class AccountMonthSummaryServiceTest {
+
+  @Mock
+  private AccountMonthSummaryRepository accountMonthSummaryRepository;
+
+  @Mock
+  private AccountService accountService;
+
+  @InjectMocks
+  private AccountMonthSummaryService accountMonthSummaryService;
+
+  @Test
+  void record_shouldAddAmountAndOneToTheTransactionBucket() {
+    TransactionEntity transaction = TransactionEntityFactory.defaultExpenseNow()
+        .setTransactionDate(LocalDateTime.of(2025, 3, 10, 12, 0));
+
+    accountMonthSummaryService.record(transaction);
+
+    verify(accountMonthSummaryRepository).addToBucket(1, 2025, 3, 1, "EXPENSE", transaction.getAmount(), 1);
+  }
+
+  @Test
+  void retract_shouldSubtractAmountAndOneFromTheTransactionBucket() {
+    TransactionEntity transaction = TransactionEntityFactory.defaultIncomeNow()
+        .setAmount(new BigDecimal("80.00"))
+        .setTransactionDate(LocalDateTime.of(2025, 3, 10, 12, 0));
+
+    accountMonthSummaryService.retract(transaction);
+
+    verify(accountMonthSummaryRepository).addToBucket(1, 2025, 3, 3, "INCOME", new BigDecimal("-80.00"), -1);
+  }
+
+  @Test
+  void recordAll_shouldUpsertOncePerBucket() {
+    LocalDateTime march = LocalDateTime.of(2025, 3, 10, 12, 0);
+    List<TransactionEntity> transactions = List.of(
+        TransactionEntityFactory.defaultExpenseNow().setAmount(new BigDecimal("10.00")).setTransactionDate(march),
+        TransactionEntityFactory.defaultExpenseNow().setAmount(new BigDecimal("5.50")).setTransactionDate(march),
+        TransactionEntityFactory.defaultExpenseNow().setAmount(new BigDecimal("7.00"))
+            .setTransactionDate(march.plusMonths(1)));
+
+    accountMonthSummaryService.recordAll(transactions);
+
+    verify(accountMonthSummaryRepository).addToBucket(1, 2025, 3, 1, "EXPENSE", new BigDecimal("15.50"), 2);
+    verify(accountMonthSummaryRepository).addToBucket(1, 2025, 4, 1, "EXPENSE", new BigDecimal("7.00"), 1);
+    verify(accountMonthSummaryRepository, times(2))
+        .addToBucket(anyInt(), anyInt(), anyInt(), anyInt(), anyString(), any(), anyInt());
+  }
+
+  @Test
+  void rebuildAccount_shouldLockAccountBeforeReplacingRows() {
+    accountMonthSummaryService.rebuildAccount(7);
+
+    InOrder order = inOrder(accountService, accountMonthSummaryRepository);
+    order.verify(accountService).lockAccount(7);
+    order.verify(accountMonthSummaryRepository).deleteAllByAccountId(7);
+    order.verify(accountMonthSummaryRepository).insertFromTransactions(7);
+  }
+}
@@ -19,6 +19,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 class AccountServiceTest {
@@ -137,23 +138,25 @@ class AccountServiceTest {
 
   @Test
   void testUpdateAccountBalanceSum() {
-    AccountEntity account = new AccountEntity(1, null, "Test Account", BigDecimal.valueOf(100));
-    when(accountRepository.findById(1)).thenReturn(Optional.of(account));
-    when(accountRepository.save(account)).thenReturn(account);
+    when(accountRepository.addToBalance(1, BigDecimal.valueOf(100))).thenReturn(Optional.of(BigDecimal.valueOf(200)));
 
-    accountService.updateAccountBalance(BigDecimal.valueOf(100), 1, true);
-    assertEquals(new BigDecimal("200"), account.getBalance());
-    verify(accountRepository, times(1)).save(account);
+    assertTrue(accountService.updateAccountBalance(BigDecimal.valueOf(100), 1, true));
+    verify(accountRepository, never()).findById(any());
+    verify(accountRepository, never()).save(any());
   }
 
   @Test
   void testUpdateAccountBalanceSub() {
-    AccountEntity account = new AccountEntity(1, null, "Test Account", BigDecimal.valueOf(100));
-    when(accountRepository.findById(1)).thenReturn(Optional.of(account));
-    when(accountRepository.save(account)).thenReturn(any());
+    when(accountRepository.addToBalance(1, BigDecimal.valueOf(-100))).thenReturn(Optional.of(BigDecimal.ZERO));
+
+    assertTrue(accountService.updateAccountBalance(BigDecimal.valueOf(100), 1, false));
+    verify(accountRepository, times(1)).addToBalance(1, BigDecimal.valueOf(-100));
+  }
+
+  @Test
+  void testUpdateAccountBalanceReturnsFalseWhenAccountIsMissing() {
+    when(accountRepository.addToBalance(99, BigDecimal.TEN)).thenReturn(Optional.empty());
 
-    accountService.updateAccountBalance(BigDecimal.valueOf(100), 1, false);
-    assertEquals(new BigDecimal("0"), account.getBalance());
-    verify(accountRepository, times(1)).save(account);
+    assertFalse(accountService.updateAccountBalance(BigDecimal.TEN, 99, true));
   }
 }
@@ -16,28 +16,32 @@ import fun.trackmoney.dto.auth.internal.login.LoginSuccess;
 import fun.trackmoney.dto.auth.internal.register.UserRegisterFailure;
 import fun.trackmoney.dto.auth.internal.register.UserRegisterResult;
 import fun.trackmoney.dto.auth.internal.register.UserRegisterSuccess;
+import fun.trackmoney.infra.jwt.JwtClaims;
 import fun.trackmoney.infra.jwt.JwtService;
+import fun.trackmoney.infra.jwt.TokenRevocationService;
 import fun.trackmoney.infra.email.EmailService;
 import fun.trackmoney.infra.redis.CacheManagerService;
 import fun.trackmoney.dto.user.UserRequestDTO;
 import fun.trackmoney.dto.user.UserResponseDTO;
 import fun.trackmoney.entity.UserEntity;
 import fun.trackmoney.service.UserService;
-import jakarta.mail.MessagingException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import fun.trackmoney.infra.auth.PasswordHashingService;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.security.SecureRandom;
+import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -45,12 +49,16 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -62,7 +70,7 @@ class AuthServiceTest {
   private SecureRandom secureRandom;
 
   @Mock
-  private PasswordEncoder passwordEncoder;
+  private PasswordHashingService passwordHashingService;
 
   @Mock
   private UserService userService;
@@ -76,6 +84,12 @@ class AuthServiceTest {
   @Mock
   private CacheManagerService cacheManagerService;
 
+  @Mock
+  private TokenRevocationService tokenRevocationService;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
   @InjectMocks
   @Spy
   private AuthService authService;
@@ -88,12 +102,13 @@ class AuthServiceTest {
   private static final String CACHE_NAME = "EmailVerificationCodes";
 
   @Test
-  void shouldRegisterUserAndSendVerificationEmail_whenUserRequestIsValid() throws MessagingException {
+  void shouldRegisterUserAndSendVerificationEmail_whenUserRequestIsValid() {
     UserRequestDTO registerDto = new UserRequestDTO("John Doe", "test@example.com", "Password1#");
     UserResponseDTO responseDTO = new UserResponseDTO(UUID.randomUUID(), "John Doe", "test@example.com");
     UserRegisterSuccess userRegisterSuccess = new UserRegisterSuccess(responseDTO);
 
-    when(userService.register(registerDto)).thenReturn(userRegisterSuccess);
+    when(passwordHashingService.hash(registerDto.password())).thenReturn("hash");
+    when(userService.register(registerDto, "hash")).thenReturn(userRegisterSuccess);
     when(cacheManagerService.put(eq(CACHE_NAME), anyInt(), eq(registerDto.email()))).thenReturn(true);
     doNothing().when(emailService)
         .sendEmailToVerifyEmail(eq(registerDto.email()), eq(registerDto.name()), anyInt());
@@ -107,12 +122,13 @@ class AuthServiceTest {
   }
 
   @Test
-  void shouldRetryGeneratingVerificationCode_whenCodeSavingFails() throws MessagingException {
+  void shouldRetryGeneratingVerificationCode_whenCodeSavingFails() {
     UserRequestDTO registerDto = new UserRequestDTO("John Doe", "test@example.com", "Password1#");
     UserResponseDTO responseDTO = new UserResponseDTO(UUID.randomUUID(), "John Doe", "test@example.com");
     UserRegisterSuccess userRegisterSuccess = new UserRegisterSuccess(responseDTO);
 
-    when(userService.register(registerDto)).thenReturn(userRegisterSuccess);
+    when(passwordHashingService.hash(registerDto.password())).thenReturn("hash");
+    when(userService.register(registerDto, "hash")).thenReturn(userRegisterSuccess);
     when(cacheManagerService.put(eq(CACHE_NAME), anyInt(), eq(registerDto.email()))).thenReturn(false, true);
     doNothing().when(emailService)
         .sendEmailToVerifyEmail(eq(registerDto.email()), eq(registerDto.name()), anyInt());
@@ -126,38 +142,50 @@ class AuthServiceTest {
   }
 
   @Test
-  void shouldReturnSuccessfulRegistration_whenEmailSendingFails() throws MessagingException, IOException {
+  void shouldRollBackTheRegistration_whenTheVerificationEmailCannotBeQueued() {
     UserRequestDTO registerDto = new UserRequestDTO("John Doe", "test@example.com", "Password1#");
     UserResponseDTO responseDTO = new UserResponseDTO(UUID.randomUUID(), "John Doe", "test@example.com");
-    UserRegisterSuccess userRegisterSuccess = new UserRegisterSuccess(responseDTO);
+    IllegalStateException failure = new IllegalStateException("outbox unavailable");
 
-    when(userService.register(registerDto)).thenReturn(userRegisterSuccess);
+    when(passwordHashingService.hash(registerDto.password())).thenReturn("hash");
+    when(userService.register(registerDto, "hash")).thenReturn(new UserRegisterSuccess(responseDTO));
     when(cacheManagerService.put(eq(CACHE_NAME), anyInt(), eq(registerDto.email()))).thenReturn(true);
-    doThrow(new MessagingException()).when(emailService)
+    doThrow(failure).when(emailService)
         .sendEmailToVerifyEmail(eq(registerDto.email()), eq(registerDto.name()), anyInt());
 
-    UserRegisterResult actualResponse;
+    assertSame(failure, assertThrows(IllegalStateException.class, () -> authService.register(registerDto)));
+    verify(transactionManager).rollback(any());
+    verify(transactionManager, never()).commit(any());
+  }
 
-    actualResponse = authService.register(registerDto);
+  @Test
+  void shouldHashThePasswordBeforeOpeningTheTransaction() {
+    UserRequestDTO registerDto = new UserRequestDTO("John Doe", "test@example.com", "Password1#");
+    when(passwordHashingService.hash(registerDto.password())).thenReturn("hash");
+    when(userService.register(registerDto, "hash")).thenReturn(new UserRegisterFailure(AuthError.EMAIL_ALREADY_EXISTS));
 
-    assertInstanceOf(UserRegisterSuccess.class, actualResponse);
-    verify(emailService, times(1)).sendEmailToVerifyEmail(eq(responseDTO.email()), eq(responseDTO.name()), anyInt());
-    verify(cacheManagerService, times(1)).put(eq(CACHE_NAME), anyInt(), eq(responseDTO.email()));
-    assertEquals(responseDTO, ((UserRegisterSuccess) actualResponse).user());
+    authService.register(registerDto);
+
+    InOrder order = inOrder(passwordHashingService, transactionManager, userService);
+    order.verify(passwordHashingService).hash(registerDto.password());
+    order.verify(transactionManager).getTransaction(any());
+    order.verify(userService).register(registerDto, "hash");
+    order.verify(transactionManager).commit(any());
   }
 
   @Test
-  void shouldNotProcessVerificationCode_whenRegistrationFails() throws MessagingException  {
+  void shouldNotProcessVerificationCode_whenRegistrationFails() {
     UserRequestDTO registerDto = new UserRequestDTO("John Doe", "test@example.com", "Password1#");
     UserRegisterFailure userRegisterSuccess = new UserRegisterFailure(AuthError.EMAIL_ALREADY_EXISTS);
 
-    when(userService.register(registerDto)).thenReturn(userRegisterSuccess);
+    when(passwordHashingService.hash(registerDto.password())).thenReturn("hash");
+    when(userService.register(registerDto, "hash")).thenReturn(userRegisterSuccess);
 
     UserRegisterResult actualResponse = authService.register(registerDto);
 
     assertInstanceOf(UserRegisterFailure.class, actualResponse);
     verify(emailService, times(0)).sendEmailToVerifyEmail(any(), any(), any());
-    verify(userService, times(1)).register(registerDto);
+    verify(userService, times(1)).register(registerDto, "hash");
     assertEquals(userRegisterSuccess.errorList().getMessage(), ((UserRegisterFailure) actualResponse).errorList().getMessage());
   }
 
@@ -194,7 +222,7 @@ class AuthServiceTest {
     LoginResponseDTO loginResponseDTO = new LoginResponseDTO(expectedAccessToken, expectedRefreshToken);
 
     when(userService.findUserByEmail(loginDto.email())).thenReturn(Optional.of(user));
-    when(passwordEncoder.matches(loginDto.password(), user.getPassword())).thenReturn(true);
+    when(passwordHashingService.matches(loginDto.password(), user.getPassword())).thenReturn(true);
     when(jwtService.generateAccessToken(user.getEmail())).thenReturn(expectedAccessToken);
     when(jwtService.generateRefreshToken(user.getEmail())).thenReturn(expectedRefreshToken);
 
@@ -205,13 +233,29 @@ class AuthServiceTest {
     assertEquals(loginResponseDTO, actualLoginResponse);
   }
 
+  @Test
+  void shouldRehashAnOutdatedPasswordOnSuccessfulLogin() {
+    LoginRequestDTO loginDto = new LoginRequestDTO("test@example.com", "Password1#");
+    UserEntity user = new UserEntity(UUID.randomUUID(), "John Doe", "test@example.com", "cost10Hash", true);
+
+    when(userService.findUserByEmail(loginDto.email())).thenReturn(Optional.of(user));
+    when(passwordHashingService.matches(loginDto.password(), "cost10Hash")).thenReturn(true);
+    when(passwordHashingService.upgrade(loginDto.password(), "cost10Hash")).thenReturn(Optional.of("cost12Hash"));
+
+    LoginResult response = authService.login(loginDto);
+
+    assertInstanceOf(LoginSuccess.class, response);
+    assertEquals("cost12Hash", user.getPassword());
+    verify(userService, times(1)).update(user);
+  }
+
   @Test
   void shouldReturnLoginFailureWhenPasswordIsInvalid() {
     LoginRequestDTO loginDto = new LoginRequestDTO("test@example.com", "WrongPassword");
     UserEntity user = new UserEntity(UUID.randomUUID(), "John Doe", "test@example.com", "encodedPassword", true);
 
     when(userService.findUserByEmail(loginDto.email())).thenReturn(Optional.of(user));
-    when(passwordEncoder.matches(loginDto.password(), user.getPassword())).thenReturn(false);
+    when(passwordHashingService.matches(loginDto.password(), user.getPassword())).thenReturn(false);
 
     LoginResult response = authService.login(loginDto);
 
@@ -245,7 +289,7 @@ class AuthServiceTest {
 
     when(jwtService.generateVerificationToken(unverifiedUser.getEmail())).thenReturn(verificationToken);
     when(userService.findUserByEmail(loginRequest.email())).thenReturn(Optional.of(unverifiedUser));
-    when(passwordEncoder.matches(loginRequest.password(), unverifiedUser.getPassword())).thenReturn(true);
+    when(passwordHashingService.matches(loginRequest.password(), unverifiedUser.getPassword())).thenReturn(true);
     LoginResult result = authService.login(loginRequest);
 
     assertInstanceOf(LoginSuccess.class, result);
@@ -312,7 +356,7 @@ class AuthServiceTest {
     UserEntity user = new UserEntity(null, "John", "john@example.com", "123", false);
 
     when(cacheManagerService.put(eq(CACHE_NAME), anyInt(), eq(user.getEmail()))).thenReturn(true);
-    doThrow(new MessagingException("fail")).when(emailService)
+    doThrow(new IllegalStateException("fail")).when(emailService)
         .sendEmailToVerifyEmail(eq(user.getEmail()), eq(user.getName()), anyInt());
 
     VerificationEmailResult result = authService.resendVerificationEmail(user);
@@ -354,7 +398,7 @@ class AuthServiceTest {
   }
 
   @Test
-  void shouldReturnFailure_whenUserIsNotRegistered() throws MessagingException {
+  void shouldReturnFailure_whenUserIsNotRegistered() {
     String email = "notfound@example.com";
     when(userService.findUserByEmail(email)).thenReturn(Optional.empty());
 
@@ -376,7 +420,7 @@ class AuthServiceTest {
 
     when(userService.findUserByEmail(email)).thenReturn(Optional.of(user));
     when(jwtService.generateResetPasswordToken(email)).thenReturn(jwtCode);
-    doThrow(new MessagingException("fail"))
+    doThrow(new IllegalStateException("fail"))
         .when(emailService).sendEmailToResetPassword(email, user.getName(), expectedLink);
 
     ForgotPasswordResult result = authService.forgotPassword(email);
@@ -412,7 +456,7 @@ class AuthServiceTest {
     UserEntity mockUser = new UserEntity(UUID.randomUUID(), "soma name", mockEmail, "oldPassword", true);
 
     when(userService.findUserByEmail(mockEmail)).thenReturn(Optional.of(mockUser));
-    when(passwordEncoder.encode(newPassword)).thenReturn(newPassword);
+    when(passwordHashingService.hash(newPassword)).thenReturn(newPassword);
     doNothing().when(userService).update(any());
 
     ForgotPasswordResult response = authService.resetPassword(mockEmail, newPassword);
@@ -436,30 +480,67 @@ class AuthServiceTest {
   }
 
   @Test
-  void shouldReturnNullWhenUserNotFoundOnRefreshAccessToken() {
+  void shouldReturnUserNotRegisteredWhenUserNotFoundOnRefresh() {
     String email = "notfound@example.com";
+    JwtClaims claims = refreshClaims("jti-1", email);
+    when(jwtService.verify("refresh-token")).thenReturn(Optional.of(claims));
+    when(tokenRevocationService.consume("jti-1", claims.expiresAt())).thenReturn(true);
     when(userService.findUserByEmail(email)).thenReturn(Optional.empty());
 
-    String result = authService.refreshAccessToken(email);
+    LoginResult result = authService.refreshTokens("refresh-token");
 
-    assertNull(result);
+    assertEquals(AuthError.USER_NOT_REGISTER, ((LoginFailure) result).error());
     verify(jwtService, times(0)).generateAccessToken(any());
-    verify(userService, times(1)).findUserByEmail(email);
   }
 
   @Test
-  void shouldReturnNewAccessTokenWhenUserExists() {
+  void shouldRotateTheRefreshTokenWhenUserExists() {
     String email = "test@example.com";
     UserEntity user = new UserEntity(UUID.randomUUID(), "John Doe", email, "encodedPassword", true);
-    String expectedAccessToken = "mocked-new-access-token";
-
+    JwtClaims claims = refreshClaims("jti-1", email);
+    when(jwtService.verify("refresh-token")).thenReturn(Optional.of(claims));
+    when(tokenRevocationService.consume("jti-1", claims.expiresAt())).thenReturn(true);
     when(userService.findUserByEmail(email)).thenReturn(Optional.of(user));
-    when(jwtService.generateAccessToken(email)).thenReturn(expectedAccessToken);
+    when(jwtService.generateAccessToken(email)).thenReturn("new-access-token");
+    when(jwtService.generateRefreshToken(email)).thenReturn("new-refresh-token");
+
+    LoginResult result = authService.refreshTokens("refresh-token");
+
+    assertEquals(new LoginResponseDTO("new-access-token", "new-refresh-token"), ((LoginSuccess) result).tokens());
+  }
+
+  @Test
+  void shouldRejectARefreshTokenThatWasAlreadyUsed() {
+    JwtClaims claims = refreshClaims("jti-1", "test@example.com");
+    when(jwtService.verify("refresh-token")).thenReturn(Optional.of(claims));
+    when(tokenRevocationService.consume("jti-1", claims.expiresAt())).thenReturn(false);
 
-    String result = authService.refreshAccessToken(email);
+    LoginResult result = authService.refreshTokens("refresh-token");
+
+    assertEquals(AuthError.REFRESH_TOKEN_INVALID, ((LoginFailure) result).error());
+    verify(userService, times(0)).findUserByEmail(any());
+    verify(jwtService, times(0)).generateRefreshToken(any());
+  }
+
+  @Test
+  void shouldRejectRefreshTokensWithoutAnIdOrWithAnotherRole() {
+    when(jwtService.verify("legacy-token")).thenReturn(Optional.of(refreshClaims(null, "test@example.com")));
+    when(jwtService.verify("access-token")).thenReturn(Optional.of(
+        new JwtClaims("jti-2", "test@example.com", "USER_ROLES", Instant.now(), Instant.now().plusSeconds(60))));
+
+    assertEquals(AuthError.REFRESH_TOKEN_INVALID, ((LoginFailure) authService.refreshTokens("legacy-token")).error());
+    assertEquals(AuthError.REFRESH_TOKEN_INVALID, ((LoginFailure) authService.refreshTokens("access-token")).error());
+    verify(tokenRevocationService, times(0)).consume(any(), any());
+  }
+
+  @Test
+  void logoutShouldRevokeAllTokensOfTheUser() {
+    authService.logout("test@example.com");
+
+    verify(tokenRevocationService).revokeAllForUser("test@example.com");
+  }
 
-    assertEquals(expectedAccessToken, result);
-    verify(jwtService, times(1)).generateAccessToken(email);
-    verify(userService, times(1)).findUserByEmail(email);
+  private static JwtClaims refreshClaims(String id, String email) {
+    return new JwtClaims(id, email, JwtService.REFRESH, Instant.now(), Instant.now().plusSeconds(3600));
   }
 }
@@ -0,0 +1,252 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.dto.budget.BudgetHistoryJobProgressDTO;
+import fun.trackmoney.entity.BudgetHistoryJobChunkEntity;
+import fun.trackmoney.entity.BudgetHistoryJobEntity;
+import fun.trackmoney.enums.JobStatus;
+import fun.trackmoney.enums.JobTrigger;
+import fun.trackmoney.infra.redis.MetricsCacheService;
+import fun.trackmoney.repository.BudgetHistoryJobChunkRepository;
+import fun.trackmoney.repository.BudgetHistoryJobRepository;
+import fun.trackmoney.repository.BudgetHistoryRepository;
+import fun.trackmoney.repository.BudgetsRepository;
+import fun.trackmoney.repository.projection.JobProgressProjection;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BudgetHistoryJobRunnerTest {
+
+  private static final YearMonth MONTH = YearMonth.of(2025, 3);
+  private static final long TOKEN = 42L;
+
+  @Mock
+  private BudgetHistoryJobRepository jobRepository;
+
+  @Mock
+  private BudgetHistoryJobChunkRepository chunkRepository;
+
+  @Mock
+  private BudgetHistoryRepository budgetHistoryRepository;
+
+  @Mock
+  private BudgetsRepository budgetsRepository;
+
+  @Mock
+  private MetricsCacheService metricsCacheService;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private BudgetHistoryJobRunner runner;
+
+  @BeforeEach
+  void setUp() {
+    runner = new BudgetHistoryJobRunner(jobRepository, chunkRepository, budgetHistoryRepository, budgetsRepository,
+        metricsCacheService, transactionManager, Runnable::run, 2);
+    lenient().when(jobRepository.save(any(BudgetHistoryJobEntity.class))).thenAnswer(invocation -> {
+      BudgetHistoryJobEntity job = invocation.getArgument(0);
+      return job.getJobId() == null ? job.setJobId(7) : job;
+    });
+    lenient().when(chunkRepository.summarizeJob(anyInt())).thenReturn(progress(0, 0, 0, 0));
+    lenient().when(jobRepository.claimJob(7, TOKEN)).thenReturn(1);
+    lenient().when(jobRepository.findFencingTokenForShare(7)).thenReturn(TOKEN);
+    lenient().when(jobRepository.finishJob(eq(7), eq(TOKEN), any(JobStatus.class), any(LocalDateTime.class)))
+        .thenReturn(1);
+  }
+
+  @Test
+  void run_shouldPlanChunksByAccountRangeAndProcessThem() {
+    when(jobRepository.findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+        eq(2025), eq((short) 3), anyCollection())).thenReturn(Optional.empty());
+    when(budgetsRepository.findAccountIdsWithBudgetsAfter(0, 2)).thenReturn(List.of(1, 4));
+    when(budgetsRepository.findAccountIdsWithBudgetsAfter(4, 2)).thenReturn(List.of(9));
+    when(budgetsRepository.findAccountIdsWithBudgetsAfter(9, 2)).thenReturn(List.of());
+    BudgetHistoryJobChunkEntity first = chunk(1, 4, 2, JobStatus.PENDING);
+    BudgetHistoryJobChunkEntity second = chunk(9, 9, 1, JobStatus.PENDING);
+    when(chunkRepository.findByJobIdAndStatusInOrderByFirstAccountId(eq(7), anyCollection()))
+        .thenReturn(List.of(first, second));
+    when(budgetHistoryRepository.insertMonthlyHistory(1, 4, (short) 3, 2025)).thenReturn(5);
+    when(budgetHistoryRepository.insertMonthlyHistory(9, 9, (short) 3, 2025)).thenReturn(0);
+
+    Optional<BudgetHistoryJobProgressDTO> result = runner.run(MONTH, JobTrigger.SCHEDULED, TOKEN);
+
+    @SuppressWarnings("unchecked")
+    ArgumentCaptor<List<BudgetHistoryJobChunkEntity>> planned = ArgumentCaptor.forClass(List.class);
+    verify(chunkRepository).saveAll(planned.capture());
+    assertEquals(2, planned.getValue().size());
+    assertEquals(1, planned.getValue().get(0).getFirstAccountId());
+    assertEquals(4, planned.getValue().get(0).getLastAccountId());
+    assertEquals(9, planned.getValue().get(1).getFirstAccountId());
+
+    assertTrue(result.isPresent());
+    assertEquals(JobStatus.COMPLETED, result.get().status());
+    assertEquals(2, result.get().totalChunks());
+    assertEquals(3, result.get().totalAccounts());
+    assertEquals(JobStatus.COMPLETED, first.getStatus());
+    assertEquals(5, first.getGeneratedRows());
+    assertEquals(JobStatus.COMPLETED, second.getStatus());
+    verify(metricsCacheService).invalidate(1);
+    verify(metricsCacheService).invalidate(4);
+    verify(metricsCacheService, never()).invalidate(9);
+  }
+
+  @Test
+  void run_shouldResumeUnfinishedJobWithoutPlanningAgain() {
+    BudgetHistoryJobEntity crashed = job(JobStatus.RUNNING);
+    when(jobRepository.findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+        eq(2025), eq((short) 3), anyCollection())).thenReturn(Optional.of(crashed));
+    BudgetHistoryJobChunkEntity remaining = chunk(9, 9, 1, JobStatus.PENDING);
+    when(chunkRepository.findByJobIdAndStatusInOrderByFirstAccountId(
+        7, List.of(JobStatus.PENDING, JobStatus.FAILED))).thenReturn(List.of(remaining));
+    when(budgetHistoryRepository.insertMonthlyHistory(9, 9, (short) 3, 2025)).thenReturn(0);
+
+    Optional<BudgetHistoryJobProgressDTO> result = runner.run(MONTH, JobTrigger.RECOVERY, TOKEN);
+
+    assertEquals(JobStatus.COMPLETED, result.orElseThrow().status());
+    verify(chunkRepository, never()).saveAll(anyList());
+    verify(budgetHistoryRepository, never()).insertMonthlyHistory(eq(1), anyInt(), anyShort(), anyInt());
+  }
+
+  @Test
+  void run_shouldKeepGoingAndMarkJobFailedWhenAChunkFails() {
+    when(jobRepository.findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+        eq(2025), eq((short) 3), anyCollection())).thenReturn(Optional.of(job(JobStatus.FAILED)));
+    BudgetHistoryJobChunkEntity failing = chunk(1, 4, 2, JobStatus.FAILED);
+    BudgetHistoryJobChunkEntity healthy = chunk(9, 9, 1, JobStatus.PENDING);
+    when(chunkRepository.findByJobIdAndStatusInOrderByFirstAccountId(eq(7), anyCollection()))
+        .thenReturn(List.of(failing, healthy));
+    when(budgetHistoryRepository.insertMonthlyHistory(1, 4, (short) 3, 2025))
+        .thenThrow(new IllegalStateException("deadlock detected"));
+    when(budgetHistoryRepository.insertMonthlyHistory(9, 9, (short) 3, 2025)).thenReturn(1);
+    when(budgetsRepository.findAccountIdsWithBudgetsAfter(8, 1)).thenReturn(List.of(9));
+
+    Optional<BudgetHistoryJobProgressDTO> result = runner.run(MONTH, JobTrigger.SCHEDULED, TOKEN);
+
+    assertEquals(JobStatus.FAILED, result.orElseThrow().status());
+    assertEquals(JobStatus.FAILED, failing.getStatus());
+    assertEquals(2, failing.getAttempts());
+    assertEquals("deadlock detected", failing.getErrorMessage());
+    assertEquals(JobStatus.COMPLETED, healthy.getStatus());
+  }
+
+  @Test
+  void run_shouldSkipRecoveryWhenMonthAlreadyCompleted() {
+    when(jobRepository.findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+        2025, (short) 3, List.of(JobStatus.RUNNING, JobStatus.FAILED))).thenReturn(Optional.empty());
+    when(jobRepository.findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+        2025, (short) 3, List.of(JobStatus.COMPLETED))).thenReturn(Optional.of(job(JobStatus.COMPLETED)));
+
+    Optional<BudgetHistoryJobProgressDTO> result = runner.run(MONTH, JobTrigger.RECOVERY, TOKEN);
+
+    assertTrue(result.isEmpty());
+    verify(budgetHistoryRepository, never()).insertMonthlyHistory(anyInt(), anyInt(), anyShort(), anyInt());
+  }
+
+  @Test
+  void run_shouldCompleteEmptyJobWhenNoAccountHasBudgets() {
+    when(jobRepository.findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+        eq(2025), eq((short) 3), anyCollection())).thenReturn(Optional.empty());
+    when(budgetsRepository.findAccountIdsWithBudgetsAfter(0, 2)).thenReturn(List.of());
+    when(chunkRepository.findByJobIdAndStatusInOrderByFirstAccountId(eq(7), anyCollection())).thenReturn(List.of());
+
+    Optional<BudgetHistoryJobProgressDTO> result = runner.run(MONTH, JobTrigger.SCHEDULED, TOKEN);
+
+    assertEquals(JobStatus.COMPLETED, result.orElseThrow().status());
+    assertEquals(0, result.get().totalChunks());
+    verify(budgetHistoryRepository, never()).insertMonthlyHistory(anyInt(), anyInt(), anyShort(), anyInt());
+  }
+
+  @Test
+  void run_shouldNotResumeJobClaimedByNewerLockHolder() {
+    when(jobRepository.findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+        eq(2025), eq((short) 3), anyCollection())).thenReturn(Optional.of(job(JobStatus.RUNNING)));
+    when(jobRepository.claimJob(7, TOKEN)).thenReturn(0);
+
+    Optional<BudgetHistoryJobProgressDTO> result = runner.run(MONTH, JobTrigger.RECOVERY, TOKEN);
+
+    assertTrue(result.isEmpty());
+    verify(chunkRepository, never()).findByJobIdAndStatusInOrderByFirstAccountId(anyInt(), anyCollection());
+  }
+
+  @Test
+  void run_shouldStopWritingOnceANewerLockHolderTookTheJobOver() {
+    when(jobRepository.findFirstByReferenceYearAndReferenceMonthAndStatusInOrderByJobIdDesc(
+        eq(2025), eq((short) 3), anyCollection())).thenReturn(Optional.of(job(JobStatus.RUNNING)));
+    BudgetHistoryJobChunkEntity remaining = chunk(9, 9, 1, JobStatus.PENDING);
+    when(chunkRepository.findByJobIdAndStatusInOrderByFirstAccountId(eq(7), anyCollection()))
+        .thenReturn(List.of(remaining));
+    when(jobRepository.findFencingTokenForShare(7)).thenReturn(TOKEN + 1);
+    when(jobRepository.finishJob(eq(7), eq(TOKEN), any(JobStatus.class), any(LocalDateTime.class))).thenReturn(0);
+
+    Optional<BudgetHistoryJobProgressDTO> result = runner.run(MONTH, JobTrigger.SCHEDULED, TOKEN);
+
+    assertTrue(result.isEmpty());
+    assertEquals(JobStatus.PENDING, remaining.getStatus());
+    verify(budgetHistoryRepository, never()).insertMonthlyHistory(anyInt(), anyInt(), anyShort(), anyInt());
+    verify(chunkRepository, never()).save(any(BudgetHistoryJobChunkEntity.class));
+  }
+
+  @Test
+  void getJob_shouldReportThroughputAndEstimatedCompletion() {
+    BudgetHistoryJobEntity running = job(JobStatus.RUNNING)
+        .setTotalAccounts(1000)
+        .setStartedAt(LocalDateTime.now().minusSeconds(10));
+    when(jobRepository.findById(7)).thenReturn(Optional.of(running));
+    when(chunkRepository.summarizeJob(7)).thenReturn(progress(5, 0, 500, 1200));
+
+    BudgetHistoryJobProgressDTO progress = runner.getJob(7).orElseThrow();
+
+    assertEquals(500, progress.processedAccounts());
+    assertEquals(1200, progress.generatedRows());
+    assertEquals(50.0, progress.accountsPerSecond(), 1.0);
+    assertNotNull(progress.estimatedCompletion());
+    assertTrue(progress.estimatedCompletion().isAfter(LocalDateTime.now().plusSeconds(8)));
+  }
+
+  private static BudgetHistoryJobEntity job(JobStatus status) {
+    return new BudgetHistoryJobEntity()
+        .setJobId(7)
+        .setTriggeredBy(JobTrigger.SCHEDULED)
+        .setReferenceMonth((short) 3)
+        .setReferenceYear(2025)
+        .setStatus(status)
+        .setTotalChunks(2)
+        .setTotalAccounts(3)
+        .setStartedAt(LocalDateTime.now().minusMinutes(1));
+  }
+
+  private static BudgetHistoryJobChunkEntity chunk(int first, int last, int accounts, JobStatus status) {
+    return new BudgetHistoryJobChunkEntity()
+        .setJobId(7)
+        .setFirstAccountId(first)
+        .setLastAccountId(last)
+        .setAccountCount(accounts)
+        .setStatus(status)
+        .setGeneratedRows(0)
+        .setAttempts(status == JobStatus.FAILED ? 1 : 0);
+  }
+
+  private static JobProgressProjection progress(long completed, long failed, long accounts, long rows) {
+    return new JobProgressProjection() {
+      public Long getCompletedChunks() { return completed; }
+      public Long getFailedChunks() { return failed; }
+      public Long getProcessedAccounts() { return accounts; }
+      public Long getGeneratedRows() { return rows; }
+      public LocalDateTime getLastCompletedAt() { return null; }
+    };
+  }
+}
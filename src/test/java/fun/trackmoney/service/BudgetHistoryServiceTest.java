@@ -6,6 +6,10 @@ import fun.trackmoney.dto.budget.GenerationResultDTO;
 import fun.trackmoney.entity.BudgetHistoryEntity;
 import fun.trackmoney.entity.BudgetsEntity;
 import fun.trackmoney.enums.BudgetStatus;
+import fun.trackmoney.enums.JobTrigger;
+import fun.trackmoney.infra.redis.DistributedLockService;
+import fun.trackmoney.infra.redis.LockLease;
+import fun.trackmoney.infra.redis.MetricsCacheService;
 import fun.trackmoney.mapper.BudgetHistoryMapper;
 import fun.trackmoney.repository.BudgetHistoryRepository;
 import fun.trackmoney.repository.BudgetsRepository;
@@ -17,6 +21,7 @@ import fun.trackmoney.dto.transaction.TransactionSimpleDTO;
 import fun.trackmoney.entity.TransactionEntity;
 import fun.trackmoney.mapper.TransactionSimpleMapper;
 import fun.trackmoney.repository.TransactionRepository;
+import fun.trackmoney.repository.projection.CategoryAmountProjection;
 import fun.trackmoney.service.RecurringService;
 import fun.trackmoney.entity.UserEntity;
 import org.junit.jupiter.api.Test;
@@ -26,11 +31,13 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -51,6 +58,15 @@ class BudgetHistoryServiceTest {
   @Mock
   private RecurringService recurringService;
 
+  @Mock
+  private MetricsCacheService metricsCacheService;
+
+  @Mock
+  private BudgetHistoryJobRunner budgetHistoryJobRunner;
+
+  @Mock
+  private DistributedLockService distributedLockService;
+
   @InjectMocks
   private BudgetHistoryService budgetHistoryService;
 
@@ -74,88 +90,47 @@ class BudgetHistoryServiceTest {
   @Test
   void generateHistoryForMonth_shouldGenerateHistorySuccessfully() {
     UserEntity user = UserEntityFactory.defaultUser();
-    CategoryEntity category = CategoryEntityFactory.defaultCategory();
-    BudgetsEntity budget = new BudgetsEntity()
-        .setBudgetId(1)
-        .setAccount(user.getAccount())
-        .setCategory(category)
-        .setPercent((short) 20);
-
+    Integer accountId = user.getAccount().getAccountId();
     int month = 1;
     int year = 2025;
 
-    when(budgetHistoryRepository.hasAllBudgetHistoriesForMonth(
-        user.getAccount().getAccountId(), (short) month, year))
+    when(budgetHistoryRepository.hasAllBudgetHistoriesForMonth(accountId, (short) month, year))
         .thenReturn(false);
-
-    when(budgetsRepository.findAllByAccountAccountId(user.getAccount().getAccountId()))
-        .thenReturn(List.of(budget));
-
-    when(budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-        budget, (short) month, year))
-        .thenReturn(Optional.empty());
-
-    LocalDateTime startDate = LocalDateTime.of(2025, 1, 1, 0, 0);
-    LocalDateTime endDate = LocalDateTime.of(2025, 1, 31, 23, 59, 59);
-
-    TransactionEntity income = new TransactionEntity()
-        .setAmount(BigDecimal.valueOf(5000))
-        .setTransactionType(TransactionType.INCOME);
-
-    TransactionEntity expense = new TransactionEntity()
-        .setAmount(BigDecimal.valueOf(800))
-        .setTransactionType(TransactionType.EXPENSE)
-        .setCategory(category);
-
-    when(transactionRepository.findAllByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), startDate, endDate))
-        .thenReturn(List.of(income, expense));
-
     when(transactionRepository.existsByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), startDate, endDate))
+        accountId, LocalDateTime.of(2025, 1, 1, 0, 0), LocalDateTime.of(2025, 1, 31, 23, 59, 59)))
         .thenReturn(true);
-
-    when(transactionRepository.sumExpensesByCategoryAndDateRange(
-        user.getAccount().getAccountId(), category.getCategoryId(), startDate, endDate))
-        .thenReturn(BigDecimal.valueOf(800));
-
-    when(recurringService.getIncomeFromRecurring(user.getAccount().getAccountId()))
-        .thenReturn(BigDecimal.ZERO);
-
-    when(budgetHistoryRepository.save(any(BudgetHistoryEntity.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(budgetHistoryRepository.insertMonthlyHistory(accountId, accountId, (short) month, year))
+        .thenReturn(1);
 
     GenerationResultDTO result = budgetHistoryService.generateHistoryForMonth(user, month, year);
 
     assertTrue(result.isSuccess());
     assertEquals(1, result.generatedCount());
-    verify(budgetHistoryRepository).save(any(BudgetHistoryEntity.class));
+    verify(metricsCacheService).invalidate(accountId);
   }
 
   @Test
   void generateHistoryForMonth_shouldHandleEmptyBudgets() {
     UserEntity user = UserEntityFactory.defaultUser();
+    Integer accountId = user.getAccount().getAccountId();
     int month = 1;
     int year = 2025;
 
-    when(budgetHistoryRepository.hasAllBudgetHistoriesForMonth(
-        user.getAccount().getAccountId(), (short) month, year))
+    when(budgetHistoryRepository.hasAllBudgetHistoriesForMonth(accountId, (short) month, year))
         .thenReturn(false);
 
-    when(budgetsRepository.findAllByAccountAccountId(user.getAccount().getAccountId()))
-        .thenReturn(List.of());
-
     LocalDateTime startDate = LocalDateTime.of(2025, 1, 1, 0, 0);
     LocalDateTime endDate = LocalDateTime.of(2025, 1, 31, 23, 59, 59);
 
-    when(transactionRepository.existsByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), startDate, endDate))
+    when(transactionRepository.existsByAccountIdAndDateRange(accountId, startDate, endDate))
         .thenReturn(true);
+    when(budgetHistoryRepository.insertMonthlyHistory(accountId, accountId, (short) month, year))
+        .thenReturn(0);
 
     GenerationResultDTO result = budgetHistoryService.generateHistoryForMonth(user, month, year);
 
     assertEquals(0, result.generatedCount());
-    verify(budgetHistoryRepository, never()).save(any());
+    verify(metricsCacheService, never()).invalidate(anyInt());
   }
 
   @Test
@@ -183,7 +158,7 @@ class BudgetHistoryServiceTest {
     BudgetHistoryEntity history2 = createMockHistory(2, (short) 2, 2025);
 
     when(budgetHistoryRepository.findByAccountAndDateRange(
-        user.getAccount().getAccountId(), 2025, (short) 1, 2025, (short) 2))
+        user.getAccount().getAccountId(), LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1)))
         .thenReturn(List.of(history2, history1));
 
     List<BudgetHistoryEntity> result = budgetHistoryService.getHistoryByDateRange(
@@ -196,8 +171,8 @@ class BudgetHistoryServiceTest {
 
   @Test
   void recoverMissingHistory_shouldHandleMissingMonths() {
-    when(budgetsRepository.findAll())
-        .thenReturn(List.of());
+    holdJobLock(42L);
+    when(budgetHistoryJobRunner.run(any(), any(), anyLong())).thenReturn(Optional.empty());
 
     assertDoesNotThrow(() -> budgetHistoryService.recoverMissingHistory());
   }
@@ -338,128 +313,6 @@ class BudgetHistoryServiceTest {
     verify(budgetHistoryRepository, never()).save(any());
   }
 
-  @Test
-  void generateHistoryForMonth_shouldSetExceededStatus_whenSpentExceedsTarget() {
-    UserEntity user = UserEntityFactory.defaultUser();
-    CategoryEntity category = CategoryEntityFactory.defaultCategory();
-    BudgetsEntity budget = new BudgetsEntity()
-        .setBudgetId(1)
-        .setAccount(user.getAccount())
-        .setCategory(category)
-        .setPercent((short) 20);
-
-    int month = 1;
-    int year = 2025;
-
-    when(budgetHistoryRepository.hasAllBudgetHistoriesForMonth(
-        user.getAccount().getAccountId(), (short) month, year))
-        .thenReturn(false);
-
-    when(budgetsRepository.findAllByAccountAccountId(user.getAccount().getAccountId()))
-        .thenReturn(List.of(budget));
-
-    when(budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-        budget, (short) month, year))
-        .thenReturn(Optional.empty());
-
-    LocalDateTime startDate = LocalDateTime.of(2025, 1, 1, 0, 0);
-    LocalDateTime endDate = LocalDateTime.of(2025, 1, 31, 23, 59, 59);
-
-    TransactionEntity income = new TransactionEntity()
-        .setAmount(BigDecimal.valueOf(5000))
-        .setTransactionType(TransactionType.INCOME);
-
-    when(transactionRepository.findAllByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), startDate, endDate))
-        .thenReturn(List.of(income));
-
-    when(transactionRepository.existsByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), startDate, endDate))
-        .thenReturn(true);
-
-    // Spent more than target (1000)
-    when(transactionRepository.sumExpensesByCategoryAndDateRange(
-        user.getAccount().getAccountId(), category.getCategoryId(), startDate, endDate))
-        .thenReturn(BigDecimal.valueOf(1500));
-
-    when(recurringService.getIncomeFromRecurring(user.getAccount().getAccountId()))
-        .thenReturn(BigDecimal.ZERO);
-
-    when(budgetHistoryRepository.save(any(BudgetHistoryEntity.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
-
-    GenerationResultDTO result = budgetHistoryService.generateHistoryForMonth(user, month, year);
-
-    assertTrue(result.isSuccess());
-    assertEquals(1, result.generatedCount());
-
-    verify(budgetHistoryRepository).save(argThat(history ->
-        history.getStatus() == BudgetStatus.EXCEEDED &&
-        history.getSpentAmount().compareTo(BigDecimal.valueOf(1500)) == 0
-    ));
-  }
-
-  @Test
-  void generateHistoryForMonth_shouldHandleNullSpentAmount() {
-    UserEntity user = UserEntityFactory.defaultUser();
-    CategoryEntity category = CategoryEntityFactory.defaultCategory();
-    BudgetsEntity budget = new BudgetsEntity()
-        .setBudgetId(1)
-        .setAccount(user.getAccount())
-        .setCategory(category)
-        .setPercent((short) 20);
-
-    int month = 1;
-    int year = 2025;
-
-    when(budgetHistoryRepository.hasAllBudgetHistoriesForMonth(
-        user.getAccount().getAccountId(), (short) month, year))
-        .thenReturn(false);
-
-    when(budgetsRepository.findAllByAccountAccountId(user.getAccount().getAccountId()))
-        .thenReturn(List.of(budget));
-
-    when(budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-        budget, (short) month, year))
-        .thenReturn(Optional.empty());
-
-    LocalDateTime startDate = LocalDateTime.of(2025, 1, 1, 0, 0);
-    LocalDateTime endDate = LocalDateTime.of(2025, 1, 31, 23, 59, 59);
-
-    TransactionEntity income = new TransactionEntity()
-        .setAmount(BigDecimal.valueOf(5000))
-        .setTransactionType(TransactionType.INCOME);
-
-    when(transactionRepository.findAllByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), startDate, endDate))
-        .thenReturn(List.of(income));
-
-    when(transactionRepository.existsByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), startDate, endDate))
-        .thenReturn(true);
-
-    // Return null for spent amount (no expenses)
-    when(transactionRepository.sumExpensesByCategoryAndDateRange(
-        user.getAccount().getAccountId(), category.getCategoryId(), startDate, endDate))
-        .thenReturn(null);
-
-    when(recurringService.getIncomeFromRecurring(user.getAccount().getAccountId()))
-        .thenReturn(BigDecimal.ZERO);
-
-    when(budgetHistoryRepository.save(any(BudgetHistoryEntity.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
-
-    GenerationResultDTO result = budgetHistoryService.generateHistoryForMonth(user, month, year);
-
-    assertTrue(result.isSuccess());
-    assertEquals(1, result.generatedCount());
-
-    verify(budgetHistoryRepository).save(argThat(history ->
-        history.getSpentAmount().compareTo(BigDecimal.ZERO) == 0 &&
-        history.getRemainingAmount().compareTo(BigDecimal.valueOf(1000)) == 0
-    ));
-  }
-
   @Test
   void getAllHistory_shouldReturnFilteredHistory_whenCategoryIdProvided() {
     UserEntity user = UserEntityFactory.defaultUser();
@@ -490,7 +343,7 @@ class BudgetHistoryServiceTest {
     BudgetHistoryEntity history2 = createMockHistory(2, (short) 2, 2025);
 
     when(budgetHistoryRepository.findByAccountAndDateRangeAndOptionalCategoryId(
-        user.getAccount().getAccountId(), 2025, (short) 1, 2025, (short) 2, categoryId))
+        user.getAccount().getAccountId(), LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), categoryId))
         .thenReturn(List.of(history1, history2));
 
     List<BudgetHistoryEntity> result = budgetHistoryService.getHistoryByDateRange(
@@ -498,163 +351,47 @@ class BudgetHistoryServiceTest {
     );
 
     assertEquals(2, result.size());
-    verify(budgetHistoryRepository, never()).findByAccountAndDateRange(
-        anyInt(), anyInt(), anyShort(), anyInt(), anyShort());
+    verify(budgetHistoryRepository, never()).findByAccountAndDateRange(anyInt(), any(), any());
     verify(budgetHistoryRepository).findByAccountAndDateRangeAndOptionalCategoryId(
-        user.getAccount().getAccountId(), 2025, (short) 1, 2025, (short) 2, categoryId);
+        user.getAccount().getAccountId(), LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 1), categoryId);
   }
 
   @Test
-  void generateMonthlyHistory_shouldGenerateHistoryForMultipleAccounts() {
-    UserEntity user1 = UserEntityFactory.defaultUser();
-    UserEntity user2 = UserEntityFactory.defaultUser();
-    user2.setAccount(user2.getAccount().setAccountId(2));
-
-    CategoryEntity category = CategoryEntityFactory.defaultCategory();
-    BudgetsEntity budget1 = new BudgetsEntity()
-        .setBudgetId(1)
-        .setAccount(user1.getAccount())
-        .setCategory(category)
-        .setPercent((short) 20);
-    BudgetsEntity budget2 = new BudgetsEntity()
-        .setBudgetId(2)
-        .setAccount(user2.getAccount())
-        .setCategory(category)
-        .setPercent((short) 30);
-
-    YearMonth lastMonth = YearMonth.now().minusMonths(1);
-    short month = (short) lastMonth.getMonthValue();
-    int year = lastMonth.getYear();
-
-    when(budgetsRepository.findAll())
-        .thenReturn(List.of(budget1, budget2));
-
-    when(budgetHistoryRepository.existsHistoryForAccountAndMonth(
-        user1.getAccount().getAccountId(), month, year))
-        .thenReturn(false);
-
-    when(budgetHistoryRepository.existsHistoryForAccountAndMonth(
-        user2.getAccount().getAccountId(), month, year))
-        .thenReturn(false);
-
-    // Mock for each account's budgets
-    when(budgetsRepository.findAllByAccountAccountId(user1.getAccount().getAccountId()))
-        .thenReturn(List.of(budget1));
-    when(budgetsRepository.findAllByAccountAccountId(user2.getAccount().getAccountId()))
-        .thenReturn(List.of(budget2));
-
-    when(budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-        any(), anyShort(), anyInt()))
-        .thenReturn(Optional.empty());
-
-    when(transactionRepository.findAllByAccountIdAndDateRange(anyInt(), any(), any()))
-        .thenReturn(List.of(new TransactionEntity()
-            .setAmount(BigDecimal.valueOf(5000))
-            .setTransactionType(TransactionType.INCOME)));
-
-    when(transactionRepository.sumExpensesByCategoryAndDateRange(
-        anyInt(), anyInt(), any(), any()))
-        .thenReturn(BigDecimal.valueOf(1000));
-
-    when(recurringService.getIncomeFromRecurring(anyInt()))
-        .thenReturn(BigDecimal.ZERO);
-
-    when(budgetHistoryRepository.save(any(BudgetHistoryEntity.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
+  void generateMonthlyHistory_shouldRunScheduledJobForPreviousMonth() {
+    holdJobLock(42L);
 
     budgetHistoryService.generateMonthlyHistory();
 
-    verify(budgetHistoryRepository, times(2)).save(any(BudgetHistoryEntity.class));
+    verify(budgetHistoryJobRunner).run(YearMonth.now().minusMonths(1), JobTrigger.SCHEDULED, 42L);
+    verify(budgetHistoryRepository, never()).save(any(BudgetHistoryEntity.class));
   }
 
   @Test
-  void generateMonthlyHistory_shouldSkipExistingHistory() {
-    UserEntity user = UserEntityFactory.defaultUser();
-    CategoryEntity category = CategoryEntityFactory.defaultCategory();
-    BudgetsEntity budget = new BudgetsEntity()
-        .setBudgetId(1)
-        .setAccount(user.getAccount())
-        .setCategory(category)
-        .setPercent((short) 20);
-
-    YearMonth lastMonth = YearMonth.now().minusMonths(1);
-    short month = (short) lastMonth.getMonthValue();
-    int year = lastMonth.getYear();
-
-    when(budgetsRepository.findAll())
-        .thenReturn(List.of(budget));
-
-    when(budgetHistoryRepository.existsHistoryForAccountAndMonth(
-        user.getAccount().getAccountId(), month, year))
-        .thenReturn(true); // History already exists
+  void recoverMissingHistory_shouldRunRecoveryJobForPreviousMonth() {
+    holdJobLock(42L);
+    when(budgetHistoryJobRunner.run(any(), any(), anyLong())).thenReturn(Optional.empty());
 
-    budgetHistoryService.generateMonthlyHistory();
+    assertTrue(budgetHistoryService.recoverMissingHistory().isEmpty());
 
-    verify(budgetHistoryRepository, never()).save(any(BudgetHistoryEntity.class));
-    verify(budgetsRepository, never()).findAllByAccountAccountId(anyInt());
+    verify(budgetHistoryJobRunner).run(YearMonth.now().minusMonths(1), JobTrigger.RECOVERY, 42L);
   }
 
   @Test
-  void recoverMissingHistory_shouldRecoverForMissingMonths() {
-    UserEntity user = UserEntityFactory.defaultUser();
-    CategoryEntity category = CategoryEntityFactory.defaultCategory();
-    BudgetsEntity budget = new BudgetsEntity()
-        .setBudgetId(1)
-        .setAccount(user.getAccount())
-        .setCategory(category)
-        .setPercent((short) 20);
-
-    when(budgetsRepository.findAll())
-        .thenReturn(List.of(budget));
-
-    when(budgetsRepository.findAllByAccountAccountId(user.getAccount().getAccountId()))
-        .thenReturn(List.of(budget));
-
-    when(budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-        eq(budget), anyShort(), anyInt()))
+  void recoverMissingHistory_shouldSkipWhenAnotherNodeRunsTheJob() {
+    when(distributedLockService.callExclusively(eq("budget-history-job"), any(Duration.class), any()))
         .thenReturn(Optional.empty());
 
-    LocalDate lastMonth = LocalDate.now().minusMonths(1);
-    short lastMonthValue = (short) lastMonth.getMonthValue();
-    int lastYear = lastMonth.getYear();
-
-    when(budgetHistoryRepository.existsHistoryForAccountAndMonth(
-        user.getAccount().getAccountId(), lastMonthValue, lastYear))
-        .thenReturn(false);
-
-    LocalDateTime startDate = LocalDateTime.of(lastMonth.getYear(), lastMonth.getMonthValue(), 1, 0, 0);
-    LocalDateTime endDate = YearMonth.of(lastMonth.getYear(), lastMonth.getMonthValue())
-        .atEndOfMonth().atTime(23, 59, 59);
+    assertTrue(budgetHistoryService.recoverMissingHistory().isEmpty());
 
-    when(transactionRepository.findAllByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), startDate, endDate))
-        .thenReturn(List.of(new TransactionEntity()
-            .setAmount(BigDecimal.valueOf(5000))
-            .setTransactionType(TransactionType.INCOME)));
-
-    when(transactionRepository.sumExpensesByCategoryAndDateRange(
-        user.getAccount().getAccountId(), category.getCategoryId(), startDate, endDate))
-        .thenReturn(BigDecimal.valueOf(1000));
-
-    when(recurringService.getIncomeFromRecurring(user.getAccount().getAccountId()))
-        .thenReturn(BigDecimal.ZERO);
-
-    when(budgetHistoryRepository.save(any(BudgetHistoryEntity.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
-
-    budgetHistoryService.recoverMissingHistory();
-
-    verify(budgetHistoryRepository, atLeastOnce()).save(any(BudgetHistoryEntity.class));
+    verify(budgetHistoryJobRunner, never()).run(any(), any(), anyLong());
   }
 
-  @Test
-  void recoverMissingHistory_shouldSkipWhenNoBudgets() {
-    when(budgetsRepository.findAll())
-        .thenReturn(List.of());
-
-    budgetHistoryService.recoverMissingHistory();
-
-    verify(budgetHistoryRepository, never()).save(any(BudgetHistoryEntity.class));
+  private void holdJobLock(long fencingToken) {
+    LockLease lease = mock(LockLease.class);
+    when(lease.getFencingToken()).thenReturn(fencingToken);
+    when(distributedLockService.callExclusively(eq("budget-history-job"), any(Duration.class), any()))
+        .thenAnswer(invocation -> Optional.ofNullable(
+            invocation.<Function<LockLease, Object>>getArgument(2).apply(lease)));
   }
 
   @Test
@@ -784,66 +521,13 @@ class BudgetHistoryServiceTest {
   }
 
   @Test
-  void generateProvisionalHistoryForCurrentMonth_shouldCreateProvisionalHistoryEntries() {
-    LocalDate now = LocalDate.now();
-    short currentMonth = (short) now.getMonthValue();
-    int currentYear = now.getYear();
-
-    UserEntity user = UserEntityFactory.defaultUser();
-    CategoryEntity category = CategoryEntityFactory.defaultCategory();
-    BudgetsEntity budget = new BudgetsEntity()
-        .setBudgetId(1)
-        .setAccount(user.getAccount())
-        .setCategory(category)
-        .setPercent((short) 20);
-
-    LocalDateTime monthStart = LocalDate.of(currentYear, currentMonth, 1).atStartOfDay();
-    LocalDateTime monthEnd = now.atTime(23, 59, 59);
-
-    TransactionEntity income = new TransactionEntity()
-        .setAmount(BigDecimal.valueOf(5000))
-        .setTransactionType(TransactionType.INCOME);
-
-    when(budgetsRepository.findAllByAccountAccountId(user.getAccount().getAccountId()))
-        .thenReturn(List.of(budget));
-
-    when(transactionRepository.findAllByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), monthStart, monthEnd))
-        .thenReturn(List.of(income));
-
-    when(recurringService.getIncomeFromRecurring(user.getAccount().getAccountId()))
-        .thenReturn(BigDecimal.ZERO);
-
-    when(budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-        budget, currentMonth, currentYear))
-        .thenReturn(Optional.empty());
-
-    when(transactionRepository.sumExpensesByCategoryAndDateRange(
-        user.getAccount().getAccountId(), category.getCategoryId(), monthStart, monthEnd))
-        .thenReturn(BigDecimal.valueOf(800));
-
-    when(budgetHistoryRepository.save(any(BudgetHistoryEntity.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
-
-    budgetHistoryService.generateProvisionalHistoryForCurrentMonth(user.getAccount().getAccountId(), null);
-
-    verify(budgetHistoryRepository).save(argThat(history ->
-        history.getStatus() == BudgetStatus.PROVISIONAL &&
-        history.getReferenceMonth() == currentMonth &&
-        history.getReferenceYear() == currentYear &&
-        history.getTargetAmount().compareTo(new BigDecimal("1000")) == 0 &&
-        history.getSpentAmount().compareTo(BigDecimal.valueOf(800)) == 0 &&
-        history.getRemainingAmount().compareTo(new BigDecimal("200")) == 0
-    ));
-  }
-
-  @Test
-  void generateProvisionalHistoryForCurrentMonth_shouldOverwriteExistingHistory() {
+  void calculateProvisionalHistoryForCurrentMonth_shouldBuildEntriesWithoutWriting() {
     LocalDate now = LocalDate.now();
     short currentMonth = (short) now.getMonthValue();
     int currentYear = now.getYear();
 
     UserEntity user = UserEntityFactory.defaultUser();
+    Integer accountId = user.getAccount().getAccountId();
     CategoryEntity category = CategoryEntityFactory.defaultCategory();
     BudgetsEntity budget = new BudgetsEntity()
         .setBudgetId(1)
@@ -851,58 +535,37 @@ class BudgetHistoryServiceTest {
         .setCategory(category)
         .setPercent((short) 20);
 
-    LocalDateTime monthStart = LocalDate.of(currentYear, currentMonth, 1).atStartOfDay();
+    LocalDateTime monthStart = now.withDayOfMonth(1).atStartOfDay();
     LocalDateTime monthEnd = now.atTime(23, 59, 59);
 
-    BudgetHistoryEntity existingHistory = new BudgetHistoryEntity()
-        .setHistoryId(1)
-        .setBudget(budget)
-        .setAccount(user.getAccount())
-        .setCategory(category)
-        .setReferenceMonth(currentMonth)
-        .setReferenceYear(currentYear)
-        .setStatus(BudgetStatus.WITHIN_LIMIT);
-
-    TransactionEntity income = new TransactionEntity()
-        .setAmount(BigDecimal.valueOf(5000))
-        .setTransactionType(TransactionType.INCOME);
-
-    when(budgetsRepository.findAllByAccountAccountId(user.getAccount().getAccountId()))
-        .thenReturn(List.of(budget));
-
-    when(budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-        budget, currentMonth, currentYear))
-        .thenReturn(Optional.of(existingHistory));
-
-    when(transactionRepository.findAllByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), monthStart, monthEnd))
-        .thenReturn(List.of(income));
+    when(budgetsRepository.findAllByAccountAccountId(accountId)).thenReturn(List.of(budget));
+    when(recurringService.getIncomeFromRecurring(accountId)).thenReturn(BigDecimal.ZERO);
+    when(transactionRepository.sumAmountByTypeAndDateRange(accountId, TransactionType.INCOME, monthStart, monthEnd))
+        .thenReturn(BigDecimal.valueOf(5000));
+    when(transactionRepository.sumExpensesGroupedByCategory(accountId, monthStart, monthEnd))
+        .thenReturn(List.of(categoryAmount(category.getCategoryId(), BigDecimal.valueOf(800))));
 
-    when(recurringService.getIncomeFromRecurring(user.getAccount().getAccountId()))
-        .thenReturn(BigDecimal.ZERO);
+    List<BudgetHistoryEntity> result =
+        budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(accountId, null);
 
-    when(transactionRepository.sumExpensesByCategoryAndDateRange(
-        user.getAccount().getAccountId(), category.getCategoryId(), monthStart, monthEnd))
-        .thenReturn(BigDecimal.valueOf(800));
-
-    when(budgetHistoryRepository.save(any(BudgetHistoryEntity.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
-
-    budgetHistoryService.generateProvisionalHistoryForCurrentMonth(user.getAccount().getAccountId(), null);
-
-    verify(budgetHistoryRepository).delete(existingHistory);
-    verify(budgetHistoryRepository).save(argThat(history ->
-        history.getStatus() == BudgetStatus.PROVISIONAL
-    ));
+    assertEquals(1, result.size());
+    BudgetHistoryEntity history = result.get(0);
+    assertEquals(BudgetStatus.PROVISIONAL, history.getStatus());
+    assertEquals(currentMonth, history.getReferenceMonth());
+    assertEquals(currentYear, history.getReferenceYear());
+    assertEquals(0, history.getTargetAmount().compareTo(new BigDecimal("1000")));
+    assertEquals(0, history.getSpentAmount().compareTo(BigDecimal.valueOf(800)));
+    assertEquals(0, history.getRemainingAmount().compareTo(new BigDecimal("200")));
+    verify(budgetHistoryRepository, never()).save(any(BudgetHistoryEntity.class));
+    verify(budgetHistoryRepository, never()).delete(any(BudgetHistoryEntity.class));
+    verify(metricsCacheService, never()).invalidate(anyInt());
   }
 
   @Test
-  void generateProvisionalHistoryForCurrentMonth_shouldFilterByCategoryId() {
+  void calculateProvisionalHistoryForCurrentMonth_shouldFilterByCategoryId() {
     LocalDate now = LocalDate.now();
-    short currentMonth = (short) now.getMonthValue();
-    int currentYear = now.getYear();
-
     UserEntity user = UserEntityFactory.defaultUser();
+    Integer accountId = user.getAccount().getAccountId();
     CategoryEntity category1 = CategoryEntityFactory.defaultCategory();
     CategoryEntity category2 = new CategoryEntity(2, "Transport", "#33FF57");
 
@@ -918,57 +581,43 @@ class BudgetHistoryServiceTest {
         .setCategory(category2)
         .setPercent((short) 15);
 
-    LocalDateTime monthStart = LocalDate.of(currentYear, currentMonth, 1).atStartOfDay();
+    LocalDateTime monthStart = now.withDayOfMonth(1).atStartOfDay();
     LocalDateTime monthEnd = now.atTime(23, 59, 59);
 
-    TransactionEntity income = new TransactionEntity()
-        .setAmount(BigDecimal.valueOf(5000))
-        .setTransactionType(TransactionType.INCOME);
-
-    when(budgetsRepository.findAllByAccountAccountId(user.getAccount().getAccountId()))
-        .thenReturn(List.of(budget1, budget2));
-
-    when(transactionRepository.findAllByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), monthStart, monthEnd))
-        .thenReturn(List.of(income));
-
-    when(recurringService.getIncomeFromRecurring(user.getAccount().getAccountId()))
-        .thenReturn(BigDecimal.ZERO);
-
-    when(budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-        any(BudgetsEntity.class), eq(currentMonth), eq(currentYear)))
-        .thenReturn(Optional.empty());
-
-    when(transactionRepository.sumExpensesByCategoryAndDateRange(
-        eq(user.getAccount().getAccountId()), anyInt(), eq(monthStart), eq(monthEnd)))
-        .thenReturn(BigDecimal.valueOf(400));
-
-    when(budgetHistoryRepository.save(any(BudgetHistoryEntity.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
+    when(budgetsRepository.findAllByAccountAccountId(accountId)).thenReturn(List.of(budget1, budget2));
+    when(recurringService.getIncomeFromRecurring(accountId)).thenReturn(BigDecimal.ZERO);
+    when(transactionRepository.sumAmountByTypeAndDateRange(accountId, TransactionType.INCOME, monthStart, monthEnd))
+        .thenReturn(BigDecimal.valueOf(5000));
+    when(transactionRepository.sumExpensesGroupedByCategory(accountId, monthStart, monthEnd))
+        .thenReturn(List.of(
+            categoryAmount(category1.getCategoryId(), BigDecimal.valueOf(400)),
+            categoryAmount(category2.getCategoryId(), BigDecimal.valueOf(300))));
 
-    budgetHistoryService.generateProvisionalHistoryForCurrentMonth(user.getAccount().getAccountId(), category1.getCategoryId());
+    List<BudgetHistoryEntity> result =
+        budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(accountId, category1.getCategoryId());
 
-    verify(budgetHistoryRepository, times(1)).save(any(BudgetHistoryEntity.class));
+    assertEquals(1, result.size());
+    assertEquals(category1, result.get(0).getCategory());
+    assertEquals(0, result.get(0).getSpentAmount().compareTo(BigDecimal.valueOf(400)));
   }
 
   @Test
-  void generateProvisionalHistoryForCurrentMonth_shouldHandleEmptyBudgets() {
+  void calculateProvisionalHistoryForCurrentMonth_shouldHandleEmptyBudgets() {
     when(budgetsRepository.findAllByAccountAccountId(1))
         .thenReturn(List.of());
 
-    budgetHistoryService.generateProvisionalHistoryForCurrentMonth(1, null);
+    List<BudgetHistoryEntity> result = budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(1, null);
 
-    verify(budgetHistoryRepository, never()).save(any(BudgetHistoryEntity.class));
-    verify(transactionRepository, never()).findAllByAccountIdAndDateRange(anyInt(), any(), any());
+    assertTrue(result.isEmpty());
+    verify(transactionRepository, never()).sumAmountByTypeAndDateRange(anyInt(), any(), any(), any());
+    verify(transactionRepository, never()).sumExpensesGroupedByCategory(anyInt(), any(), any());
   }
 
   @Test
-  void generateProvisionalHistoryForCurrentMonth_shouldHandleNullSpentAmount() {
+  void calculateProvisionalHistoryForCurrentMonth_shouldTreatCategoriesWithoutExpensesAsZero() {
     LocalDate now = LocalDate.now();
-    short currentMonth = (short) now.getMonthValue();
-    int currentYear = now.getYear();
-
     UserEntity user = UserEntityFactory.defaultUser();
+    Integer accountId = user.getAccount().getAccountId();
     CategoryEntity category = CategoryEntityFactory.defaultCategory();
     BudgetsEntity budget = new BudgetsEntity()
         .setBudgetId(1)
@@ -976,38 +625,24 @@ class BudgetHistoryServiceTest {
         .setCategory(category)
         .setPercent((short) 20);
 
-    LocalDateTime monthStart = LocalDate.of(currentYear, currentMonth, 1).atStartOfDay();
-    LocalDateTime monthEnd = now.atTime(23, 59, 59);
-
-    TransactionEntity income = new TransactionEntity()
-        .setAmount(BigDecimal.valueOf(5000))
-        .setTransactionType(TransactionType.INCOME);
-
-    when(budgetsRepository.findAllByAccountAccountId(user.getAccount().getAccountId()))
-        .thenReturn(List.of(budget));
-
-    when(transactionRepository.findAllByAccountIdAndDateRange(
-        user.getAccount().getAccountId(), monthStart, monthEnd))
-        .thenReturn(List.of(income));
-
-    when(recurringService.getIncomeFromRecurring(user.getAccount().getAccountId()))
-        .thenReturn(BigDecimal.ZERO);
-
-    when(budgetHistoryRepository.findByBudgetAndReferenceMonthAndReferenceYear(
-        budget, currentMonth, currentYear))
-        .thenReturn(Optional.empty());
-
-    when(transactionRepository.sumExpensesByCategoryAndDateRange(
-        user.getAccount().getAccountId(), category.getCategoryId(), monthStart, monthEnd))
-        .thenReturn(null);
+    when(budgetsRepository.findAllByAccountAccountId(accountId)).thenReturn(List.of(budget));
+    when(recurringService.getIncomeFromRecurring(accountId)).thenReturn(BigDecimal.ZERO);
+    when(transactionRepository.sumAmountByTypeAndDateRange(eq(accountId), eq(TransactionType.INCOME), any(), any()))
+        .thenReturn(BigDecimal.valueOf(5000));
+    when(transactionRepository.sumExpensesGroupedByCategory(eq(accountId), any(), any()))
+        .thenReturn(List.of());
 
-    when(budgetHistoryRepository.save(any(BudgetHistoryEntity.class)))
-        .thenAnswer(invocation -> invocation.getArgument(0));
+    List<BudgetHistoryEntity> result =
+        budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(accountId, null);
 
-    budgetHistoryService.generateProvisionalHistoryForCurrentMonth(user.getAccount().getAccountId(), null);
+    assertEquals(0, result.get(0).getSpentAmount().compareTo(BigDecimal.ZERO));
+    assertEquals(0, result.get(0).getRemainingAmount().compareTo(new BigDecimal("1000")));
+  }
 
-    verify(budgetHistoryRepository).save(argThat(history ->
-        history.getSpentAmount().compareTo(BigDecimal.ZERO) == 0
-    ));
+  private static CategoryAmountProjection categoryAmount(Integer categoryId, BigDecimal amount) {
+    return new CategoryAmountProjection() {
+      public Integer getCategoryId() { return categoryId; }
+      public BigDecimal getAmount() { return amount; }
+    };
   }
 }
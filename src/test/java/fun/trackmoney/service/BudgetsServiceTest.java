@@ -12,6 +12,7 @@ import fun.trackmoney.dto.budget.internal.BudgetResult;
 import fun.trackmoney.dto.budget.internal.BudgetSuccess;
 import fun.trackmoney.entity.BudgetsEntity;
 import fun.trackmoney.enums.BudgetError;
+import fun.trackmoney.infra.redis.MetricsCacheService;
 import fun.trackmoney.mapper.BudgetMapper;
 import fun.trackmoney.repository.projection.BudgetCheckProjection;
 import fun.trackmoney.repository.BudgetsRepository;
@@ -21,11 +22,9 @@ import fun.trackmoney.testutils.BudgetCreateDTOFactory;
 import fun.trackmoney.testutils.BudgetResponseDTOFactory;
 import fun.trackmoney.testutils.BudgetsEntityFactory;
 import fun.trackmoney.testutils.CategoryEntityFactory;
-import fun.trackmoney.testutils.TransactionEntityFactory;
 import fun.trackmoney.testutils.TransactionResponseDTOFactory;
 import fun.trackmoney.testutils.UserEntityFactory;
 import fun.trackmoney.dto.transaction.TransactionResponseDTO;
-import fun.trackmoney.entity.TransactionEntity;
 import fun.trackmoney.service.TransactionService;
 import fun.trackmoney.service.RecurringService;
 import fun.trackmoney.dto.user.UserResponseDTO;
@@ -37,6 +36,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.YearMonth;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -59,9 +59,13 @@ class BudgetsServiceTest {
   @Mock
   private AccountMapper accountMapper;
   @Mock
+  private AccountService accountService;
+  @Mock
   private CategoryService categoryService;
   @Mock
-  private RecurringService recurringService;
+  private BudgetHistoryService budgetHistoryService;
+  @Mock
+  private MetricsCacheService metricsCacheService;
 
   @InjectMocks
   private BudgetsService budgetsService;
@@ -86,6 +90,7 @@ class BudgetsServiceTest {
     };
 
     when(categoryService.findEntityById(createDTO.categoryId())).thenReturn(category);
+    when(accountService.findById(userEntity.getAccount().getAccountId())).thenReturn(userEntity.getAccount());
     when(budgetsRepository.checkBudget(userEntity.getAccount(), category)).thenReturn(mockResponseCheck);
 
     BudgetsEntity savedEntity = new BudgetsEntity()
@@ -137,6 +142,7 @@ class BudgetsServiceTest {
       @Override public Integer getTotalPercent() { return 50; }
     };
 
+    when(accountService.findById(user.getAccount().getAccountId())).thenReturn(user.getAccount());
     when(budgetsRepository.checkBudget(user.getAccount(), category)).thenReturn(mockCheck);
 
     BudgetResult result = budgetsService.create(dto, user);
@@ -161,6 +167,7 @@ class BudgetsServiceTest {
       @Override public Integer getTotalPercent() { return 50; }
     };
 
+    when(accountService.findById(user.getAccount().getAccountId())).thenReturn(user.getAccount());
     when(budgetsRepository.checkBudget(user.getAccount(), category)).thenReturn(mockCheck);
 
     BudgetResult result = budgetsService.create(dto, user);
@@ -188,21 +195,20 @@ class BudgetsServiceTest {
         .thenReturn(List.of(budget));
 
     TransactionResponseDTO t1 = TransactionResponseDTOFactory.defaultTransactionResponse();
-    TransactionEntity t2 = TransactionEntityFactory.defaultExpenseNow();
 
-    when(transactionService.getCurrentMonthTransactions())
-        .thenReturn(List.of(t2));
     Map<CategoryEntity, List<TransactionResponseDTO>> maps = new HashMap<>();
     maps.put(category, List.of(t1));
     when(transactionService.getLast5TransactionsPerCategory(accountId))
         .thenReturn(maps);
 
-    when(transactionService.getIncome(user.getUserId()))
+    YearMonth currentMonth = YearMonth.now();
+    when(transactionService.getExpensesByCategory(accountId, currentMonth))
+        .thenReturn(Map.of(category.getCategoryId(), new BigDecimal("45.67")));
+    when(budgetHistoryService.getTotalIncomeForMonth(accountId, currentMonth.atDay(1).atStartOfDay(),
+        currentMonth.atEndOfMonth().atTime(23, 59, 59)))
         .thenReturn(BigDecimal.valueOf(1000));
 
-    when(recurringService.getIncomeFromRecurring(accountId))
-        .thenReturn(BigDecimal.ZERO);
-
+    when(accountService.findById(accountId)).thenReturn(user.getAccount());
     when(accountMapper.accountEntityToAccountResponse(user.getAccount()))
         .thenReturn(AccountResponseDTOFactory.defaultAccountResponse());
 
@@ -213,8 +219,32 @@ class BudgetsServiceTest {
 
     assertEquals(10, dto.budgetId());
     assertEquals(20, dto.percent());
-    assertEquals(BigDecimal.valueOf(200), dto.targetAmount());
-    assertEquals(BigDecimal.valueOf(0), dto.currentAmount());
+    assertEquals(new BigDecimal("200.00"), dto.targetAmount());
+    assertEquals(new BigDecimal("45.67"), dto.currentAmount());
+  }
+
+  @Test
+  void findAllBudgets_shouldKeepExactAmountsAndDefaultUnspentCategoriesToZero() {
+    UserEntity user = UserEntityFactory.defaultUser();
+    Integer accountId = user.getAccount().getAccountId();
+
+    BudgetsEntity budget = new BudgetsEntity()
+        .setBudgetId(11)
+        .setPercent((short) 15)
+        .setCategory(CategoryEntityFactory.transportCategory())
+        .setAccount(user.getAccount());
+
+    when(budgetsRepository.findAllByAccountAccountId(accountId)).thenReturn(List.of(budget));
+    when(transactionService.getLast5TransactionsPerCategory(accountId)).thenReturn(Map.of());
+    when(transactionService.getExpensesByCategory(accountId, YearMonth.now()))
+        .thenReturn(Map.of(1, new BigDecimal("99.99")));
+    when(budgetHistoryService.getTotalIncomeForMonth(eq(accountId), any(), any()))
+        .thenReturn(new BigDecimal("1234.56"));
+
+    BudgetResponseDTO dto = budgetsService.findAllBudgets(user).get(0);
+
+    assertEquals(new BigDecimal("185.18"), dto.targetAmount());
+    assertEquals(BigDecimal.ZERO, dto.currentAmount());
   }
 
   @Test
@@ -225,8 +255,7 @@ class BudgetsServiceTest {
     when(budgetsRepository.findAllByAccountAccountId(accountId))
         .thenReturn(List.of());
     when(transactionService.getLast5TransactionsPerCategory(accountId)).thenReturn(Map.of());
-    when(transactionService.getIncome(user.getUserId())).thenReturn(BigDecimal.valueOf(100));
-    when(recurringService.getIncomeFromRecurring(accountId)).thenReturn(BigDecimal.ZERO);
+    when(budgetHistoryService.getTotalIncomeForMonth(eq(accountId), any(), any())).thenReturn(BigDecimal.valueOf(100));
 
     List<BudgetResponseDTO> result = budgetsService.findAllBudgets(user);
 
@@ -347,29 +376,7 @@ class BudgetsServiceTest {
     budgetsService.deleteById(10, user);
 
     verify(budgetsRepository).deleteByBudgetIdAndAccount(10, user.getAccount());
+    verify(metricsCacheService).invalidate(user.getAccount().getAccountId());
   }
 
-  @Test
-  void getCurrentAmountWested_shouldSumCorrectly() {
-    CategoryEntity category = CategoryEntityFactory.defaultCategory();
-
-    TransactionEntity t1 = new TransactionEntity().setAmount(BigDecimal.valueOf(30)).setCategory(category);
-    TransactionEntity t2 = new TransactionEntity().setAmount(BigDecimal.valueOf(20)).setCategory(category);
-
-    int result = budgetsService.getCurrentAmountWested(category, List.of(t1, t2));
-
-    assertEquals(50, result);
-  }
-  @Test
-  void getCurrentAmountWested_shouldReturnZeroWhenNoMatches() {
-    CategoryEntity category = CategoryEntityFactory.defaultCategory();
-
-    TransactionEntity t1 = new TransactionEntity().setAmount(BigDecimal.valueOf(30)).setCategory(new CategoryEntity());
-    TransactionEntity t2 = new TransactionEntity().setAmount(BigDecimal.valueOf(20)).setCategory(new CategoryEntity());
-
-    int result = budgetsService.getCurrentAmountWested(category, List.of(t1, t2));
-
-    assertEquals(0, result);
-  }
-
-}
\ No newline at end of file
+}
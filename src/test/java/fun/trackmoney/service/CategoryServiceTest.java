@@ -72,4 +72,17 @@ class CategoryServiceTest {
 
     assertThrows(CategoryNotFoundException.class, () -> categoryService.findById(categoryId));
   }
+
+  @Test
+  void findAllEntitiesById_shouldIndexCategoriesById() {
+    CategoryEntity category1 = new CategoryEntity(1, "Food", "#FF5733");
+    CategoryEntity category2 = new CategoryEntity(2, "Transportation", "#33B5E5");
+    when(categoryRepository.findAll()).thenReturn(List.of(category1, category2));
+
+    var result = categoryService.findAllEntitiesById();
+
+    assertEquals(2, result.size());
+    assertEquals(category1, result.get(1));
+    assertEquals(category2, result.get(2));
+  }
 }
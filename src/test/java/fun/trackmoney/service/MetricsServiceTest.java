@@ -4,25 +4,31 @@ import fun.trackmoney.service.MetricsService;
 
 import fun.trackmoney.entity.BudgetHistoryEntity;
 import fun.trackmoney.enums.BudgetStatus;
+import fun.trackmoney.repository.AccountMonthSummaryRepository;
 import fun.trackmoney.repository.BudgetHistoryRepository;
 import fun.trackmoney.entity.CategoryEntity;
 import fun.trackmoney.dto.metrics.response.BudgetPerformanceDTO;
 import fun.trackmoney.dto.metrics.response.CategoryBreakdownDTO;
 import fun.trackmoney.dto.metrics.response.DashboardOverviewDTO;
 import fun.trackmoney.dto.metrics.response.MonthlySummaryDTO;
+import fun.trackmoney.repository.projection.BudgetStatusCountProjection;
 import fun.trackmoney.repository.projection.CategoryAggregateProjection;
 import fun.trackmoney.repository.projection.MonthAggregateProjection;
 import fun.trackmoney.testutils.AccountEntityFactory;
 import fun.trackmoney.testutils.CategoryEntityFactory;
 import fun.trackmoney.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -40,9 +46,27 @@ class MetricsServiceTest {
   @Mock
   private BudgetHistoryService budgetHistoryService;
 
-  @InjectMocks
+  @Mock
+  private AccountMonthSummaryRepository accountMonthSummaryRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
   private MetricsService metricsService;
 
+  @BeforeEach
+  void setUp() {
+    metricsService = new MetricsService(transactionRepository, budgetHistoryRepository, budgetHistoryService,
+        accountMonthSummaryRepository, new MetricsQueryExecutor(Runnable::run, transactionManager));
+  }
+
+  private static BudgetStatusCountProjection budgetCounts(long total, long exceeded) {
+    return new BudgetStatusCountProjection() {
+      @Override public Long getTotal() { return total; }
+      @Override public Long getExceeded() { return exceeded; }
+    };
+  }
+
   @Test
   void getMonthlySummary_shouldReturnAggregatedData() {
     int accountId = 1;
@@ -62,7 +86,7 @@ class MetricsServiceTest {
       @Override public BigDecimal getExpense() { return new BigDecimal("3500"); }
     };
 
-    when(transactionRepository.sumByMonthAndType(accountId, year, null))
+    when(accountMonthSummaryRepository.sumByMonth(accountId, year, 1, year, 12, null))
         .thenReturn(List.of(jan, feb));
 
     MonthlySummaryDTO result = metricsService.getMonthlySummary(accountId, year, null);
@@ -90,7 +114,7 @@ class MetricsServiceTest {
     int accountId = 1;
     int year = 2024;
 
-    when(transactionRepository.sumByMonthAndType(accountId, year, null))
+    when(accountMonthSummaryRepository.sumByMonth(accountId, year, 1, year, 12, null))
         .thenReturn(List.of());
 
     MonthlySummaryDTO result = metricsService.getMonthlySummary(accountId, year, null);
@@ -121,7 +145,7 @@ class MetricsServiceTest {
       @Override public BigDecimal getAmount() { return new BigDecimal("300"); }
     };
 
-    when(transactionRepository.sumByCategoryForMonth(accountId, year, month, null))
+    when(accountMonthSummaryRepository.sumExpensesByCategory(accountId, year, month, year, month, null))
         .thenReturn(List.of(food, transport));
 
     CategoryBreakdownDTO result = metricsService.getByCategory(accountId, year, month, null);
@@ -151,7 +175,7 @@ class MetricsServiceTest {
     int year = 2024;
     int month = 1;
 
-    when(transactionRepository.sumByCategoryForMonth(accountId, year, month, null))
+    when(accountMonthSummaryRepository.sumExpensesByCategory(accountId, year, month, year, month, null))
         .thenReturn(List.of());
 
     CategoryBreakdownDTO result = metricsService.getByCategory(accountId, year, month, null);
@@ -239,9 +263,6 @@ class MetricsServiceTest {
       @Override public BigDecimal getExpense() { return new BigDecimal("3000"); }
     };
 
-    CategoryEntity food = CategoryEntityFactory.defaultCategory();
-    food.setName("Food");
-    food.setColor("#FF5733");
 
     CategoryAggregateProjection topCategory = new CategoryAggregateProjection() {
       @Override public Integer getCategoryId() { return 1; }
@@ -250,29 +271,17 @@ class MetricsServiceTest {
       @Override public BigDecimal getAmount() { return new BigDecimal("500"); }
     };
 
-    BudgetHistoryEntity exceededBudget = new BudgetHistoryEntity()
-        .setHistoryId(1)
-        .setAccount(AccountEntityFactory.defaultAccount())
-        .setCategory(food)
-        .setReferenceMonth((short) currentMonth)
-        .setReferenceYear(currentYear)
-        .setStatus(BudgetStatus.EXCEEDED);
-
-    BudgetHistoryEntity onTrackBudget = new BudgetHistoryEntity()
-        .setHistoryId(2)
-        .setAccount(AccountEntityFactory.defaultAccount())
-        .setCategory(food)
-        .setReferenceMonth((short) currentMonth)
-        .setReferenceYear(currentYear)
-        .setStatus(BudgetStatus.WITHIN_LIMIT);
-
-    when(transactionRepository.sumByMonthAndType(accountId, currentYear, null))
+    when(accountMonthSummaryRepository
+        .sumByMonth(accountId, currentYear, currentMonth, currentYear, currentMonth, null))
         .thenReturn(List.of(monthData));
 
-    when(budgetHistoryRepository.findByAccountAndYearAndMonth(accountId, currentYear, (short) currentMonth, null))
-        .thenReturn(List.of(exceededBudget, onTrackBudget));
+    CategoryEntity food = CategoryEntityFactory.defaultCategory();
+    when(budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(accountId, null)).thenReturn(List.of(
+        provisionalHistory(food, now, new BigDecimal("1200")),
+        provisionalHistory(food, now, new BigDecimal("300"))));
 
-    when(transactionRepository.sumByCategoryForMonth(accountId, currentYear, currentMonth, null))
+    when(accountMonthSummaryRepository
+        .sumExpensesByCategory(accountId, currentYear, currentMonth, currentYear, currentMonth, null))
         .thenReturn(List.of(topCategory));
 
     DashboardOverviewDTO result = metricsService.getOverview(accountId, null);
@@ -296,13 +305,14 @@ class MetricsServiceTest {
     int currentMonth = now.getMonthValue();
     int currentYear = now.getYear();
 
-    when(transactionRepository.sumByMonthAndType(accountId, currentYear, null))
+    when(accountMonthSummaryRepository
+        .sumByMonth(accountId, currentYear, currentMonth, currentYear, currentMonth, null))
         .thenReturn(List.of());
 
-    when(budgetHistoryRepository.findByAccountAndYearAndMonth(accountId, currentYear, (short) currentMonth, null))
-        .thenReturn(List.of());
+    when(budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(accountId, null)).thenReturn(List.of());
 
-    when(transactionRepository.sumByCategoryForMonth(accountId, currentYear, currentMonth, null))
+    when(accountMonthSummaryRepository
+        .sumExpensesByCategory(accountId, currentYear, currentMonth, currentYear, currentMonth, null))
         .thenReturn(List.of());
 
     DashboardOverviewDTO result = metricsService.getOverview(accountId, null);
@@ -420,7 +430,7 @@ class MetricsServiceTest {
       @Override public BigDecimal getExpense() { return new BigDecimal("4000"); }
     };
 
-    when(transactionRepository.sumByMonthAndTypeForDateRange(eq(accountId), any(), any(), eq(null)))
+    when(accountMonthSummaryRepository.sumByMonth(eq(accountId), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
         .thenReturn(List.of(jan, feb, mar));
 
     MonthlySummaryDTO result = metricsService.getMonthlySummary(accountId, startDate, endDate, null);
@@ -441,7 +451,7 @@ class MetricsServiceTest {
     LocalDate startDate = LocalDate.of(2024, 1, 1);
     LocalDate endDate = LocalDate.of(2024, 3, 31);
 
-    when(transactionRepository.sumByMonthAndTypeForDateRange(eq(accountId), any(), any(), eq(null)))
+    when(accountMonthSummaryRepository.sumByMonth(eq(accountId), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
         .thenReturn(List.of());
 
     MonthlySummaryDTO result = metricsService.getMonthlySummary(accountId, startDate, endDate, null);
@@ -450,6 +460,37 @@ class MetricsServiceTest {
     assertTrue(result.months().isEmpty());
   }
 
+  @Test
+  void getMonthlySummary_withPartialMonthRange_shouldAggregateTransactions() {
+    int accountId = 1;
+    LocalDate startDate = LocalDate.of(2024, 1, 10);
+    LocalDate endDate = LocalDate.of(2024, 2, 20);
+
+    when(transactionRepository.sumByMonthAndTypeForDateRange(
+        accountId, startDate.atStartOfDay(), endDate.atTime(23, 59, 59), null))
+        .thenReturn(List.of());
+
+    MonthlySummaryDTO result = metricsService.getMonthlySummary(accountId, startDate, endDate, null);
+
+    assertTrue(result.months().isEmpty());
+    verifyNoInteractions(accountMonthSummaryRepository);
+  }
+
+  @Test
+  void getByCategory_withWholeMonthRange_shouldReadMonthlySummary() {
+    int accountId = 1;
+    LocalDate startDate = LocalDate.of(2024, 2, 1);
+    LocalDate endDate = LocalDate.of(2024, 2, 29);
+
+    when(accountMonthSummaryRepository.sumExpensesByCategory(accountId, 2024, 2, 2024, 2, null))
+        .thenReturn(List.of());
+
+    CategoryBreakdownDTO result = metricsService.getByCategory(accountId, startDate, endDate, null);
+
+    assertEquals(BigDecimal.ZERO, result.totalExpense());
+    verifyNoInteractions(transactionRepository);
+  }
+
   @Test
   void getByCategory_withDateRange_shouldReturnCategoryBreakdown() {
     int accountId = 1;
@@ -470,7 +511,8 @@ class MetricsServiceTest {
       @Override public BigDecimal getAmount() { return new BigDecimal("900"); }
     };
 
-    when(transactionRepository.sumByCategoryForDateRange(eq(accountId), any(), any(), eq(null)))
+    when(accountMonthSummaryRepository
+        .sumExpensesByCategory(eq(accountId), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
         .thenReturn(List.of(food, transport));
 
     CategoryBreakdownDTO result = metricsService.getByCategory(accountId, startDate, endDate, null);
@@ -493,7 +535,8 @@ class MetricsServiceTest {
     LocalDate startDate = LocalDate.of(2024, 1, 1);
     LocalDate endDate = LocalDate.of(2024, 3, 31);
 
-    when(transactionRepository.sumByCategoryForDateRange(eq(accountId), any(), any(), eq(null)))
+    when(accountMonthSummaryRepository
+        .sumExpensesByCategory(eq(accountId), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
         .thenReturn(List.of());
 
     CategoryBreakdownDTO result = metricsService.getByCategory(accountId, startDate, endDate, null);
@@ -534,7 +577,7 @@ class MetricsServiceTest {
         .setStatus(BudgetStatus.EXCEEDED);
 
     when(budgetHistoryRepository.findByAccountAndYearMonthRange(
-        eq(accountId), anyInt(), any(Short.class), anyInt(), any(Short.class), eq(null)
+        eq(accountId), any(LocalDate.class), any(LocalDate.class), eq(null)
     )).thenReturn(List.of(historyJan, historyFeb));
 
     BudgetPerformanceDTO result = metricsService.getBudgetPerformance(accountId, startDate, endDate, null);
@@ -553,7 +596,7 @@ class MetricsServiceTest {
     LocalDate endDate = LocalDate.of(2024, 3, 31);
 
     when(budgetHistoryRepository.findByAccountAndYearMonthRange(
-        eq(accountId), anyInt(), any(Short.class), anyInt(), any(Short.class), eq(null)
+        eq(accountId), any(LocalDate.class), any(LocalDate.class), eq(null)
     )).thenReturn(List.of());
 
     BudgetPerformanceDTO result = metricsService.getBudgetPerformance(accountId, startDate, endDate, null);
@@ -576,9 +619,6 @@ class MetricsServiceTest {
       @Override public BigDecimal getExpense() { return new BigDecimal("9000"); }
     };
 
-    CategoryEntity food = CategoryEntityFactory.defaultCategory();
-    food.setName("Food");
-    food.setColor("#FF5733");
 
     CategoryAggregateProjection topCategory = new CategoryAggregateProjection() {
       @Override public Integer getCategoryId() { return 1; }
@@ -587,30 +627,14 @@ class MetricsServiceTest {
       @Override public BigDecimal getAmount() { return new BigDecimal("3000"); }
     };
 
-    BudgetHistoryEntity exceededBudget = new BudgetHistoryEntity()
-        .setHistoryId(1)
-        .setAccount(AccountEntityFactory.defaultAccount())
-        .setCategory(food)
-        .setReferenceMonth((short) 1)
-        .setReferenceYear(2024)
-        .setStatus(BudgetStatus.EXCEEDED);
-
-    BudgetHistoryEntity onTrackBudget = new BudgetHistoryEntity()
-        .setHistoryId(2)
-        .setAccount(AccountEntityFactory.defaultAccount())
-        .setCategory(food)
-        .setReferenceMonth((short) 2)
-        .setReferenceYear(2024)
-        .setStatus(BudgetStatus.WITHIN_LIMIT);
-
-    when(transactionRepository.sumByMonthAndTypeForDateRange(eq(accountId), any(), any(), eq(null)))
+    when(accountMonthSummaryRepository.sumByMonth(eq(accountId), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
         .thenReturn(List.of(monthData));
 
-    when(budgetHistoryRepository.findByAccountAndYearMonthRange(
-        eq(accountId), anyInt(), any(Short.class), anyInt(), any(Short.class), eq(null)
-    )).thenReturn(List.of(exceededBudget, onTrackBudget));
+    when(budgetHistoryRepository.countByAccountAndMonthRange(accountId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1), null))
+        .thenReturn(budgetCounts(2, 1));
 
-    when(transactionRepository.sumByCategoryForDateRange(eq(accountId), any(), any(), eq(null)))
+    when(accountMonthSummaryRepository
+        .sumExpensesByCategory(eq(accountId), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
         .thenReturn(List.of(topCategory));
 
     DashboardOverviewDTO result = metricsService.getOverview(accountId, startDate, endDate, null);
@@ -619,8 +643,8 @@ class MetricsServiceTest {
     assertEquals(new BigDecimal("15000"), result.totalIncome());
     assertEquals(new BigDecimal("9000"), result.totalExpense());
     assertEquals(new BigDecimal("6000"), result.totalBalance());
-    assertEquals(1, result.exceededBudgetsCount()); // Only January is within range
-    assertEquals(2, result.totalBudgetsCount()); // Both months within range
+    assertEquals(1, result.exceededBudgetsCount());
+    assertEquals(2, result.totalBudgetsCount());
     assertEquals("Food", result.topExpenseCategory());
     assertEquals(new BigDecimal("3000"), result.topExpenseAmount());
     assertEquals(1, result.periodStartMonth());
@@ -633,14 +657,14 @@ class MetricsServiceTest {
     LocalDate startDate = LocalDate.of(2024, 1, 1);
     LocalDate endDate = LocalDate.of(2024, 3, 31);
 
-    when(transactionRepository.sumByMonthAndTypeForDateRange(eq(accountId), any(), any(), eq(null)))
+    when(accountMonthSummaryRepository.sumByMonth(eq(accountId), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
         .thenReturn(List.of());
 
-    when(budgetHistoryRepository.findByAccountAndYearMonthRange(
-        eq(accountId), anyInt(), any(Short.class), anyInt(), any(Short.class), eq(null)
-    )).thenReturn(List.of());
+    when(budgetHistoryRepository.countByAccountAndMonthRange(accountId, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1), null))
+        .thenReturn(budgetCounts(0, 0));
 
-    when(transactionRepository.sumByCategoryForDateRange(eq(accountId), any(), any(), eq(null)))
+    when(accountMonthSummaryRepository
+        .sumExpensesByCategory(eq(accountId), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
         .thenReturn(List.of());
 
     DashboardOverviewDTO result = metricsService.getOverview(accountId, startDate, endDate, null);
@@ -656,37 +680,17 @@ class MetricsServiceTest {
   }
 
   @Test
-  void getOverview_withDateRange_shouldFilterBudgetsOutsideRange() {
+  void getOverview_withDateRange_shouldOnlyCountBudgetMonthsStartingInsideRange() {
     int accountId = 1;
-    LocalDate startDate = LocalDate.of(2024, 2, 1);
+    // January starts before the range, so budgets are counted from February on
+    LocalDate startDate = LocalDate.of(2024, 1, 15);
     LocalDate endDate = LocalDate.of(2024, 3, 31);
 
-    CategoryEntity food = CategoryEntityFactory.defaultCategory();
-
-    // January budget - should be filtered out
-    BudgetHistoryEntity janBudget = new BudgetHistoryEntity()
-        .setHistoryId(1)
-        .setAccount(AccountEntityFactory.defaultAccount())
-        .setCategory(food)
-        .setReferenceMonth((short) 1)
-        .setReferenceYear(2024)
-        .setStatus(BudgetStatus.EXCEEDED);
-
-    // February budget - should be included
-    BudgetHistoryEntity febBudget = new BudgetHistoryEntity()
-        .setHistoryId(2)
-        .setAccount(AccountEntityFactory.defaultAccount())
-        .setCategory(food)
-        .setReferenceMonth((short) 2)
-        .setReferenceYear(2024)
-        .setStatus(BudgetStatus.EXCEEDED);
-
     when(transactionRepository.sumByMonthAndTypeForDateRange(eq(accountId), any(), any(), eq(null)))
         .thenReturn(List.of());
 
-    when(budgetHistoryRepository.findByAccountAndYearMonthRange(
-        eq(accountId), anyInt(), any(Short.class), anyInt(), any(Short.class), eq(null)
-    )).thenReturn(List.of(janBudget, febBudget));
+    when(budgetHistoryRepository.countByAccountAndMonthRange(accountId, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1), null))
+        .thenReturn(budgetCounts(1, 1));
 
     when(transactionRepository.sumByCategoryForDateRange(eq(accountId), any(), any(), eq(null)))
         .thenReturn(List.of());
@@ -694,53 +698,180 @@ class MetricsServiceTest {
     DashboardOverviewDTO result = metricsService.getOverview(accountId, startDate, endDate, null);
 
     assertNotNull(result);
-    // Only February budget should be counted (January is before start date)
     assertEquals(1, result.totalBudgetsCount());
     assertEquals(1, result.exceededBudgetsCount());
   }
 
   @Test
-  void getBudgetPerformance_withDateRange_shouldCallProvisionalGeneration_whenCurrentMonthRange() {
+  void getOverview_shouldCountCurrentMonthBudgetsFromProvisionalFigures() {
+    CategoryEntity food = CategoryEntityFactory.defaultCategory();
+    LocalDate now = LocalDate.now();
+    when(accountMonthSummaryRepository.sumByMonth(eq(1), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
+        .thenReturn(List.of());
+    when(accountMonthSummaryRepository.sumExpensesByCategory(eq(1), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
+        .thenReturn(List.of());
+    when(budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(1, null)).thenReturn(List.of(
+        provisionalHistory(food, now, new BigDecimal("1000.01")),
+        provisionalHistory(food, now, new BigDecimal("1000")),
+        provisionalHistory(food, now, BigDecimal.ZERO)));
+
+    DashboardOverviewDTO result = metricsService.getOverview(1, null);
+
+    assertEquals(3, result.totalBudgetsCount());
+    assertEquals(1, result.exceededBudgetsCount());
+    verify(budgetHistoryRepository, never()).countByAccountAndMonthRange(anyInt(), any(), any(), any());
+  }
+
+  @Test
+  void getOverview_withDateRange_shouldAddProvisionalBudgetsToStoredMonths_whenRangeCoversCurrentMonth() {
+    CategoryEntity food = CategoryEntityFactory.defaultCategory();
+    LocalDate now = LocalDate.now();
+    LocalDate startDate = now.minusMonths(2).withDayOfMonth(1);
+    LocalDate previousMonth = now.minusMonths(1).withDayOfMonth(1);
+    when(budgetHistoryRepository.countByAccountAndMonthRange(1, startDate, previousMonth, null))
+        .thenReturn(budgetCounts(4, 1));
+    when(budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(1, null)).thenReturn(List.of(
+        provisionalHistory(food, now, new BigDecimal("1500")),
+        provisionalHistory(food, now, new BigDecimal("10"))));
+    when(accountMonthSummaryRepository.sumByMonth(eq(1), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
+        .thenReturn(List.of());
+    when(accountMonthSummaryRepository.sumExpensesByCategory(eq(1), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
+        .thenReturn(List.of());
+
+    DashboardOverviewDTO result = metricsService.getOverview(
+        1, startDate, now.withDayOfMonth(now.lengthOfMonth()), null);
+
+    assertEquals(6, result.totalBudgetsCount());
+    assertEquals(2, result.exceededBudgetsCount());
+  }
+
+  @Test
+  void getOverview_shouldRunQueriesInSeparateReadOnlyTransactions() {
+    List<Runnable> submitted = new ArrayList<>();
+    metricsService = new MetricsService(transactionRepository, budgetHistoryRepository, budgetHistoryService,
+        accountMonthSummaryRepository, new MetricsQueryExecutor(task -> {
+          submitted.add(task);
+          task.run();
+        }, transactionManager));
+    when(accountMonthSummaryRepository.sumByMonth(eq(1), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
+        .thenReturn(List.of());
+    when(accountMonthSummaryRepository.sumExpensesByCategory(eq(1), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
+        .thenReturn(List.of());
+
+    metricsService.getOverview(1, null);
+
+    assertEquals(3, submitted.size());
+    ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+    verify(transactionManager, times(3)).getTransaction(definitions.capture());
+    assertTrue(definitions.getAllValues().stream().allMatch(TransactionDefinition::isReadOnly));
+  }
+
+  @Test
+  void getOverview_shouldRethrowQueryFailureUnwrapped() {
+    IllegalStateException failure = new IllegalStateException("connection lost");
+    when(accountMonthSummaryRepository.sumByMonth(eq(1), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
+        .thenThrow(failure);
+    lenient().when(budgetHistoryRepository.countByAccountAndMonthRange(eq(1), any(), any(), eq(null)))
+        .thenReturn(budgetCounts(0, 0));
+    lenient().when(accountMonthSummaryRepository
+            .sumExpensesByCategory(eq(1), anyInt(), anyInt(), anyInt(), anyInt(), eq(null)))
+        .thenReturn(List.of());
+
+    IllegalStateException thrown = assertThrows(IllegalStateException.class,
+        () -> metricsService.getOverview(1, null));
+
+    assertSame(failure, thrown);
+  }
+
+  @Test
+  void getBudgetPerformance_withDateRange_shouldMergeProvisionalFigures_whenCurrentMonthRange() {
     LocalDate now = LocalDate.now();
-    LocalDate startDate = LocalDate.of(now.getYear(), now.getMonthValue(), 1);
-    LocalDate endDate = now;
+    LocalDate startDate = now.withDayOfMonth(1);
+    CategoryEntity food = CategoryEntityFactory.defaultCategory();
+    BudgetHistoryEntity storedProvisional = provisionalHistory(food, now, new BigDecimal("100"));
+    BudgetHistoryEntity calculated = provisionalHistory(food, now, new BigDecimal("250"));
 
     when(budgetHistoryRepository.findByAccountAndYearMonthRange(
-        eq(1), anyInt(), any(Short.class), anyInt(), any(Short.class), eq(null)
-    )).thenReturn(List.of());
+        eq(1), any(LocalDate.class), any(LocalDate.class), eq(null)
+    )).thenReturn(List.of(storedProvisional));
+    when(budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(1, null)).thenReturn(List.of(calculated));
 
-    metricsService.getBudgetPerformance(1, startDate, endDate, null);
+    BudgetPerformanceDTO result = metricsService.getBudgetPerformance(1, startDate, now, null);
+
+    assertEquals(1, result.monthlyPerformance().size());
+    List<BudgetPerformanceDTO.CategoryBudgetPerformance> categories = result.monthlyPerformance().get(0).categories();
+    assertEquals(1, categories.size());
+    assertEquals(new BigDecimal("250"), categories.get(0).spentAmount());
+    assertEquals("PROVISIONAL", categories.get(0).status());
+  }
 
-    verify(budgetHistoryService).generateProvisionalHistoryForCurrentMonth(eq(1), eq(null));
+  @Test
+  void getBudgetPerformance_withDateRange_shouldKeepPastMonths_whenRangeEndsInCurrentMonth() {
+    LocalDate now = LocalDate.now();
+    LocalDate lastMonth = now.minusMonths(1);
+    CategoryEntity food = CategoryEntityFactory.defaultCategory();
+    BudgetHistoryEntity finalized = provisionalHistory(food, lastMonth, new BigDecimal("900"))
+        .setStatus(BudgetStatus.WITHIN_LIMIT);
+    BudgetHistoryEntity calculated = provisionalHistory(food, now, new BigDecimal("250"));
+
+    when(budgetHistoryRepository.findByAccountAndYearMonthRange(
+        eq(1), any(LocalDate.class), any(LocalDate.class), eq(null)
+    )).thenReturn(List.of(finalized));
+    when(budgetHistoryService.calculateProvisionalHistoryForCurrentMonth(1, null)).thenReturn(List.of(calculated));
+
+    BudgetPerformanceDTO result = metricsService.getBudgetPerformance(1, lastMonth.withDayOfMonth(1), now, null);
+
+    assertEquals(2, result.monthlyPerformance().stream().mapToInt(m -> m.categories().size()).sum());
   }
 
   @Test
-  void getBudgetPerformance_withDateRange_shouldNotCallProvisionalGeneration_whenNotCurrentMonthRange() {
+  void getBudgetPerformance_withDateRange_shouldNotCalculateProvisionalFigures_whenNotCurrentMonthRange() {
     LocalDate startDate = LocalDate.of(2024, 1, 1);
     LocalDate endDate = LocalDate.of(2024, 3, 31);
 
     when(budgetHistoryRepository.findByAccountAndYearMonthRange(
-        eq(1), anyInt(), any(Short.class), anyInt(), any(Short.class), eq(null)
+        eq(1), any(LocalDate.class), any(LocalDate.class), eq(null)
     )).thenReturn(List.of());
 
     metricsService.getBudgetPerformance(1, startDate, endDate, null);
 
-    verify(budgetHistoryService, never()).generateProvisionalHistoryForCurrentMonth(anyInt(), any());
+    verify(budgetHistoryService, never()).calculateProvisionalHistoryForCurrentMonth(anyInt(), any());
   }
 
   @Test
-  void getBudgetPerformance_withDateRange_shouldCallProvisionalGeneration_withCategoryId() {
+  void getBudgetPerformance_withDateRange_shouldCalculateProvisionalFigures_withCategoryId() {
     LocalDate now = LocalDate.now();
-    LocalDate startDate = LocalDate.of(now.getYear(), now.getMonthValue(), 1);
-    LocalDate endDate = now;
+    LocalDate startDate = now.withDayOfMonth(1);
     Integer categoryId = 5;
 
     when(budgetHistoryRepository.findByAccountAndYearMonthRange(
-        eq(1), anyInt(), any(Short.class), anyInt(), any(Short.class), eq(categoryId)
+        eq(1), any(LocalDate.class), any(LocalDate.class), eq(categoryId)
     )).thenReturn(List.of());
 
-    metricsService.getBudgetPerformance(1, startDate, endDate, categoryId);
+    metricsService.getBudgetPerformance(1, startDate, now, categoryId);
+
+    verify(budgetHistoryService).calculateProvisionalHistoryForCurrentMonth(1, categoryId);
+  }
+
+  @Test
+  void getBudgetPerformance_forCurrentYear_shouldCalculateProvisionalFigures() {
+    int year = LocalDate.now().getYear();
+    when(budgetHistoryRepository.findByAccountAndYear(1, year, null)).thenReturn(List.of());
 
-    verify(budgetHistoryService).generateProvisionalHistoryForCurrentMonth(eq(1), eq(categoryId));
+    metricsService.getBudgetPerformance(1, year, null);
+
+    verify(budgetHistoryService).calculateProvisionalHistoryForCurrentMonth(1, null);
+  }
+
+  private BudgetHistoryEntity provisionalHistory(CategoryEntity category, LocalDate month, BigDecimal spent) {
+    return new BudgetHistoryEntity()
+        .setAccount(AccountEntityFactory.defaultAccount())
+        .setCategory(category)
+        .setReferenceMonth((short) month.getMonthValue())
+        .setReferenceYear(month.getYear())
+        .setTargetAmount(new BigDecimal("1000"))
+        .setSpentAmount(spent)
+        .setRemainingAmount(new BigDecimal("1000").subtract(spent))
+        .setStatus(BudgetStatus.PROVISIONAL);
   }
 }
@@ -0,0 +1,125 @@
+package fun.trackmoney.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import fun.trackmoney.dto.recurring.RecurringCalendarDTO;
+import fun.trackmoney.entity.RecurringEntity;
+import fun.trackmoney.entity.UserEntity;
+import fun.trackmoney.enums.ExportFormat;
+import fun.trackmoney.enums.Frequency;
+import fun.trackmoney.enums.TransactionType;
+import fun.trackmoney.repository.RecurringRepository;
+import fun.trackmoney.testutils.AccountEntityFactory;
+import fun.trackmoney.testutils.CategoryEntityFactory;
+import fun.trackmoney.testutils.RecurringEntityFactory;
+import fun.trackmoney.testutils.UserEntityFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RecurringCalendarServiceTest {
+
+  private static final LocalDate FROM = LocalDate.of(2025, 3, 1);
+
+  private RecurringRepository recurringRepository;
+  private RecurringCalendarService recurringCalendarService;
+  private UserEntity user;
+
+  @BeforeEach
+  void setUp() {
+    recurringRepository = mock(RecurringRepository.class);
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    recurringCalendarService = new RecurringCalendarService(recurringRepository, objectMapper);
+    user = UserEntityFactory.defaultUser();
+  }
+
+  @Test
+  void getCalendar_shouldTotalTheWholeWindowAndListUpToTheLimit() {
+    when(recurringRepository.findAllWithCategoryByAccountId(any())).thenReturn(List.of(
+        rule(1L, Frequency.MONTHLY, TransactionType.INCOME, "1000", LocalDateTime.of(2025, 3, 5, 0, 0)),
+        rule(2L, Frequency.MONTHLY, TransactionType.EXPENSE, "300", LocalDateTime.of(2025, 3, 10, 0, 0))));
+
+    RecurringCalendarDTO calendar = recurringCalendarService.getCalendar(user, FROM, LocalDate.of(2025, 5, 31), 4);
+
+    assertEquals(4, calendar.occurrences().size());
+    assertTrue(calendar.truncated());
+    assertEquals(6, calendar.totalOccurrences());
+    assertEquals(new BigDecimal("3000"), calendar.totalIncome());
+    assertEquals(new BigDecimal("900"), calendar.totalExpense());
+  }
+
+  @Test
+  void getCalendar_shouldDefaultToTwelveMonthsAndCapTheWindow() {
+    when(recurringRepository.findAllWithCategoryByAccountId(any())).thenReturn(List.of());
+
+    RecurringCalendarDTO byDefault = recurringCalendarService.getCalendar(user, FROM, null, 10);
+    RecurringCalendarDTO capped = recurringCalendarService.getCalendar(user, FROM, FROM.plusYears(50), 10);
+
+    assertEquals(FROM.plusMonths(RecurringCalendarService.DEFAULT_WINDOW_MONTHS), byDefault.to());
+    assertEquals(FROM.plusYears(RecurringCalendarService.MAX_WINDOW_YEARS), capped.to());
+    assertFalse(capped.truncated());
+  }
+
+  @Test
+  void getCalendar_shouldNotQueryWhenTheWindowIsEmpty() {
+    RecurringCalendarDTO calendar = recurringCalendarService.getCalendar(user, FROM, FROM.minusDays(1), 10);
+
+    assertTrue(calendar.occurrences().isEmpty());
+    assertEquals(BigDecimal.ZERO, calendar.totalExpense());
+    verify(recurringRepository, never()).findAllWithCategoryByAccountId(any());
+  }
+
+  @Test
+  void export_shouldWriteCsvLinesInDateOrder() throws IOException {
+    when(recurringRepository.findAllWithCategoryByAccountId(any())).thenReturn(List.of(
+        rule(1L, Frequency.YEARLY, TransactionType.EXPENSE, "50.5", LocalDateTime.of(2025, 3, 20, 0, 0)),
+        rule(2L, Frequency.YEARLY, TransactionType.INCOME, "10", LocalDateTime.of(2025, 3, 2, 0, 0))));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    recurringCalendarService.export(user, FROM, LocalDate.of(2025, 12, 31), ExportFormat.CSV, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(3, lines.length);
+    assertEquals("recurringId,transactionName,transactionType,amount,categoryId,date", lines[0]);
+    assertTrue(lines[1].startsWith("2,\"Rule, 2\",INCOME,10,"));
+    assertTrue(lines[2].endsWith(",2025-03-20T00:00"));
+  }
+
+  @Test
+  void export_shouldWriteOneJsonObjectPerOccurrence() throws IOException {
+    when(recurringRepository.findAllWithCategoryByAccountId(any())).thenReturn(List.of(
+        rule(1L, Frequency.WEEKLY, TransactionType.EXPENSE, "5", LocalDateTime.of(2025, 3, 3, 0, 0))));
+
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    recurringCalendarService.export(user, FROM, LocalDate.of(2025, 3, 31), ExportFormat.NDJSON, outputStream);
+
+    String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+    assertEquals(5, lines.length);
+    assertTrue(lines[0].startsWith("{\"recurringId\":1,"));
+    assertTrue(lines[4].contains("\"date\":\"2025-03-31T00:00:00\""));
+  }
+
+  private static RecurringEntity rule(Long id, Frequency frequency, TransactionType type, String amount,
+                                      LocalDateTime nextDate) {
+    return RecurringEntityFactory.customEntity(id, frequency, nextDate, null, AccountEntityFactory.defaultAccount(),
+        CategoryEntityFactory.defaultCategory(), type, new BigDecimal(amount), null, "Rule, " + id);
+  }
+}
@@ -0,0 +1,116 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.dto.recurring.RecurringOccurrenceDTO;
+import fun.trackmoney.entity.RecurringEntity;
+import fun.trackmoney.enums.Frequency;
+import fun.trackmoney.enums.TransactionType;
+import fun.trackmoney.testutils.AccountEntityFactory;
+import fun.trackmoney.testutils.CategoryEntityFactory;
+import fun.trackmoney.testutils.RecurringEntityFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecurringCalendarTest {
+
+  private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 0, 0);
+
+  @Test
+  void shouldMergeRulesInDateOrder() {
+    RecurringEntity monthly = rule(1L, Frequency.MONTHLY, LocalDateTime.of(2025, 3, 5, 9, 0));
+    RecurringEntity weekly = rule(2L, Frequency.WEEKLY, LocalDateTime.of(2025, 3, 3, 9, 0));
+
+    List<RecurringOccurrenceDTO> occurrences = drain(new RecurringCalendar(List.of(monthly, weekly), START,
+        LocalDateTime.of(2025, 4, 1, 0, 0)));
+
+    assertEquals(List.of(
+        LocalDateTime.of(2025, 3, 3, 9, 0),
+        LocalDateTime.of(2025, 3, 5, 9, 0),
+        LocalDateTime.of(2025, 3, 10, 9, 0),
+        LocalDateTime.of(2025, 3, 17, 9, 0),
+        LocalDateTime.of(2025, 3, 24, 9, 0),
+        LocalDateTime.of(2025, 3, 31, 9, 0)), occurrences.stream().map(RecurringOccurrenceDTO::date).toList());
+    assertEquals(1L, occurrences.get(1).recurringId());
+  }
+
+  @Test
+  void shouldSkipOccurrencesBeforeTheWindowAndStopAtItsEnd() {
+    RecurringEntity daily = rule(1L, Frequency.DAILY, LocalDateTime.of(2025, 2, 20, 8, 0));
+
+    List<RecurringOccurrenceDTO> occurrences = drain(new RecurringCalendar(List.of(daily), START,
+        LocalDateTime.of(2025, 3, 4, 0, 0)));
+
+    assertEquals(3, occurrences.size());
+    assertEquals(LocalDateTime.of(2025, 3, 1, 8, 0), occurrences.get(0).date());
+    assertEquals(LocalDateTime.of(2025, 3, 3, 8, 0), occurrences.get(2).date());
+  }
+
+  @Test
+  void shouldOrderSameInstantByRuleId() {
+    LocalDateTime date = LocalDateTime.of(2025, 3, 10, 0, 0);
+    RecurringCalendar calendar = new RecurringCalendar(
+        List.of(rule(7L, Frequency.YEARLY, date), rule(3L, Frequency.YEARLY, date)), START,
+        LocalDateTime.of(2026, 1, 1, 0, 0));
+
+    assertEquals(3L, calendar.next().recurringId());
+    assertEquals(7L, calendar.next().recurringId());
+    assertFalse(calendar.hasNext());
+    assertThrows(NoSuchElementException.class, calendar::next);
+  }
+
+  @Test
+  void shouldBeEmptyWhenNoRuleFallsInTheWindow() {
+    RecurringEntity yearly = rule(1L, Frequency.YEARLY, LocalDateTime.of(2025, 6, 1, 0, 0));
+
+    assertFalse(new RecurringCalendar(List.of(yearly), START, LocalDateTime.of(2025, 5, 1, 0, 0)).hasNext());
+  }
+
+  @Test
+  void shouldJumpStraightToAWindowFarAheadOfTheRule() {
+    RecurringEntity daily = rule(1L, Frequency.DAILY, LocalDateTime.of(2025, 2, 20, 8, 0));
+    LocalDateTime start = LocalDateTime.of(999_999_990, 12, 31, 0, 0);
+
+    RecurringCalendar calendar = new RecurringCalendar(List.of(daily), start, start.plusDays(2));
+
+    assertEquals(LocalDateTime.of(999_999_990, 12, 31, 8, 0), calendar.next().date());
+    assertEquals(LocalDateTime.of(999_999_991, 1, 1, 8, 0), calendar.next().date());
+    assertFalse(calendar.hasNext());
+  }
+
+  @ParameterizedTest
+  @EnumSource(Frequency.class)
+  void firstOnOrAfterShouldMatchSteppingOnePeriodAtATime(Frequency frequency) {
+    List<LocalDateTime> dates = List.of(LocalDateTime.of(2024, 1, 31, 9, 0), LocalDateTime.of(2024, 2, 29, 0, 0),
+        LocalDateTime.of(2025, 3, 5, 23, 59), LocalDateTime.of(2025, 3, 6, 0, 0));
+    for (LocalDateTime date : dates) {
+      for (LocalDateTime start = date.minusDays(3); start.isBefore(date.plusYears(6)); start = start.plusDays(11)) {
+        LocalDateTime stepped = date;
+        while (stepped.isBefore(start)) {
+          stepped = RecurringCalendar.nextOccurrence(frequency, stepped);
+        }
+        assertEquals(stepped, RecurringCalendar.firstOnOrAfter(frequency, date, start), date + " from " + start);
+      }
+    }
+  }
+
+  private static List<RecurringOccurrenceDTO> drain(RecurringCalendar calendar) {
+    List<RecurringOccurrenceDTO> occurrences = new ArrayList<>();
+    calendar.forEachRemaining(occurrences::add);
+    return occurrences;
+  }
+
+  private static RecurringEntity rule(Long id, Frequency frequency, LocalDateTime nextDate) {
+    return RecurringEntityFactory.customEntity(id, frequency, nextDate, null, AccountEntityFactory.defaultAccount(),
+        CategoryEntityFactory.defaultCategory(), TransactionType.EXPENSE, BigDecimal.TEN, null, "Rule " + id);
+  }
+}
@@ -0,0 +1,161 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.dto.recurring.internal.RecurringCatchUpResult;
+import fun.trackmoney.entity.AccountEntity;
+import fun.trackmoney.entity.RecurringEntity;
+import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.enums.Frequency;
+import fun.trackmoney.enums.TransactionType;
+import fun.trackmoney.infra.redis.MetricsCacheService;
+import fun.trackmoney.repository.RecurringRepository;
+import fun.trackmoney.repository.TransactionBatchRepository;
+import fun.trackmoney.testutils.AccountEntityFactory;
+import fun.trackmoney.testutils.CategoryEntityFactory;
+import fun.trackmoney.testutils.RecurringEntityFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecurringCatchUpRunnerTest {
+
+  private static final LocalDateTime NOW = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+  @Mock
+  private RecurringRepository recurringRepository;
+
+  @Mock
+  private TransactionBatchRepository transactionBatchRepository;
+
+  @Mock
+  private AccountService accountService;
+
+  @Mock
+  private AccountMonthSummaryService accountMonthSummaryService;
+
+  @Mock
+  private MetricsCacheService metricsCacheService;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private RecurringCatchUpRunner runner;
+
+  @BeforeEach
+  void setUp() {
+    runner = new RecurringCatchUpRunner(recurringRepository, transactionBatchRepository, accountService,
+        accountMonthSummaryService, metricsCacheService, transactionManager, Runnable::run, 2, 3);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void run_shouldPostEveryMissedOccurrenceWithOneNetBalanceChangePerAccount() {
+    RecurringEntity daily = rule(1, Frequency.DAILY, NOW.minusDays(2), TransactionType.INCOME, "10");
+    RecurringEntity monthly = rule(1, Frequency.MONTHLY, NOW.minusDays(1), TransactionType.EXPENSE, "4");
+    RecurringEntity salary = rule(2, Frequency.MONTHLY, NOW, TransactionType.INCOME, "5");
+    RecurringEntity rent = rule(2, Frequency.MONTHLY, NOW, TransactionType.EXPENSE, "5");
+    when(recurringRepository.claimDue(NOW, List.of(0), 3))
+        .thenReturn(List.of(salary, daily, monthly), List.of(rent), List.of());
+
+    RecurringCatchUpResult result = runner.run(NOW);
+
+    assertEquals(new RecurringCatchUpResult(3, 4, 6, 0), result);
+    ArgumentCaptor<List<TransactionEntity>> inserted = ArgumentCaptor.forClass(List.class);
+    verify(transactionBatchRepository, times(3)).insertAll(inserted.capture(), anyInt());
+    // accounts are posted in ascending order within a batch
+    List<TransactionEntity> firstAccount = inserted.getAllValues().get(0);
+    assertEquals(List.of(NOW.minusDays(2), NOW.minusDays(1), NOW, NOW.minusDays(1)),
+        firstAccount.stream().map(TransactionEntity::getTransactionDate).toList());
+    verify(accountService).adjustBalance(1, new BigDecimal("26"));
+    verify(accountService).adjustBalance(2, new BigDecimal("5"));
+    verify(accountService).adjustBalance(2, new BigDecimal("-5"));
+    verify(accountMonthSummaryService).recordAll(firstAccount);
+    verify(metricsCacheService).invalidate(1);
+    verify(metricsCacheService, times(2)).invalidate(2);
+
+    assertEquals(NOW.plusDays(1), daily.getNextDate());
+    assertEquals(NOW, daily.getLastDate());
+    assertEquals(NOW.minusDays(1).plusMonths(1), monthly.getNextDate());
+  }
+
+  @Test
+  void run_shouldOnlyLockTheAccountWhenItsOccurrencesCancelOut() {
+    RecurringEntity salary = rule(2, Frequency.MONTHLY, NOW, TransactionType.INCOME, "5");
+    RecurringEntity rent = rule(2, Frequency.MONTHLY, NOW, TransactionType.EXPENSE, "5");
+    when(recurringRepository.claimDue(NOW, List.of(0), 3)).thenReturn(List.of(salary, rent), List.of());
+
+    runner.run(NOW);
+
+    verify(accountService).lockAccount(2);
+    verify(accountService, never()).adjustBalance(anyInt(), any());
+  }
+
+  @Test
+  void run_shouldRetryAccountByAccountAndLeaveOutTheAccountThatFails() {
+    RecurringEntity healthy = rule(1, Frequency.MONTHLY, NOW, TransactionType.INCOME, "10");
+    RecurringEntity broken = rule(2, Frequency.MONTHLY, NOW, TransactionType.INCOME, "7");
+    when(recurringRepository.claimDue(NOW, List.of(0), 3)).thenReturn(List.of(healthy, broken));
+    when(accountService.adjustBalance(anyInt(), any())).thenAnswer(invocation -> {
+      if (invocation.<Integer>getArgument(0) == 2) {
+        throw new IllegalStateException("bad rule");
+      }
+      return true;
+    });
+    when(recurringRepository.claimDueForAccount(1, NOW))
+        .thenReturn(List.of(rule(1, Frequency.MONTHLY, NOW, TransactionType.INCOME, "10")));
+    when(recurringRepository.claimDueForAccount(2, NOW))
+        .thenReturn(List.of(rule(2, Frequency.MONTHLY, NOW, TransactionType.INCOME, "7")));
+    when(recurringRepository.claimDue(eq(NOW), argThat(excluded -> excluded.contains(2)), eq(3)))
+        .thenReturn(List.of());
+
+    RecurringCatchUpResult result = runner.run(NOW);
+
+    assertEquals(new RecurringCatchUpResult(1, 1, 1, 1), result);
+    verify(accountService, times(2)).adjustBalance(1, new BigDecimal("10"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void run_shouldKeepClaimingARuleThatIsStillBehindAfterOneBatch() {
+    RecurringEntity stale = rule(1, Frequency.DAILY, NOW.minusDays(500), TransactionType.EXPENSE, "1");
+    when(recurringRepository.claimDue(NOW, List.of(0), 3)).thenReturn(List.of(stale), List.of(stale), List.of());
+
+    RecurringCatchUpResult result = runner.run(NOW);
+
+    ArgumentCaptor<List<TransactionEntity>> inserted = ArgumentCaptor.forClass(List.class);
+    verify(transactionBatchRepository, times(2)).insertAll(inserted.capture(), anyInt());
+    assertEquals(RecurringCatchUpRunner.MAX_OCCURRENCES_PER_RULE, inserted.getAllValues().get(0).size());
+    assertEquals(101, inserted.getAllValues().get(1).size());
+    assertEquals(501, result.transactions());
+    assertEquals(NOW.plusDays(1), stale.getNextDate());
+  }
+
+  @Test
+  void run_shouldStopAWorkerWhenItCannotClaim() {
+    when(recurringRepository.claimDue(NOW, List.of(0), 3)).thenThrow(new IllegalStateException("database down"));
+
+    RecurringCatchUpResult result = runner.run(NOW);
+
+    assertEquals(new RecurringCatchUpResult(0, 0, 0, 0), result);
+    verify(recurringRepository, times(2)).claimDue(NOW, List.of(0), 3);
+  }
+
+  private static RecurringEntity rule(int accountId, Frequency frequency, LocalDateTime nextDate,
+                                      TransactionType type, String amount) {
+    AccountEntity account = AccountEntityFactory.customAccount(accountId, null, "Account", BigDecimal.ZERO);
+    return RecurringEntityFactory.customEntity(null, frequency, nextDate, null, account,
+        CategoryEntityFactory.defaultCategory(), type, new BigDecimal(amount), "description", "name");
+  }
+}
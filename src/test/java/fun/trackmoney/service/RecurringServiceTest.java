@@ -14,19 +14,11 @@ import fun.trackmoney.testutils.CategoryEntityFactory;
 import fun.trackmoney.testutils.CreateRecurringRequestFactory;
 import fun.trackmoney.testutils.RecurringEntityFactory;
 import fun.trackmoney.testutils.RecurringResponseFactory;
-import fun.trackmoney.testutils.TransactionResponseDTOFactory;
 import fun.trackmoney.testutils.UserEntityFactory;
-import fun.trackmoney.dto.transaction.CreateTransactionDTO;
-import fun.trackmoney.dto.transaction.TransactionResponseDTO;
-import fun.trackmoney.dto.transaction.internal.TransactionFailure;
-import fun.trackmoney.dto.transaction.internal.TransactionResult;
-import fun.trackmoney.dto.transaction.internal.TransactionSuccess;
-import fun.trackmoney.enums.TransactionsError;
-import fun.trackmoney.service.TransactionService;
 import fun.trackmoney.entity.UserEntity;
+import fun.trackmoney.dto.recurring.internal.RecurringCatchUpResult;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
@@ -69,7 +61,7 @@ class RecurringServiceTest {
   private CategoryService categoryService;
 
   @Mock
-  private TransactionService transactionService;
+  private RecurringCatchUpRunner recurringCatchUpRunner;
 
   @InjectMocks
   private RecurringService recurringService;
@@ -187,78 +179,12 @@ class RecurringServiceTest {
   }
 
   @Test
-  void processRecurring_shouldProcessSuccessfully() {
-    RecurringService spyService = Mockito.spy(recurringService);
-    RecurringEntity recurring = RecurringEntityFactory.defaultEntity();
-    LocalDateTime expectedNextDate = LocalDateTime.now().plusMonths(1);
-    TransactionResponseDTO responseDTO = TransactionResponseDTOFactory.defaultTransactionResponse();
-    TransactionResult successResult = new TransactionSuccess(responseDTO);
-
-    when(transactionService.createTransaction(
-        any(CreateTransactionDTO.class),
-        eq(recurring.getAccount().getUser())
-    )).thenReturn(successResult);
-
-    // Mock the repository to set the expected next date when saving
-    when(recurringRepository.save(any(RecurringEntity.class))).thenAnswer(invocation -> {
-      RecurringEntity entity = invocation.getArgument(0);
-      entity.setNextDate(expectedNextDate);
-      return entity;
-    });
-
-    ReflectionTestUtils.invokeMethod(spyService, "processRecurring", recurring);
-
-    ArgumentCaptor<CreateTransactionDTO> dtoCaptor = ArgumentCaptor.forClass(CreateTransactionDTO.class);
-
-    verify(transactionService).createTransaction(
-        dtoCaptor.capture(),
-        eq(recurring.getAccount().getUser())
-    );
-
-    CreateTransactionDTO capturedDto = dtoCaptor.getValue();
-
-    assertEquals(recurring.getAmount(), capturedDto.amount());
-    assertEquals(recurring.getDescription(), capturedDto.description());
-    assertEquals(recurring.getCategory().getCategoryId(), capturedDto.categoryId());
-    // ---------------------------------------------
-
-    verify(recurringRepository).save(any(RecurringEntity.class));
-  }
-
-  @Test
-  void processRecurring_shouldThrowWhenTransactionFails() {
-    RecurringService spyService = Mockito.spy(recurringService);
-    RecurringEntity recurring = RecurringEntityFactory.defaultEntity();
-    TransactionFailure failure = new TransactionFailure(TransactionsError.ACCOUNT_NOT_FOUND);
-
-    when(transactionService.createTransaction(
-        Mockito.<CreateTransactionDTO>any(),
-        eq(recurring.getAccount().getUser())
-    )).thenReturn(failure);
-
-    RuntimeException ex = assertThrows(
-        RuntimeException.class,
-        () -> ReflectionTestUtils.invokeMethod(spyService, "processRecurring", recurring)
-    );
-
-    assertTrue(ex.getMessage().contains("Failed to create transaction"));
-    verify(recurringRepository, never()).save(any(RecurringEntity.class));
-  }
-
-  @Test
-  void recurringTransaction_shouldProcessTheRecurring() {
-    RecurringService spyService = Mockito.spy(recurringService);
-
-    RecurringEntity recurring1 = RecurringEntityFactory.defaultEntity();
-    RecurringEntity recurring2 = RecurringEntityFactory.defaultEntity();
-    List<RecurringEntity> recurrences = List.of(recurring1, recurring2);
-
-    when(recurringRepository.findByNextDateBefore(any(LocalDateTime.class)))
-        .thenReturn(recurrences);
+  void recurringTransaction_shouldRunTheCatchUp() {
+    when(recurringCatchUpRunner.run(any(LocalDateTime.class))).thenReturn(new RecurringCatchUpResult(1, 2, 3, 0));
 
-    spyService.recurringTransactions();
+    recurringService.recurringTransactions();
 
-    verify(recurringRepository, times(1)).findByNextDateBefore(any(LocalDateTime.class));
+    verify(recurringCatchUpRunner).run(any(LocalDateTime.class));
   }
 
   @Test
@@ -0,0 +1,88 @@
+package fun.trackmoney.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import fun.trackmoney.dto.transaction.TransactionExportDTO;
+import fun.trackmoney.enums.ExportFormat;
+import fun.trackmoney.enums.TransactionType;
+import fun.trackmoney.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TransactionExportServiceTest {
+
+  private TransactionRepository transactionRepository;
+  private TransactionExportService transactionExportService;
+
+  @BeforeEach
+  void setUp() {
+    transactionRepository = mock(TransactionRepository.class);
+    ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    transactionExportService = new TransactionExportService(transactionRepository, objectMapper);
+  }
+
+  @Test
+  void export_shouldWriteOneJsonObjectPerLine() throws IOException {
+    when(transactionRepository.streamExportByAccountId(1)).thenReturn(Stream.of(
+        row(1, "Salary", "March", TransactionType.INCOME),
+        row(2, "Market", null, TransactionType.EXPENSE)));
+
+    String output = export(ExportFormat.NDJSON);
+
+    String[] lines = output.split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("{\"transactionId\":1,\"transactionName\":\"Salary\""));
+    assertTrue(lines[1].contains("\"transactionDate\":\"2025-03-10T12:00:00\""));
+  }
+
+  @Test
+  void export_shouldWriteCsvWithHeaderAndEscapedFields() throws IOException {
+    when(transactionRepository.streamExportByAccountId(1)).thenReturn(Stream.of(
+        row(1, "Market, bakery", "said \"hi\"", TransactionType.EXPENSE)));
+
+    String output = export(ExportFormat.CSV);
+
+    String[] lines = output.split("\n");
+    assertEquals(2, lines.length);
+    assertTrue(lines[0].startsWith("transactionId,transactionName"));
+    assertEquals("1,\"Market, bakery\",\"said \"\"hi\"\"\",10.50,EXPENSE,2,Food,2025-03-10T12:00", lines[1]);
+  }
+
+  @Test
+  void export_shouldCloseTheDatabaseStream() throws IOException {
+    AtomicBoolean closed = new AtomicBoolean(false);
+    when(transactionRepository.streamExportByAccountId(1)).thenReturn(Stream.<TransactionExportDTO>empty()
+        .onClose(() -> closed.set(true)));
+
+    String output = export(ExportFormat.NDJSON);
+
+    assertEquals("", output);
+    assertTrue(closed.get());
+  }
+
+  private String export(ExportFormat format) throws IOException {
+    ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+    transactionExportService.export(1, format, outputStream);
+    return outputStream.toString(StandardCharsets.UTF_8);
+  }
+
+  private TransactionExportDTO row(Integer id, String name, String description, TransactionType type) {
+    return new TransactionExportDTO(id, name, description, new BigDecimal("10.50"), type, 2, "Food",
+        LocalDateTime.of(2025, 3, 10, 12, 0));
+  }
+}
@@ -0,0 +1,204 @@
+package fun.trackmoney.service;
+
+import fun.trackmoney.dto.transaction.TransactionImportResultDTO;
+import fun.trackmoney.entity.CategoryEntity;
+import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.entity.UserEntity;
+import fun.trackmoney.enums.ImportFormat;
+import fun.trackmoney.exception.AccountNotFoundException;
+import fun.trackmoney.infra.importer.CsvTransactionParser;
+import fun.trackmoney.infra.importer.OfxTransactionParser;
+import fun.trackmoney.infra.redis.MetricsCacheService;
+import fun.trackmoney.repository.TransactionBatchRepository;
+import fun.trackmoney.testutils.CategoryEntityFactory;
+import fun.trackmoney.testutils.UserEntityFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TransactionImportServiceTest {
+
+  private CategoryService categoryService;
+  private AccountService accountService;
+  private TransactionBatchRepository transactionBatchRepository;
+  private AccountMonthSummaryService accountMonthSummaryService;
+  private MetricsCacheService metricsCacheService;
+  private TransactionImportService transactionImportService;
+  private UserEntity user;
+
+  @BeforeEach
+  void setUp() {
+    categoryService = mock(CategoryService.class);
+    accountService = mock(AccountService.class);
+    transactionBatchRepository = mock(TransactionBatchRepository.class);
+    accountMonthSummaryService = mock(AccountMonthSummaryService.class);
+    metricsCacheService = mock(MetricsCacheService.class);
+    transactionImportService = new TransactionImportService(
+        List.of(new CsvTransactionParser(), new OfxTransactionParser()),
+        categoryService, accountService, transactionBatchRepository, accountMonthSummaryService,
+        metricsCacheService);
+    user = UserEntityFactory.defaultUser();
+
+    CategoryEntity food = CategoryEntityFactory.defaultCategory();
+    CategoryEntity transport = CategoryEntityFactory.transportCategory();
+    when(categoryService.findAllEntitiesById()).thenReturn(Map.of(1, food, 2, transport));
+  }
+
+  @Test
+  void importTransactions_shouldInsertValidRowsAndApplyOneNetBalanceChange() throws IOException {
+    List<TransactionEntity> inserted = captureInserts();
+    String csv = """
+        transactionName,categoryId,transactionType,amount,transactionDate
+        Salary,1,INCOME,3000.00,2025-03-05
+        Market,1,EXPENSE,250.50,2025-03-06
+        Bus,2,EXPENSE,49.50,2025-03-07
+        """;
+
+    TransactionImportResultDTO result = importCsv(csv, null, false);
+
+    assertEquals(3, result.totalRows());
+    assertEquals(3, result.importedRows());
+    assertEquals(0, result.rejectedRows());
+    assertEquals(new BigDecimal("2700.00"), result.balanceChange());
+    assertEquals(3, inserted.size());
+    assertEquals(user.getAccount(), inserted.get(0).getAccount());
+    assertEquals(2, inserted.get(2).getCategory().getCategoryId());
+    verify(accountService, times(1))
+        .updateAccountBalance(new BigDecimal("2700.00"), user.getAccount().getAccountId(), true);
+    verify(accountService).lockAccount(user.getAccount().getAccountId());
+    verify(accountMonthSummaryService, times(1)).recordAll(any());
+    verify(metricsCacheService).invalidate(user.getAccount().getAccountId());
+    verify(categoryService, times(1)).findAllEntitiesById();
+  }
+
+  @Test
+  void importTransactions_shouldReportRejectedRowsWithLineNumbers() throws IOException {
+    captureInserts();
+    String csv = """
+        transactionName,categoryId,transactionType,amount,transactionDate
+        Unknown category,99,EXPENSE,10,2025-03-05
+        ,1,EXPENSE,10,2025-03-05
+        Zero,1,EXPENSE,0,2025-03-05
+        No category,,EXPENSE,10,2025-03-05
+        Market,1,EXPENSE,10,2025-03-05
+        """;
+
+    TransactionImportResultDTO result = importCsv(csv, null, false);
+
+    assertEquals(5, result.totalRows());
+    assertEquals(1, result.importedRows());
+    assertEquals(4, result.rejectedRows());
+    assertEquals(List.of(2, 3, 4, 5), result.errors().stream().map(e -> e.line()).toList());
+    assertEquals("Category not found.", result.errors().get(0).message());
+    assertEquals("transactionName", result.errors().get(1).field());
+    assertEquals("amount", result.errors().get(2).field());
+    assertEquals("Category is required.", result.errors().get(3).message());
+    verify(accountService).updateAccountBalance(new BigDecimal("10"), user.getAccount().getAccountId(), false);
+  }
+
+  @Test
+  void importTransactions_shouldUseDefaultCategoryForRowsWithoutOne() throws IOException {
+    List<TransactionEntity> inserted = captureInserts();
+    String ofx = "<STMTTRN><DTPOSTED>20250310<TRNAMT>-45.90<NAME>Bakery</STMTTRN>";
+
+    TransactionImportResultDTO result = transactionImportService.importTransactions(
+        user, stream(ofx), ImportFormat.OFX, 2, false);
+
+    assertEquals(1, result.importedRows());
+    assertEquals(2, inserted.get(0).getCategory().getCategoryId());
+  }
+
+  @Test
+  void importTransactions_dryRunShouldValidateWithoutWriting() throws IOException {
+    String csv = """
+        transactionName,categoryId,transactionType,amount,transactionDate
+        Salary,1,INCOME,3000.00,2025-03-05
+        """;
+
+    TransactionImportResultDTO result = importCsv(csv, null, true);
+
+    assertTrue(result.dryRun());
+    assertEquals(1, result.importedRows());
+    assertEquals(new BigDecimal("3000.00"), result.balanceChange());
+    verifyNoInteractions(transactionBatchRepository, accountService, accountMonthSummaryService,
+        metricsCacheService);
+  }
+
+  @Test
+  void importTransactions_shouldFlushFullBatchesWhileReading() throws IOException {
+    List<Integer> batchSizes = new ArrayList<>();
+    doAnswer(invocation -> {
+      batchSizes.add(invocation.<List<TransactionEntity>>getArgument(0).size());
+      return null;
+    }).when(transactionBatchRepository).insertAll(any(), anyInt());
+
+    StringBuilder csv = new StringBuilder("transactionName,categoryId,transactionType,amount,transactionDate\n");
+    for (int i = 0; i < TransactionImportService.BATCH_SIZE + 5; i++) {
+      csv.append("Row ").append(i).append(",1,EXPENSE,1,2025-03-05\n");
+    }
+
+    TransactionImportResultDTO result = importCsv(csv.toString(), null, false);
+
+    assertEquals(TransactionImportService.BATCH_SIZE + 5, result.importedRows());
+    assertEquals(List.of(TransactionImportService.BATCH_SIZE, 5), batchSizes);
+    verify(accountService, times(1)).updateAccountBalance(
+        BigDecimal.valueOf(TransactionImportService.BATCH_SIZE + 5L), user.getAccount().getAccountId(), false);
+  }
+
+  @Test
+  void importTransactions_shouldSkipBalanceUpdateWhenNothingWasImported() throws IOException {
+    TransactionImportResultDTO result = importCsv("transactionName,amount,transactionDate\n", null, false);
+
+    assertEquals(0, result.totalRows());
+    verify(accountService, never()).updateAccountBalance(any(), any(), any());
+  }
+
+  @Test
+  void importTransactions_shouldFailWhenUserHasNoAccount() {
+    UserEntity withoutAccount = UserEntityFactory.customUser(UUID.randomUUID(), "name", "mail", "pass", true, null);
+
+    assertThrows(AccountNotFoundException.class, () -> transactionImportService.importTransactions(
+        withoutAccount, stream(""), ImportFormat.CSV, null, false));
+  }
+
+  private TransactionImportResultDTO importCsv(String csv, Integer categoryId, boolean dryRun) throws IOException {
+    return transactionImportService.importTransactions(user, stream(csv), ImportFormat.CSV, categoryId, dryRun);
+  }
+
+  private List<TransactionEntity> captureInserts() {
+    List<TransactionEntity> inserted = new ArrayList<>();
+    doAnswer(invocation -> {
+      inserted.addAll(invocation.getArgument(0));
+      return null;
+    }).when(transactionBatchRepository).insertAll(any(), eq(TransactionImportService.BATCH_SIZE));
+    return inserted;
+  }
+
+  private InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+  }
+}
@@ -13,16 +13,24 @@ import fun.trackmoney.testutils.TransactionResponseDTOFactory;
 import fun.trackmoney.testutils.TransactionUpdateDTOFactory;
 import fun.trackmoney.testutils.UserEntityFactory;
 import fun.trackmoney.dto.transaction.CreateTransactionDTO;
+import fun.trackmoney.dto.transaction.TransactionCursorPageDTO;
 import fun.trackmoney.dto.transaction.TransactionResponseDTO;
 import fun.trackmoney.dto.transaction.TransactionUpdateDTO;
+import fun.trackmoney.enums.CursorDirection;
+import fun.trackmoney.enums.TransactionType;
 import fun.trackmoney.enums.TransactionsError;
+import fun.trackmoney.dto.transaction.internal.TransactionCursor;
 import fun.trackmoney.dto.transaction.internal.TransactionFailure;
 import fun.trackmoney.dto.transaction.internal.TransactionResult;
 import fun.trackmoney.dto.transaction.internal.TransactionSuccess;
 import fun.trackmoney.entity.TransactionEntity;
+import fun.trackmoney.exception.InvalidCursorException;
 import fun.trackmoney.exception.TransactionNotFoundException;
+import fun.trackmoney.infra.redis.MetricsCacheService;
 import fun.trackmoney.mapper.TransactionMapper;
 import fun.trackmoney.repository.TransactionRepository;
+import fun.trackmoney.repository.projection.CategoryAmountProjection;
+import fun.trackmoney.repository.projection.MonthAggregateProjection;
 import fun.trackmoney.entity.UserEntity;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -36,6 +44,7 @@ import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.YearMonth;
 import java.util.*;
 
 import static org.assertj.core.api.AssertionsForInterfaceTypes.assertThat;
@@ -61,6 +70,12 @@ class TransactionServiceTest {
   @Mock
   private CategoryService categoryService;
 
+  @Mock
+  private AccountMonthSummaryService accountMonthSummaryService;
+
+  @Mock
+  private MetricsCacheService metricsCacheService;
+
 
   @Test
   void shouldReturnTransactionSuccessWhenTransactionIsCreatedSuccessfully() {
@@ -71,6 +86,7 @@ class TransactionServiceTest {
     TransactionEntity transaction = TransactionEntityFactory.defaultExpenseNow();
     TransactionResponseDTO responseDTO = TransactionResponseDTOFactory.defaultTransactionResponse();
 
+    when(accountService.findById(account.getAccountId())).thenReturn(account);
     when(categoryService.findEntityById(dto.categoryId())).thenReturn(category);
     when(transactionMapper.createTransactionToEntity(dto)).thenReturn(transaction);
     when(transactionRepository.save(transaction)).thenReturn(transaction);
@@ -84,6 +100,8 @@ class TransactionServiceTest {
     assertEquals("buy bread", transactionSuccess.response().description());
     verify(transactionRepository, times(1)).save(transaction);
     verify(categoryService, times(1)).findEntityById(dto.categoryId());
+    verify(accountMonthSummaryService, times(1)).record(transaction);
+    assertSame(account, transaction.getAccount());
   }
 
   @Test
@@ -105,6 +123,7 @@ class TransactionServiceTest {
     UserEntity currentUser = UserEntityFactory.defaultUser();
     CreateTransactionDTO dto = CreateTransactionDTOBuilder.defaultTransaction();
 
+    when(accountService.findById(currentUser.getAccount().getAccountId())).thenReturn(currentUser.getAccount());
     when(categoryService.findEntityById(dto.categoryId())).thenReturn(null);
 
     TransactionResult result = transactionService.createTransaction(dto, currentUser);
@@ -196,143 +215,133 @@ class TransactionServiceTest {
     assertEquals("buy bread", result.description());
   }
 
-
   @Test
-  void delete_shouldCallRepositoryDeleteById() {
+  void update_shouldApplyOldAndNewAmountsAsSingleBalanceDelta() {
     UserEntity currentUser = UserEntityFactory.defaultUser();
-    transactionService.delete(1, currentUser);
-    verify(transactionRepository).deleteByIdAndAccountId(1, currentUser.getAccount());
-  }
-
-  @Test
-  void shouldReturnAmountWhenMonthAndYearMatch() {
-    var user = UserEntityFactory.defaultUser();
-    var account = AccountEntityFactory.defaultAccount();
+    TransactionEntity entity = TransactionEntityFactory.defaultExpenseNow().setAmount(new BigDecimal("50.00"));
+    TransactionUpdateDTO dto = new TransactionUpdateDTO("Salary", "fixed", new BigDecimal("80.00"), 1,
+        TransactionType.INCOME, LocalDateTime.now());
 
-    var tr1 = TransactionEntityFactory.defaultIncomeNow();
-    var tr2 = TransactionEntityFactory.defaultIncomeNow();
-
-    when(transactionRepository.findAllByAccountId(account.getAccountId()))
-        .thenReturn(List.of(tr1, tr2));
-    when(accountService.findAccountDefaultByUserId(user.getUserId()))
-        .thenReturn(account);
+    when(transactionRepository.findByIdAndAccount(1, currentUser.getAccount())).thenReturn(Optional.of(entity));
+    when(transactionRepository.save(entity)).thenReturn(entity);
 
-    var result = transactionService.getIncome(user.getUserId());
+    transactionService.update(1, dto, currentUser);
 
-    assertEquals(BigDecimal.valueOf(5000.0), result);
-    verify(accountService).findAccountDefaultByUserId(user.getUserId());
-    verify(transactionRepository).findAllByAccountId(account.getAccountId());
+    verify(accountService).adjustBalance(currentUser.getAccount().getAccountId(), new BigDecimal("130.00"));
+    verify(accountService, never()).updateAccountBalance(any(), any(), any());
   }
 
   @Test
-  void shouldReturnZeroIncomeWhenMonthMatchesButYearDoesNot() {
-    var user = UserEntityFactory.defaultUser();
-    var account = AccountEntityFactory.defaultAccount();
-
-    var tr = TransactionEntityFactory.expenseCurrentMonthWrongYear(BigDecimal.valueOf(100), "Wrong year", 0);
+  void update_shouldNotTouchBalanceWhenAmountAndTypeAreUnchanged() {
+    UserEntity currentUser = UserEntityFactory.defaultUser();
+    TransactionEntity entity = TransactionEntityFactory.defaultExpenseNow().setAmount(new BigDecimal("199.99"));
+    TransactionUpdateDTO dto = TransactionUpdateDTOFactory.defaultUpdateTransaction();
 
-    when(transactionRepository.findAllByAccountId(account.getAccountId()))
-        .thenReturn(List.of(tr));
-    when(accountService.findAccountDefaultByUserId(user.getUserId()))
-        .thenReturn(account);
+    when(transactionRepository.findByIdAndAccount(1, currentUser.getAccount())).thenReturn(Optional.of(entity));
+    when(transactionRepository.save(entity)).thenReturn(entity);
 
-    var result = transactionService.getIncome(user.getUserId());
+    transactionService.update(1, dto, currentUser);
 
-    assertEquals(BigDecimal.ZERO, result);
+    verify(accountService, never()).adjustBalance(any(), any());
   }
 
   @Test
-  void shouldReturnZeroIncomeWhenMonthDoesNotMatchButYearMatches() {
-    var user = UserEntityFactory.defaultUser();
-    var account = AccountEntityFactory.defaultAccount();
-
-    var tr = TransactionEntityFactory.expenseWrongMonthCurrentYear(BigDecimal.valueOf(100), "Wrong month", 0);
+  void update_shouldLockAccountAndMoveSummaryWhenOnlyCategoryChanges() {
+    UserEntity currentUser = UserEntityFactory.defaultUser();
+    TransactionEntity entity = TransactionEntityFactory.defaultExpenseNow().setAmount(new BigDecimal("199.99"));
+    TransactionUpdateDTO dto = new TransactionUpdateDTO("Bus", "ticket", new BigDecimal("199.99"), 2,
+        TransactionType.EXPENSE, LocalDateTime.now());
 
-    when(transactionRepository.findAllByAccountId(account.getAccountId()))
-        .thenReturn(List.of(tr));
-    when(accountService.findAccountDefaultByUserId(user.getUserId()))
-        .thenReturn(account);
+    when(transactionRepository.findByIdAndAccount(1, currentUser.getAccount())).thenReturn(Optional.of(entity));
+    when(categoryService.findEntityById(2)).thenReturn(CategoryEntityFactory.transportCategory());
+    when(transactionRepository.save(entity)).thenReturn(entity);
 
-    var result = transactionService.getIncome(user.getUserId());
+    transactionService.update(1, dto, currentUser);
 
-    assertEquals(BigDecimal.ZERO, result);
+    InOrder order = inOrder(accountService, accountMonthSummaryService);
+    order.verify(accountService).lockAccount(currentUser.getAccount().getAccountId());
+    order.verify(accountMonthSummaryService).retract(entity);
+    order.verify(accountMonthSummaryService).record(entity);
+    verify(accountService, never()).adjustBalance(any(), any());
   }
 
   @Test
-  void shouldReturnZeroIncomeWhenMonthAndYearDoNotMatch() {
-    var user = UserEntityFactory.defaultUser();
-    var account = AccountEntityFactory.defaultAccount();
-
-    var tr = TransactionEntityFactory.expenseWrongMonthAndYear(BigDecimal.valueOf(100), "Wrong month and year", 0);
+  void delete_shouldRevertBalanceAndRetractFromSummary() {
+    UserEntity currentUser = UserEntityFactory.defaultUser();
+    TransactionEntity entity = TransactionEntityFactory.defaultExpenseNow();
+    when(transactionRepository.findByIdAndAccount(1, currentUser.getAccount())).thenReturn(Optional.of(entity));
 
-    when(transactionRepository.findAllByAccountId(account.getAccountId()))
-        .thenReturn(List.of(tr));
+    transactionService.delete(1, currentUser);
 
-    var result = transactionService.getExpense(user);
+    InOrder order = inOrder(accountService, accountMonthSummaryService);
+    order.verify(accountService).updateAccountBalance(entity.getAmount(), currentUser.getAccount().getAccountId(), true);
+    order.verify(accountMonthSummaryService).retract(entity);
+    verify(metricsCacheService).invalidate(currentUser.getAccount().getAccountId());
+  }
 
-    assertEquals(BigDecimal.ZERO, result);
+  @Test
+  void delete_shouldCallRepositoryDeleteById() {
+    UserEntity currentUser = UserEntityFactory.defaultUser();
+    transactionService.delete(1, currentUser);
+    verify(transactionRepository).deleteByIdAndAccountId(1, currentUser.getAccount());
   }
 
   @Test
-  void shouldReturnAmountIncomeWhenMonthAndYearMatch() {
+  void getIncome_shouldReadCurrentMonthFromSummary() {
     var user = UserEntityFactory.defaultUser();
     var account = AccountEntityFactory.defaultAccount();
 
-    var tr1 = TransactionEntityFactory.defaultExpenseNow();
-    var tr2 = TransactionEntityFactory.defaultExpenseNow();
+    when(accountService.findAccountDefaultByUserId(user.getUserId())).thenReturn(account);
+    when(accountMonthSummaryService.findMonth(account.getAccountId(), YearMonth.now()))
+        .thenReturn(Optional.of(monthTotals(new BigDecimal("5000.0"), new BigDecimal("200.0"))));
 
-    when(transactionRepository.findAllByAccountId(account.getAccountId()))
-        .thenReturn(List.of(tr1, tr2));
-
-    var result = transactionService.getExpense(user);
+    var result = transactionService.getIncome(user.getUserId());
 
-    assertEquals(BigDecimal.valueOf(200.0), result);
-    verify(transactionRepository).findAllByAccountId(account.getAccountId());
+    assertEquals(new BigDecimal("5000.0"), result);
+    verify(transactionRepository, never()).findAllByAccountId(any());
   }
 
   @Test
-  void shouldReturnZeroWhenMonthMatchesButYearDoesNot() {
+  void getIncome_shouldReturnZeroWhenMonthHasNoTransactions() {
     var user = UserEntityFactory.defaultUser();
     var account = AccountEntityFactory.defaultAccount();
 
-    var tr = TransactionEntityFactory.expenseCurrentMonthWrongYear(BigDecimal.valueOf(100), "Wrong year",1);
+    when(accountService.findAccountDefaultByUserId(user.getUserId())).thenReturn(account);
+    when(accountMonthSummaryService.findMonth(account.getAccountId(), YearMonth.now())).thenReturn(Optional.empty());
 
-    when(transactionRepository.findAllByAccountId(account.getAccountId()))
-        .thenReturn(List.of(tr));
-
-    var result = transactionService.getExpense(user);
-
-    assertEquals(BigDecimal.ZERO, result);
+    assertEquals(BigDecimal.ZERO, transactionService.getIncome(user.getUserId()));
   }
 
   @Test
-  void shouldReturnZeroWhenMonthDoesNotMatchButYearMatches() {
+  void getExpense_shouldReadCurrentMonthFromSummary() {
     var user = UserEntityFactory.defaultUser();
-    var account = AccountEntityFactory.defaultAccount();
-
-    var tr = TransactionEntityFactory.expenseWrongMonthCurrentYear(BigDecimal.valueOf(100), "Wrong month",1);
 
-    when(transactionRepository.findAllByAccountId(account.getAccountId()))
-        .thenReturn(List.of(tr));
+    when(accountMonthSummaryService.findMonth(user.getAccount().getAccountId(), YearMonth.now()))
+        .thenReturn(Optional.of(monthTotals(new BigDecimal("5000.0"), new BigDecimal("200.0"))));
 
     var result = transactionService.getExpense(user);
 
-    assertEquals(BigDecimal.ZERO, result);
+    assertEquals(new BigDecimal("200.0"), result);
+    verify(transactionRepository, never()).findAllByAccountId(any());
   }
 
   @Test
-  void shouldReturnZeroWhenMonthAndYearDoNotMatch() {
+  void getExpense_shouldReturnZeroWhenMonthHasNoTransactions() {
     var user = UserEntityFactory.defaultUser();
-    var account = AccountEntityFactory.defaultAccount();
 
-    var tr = TransactionEntityFactory.expenseWrongMonthAndYear(BigDecimal.valueOf(100), "Wrong month and year",1);
+    when(accountMonthSummaryService.findMonth(user.getAccount().getAccountId(), YearMonth.now()))
+        .thenReturn(Optional.empty());
 
-    when(transactionRepository.findAllByAccountId(account.getAccountId()))
-        .thenReturn(List.of(tr));
-
-    var result = transactionService.getExpense(user);
+    assertEquals(BigDecimal.ZERO, transactionService.getExpense(user));
+  }
 
-    assertEquals(BigDecimal.ZERO, result);
+  private static MonthAggregateProjection monthTotals(BigDecimal income, BigDecimal expense) {
+    return new MonthAggregateProjection() {
+      @Override public int getMonth() { return YearMonth.now().getMonthValue(); }
+      @Override public Integer getYear() { return YearMonth.now().getYear(); }
+      @Override public BigDecimal getIncome() { return income; }
+      @Override public BigDecimal getExpense() { return expense; }
+    };
   }
 
   @Test
@@ -416,6 +425,100 @@ class TransactionServiceTest {
         user.getAccount().getAccountId(), "Food", 1, expectedStart, expectedEnd, pageable);
   }
 
+  @Test
+  void cursorPagination_firstPageShouldReturnNextCursorWhenMoreRowsExist() {
+    UserEntity user = UserEntityFactory.defaultUser();
+    TransactionEntity newest = transactionAt(30, LocalDateTime.of(2025, 3, 10, 12, 0));
+    TransactionEntity older = transactionAt(20, LocalDateTime.of(2025, 3, 5, 9, 0));
+    TransactionEntity extra = transactionAt(10, LocalDateTime.of(2025, 3, 1, 8, 0));
+
+    when(transactionRepository.findFirstPageByFilters(
+        user.getAccount().getAccountId(), "", null, null, null, PageRequest.ofSize(3)))
+        .thenReturn(List.of(newest, older, extra));
+    when(transactionMapper.toResponseDTOList(List.of(newest, older))).thenReturn(List.of());
+
+    TransactionCursorPageDTO result = transactionService.getCursorPaginatedTransactions(
+        user, null, CursorDirection.NEXT, 2, null, null, null, null);
+
+    assertEquals(2, result.size());
+    assertNull(result.prevCursor());
+    assertEquals(TransactionCursor.of(older), TransactionCursor.decode(result.nextCursor()));
+    verify(transactionRepository, never()).findAllByFilters(any(), any(), any(), any(), any(), any());
+  }
+
+  @Test
+  void cursorPagination_shouldSeekAfterCursorAndReturnPrevCursor() {
+    UserEntity user = UserEntityFactory.defaultUser();
+    LocalDateTime cursorDate = LocalDateTime.of(2025, 3, 5, 9, 0);
+    String cursor = new TransactionCursor(cursorDate, 20).encode();
+    TransactionEntity row = transactionAt(10, LocalDateTime.of(2025, 3, 1, 8, 0));
+
+    when(transactionRepository.findPageAfterCursor(
+        user.getAccount().getAccountId(), cursorDate, 20, "Food", 1, null, null, PageRequest.ofSize(3)))
+        .thenReturn(List.of(row));
+    when(transactionMapper.toResponseDTOList(List.of(row))).thenReturn(List.of());
+
+    TransactionCursorPageDTO result = transactionService.getCursorPaginatedTransactions(
+        user, cursor, CursorDirection.NEXT, 2, "Food", 1, null, null);
+
+    assertNull(result.nextCursor());
+    assertEquals(TransactionCursor.of(row), TransactionCursor.decode(result.prevCursor()));
+  }
+
+  @Test
+  void cursorPagination_prevDirectionShouldRestoreDescendingOrder() {
+    UserEntity user = UserEntityFactory.defaultUser();
+    LocalDateTime cursorDate = LocalDateTime.of(2025, 3, 1, 8, 0);
+    String cursor = new TransactionCursor(cursorDate, 10).encode();
+    TransactionEntity closest = transactionAt(20, LocalDateTime.of(2025, 3, 5, 9, 0));
+    TransactionEntity newer = transactionAt(30, LocalDateTime.of(2025, 3, 10, 12, 0));
+    TransactionEntity newest = transactionAt(40, LocalDateTime.of(2025, 3, 15, 12, 0));
+
+    when(transactionRepository.findPageBeforeCursor(
+        user.getAccount().getAccountId(), cursorDate, 10, "", null, null, null, PageRequest.ofSize(3)))
+        .thenReturn(List.of(closest, newer, newest));
+    when(transactionMapper.toResponseDTOList(List.of(newer, closest))).thenReturn(List.of());
+
+    TransactionCursorPageDTO result = transactionService.getCursorPaginatedTransactions(
+        user, cursor, CursorDirection.PREV, 2, null, null, null, null);
+
+    assertEquals(TransactionCursor.of(closest), TransactionCursor.decode(result.nextCursor()));
+    assertEquals(TransactionCursor.of(newer), TransactionCursor.decode(result.prevCursor()));
+  }
+
+  @Test
+  void cursorPagination_shouldCapPageSize() {
+    UserEntity user = UserEntityFactory.defaultUser();
+
+    when(transactionRepository.findFirstPageByFilters(
+        user.getAccount().getAccountId(), "", null, null, null, PageRequest.ofSize(101)))
+        .thenReturn(List.of());
+    when(transactionMapper.toResponseDTOList(List.of())).thenReturn(List.of());
+
+    TransactionCursorPageDTO result = transactionService.getCursorPaginatedTransactions(
+        user, null, CursorDirection.NEXT, 5000, null, null, null, null);
+
+    assertEquals(100, result.size());
+    assertNull(result.nextCursor());
+    assertNull(result.prevCursor());
+  }
+
+  @Test
+  void cursorPagination_shouldRejectMalformedCursor() {
+    UserEntity user = UserEntityFactory.defaultUser();
+
+    assertThrows(InvalidCursorException.class, () -> transactionService.getCursorPaginatedTransactions(
+        user, "not-a-cursor", CursorDirection.NEXT, 20, null, null, null, null));
+    verifyNoInteractions(transactionRepository);
+  }
+
+  private TransactionEntity transactionAt(Integer id, LocalDateTime date) {
+    TransactionEntity transaction = TransactionEntityFactory.defaultExpenseNow();
+    transaction.setTransactionId(id);
+    transaction.setTransactionDate(date);
+    return transaction;
+  }
+
   @Test
   void getLast5TransactionsPerCategory_shouldReturnGroupedMapOfTransactions() {
     Integer accountId = 1;
@@ -470,46 +573,37 @@ class TransactionServiceTest {
   }
 
   @Test
-  void getCurrentMonthTransactions_shouldOnlyReturnTransactionsInCurrentMonth() {
-    LocalDateTime startOfMonth = LocalDate.now().withDayOfMonth(1).atStartOfDay();
-    LocalDateTime endOfNow = LocalDateTime.now();
-
-    TransactionEntity currentMonthTransaction = TransactionEntityFactory.defaultExpenseNow();
-
-    List<TransactionEntity> expectedResult = List.of(currentMonthTransaction);
-
-    ArgumentCaptor<LocalDateTime> startDateCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
-    ArgumentCaptor<LocalDateTime> endDateCaptor = ArgumentCaptor.forClass(LocalDateTime.class);
-
-    when(transactionRepository.findAllBetweenDates(startDateCaptor.capture(), endDateCaptor.capture()))
-        .thenReturn(expectedResult);
-
-    List<TransactionEntity> result = transactionService.getCurrentMonthTransactions();
-
-    assertNotNull(result);
-    assertEquals(1, result.size());
-    assertEquals(currentMonthTransaction.getTransactionId(), result.get(0).getTransactionId());
-
-    verify(transactionRepository, times(1)).findAllBetweenDates(any(LocalDateTime.class), any(LocalDateTime.class));
-
-    assertEquals(startOfMonth.getYear(), startDateCaptor.getValue().getYear());
-    assertEquals(startOfMonth.getMonth(), startDateCaptor.getValue().getMonth());
-    assertEquals(1, startDateCaptor.getValue().getDayOfMonth());
-    assertEquals(0, startDateCaptor.getValue().getHour());
+  void getExpensesByCategory_shouldMapGroupedSumsForTheWholeMonth() {
+    Integer accountId = 1;
+    YearMonth month = YearMonth.of(2025, 2);
+    CategoryAmountProjection food = new CategoryAmountProjection() {
+      public Integer getCategoryId() { return 1; }
+      public BigDecimal getAmount() { return new BigDecimal("120.45"); }
+    };
+    CategoryAmountProjection transport = new CategoryAmountProjection() {
+      public Integer getCategoryId() { return 2; }
+      public BigDecimal getAmount() { return new BigDecimal("0.99"); }
+    };
+
+    when(transactionRepository.sumExpensesGroupedByCategory(accountId,
+        LocalDateTime.of(2025, 2, 1, 0, 0), LocalDateTime.of(2025, 2, 28, 23, 59, 59)))
+        .thenReturn(List.of(food, transport));
+
+    Map<Integer, BigDecimal> result = transactionService.getExpensesByCategory(accountId, month);
 
-    long timeDifferenceSeconds = Math.abs(java.time.Duration.between(endOfNow, endDateCaptor.getValue()).getSeconds());
-    assertTrue(timeDifferenceSeconds < 5, "A data final deve estar dentro de 5 segundos do momento da execução.");
+    assertEquals(2, result.size());
+    assertEquals(new BigDecimal("120.45"), result.get(1));
+    assertEquals(new BigDecimal("0.99"), result.get(2));
   }
 
   @Test
-  void getCurrentMonthTransactions_shouldReturnEmptyListWhenNoTransactionsFound() {
-    when(transactionRepository.findAllBetweenDates(any(LocalDateTime.class), any(LocalDateTime.class)))
+  void getExpensesByCategory_shouldReturnEmptyMapWhenNoExpenses() {
+    when(transactionRepository.sumExpensesGroupedByCategory(eq(1), any(LocalDateTime.class), any(LocalDateTime.class)))
         .thenReturn(List.of());
 
-    List<TransactionEntity> result = transactionService.getCurrentMonthTransactions();
+    Map<Integer, BigDecimal> result = transactionService.getExpensesByCategory(1, YearMonth.now());
 
     assertNotNull(result);
     assertTrue(result.isEmpty());
-    verify(transactionRepository, times(1)).findAllBetweenDates(any(), any());
   }
 }
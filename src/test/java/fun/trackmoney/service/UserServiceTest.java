@@ -9,6 +9,9 @@ import fun.trackmoney.dto.auth.internal.register.UserRegisterSuccess;
 import fun.trackmoney.dto.user.UserRequestDTO;
 import fun.trackmoney.dto.user.UserResponseDTO;
 import fun.trackmoney.entity.UserEntity;
+import fun.trackmoney.infra.auth.AuthenticatedUser;
+import fun.trackmoney.infra.auth.PrincipalCache;
+import fun.trackmoney.infra.jwt.TokenRevocationService;
 import fun.trackmoney.mapper.UserMapper;
 import fun.trackmoney.repository.UserRepository;
 
@@ -17,7 +20,6 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -35,7 +37,10 @@ class UserServiceTest {
   private UserMapper userMapper;
 
   @Mock
-  private PasswordEncoder passwordEncoder;
+  private PrincipalCache principalCache;
+
+  @Mock
+  private TokenRevocationService tokenRevocationService;
 
   @InjectMocks
   private UserService userService;
@@ -51,13 +56,13 @@ class UserServiceTest {
     UserRegisterSuccess expectedResponse = new UserRegisterSuccess(mockDTO);
 
     when(userMapper.userRequestDTOToEntity(requestDTO)).thenReturn(entityToSave);
-    when(passwordEncoder.encode("StrongPassword123#")).thenReturn("encodedPass");
     when(userRepository.save(entityToSave)).thenReturn(savedEntityReturn);
     when(userMapper.userEntityToUserResponseDto(savedEntityReturn)).thenReturn(mockDTO);
 
-    UserRegisterResult actualResponse = userService.register(requestDTO);
+    UserRegisterResult actualResponse = userService.register(requestDTO, "encodedPass");
 
     assertNotNull(actualResponse);
+    assertEquals("encodedPass", entityToSave.getPassword());
     assertInstanceOf(UserRegisterSuccess.class, expectedResponse);
     verify(userRepository, times(1)).save(entityToSave);
   }
@@ -71,7 +76,7 @@ class UserServiceTest {
     UserRegisterFailure reponseExpected = new UserRegisterFailure(AuthError.EMAIL_ALREADY_EXISTS);
     when(userService.findUserByEmail(requestDTO.email())).thenReturn(Optional.of(existingEntity));
 
-    UserRegisterResult result = userService.register(requestDTO);
+    UserRegisterResult result = userService.register(requestDTO, "encodedPass");
 
     assertInstanceOf(UserRegisterFailure.class, result);
     UserRegisterFailure resultCast = (UserRegisterFailure)result;
@@ -145,6 +150,7 @@ class UserServiceTest {
     assertTrue(response);
     assertTrue(user.isActive());
     verify(userRepository, times(1)).save(user);
+    verify(principalCache).invalidate(mockEmail);
   }
 
   @Test
@@ -159,4 +165,36 @@ class UserServiceTest {
     verify(userRepository, times(0)).save(any());
   }
 
+  @Test
+  void updateShouldEvictTheCachedPrincipal() {
+    UserEntity user = new UserEntity(UUID.randomUUID(), "test", "mock@email.com", "newHash", true);
+
+    userService.update(user);
+
+    verify(userRepository).save(user);
+    verify(principalCache).invalidate("mock@email.com");
+  }
+
+  @Test
+  void updateShouldRejectTheRequestPrincipal() {
+    UserEntity principal = new AuthenticatedUser(UUID.randomUUID(), "test", "mock@email.com", true, 7, "Main")
+        .toUserEntity();
+
+    assertThrows(IllegalArgumentException.class, () -> userService.update(principal));
+
+    verify(userRepository, never()).save(any());
+    verify(principalCache, never()).invalidate(any());
+  }
+
+  @Test
+  void deleteUserShouldEvictTheCachedPrincipalAndRevokeTheTokens() {
+    UserEntity user = new UserEntity(UUID.randomUUID(), "test", "mock@email.com", "hash", true);
+    when(userRepository.findByEmail("mock@email.com")).thenReturn(Optional.of(user));
+
+    assertTrue(userService.deleteUser(user));
+
+    assertTrue(user.isDeleted());
+    verify(principalCache).invalidate("mock@email.com");
+    verify(tokenRevocationService).revokeAllForUser("mock@email.com");
+  }
 }